@@ -0,0 +1,78 @@
+package healthyBites.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import healthyBites.controller.SwapImpactAnalysis;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.Nutrition;
+
+/**
+ * The swap analyses behind the controller's cumulative, average and per-meal views, over
+ * the {@link BenchmarkFixture}'s year of meals. The swapped item is a food of the small
+ * group, which is in about one meal in twelve.
+ * @author HealthyBites Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class AnalysisBenchmark {
+
+    private SwapImpactAnalysis analysis;
+    private FoodItem itemToSwap, replacement;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixture fixture = new BenchmarkFixture(42);
+        analysis = new SwapImpactAnalysis(fixture.getModel());
+        itemToSwap = fixture.getMeals().get(0).getFoodItems().get(0);
+        replacement = new FoodItem(fixture.getSmallGroupFood(1), 1, itemToSwap.getUnit());
+    }
+
+    private SwapImpactAnalysis.Result analyze() {
+        return analysis.analyze(BenchmarkFixture.EMAIL, null, null, itemToSwap, replacement, 1.5);
+    }
+
+    @Benchmark
+    public Map<String, Double> cumulative() {
+        SwapImpactAnalysis.Result result = analyze();
+        result.getOriginalCFGServings();
+        return result.getModifiedTotals();
+    }
+
+    @Benchmark
+    public Map<String, Double> average() {
+        SwapImpactAnalysis.Result result = analyze();
+        result.getOriginalAverages();
+        result.getOriginalCFGServingsAverage();
+        result.getModifiedCFGServingsAverage();
+        return result.getModifiedAverages();
+    }
+
+    @Benchmark
+    public double perMeal() {
+        SwapImpactAnalysis.Result result = analyze();
+        double energy = 0;
+        for (Meal meal : result.getChangedMeals()) {
+            Nutrition modified = result.getModifiedMealNutritions().get(meal);
+            energy += modified.getNutrientValue("ENERGY (KILOCALORIES)")
+                    - result.getOriginalMealNutritions().get(meal).getNutrientValue("ENERGY (KILOCALORIES)");
+        }
+        return energy;
+    }
+}
@@ -0,0 +1,136 @@
+package healthyBites.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import healthyBites.model.ConcreteModel;
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.UserProfile;
+import healthyBites.model.storage.InMemoryStorage;
+
+/**
+ * A model on the embedded backend with synthetic reference data the size of the CNF and a
+ * year of meals for one user, so the benchmarks run without MySQL or the CNF files.
+ * <p>
+ * The foods fall in a small food group of grain products ({@link #SMALL_GROUP}) and a large
+ * one of dairy products ({@link #LARGE_GROUP}), to compare swap searches over few and many
+ * candidates, plus vegetables, meats and fats so that every CFG food group is served.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class BenchmarkFixture {
+
+    public static final String EMAIL = "benchmark@healthybites.test";
+    public static final int SMALL_GROUP = 18, LARGE_GROUP = 1;
+    public static final int DAYS = 365, FIRST_DAY = 20000;
+
+    private static final String[] MEAL_TYPES = { "Breakfast", "Lunch", "Dinner" };
+    private static final int NUTRIENTS = 152; // nutrients in the CNF
+    private static final int GRAMS_100 = 1, GRAMS_30 = 2, ML_250 = 3;
+
+    private final ConcreteModel model;
+    private final List<String> smallGroupFoods = new ArrayList<>();
+    private final List<String> largeGroupFoods = new ArrayList<>();
+    private final List<Meal> meals = new ArrayList<>();
+
+    /**
+     * @param seed the seed of the synthetic data
+     */
+    public BenchmarkFixture(long seed) {
+        Random random = new Random(seed);
+        InMemoryStorage storage = new InMemoryStorage();
+
+        int nutrientId = 200;
+        for (String nutrient : ConcreteModel.importantNutrients)
+            storage.addNutrient(nutrientId++, nutrient, nutrient, "g");
+        while (nutrientId < 200 + NUTRIENTS) {
+            storage.addNutrient(nutrientId, "NUTRIENT " + nutrientId, "NUTRIMENT " + nutrientId, "mg");
+            nutrientId++;
+        }
+        storage.addMeasure(GRAMS_100, "100g", "100g");
+        storage.addMeasure(GRAMS_30, "30g", "30g");
+        storage.addMeasure(ML_250, "250ml", "250ml");
+
+        // food group, number of foods, names, measures
+        Object[][] groups = {
+            { SMALL_GROUP, 12, smallGroupFoods, new int[] { GRAMS_30, GRAMS_100 } },
+            { LARGE_GROUP, 1200, largeGroupFoods, new int[] { ML_250 } },
+            { 11, 800, new ArrayList<String>(), new int[] { ML_250 } },
+            { 5, 400, new ArrayList<String>(), new int[] { GRAMS_100, ML_250 } },
+            { 4, 200, new ArrayList<String>(), new int[] { GRAMS_30, ML_250 } },
+        };
+        List<String> otherFoods = new ArrayList<>();
+        int foodId = 1;
+        for (Object[] group : groups) {
+            int groupId = (int) group[0];
+            @SuppressWarnings("unchecked")
+            List<String> names = (List<String>) group[2];
+            for (int i = 0; i < (int) group[1]; i++, foodId++) {
+                String name = "Food " + foodId + " of group " + groupId;
+                storage.addFood(foodId, groupId, name, "Aliment " + foodId);
+                for (int n = 200; n < 200 + NUTRIENTS; n++) {
+                    if (n < 200 + ConcreteModel.importantNutrients.length || random.nextInt(3) > 0)
+                        storage.addNutrientAmount(foodId, n, 0.1 + random.nextDouble() * 100);
+                }
+                for (int measure : (int[]) group[3])
+                    storage.addConversionFactor(foodId, measure, 0.3 + random.nextDouble() * 2);
+                names.add(name);
+                if (groupId != SMALL_GROUP && groupId != LARGE_GROUP)
+                    otherFoods.add(name);
+            }
+        }
+        model = ConcreteModel.withStorage(storage);
+
+        storage.insertProfile(new UserProfile("Benchmark", "Female", EMAIL, "metric", EpochDays.toDate(7000), 165, 60));
+        for (int day = FIRST_DAY; day < FIRST_DAY + DAYS; day++) {
+            for (String type : MEAL_TYPES) {
+                List<FoodItem> items = new ArrayList<>();
+                items.add(foodItem(pick(random, smallGroupFoods), random));
+                items.add(foodItem(pick(random, largeGroupFoods), random));
+                for (int i = random.nextInt(3); i > 0; i--)
+                    items.add(foodItem(pick(random, otherFoods), random));
+                Meal meal = new Meal(EpochDays.toDate(day), items, type);
+                storage.insertMeal(EMAIL, meal);
+                meals.add(meal);
+            }
+        }
+    }
+
+    private FoodItem foodItem(String name, Random random) {
+        List<String> units = model.getAvailableUnits(name);
+        return new FoodItem(name, 1 + random.nextInt(3), units.get(random.nextInt(units.size())));
+    }
+
+    private static String pick(Random random, List<String> names) {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    /** @return the model on the synthetic data */
+    public ConcreteModel getModel() {
+        return model;
+    }
+
+    /** @return the meals of the year, in the order they were logged */
+    public List<Meal> getMeals() {
+        return meals;
+    }
+
+    /**
+     * @param index which food
+     * @return a food of the small group
+     */
+    public String getSmallGroupFood(int index) {
+        return smallGroupFoods.get(index % smallGroupFoods.size());
+    }
+
+    /**
+     * @param index which food
+     * @return a food of the large group
+     */
+    public String getLargeGroupFood(int index) {
+        return largeGroupFoods.get(index % largeGroupFoods.size());
+    }
+}
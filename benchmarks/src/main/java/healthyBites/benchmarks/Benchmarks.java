@@ -0,0 +1,32 @@
+package healthyBites.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the model and analysis benchmarks with the GC profiler, which adds the allocation
+ * rate and the bytes allocated per operation ({@code gc.alloc.rate.norm}) to the throughput
+ * and latency percentiles. An argument narrows the run to the benchmarks matching it, e.g.
+ * {@code java -cp benchmarks.jar healthyBites.benchmarks.Benchmarks alternatives}.
+ * @author HealthyBites Team
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0) {
+            options.include(ModelBenchmark.class.getSimpleName());
+            options.include(AnalysisBenchmark.class.getSimpleName());
+        } else {
+            for (String pattern : args)
+                options.include(pattern);
+        }
+        options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package healthyBites.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import healthyBites.model.FuzzyFoodMatcher;
+
+/**
+ * Searches a set of food names the size of the CNF, built from a small vocabulary so that many
+ * names share trigrams with the query, for a misspelled query. A search runs on every keystroke
+ * of the food name box, so it should stay well under 20 ms.
+ * @author HealthyBites Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FoodSearchBenchmark {
+
+    private static final String[] WORDS = { "beef", "chicken", "cheese", "cheddar", "milk", "bread", "wheat", "apple", "juice",
+        "raw", "cooked", "roasted", "canned", "frozen", "boiled", "salted", "lean", "ground", "whole", "skim" };
+    private static final int NAMES = 6000;
+
+    private FuzzyFoodMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < NAMES; i++) {
+            StringBuilder name = new StringBuilder();
+            int wordCount = 3 + random.nextInt(4);
+            for (int w = 0; w < wordCount; w++)
+                name.append(WORDS[random.nextInt(WORDS.length)]).append(", ");
+            names.add(name.append(i).toString());
+        }
+        matcher = new FuzzyFoodMatcher(names, null);
+    }
+
+    @Benchmark
+    public List<String> misspelledQuery() {
+        return matcher.search("chiken rosted", 20);
+    }
+}
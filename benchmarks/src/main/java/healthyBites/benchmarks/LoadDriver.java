@@ -0,0 +1,351 @@
+package healthyBites.benchmarks;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import healthyBites.controller.SwapImpactAnalysis;
+import healthyBites.model.ConcreteModel;
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Goal;
+import healthyBites.model.Meal;
+import healthyBites.model.Model;
+import healthyBites.model.storage.JdbcStorage;
+import io.github.cdimascio.dotenv.Dotenv;
+
+/**
+ * Replays a mix of user operations against a model at a fixed rate and reports their latency
+ * percentiles, to size the hardware behind a number of users.
+ * <p>
+ * The users are those of a {@link SyntheticDataGenerator}, with meal history up to a last day.
+ * Operations are started on schedule whether or not earlier ones have finished, and their
+ * latency is measured from the time they were scheduled, so time spent queued behind a slow
+ * operation is counted rather than hidden. The sequence of operations is fixed by the seed.
+ * Each thread runs its operations on a model of its own, so a backend that is not safe to
+ * share, such as a {@link JdbcStorage} and its connection, is never used by two threads.
+ * </p>
+ * <p>
+ * Run {@link #main} to load a model, e.g.
+ * {@code java -cp benchmarks.jar healthyBites.benchmarks.LoadDriver storage=mysql users=5000 rate=200 seconds=120 mix=log:40,history:40,swaps:15,analysis:5}.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class LoadDriver {
+
+    /**
+     * The operations of the workload.
+     */
+    public enum Operation {
+        /** logs a meal on a day after the history */
+        LOG_MEAL("log"),
+        /** loads the two latest pages of the meal history with the nutrition of each meal */
+        BROWSE_HISTORY("history"),
+        /** searches swaps for an item of a recent meal */
+        FIND_SWAPS("swaps"),
+        /** analyzes a swap over the last 90 days */
+        ANALYZE_SWAP("analysis");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @param key the short name of an operation, as used in a mix
+         * @return the operation
+         */
+        public static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equalsIgnoreCase(key))
+                    return operation;
+            }
+            throw new IllegalArgumentException("Unknown operation " + key);
+        }
+    }
+
+    private static final String[] MEAL_TYPES = { "Breakfast", "Lunch", "Dinner", "Snack" };
+    private static final int PAGE_SIZE = 20, RECENT_MEALS = 10, ANALYSIS_DAYS = 90;
+
+    // the model a thread runs its operations on, with the swap analysis over it
+    private record Worker(Model model, SwapImpactAnalysis analysis) {}
+
+    private final ThreadLocal<Worker> workers;
+    private final SyntheticDataGenerator generator;
+    private final int users;
+    private final int lastDay;
+
+    /**
+     * @param models supplies the model of each thread running operations, called once per thread;
+     *               it may return the same model every time if that model is safe to share
+     * @param generator the generator of the users' data
+     * @param users the number of users with data in the model
+     * @param lastDay the last day of the users' meal history, in days since 1970-01-01
+     */
+    public LoadDriver(Supplier<Model> models, SyntheticDataGenerator generator, int users, int lastDay) {
+        this.workers = ThreadLocal.withInitial(() -> {
+            Model model = models.get();
+            return new Worker(model, new SwapImpactAnalysis(model));
+        });
+        this.generator = generator;
+        this.users = users;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * Runs the workload and waits for every operation to finish.
+     *
+     * @param mix the relative weight of each operation
+     * @param rate the operations to start per second
+     * @param seconds how long to start operations for
+     * @param threads the number of threads running the operations
+     * @param seed the seed of the sequence of operations
+     * @return the latencies of the operations
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Report run(Map<Operation, Integer> mix, double rate, int seconds, int threads, long seed) throws InterruptedException {
+        Operation[] operations = mix.keySet().toArray(new Operation[0]);
+        int[] weights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++)
+            weights[i] = totalWeight += mix.get(operations[i]);
+        if (totalWeight <= 0 || rate <= 0)
+            throw new IllegalArgumentException("The mix and the rate must be positive");
+
+        Report report = new Report();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Random random = new Random(seed);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long count = (long) (rate * seconds);
+        long start = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            int pick = random.nextInt(totalWeight), o = 0;
+            while (weights[o] <= pick)
+                o++;
+            Operation operation = operations[o];
+            int user = random.nextInt(users);
+            long operationSeed = random.nextLong();
+
+            long scheduled = start + i * interval;
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime())
+                LockSupport.parkNanos(wait);
+            pool.execute(() -> {
+                try {
+                    perform(operation, user, new Random(operationSeed));
+                    report.record(operation, System.nanoTime() - scheduled);
+                } catch (RuntimeException ex) {
+                    report.error(operation);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void perform(Operation operation, int user, Random random) {
+        String email = SyntheticDataGenerator.emailOf(user);
+        Model model = workers.get().model();
+        switch (operation) {
+            case LOG_MEAL -> {
+                int day = lastDay + 1 + random.nextInt(30);
+                String type = MEAL_TYPES[random.nextInt(MEAL_TYPES.length)];
+                if (!"Snack".equals(type) && model.mealExists(email, EpochDays.toDate(day), type))
+                    type = "Snack"; // as the controller allows one breakfast, lunch and dinner a day
+                model.addMeal(generator.meal(random, user, day, type), email);
+            }
+            case BROWSE_HISTORY -> {
+                List<Meal> page = model.getMealsPage(email, null, PAGE_SIZE);
+                for (Meal meal : page)
+                    model.getMealNutrtionalValue(meal);
+                if (page.size() == PAGE_SIZE)
+                    model.getMealsPage(email, page.get(PAGE_SIZE - 1), PAGE_SIZE);
+            }
+            case FIND_SWAPS -> {
+                Meal meal = recentMeal(model, email, random);
+                if (meal == null)
+                    return;
+                FoodItem item = meal.getFoodItems().get(random.nextInt(meal.getFoodItems().size()));
+                String nutrient = ConcreteModel.importantNutrients[random.nextInt(ConcreteModel.importantNutrients.length)];
+                model.getAlternativeFoodOptions(meal, item, List.of(new Goal(nutrient, random.nextBoolean(), 10)));
+            }
+            case ANALYZE_SWAP -> {
+                Meal meal = recentMeal(model, email, random);
+                if (meal == null)
+                    return;
+                FoodItem item = meal.getFoodItems().get(random.nextInt(meal.getFoodItems().size()));
+                List<String> candidates = model.getFoodNamesWithSameFoodCategoryAs(item.getName());
+                String name = candidates.isEmpty() ? item.getName() : candidates.get(random.nextInt(candidates.size()));
+                List<String> units = model.getAvailableUnits(name);
+                if (units.isEmpty())
+                    return;
+                Date end = EpochDays.toDate(lastDay), begin = EpochDays.toDate(lastDay - ANALYSIS_DAYS + 1);
+                workers.get().analysis().analyze(email, begin, end, item, new FoodItem(name, item.getQuantity(), units.get(0)), 1);
+            }
+        }
+    }
+
+    // one of the user's latest meals, or null if the user has none
+    private static Meal recentMeal(Model model, String email, Random random) {
+        List<Meal> meals = model.getMealsPage(email, null, RECENT_MEALS);
+        return meals.isEmpty() ? null : meals.get(random.nextInt(meals.size()));
+    }
+
+    /**
+     * The latencies of the operations of a run, from the time each was scheduled to start.
+     */
+    public static final class Report {
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class); // nanoseconds; the count is at index 0
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+
+        private synchronized void record(Operation operation, long nanos) {
+            long[] values = latencies.computeIfAbsent(operation, o -> new long[1024]);
+            int size = (int) values[0] + 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                latencies.put(operation, values);
+            }
+            values[size] = nanos;
+            values[0] = size;
+        }
+
+        private synchronized void error(Operation operation) {
+            errors.merge(operation, 1, Integer::sum);
+        }
+
+        private synchronized long[] sorted(Operation operation) {
+            long[] values = latencies.get(operation);
+            if (values == null)
+                return new long[0];
+            long[] sorted = Arrays.copyOfRange(values, 1, (int) values[0] + 1);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        /**
+         * @param operation an operation
+         * @return the number of times it completed
+         */
+        public synchronized int getCount(Operation operation) {
+            long[] values = latencies.get(operation);
+            return values == null ? 0 : (int) values[0];
+        }
+
+        /**
+         * @param operation an operation
+         * @return the number of times it threw
+         */
+        public synchronized int getErrors(Operation operation) {
+            return errors.getOrDefault(operation, 0);
+        }
+
+        /**
+         * @param operation an operation
+         * @param percentile the percentile, from 0 to 100
+         * @return the latency at that percentile of the completed operations, in milliseconds, or 0 if none completed
+         */
+        public double getLatencyMillis(Operation operation, double percentile) {
+            long[] sorted = sorted(operation);
+            if (sorted.length == 0)
+                return 0;
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length); // nearest rank
+            return sorted[Math.max(rank - 1, 0)] / 1e6;
+        }
+
+        /** @return the operations completed per second over the run */
+        public synchronized double getThroughput() {
+            long completed = 0;
+            for (long[] values : latencies.values())
+                completed += values[0];
+            return completed / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%-16s %8s %7s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (Operation operation : Operation.values()) {
+                if (getCount(operation) == 0 && getErrors(operation) == 0)
+                    continue;
+                text.append(String.format("%-16s %8d %7d %10.2f %10.2f %10.2f %10.2f %10.2f%n", operation.key,
+                    getCount(operation), getErrors(operation), getLatencyMillis(operation, 50), getLatencyMillis(operation, 90),
+                    getLatencyMillis(operation, 99), getLatencyMillis(operation, 99.9), getLatencyMillis(operation, 100)));
+            }
+            text.append(String.format("throughput %.1f operations/s%n", getThroughput()));
+            return text.toString();
+        }
+    }
+
+    /**
+     * Generates users into a model, then loads it. With {@code storage=memory} the model is one
+     * embedded backend over the synthetic reference data of a {@link BenchmarkFixture}, shared by
+     * the threads as its storage is synchronized; with {@code storage=mysql} each thread opens its
+     * own connection to the database of the application's .env file. Arguments are
+     * {@code name=value} pairs: {@code storage} (memory), {@code users} (1000), {@code days} of
+     * history (365), {@code populate} (true; false when the users were written by an earlier run),
+     * {@code rate} per second (50), {@code seconds} (60), {@code threads} (8), {@code seed} (42)
+     * and {@code mix} ({@code log:40,history:40,swaps:15,analysis:5}).
+     *
+     * @param args the arguments
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>(Map.of("storage", "memory", "users", "1000", "days", "365", "populate", "true",
+            "rate", "50", "seconds", "60", "threads", "8", "seed", "42", "mix", "log:40,history:40,swaps:15,analysis:5"));
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2 || !options.containsKey(pair[0]))
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            options.put(pair[0], pair[1]);
+        }
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String weight : options.get("mix").split(",")) {
+            String[] pair = weight.split(":", 2);
+            mix.put(Operation.of(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        int users = Integer.parseInt(options.get("users"));
+        int days = Integer.parseInt(options.get("days"));
+        long seed = Long.parseLong(options.get("seed"));
+        int lastDay = EpochDays.of(new Date()) - 1;
+
+        Supplier<Model> models = modelsFor(options.get("storage"), seed);
+        Model model = models.get();
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(model, seed);
+        if (Boolean.parseBoolean(options.get("populate"))) {
+            long start = System.currentTimeMillis();
+            long meals = generator.writeTo(model, users, lastDay - days + 1, days);
+            System.out.println("Generated " + users + " users and " + meals + " meals in " + (System.currentTimeMillis() - start) + "ms");
+        }
+        Report report = new LoadDriver(models, generator, users, lastDay).run(mix, Double.parseDouble(options.get("rate")),
+            Integer.parseInt(options.get("seconds")), Integer.parseInt(options.get("threads")), seed);
+        System.out.print(report);
+        System.exit(0); // the connections of the threads are closed on exit
+    }
+
+    // the models of the threads for a storage option
+    private static Supplier<Model> modelsFor(String storage, long seed) {
+        switch (storage.toLowerCase()) {
+            case "memory" -> {
+                Model shared = new BenchmarkFixture(seed).getModel();
+                return () -> shared;
+            }
+            case "mysql" -> {
+                Dotenv config = Dotenv.configure().ignoreIfMissing().load();
+                return () -> ConcreteModel.withStorage(new JdbcStorage(config.get("DB_URL"), config.get("DB_USER"), config.get("DB_PASSWORD")));
+            }
+            default -> throw new IllegalArgumentException("Unknown storage " + storage);
+        }
+    }
+}
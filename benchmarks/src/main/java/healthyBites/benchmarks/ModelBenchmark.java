@@ -0,0 +1,97 @@
+package healthyBites.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import healthyBites.model.CFGFoodGroup;
+import healthyBites.model.ConcreteModel;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Goal;
+import healthyBites.model.Meal;
+import healthyBites.model.Nutrition;
+
+/**
+ * The model's nutrition hot paths on the {@link BenchmarkFixture}: nutrition of a food item
+ * and of a meal, adding two nutrition maps, CFG servings, and swap searches in a small and a
+ * large food group. Reports throughput and sampled latency; run {@link Benchmarks#main} for
+ * allocation rates.
+ * @author HealthyBites Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class ModelBenchmark {
+
+    private ConcreteModel model;
+    private List<Meal> meals;
+    private FoodItem foodItem;
+    private Nutrition first, second;
+    private Meal smallGroupMeal, largeGroupMeal;
+    private List<Goal> goals;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixture fixture = new BenchmarkFixture(42);
+        model = fixture.getModel();
+        meals = fixture.getMeals();
+        foodItem = meals.get(0).getFoodItems().get(1);
+        first = model.getMealNutrtionalValue(meals.get(0));
+        second = model.getMealNutrtionalValue(meals.get(1));
+
+        // both meals have one item of each group; the first item is swapped in one, the second in the other
+        smallGroupMeal = meals.get(3);
+        largeGroupMeal = meals.get(4);
+        goals = List.of(new Goal("PROTEIN", true, 5), new Goal("ENERGY (KILOCALORIES)", false, 10_000));
+    }
+
+    private Meal nextMeal() {
+        next = (next + 1) % meals.size();
+        return meals.get(next);
+    }
+
+    @Benchmark
+    public Nutrition nutritionAdd() {
+        return first.add(second);
+    }
+
+    @Benchmark
+    public Nutrition foodItemNutrition() {
+        return model.getFoodItemNutrtionalValue(foodItem);
+    }
+
+    @Benchmark
+    public Nutrition mealNutrition() {
+        return model.getMealNutrtionalValue(nextMeal());
+    }
+
+    @Benchmark
+    public CFGFoodGroup foodItemCFGServings() {
+        return model.getFoodItemCFGServings(foodItem);
+    }
+
+    @Benchmark
+    public List<FoodItem> alternativesInSmallGroup() {
+        return model.getAlternativeFoodOptions(smallGroupMeal, smallGroupMeal.getFoodItems().get(0), goals);
+    }
+
+    @Benchmark
+    public List<FoodItem> alternativesInLargeGroup() {
+        return model.getAlternativeFoodOptions(largeGroupMeal, largeGroupMeal.getFoodItems().get(1), goals);
+    }
+}
@@ -0,0 +1,93 @@
+package healthyBites.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import healthyBites.model.NutrientKernels;
+import healthyBites.model.Nutrition;
+
+/**
+ * Adds up the nutrients of a history of food items: with the Vector API kernels, with the
+ * plain loops they fall back to, and with {@link Nutrition#add} on nutrient maps as the
+ * baseline. The kernel runs differ only in their JVM options; the Vector API kernels are
+ * only there when the application was installed with {@code mvn -Pvector install}.
+ * @author HealthyBites Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NutrientKernelBenchmark {
+
+    private static final int NUTRIENTS = 152; // nutrients in the CNF
+
+    @Param({ "1000", "100000" })
+    public int items;
+
+    private double[] amounts;   // the amounts per reference quantity of each item, one after the other
+    private double[] scales;    // quantity × conversion factor of each item
+    private Nutrition[] nutrition;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new double[items * NUTRIENTS];
+        scales = new double[items];
+        for (int i = 0; i < amounts.length; i++)
+            amounts[i] = random.nextDouble() * 100;
+        for (int i = 0; i < items; i++)
+            scales[i] = 0.5 + random.nextDouble() * 3;
+
+        // the map baseline keeps a thousand distinct items; larger histories reuse them
+        nutrition = new Nutrition[Math.min(items, 1000)];
+        for (int i = 0; i < nutrition.length; i++) {
+            Map<String, Double> map = new HashMap<>();
+            for (int n = 0; n < NUTRIENTS; n++)
+                map.put("NUTRIENT " + n, amounts[i * NUTRIENTS + n] * scales[i]);
+            nutrition[i] = new Nutrition(map);
+        }
+    }
+
+    private double[] sumWithKernels() {
+        double[] totals = new double[NUTRIENTS];
+        for (int i = 0; i < items; i++)
+            NutrientKernels.addScaledAt(totals, amounts, i * NUTRIENTS, scales[i]);
+        return totals;
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+    public double[] vector() {
+        return sumWithKernels();
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector", "-DhealthyBites.vector=false" })
+    public double[] scalar() {
+        return sumWithKernels();
+    }
+
+    @Benchmark
+    @Fork(2)
+    public Nutrition nutritionMaps() {
+        Nutrition total = new Nutrition();
+        for (int i = 0; i < items; i++)
+            total = total.add(nutrition[i % nutrition.length]);
+        return total;
+    }
+}
@@ -0,0 +1,101 @@
+package healthyBites.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import healthyBites.model.NutrientMatrix;
+import healthyBites.model.Nutrition;
+import healthyBites.model.NutritionAccumulator;
+
+/**
+ * Sums a year of meals, three a day of four food items each, with a reused
+ * {@link NutritionAccumulator} and with {@link Nutrition#add}. Run {@link #main} for the
+ * allocation profile: with the GC profiler, {@code gc.alloc.rate.norm} is the number of bytes
+ * allocated per year summed, which stays near zero for the accumulator.
+ * @author HealthyBites Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class NutritionAccumulatorBenchmark {
+
+    private static final int FOODS = 5700, NUTRIENTS = 152;
+    private static final int ITEMS = 365 * 3 * 4;
+
+    private int[] rows;           // the food of each item
+    private double[] scales;      // quantity × conversion factor of each item
+    private Nutrition[] nutrition; // the same items as nutrient maps
+    private NutritionAccumulator totals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int[] foodIds = new int[FOODS], nutrientIds = new int[NUTRIENTS];
+        String[] nutrientNames = new String[NUTRIENTS];
+        for (int i = 0; i < FOODS; i++)
+            foodIds[i] = i + 1;
+        for (int n = 0; n < NUTRIENTS; n++) {
+            nutrientIds[n] = 200 + n;
+            nutrientNames[n] = "NUTRIENT " + n;
+        }
+        NutrientMatrix matrix = new NutrientMatrix(foodIds, nutrientIds, nutrientNames);
+        for (int food : foodIds)
+            for (int nutrient : nutrientIds)
+                if (random.nextInt(3) > 0) // about two thirds of the amounts are listed
+                    matrix.set(food, nutrient, random.nextDouble() * 100);
+
+        rows = new int[ITEMS];
+        scales = new double[ITEMS];
+        nutrition = new Nutrition[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            int foodId = 1 + random.nextInt(FOODS);
+            rows[i] = matrix.rowOf(foodId);
+            scales[i] = 0.5 + random.nextDouble() * 3;
+            nutrition[i] = matrix.nutritionOf(foodId, scales[i]);
+        }
+        totals = new NutritionAccumulator(matrix);
+    }
+
+    @Benchmark
+    public double accumulator() {
+        totals.reset();
+        for (int i = 0; i < ITEMS; i++)
+            totals.addScaled(rows[i], scales[i]);
+        return totals.getNutrientValue("NUTRIENT 0");
+    }
+
+    @Benchmark
+    public double nutritionAdd() {
+        Nutrition total = new Nutrition();
+        for (int i = 0; i < ITEMS; i++)
+            total = total.add(nutrition[i]);
+        return total.getNutrientValue("NUTRIENT 0");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NutritionAccumulatorBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,198 @@
+package healthyBites.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.Model;
+import healthyBites.model.ReferenceNameIndex;
+import healthyBites.model.UserProfile;
+import healthyBites.model.storage.StorageBackend;
+
+/**
+ * Generates synthetic users and years of meal history for load tests, drawn from the foods
+ * that can be logged and their units.
+ * <p>
+ * The data is deterministic: user {@code n} of a seed always gets the same profile and the
+ * same meals, whichever users are generated before it, so a load test can regenerate any
+ * user's history instead of reading it back. Each user eats mostly from a personal pantry
+ * of favourite foods, logs breakfast, lunch and dinner on most days and snacks on some.
+ * </p>
+ * <p>
+ * Users can be written through a {@link Model}, which batches the meals in the background
+ * when it has a meal journal, or straight into a {@link StorageBackend}, such as the files
+ * of an embedded storage, with the CNF ids of the food items resolved.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class SyntheticDataGenerator {
+
+    private static final String[] MEAL_TYPES = { "Breakfast", "Lunch", "Dinner" };
+    private static final double[] MEAL_CHANCES = { 0.9, 0.85, 0.95 };
+    private static final int[] MIN_ITEMS = { 1, 2, 2 }, MAX_ITEMS = { 3, 4, 5 };
+    private static final double[] QUANTITIES = { 0.5, 1, 1, 1, 1.5, 2, 2, 3 };
+    private static final int PANTRY_SIZE = 30;
+    private static final double PANTRY_CHANCE = 0.85; // chance that a food item comes from the pantry
+
+    private final long seed;
+    private final List<String> foods = new ArrayList<>();
+    private final List<List<String>> units = new ArrayList<>(); // aligned with foods
+
+    /**
+     * @param model the model whose loggable foods the meals are drawn from
+     * @param seed the seed of the generated data
+     */
+    public SyntheticDataGenerator(Model model, long seed) {
+        this.seed = seed;
+        for (String food : model.getFoodNames()) {
+            List<String> foodUnits = model.getAvailableUnits(food);
+            if (!foodUnits.isEmpty()) {
+                foods.add(food);
+                units.add(foodUnits);
+            }
+        }
+        if (foods.isEmpty())
+            throw new IllegalArgumentException("No loggable foods in the reference data");
+    }
+
+    /**
+     * @param user the number of the user
+     * @return the email of the user
+     */
+    public static String emailOf(int user) {
+        return String.format("user%07d@synthetic.healthybites", user);
+    }
+
+    /**
+     * @param user the number of the user
+     * @return the user's profile
+     */
+    public UserProfile profile(int user) {
+        Random random = random(user, Integer.MAX_VALUE);
+        boolean male = random.nextBoolean();
+        int dob = -7300 + random.nextInt(20000); // born between 1950 and 2004
+        double height = Math.round((male ? 176 : 163) + random.nextGaussian() * 7);
+        double weight = Math.max(Math.round(height - 100 + random.nextGaussian() * 12), 40);
+        return new UserProfile("Synthetic User " + user, male ? "Male" : "Female", emailOf(user), "metric",
+                               EpochDays.toDate(dob), height, weight);
+    }
+
+    /**
+     * Generates a user's meals over consecutive days.
+     *
+     * @param user the number of the user
+     * @param firstDay the first day, in days since 1970-01-01
+     * @param days the number of days
+     * @return the meals, oldest first
+     */
+    public List<Meal> meals(int user, int firstDay, int days) {
+        int[] pantry = pantry(user);
+        List<Meal> meals = new ArrayList<>();
+        for (int day = firstDay; day < firstDay + days; day++) {
+            Random random = random(user, day);
+            for (int t = 0; t < MEAL_TYPES.length; t++) {
+                if (random.nextDouble() < MEAL_CHANCES[t])
+                    meals.add(meal(random, pantry, day, MEAL_TYPES[t], MIN_ITEMS[t], MAX_ITEMS[t]));
+            }
+            for (int snacks = random.nextInt(4) - 1; snacks > 0; snacks--) // none on half of the days
+                meals.add(meal(random, pantry, day, "Snack", 1, 2));
+        }
+        return meals;
+    }
+
+    /**
+     * Generates one more meal for a user, such as a meal logged during a load test.
+     *
+     * @param random the source of randomness
+     * @param user the number of the user
+     * @param day the day of the meal, in days since 1970-01-01
+     * @param type the meal type
+     * @return the meal
+     */
+    public Meal meal(Random random, int user, int day, String type) {
+        return meal(random, pantry(user), day, type, 1, 4);
+    }
+
+    private Meal meal(Random random, int[] pantry, int day, String type, int minItems, int maxItems) {
+        int count = minItems + random.nextInt(maxItems - minItems + 1);
+        List<FoodItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int food = random.nextDouble() < PANTRY_CHANCE ? pantry[random.nextInt(pantry.length)] : random.nextInt(foods.size());
+            List<String> foodUnits = units.get(food);
+            items.add(new FoodItem(foods.get(food), QUANTITIES[random.nextInt(QUANTITIES.length)],
+                                   foodUnits.get(random.nextInt(foodUnits.size()))));
+        }
+        return new Meal(EpochDays.toDate(day), items, type);
+    }
+
+    // the user's favourite foods
+    private int[] pantry(int user) {
+        Random random = random(user, Integer.MIN_VALUE);
+        int[] pantry = new int[Math.min(PANTRY_SIZE, foods.size())];
+        for (int i = 0; i < pantry.length; i++)
+            pantry[i] = random.nextInt(foods.size());
+        return pantry;
+    }
+
+    // a stream of its own for every user and day, so users can be generated in any order
+    private Random random(int user, int day) {
+        long mix = seed;
+        mix = mix * 0x9E3779B97F4A7C15L + user;
+        mix = mix * 0x9E3779B97F4A7C15L + day;
+        return new Random(mix ^ (mix >>> 29));
+    }
+
+    /**
+     * Writes users and their meals through a model.
+     *
+     * @param model the model to write to
+     * @param users the number of users; users 0 to users - 1 are written
+     * @param firstDay the first day of the meals, in days since 1970-01-01
+     * @param days the number of days of meals
+     * @return the number of meals written
+     */
+    public long writeTo(Model model, int users, int firstDay, int days) {
+        long count = 0;
+        for (int user = 0; user < users; user++) {
+            model.setProfile(profile(user));
+            for (Meal meal : meals(user, firstDay, days)) {
+                model.addMeal(meal, emailOf(user));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes users and their meals straight into a storage backend, bypassing the model.
+     *
+     * @param storage the storage to write to; it must hold the reference data of the model
+     *                the generator was created with
+     * @param users the number of users; users 0 to users - 1 are written
+     * @param firstDay the first day of the meals, in days since 1970-01-01
+     * @param days the number of days of meals
+     * @return the number of meals written
+     */
+    public long writeTo(StorageBackend storage, int users, int firstDay, int days) {
+        ReferenceNameIndex.NameTable names = storage.loadReferenceNames().getFoods();
+
+        long count = 0;
+        for (int user = 0; user < users; user++) {
+            storage.insertProfile(profile(user));
+            for (Meal meal : meals(user, firstDay, days)) {
+                List<FoodItem> items = new ArrayList<>(meal.getFoodItems().size());
+                for (FoodItem item : meal.getFoodItems()) {
+                    int foodId = names.getId(item.getName());
+                    items.add(new FoodItem(foodId, item.getName(), item.getQuantity(),
+                                           Math.max(storage.findMeasureId(foodId, item.getUnit()), 0), item.getUnit()));
+                }
+                storage.insertMeal(emailOf(user), new Meal(meal.getDate(), items, meal.getType()));
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -5,6 +5,7 @@ import healthyBites.controller.Controller;
 import healthyBites.model.ConcreteModel;
 import healthyBites.observers.InitialLoadObserver;
 import healthyBites.observers.MealPanelObserver;
+import healthyBites.observers.MovingAverageObserver;
 import healthyBites.view.ViewFacade;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,11 +34,13 @@ public class App {
             
             // 2. Create dedicated observer objects that will listen for model changes.
             MealPanelObserver mealPanelObserver = new MealPanelObserver(viewFacade, model);
+            MovingAverageObserver movingAverageObserver = new MovingAverageObserver(viewFacade, model);
             
             // 3. Group observers that require an initial, full data load (e.g., meal history).
             // This allows the controller to trigger a one-time data fetch upon user login.
             List<InitialLoadObserver> initialLoadObservers = new ArrayList<>();
             initialLoadObservers.add(mealPanelObserver);
+            initialLoadObservers.add(movingAverageObserver);
 
             // 4. Create the Controller, injecting the Model, View, and the list of initial-load observers.
             // The controller orchestrates the interactions between the model and view.
@@ -46,6 +49,7 @@ public class App {
             // 5. Register observers with the Model. From this point on, these observers
             // will receive live updates whenever the model's state changes.
             model.addObserver(mealPanelObserver);
+            model.addObserver(movingAverageObserver);
                                  
             // 6. Make the application window visible to the user.
             viewFacade.showFrame();
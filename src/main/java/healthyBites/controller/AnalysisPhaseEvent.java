@@ -0,0 +1,74 @@
+package healthyBites.controller;
+
+import healthyBites.model.ModelOperationEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for a phase of the controller's swap and period analyses, such
+ * as {@code performAndCacheAnalysis} and the swap simulation inside it. Every phase is recorded,
+ * since they run once per user request.
+ * @author HealthyBites Team
+ */
+@Name("healthyBites.AnalysisPhase")
+@Label("Analysis Phase")
+@Category({ "HealthyBites", "Controller" })
+@Description("A phase of an analysis requested from the controller")
+@StackTrace(false)
+final class AnalysisPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Email Hash")
+    @Description("The first 8 bytes of the SHA-256 of the user's lower-cased email, in hex")
+    String emailHash;
+
+    @Label("Meals")
+    @Description("The meals in the analyzed period")
+    int mealCount;
+
+    @Label("Changed Meals")
+    @Description("The meals that contain the swapped item")
+    int changedMealCount;
+
+    @Label("Days")
+    @Description("The days with logged meals in the analyzed period")
+    int dayCount;
+
+    /**
+     * Creates and begins an event.
+     *
+     * @param phase the name of the phase
+     * @return the event
+     */
+    static AnalysisPhaseEvent begin(String phase) {
+        AnalysisPhaseEvent event = new AnalysisPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and records it, if it is enabled.
+     *
+     * @param email the email of the user the analysis is for
+     * @param result the result of the swap simulation, or null for a phase without one
+     */
+    void finish(String email, SwapImpactAnalysis.Result result) {
+        end();
+        if (shouldCommit()) {
+            emailHash = ModelOperationEvent.hashOf(email);
+            if (result != null) {
+                mealCount = result.getMealCount();
+                changedMealCount = result.getChangedMeals().size();
+                dayCount = result.getNumberOfDays();
+            }
+            commit();
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package healthyBites.controller;
 
 import java.awt.event.ActionListener;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -19,10 +16,15 @@ import java.util.regex.Pattern;
 import javax.swing.JOptionPane;
 
 import healthyBites.model.CFGFoodGroup;
+import healthyBites.model.ConcreteModel;
 import healthyBites.model.ConcreteModelProxy;
+import healthyBites.model.EpochDays;
 import healthyBites.model.FoodItem;
+import healthyBites.model.FoodNameIndex;
 import healthyBites.model.Goal;
 import healthyBites.model.Meal;
+import healthyBites.model.MealSubject;
+import healthyBites.model.MetricsRegistry;
 import healthyBites.model.Model;
 import healthyBites.model.Nutrition;
 import healthyBites.model.UserProfile;
@@ -30,6 +32,7 @@ import healthyBites.observers.InitialLoadObserver;
 import healthyBites.view.AnalysisSelectionPanel;
 import healthyBites.view.SwapVisualizationPanel;
 import healthyBites.view.ViewFacade;
+import healthyBites.view.visualization.TimeSeriesData;
 
 /**
  * The main controller class for the HealthyBites application.
@@ -89,30 +92,33 @@ public class Controller {
     /** The meal currently selected by the user for food swap operations */
     private Meal selectedMeal;
     
-    /** Cache for meal data used by both nutrient and CFG analysis to avoid redundant database queries */
-    private List<Meal> cachedMeals = null;
+    /** Computes the selected analysis period and the period before it from a single meal scan */
+    private PeriodComparisonEngine periodComparisonEngine;
+
+    /** Simulates the selected swap over the analysis period, without touching the view */
+    private SwapImpactAnalysis swapImpactAnalysis;
+    
+    /** Cached comparison (selected period vs. previous period) shared by nutrient and CFG analysis */
+    private PeriodComparisonEngine.Comparison cachedComparison = null;
     
-    /** Start date of the cached meal data range */
+    /** Start date of the cached comparison's selected period */
     private Date cachedStartDate = null;
     
-    /** End date of the cached meal data range */
+    /** End date of the cached comparison's selected period */
     private Date cachedEndDate = null;
     
-    /** Cache for total nutrient values across all meals in the analysis period */
-    private Map<String, Double> cachedTotalNutrients = null;
-    
     /** Cache for nutrient unit mappings (e.g., "PROTEIN" -> "g") */
     private Map<String, String> cachedNutrientUnits = null;
     
-    /** Cache for total CFG servings across all meals in the analysis period */
-    private CFGFoodGroup cachedTotalCFGServings = null;
-    
-    /** Number of unique days in the cached analysis period */
-    private int cachedNumberOfDays = 0;
+    /** Search index over the food names, built once on first use of the Log Meal page */
+    private FoodNameIndex foodNameIndex = null;
     
     /** List of observers to notify when initial data needs to be loaded */
     private List<InitialLoadObserver> initialLoadObservers;
 
+    /** The model's meal subject, told whose meals to notify; null if the model is not one */
+    private MealSubject mealSubject;
+
     /** Original meal before food swap modifications */
     private Meal originalMealForSwap;
     
@@ -185,14 +191,20 @@ public class Controller {
      * </p>
      * 
      * @param view The ViewFacade instance providing access to all UI components
-     * @param model The Model instance for data persistence (not used directly as ConcreteModelProxy is used)
+     * @param model The Model instance for data persistence, used through a ConcreteModelProxy
      * @param initialLoadObservers List of observers to notify when initial data loading is required
      */
     public Controller(ViewFacade view, Model model, List<InitialLoadObserver> initialLoadObservers) {
-        this.model = ConcreteModelProxy.getInstance();
+        this.model = model instanceof ConcreteModel ? ConcreteModelProxy.of((ConcreteModel) model) : ConcreteModelProxy.getInstance();
         this.view = view;
         this.currentPage = "LoginPage";
         this.initialLoadObservers = initialLoadObservers;
+        this.periodComparisonEngine = new PeriodComparisonEngine(this.model);
+        this.swapImpactAnalysis = new SwapImpactAnalysis(this.model);
+        if (model instanceof MealSubject) {
+            this.mealSubject = (MealSubject) model;
+            this.mealSubject.addObserver(this::mealStored);
+        }
         
         view.clearMealHistory();
         
@@ -273,6 +285,7 @@ public class Controller {
         });
 
         view.setLogoutButtonListener(e -> {
+            observeUser(null, () -> {});
             clearAnalysisCache();
             view.showLoginPanel();
             view.clearLoginFields();
@@ -500,9 +513,11 @@ public class Controller {
         if (profile != null) {
             this.currentUser = profile;
             JOptionPane.showMessageDialog(null, "Login successful!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            for (InitialLoadObserver observer : initialLoadObservers) {
-                observer.loadInitialHistory(this.currentUser);
-            }
+            observeUser(email, () -> {
+                for (InitialLoadObserver observer : initialLoadObservers) {
+                    observer.loadInitialHistory(this.currentUser);
+                }
+            });
             view.showHomePanel();
             this.currentPage = "HomePage";
         } else {
@@ -580,11 +595,26 @@ public class Controller {
         this.currentUser = new UserProfile(name, gender, email, unit, DOB, height, weight);
         model.setProfile(this.currentUser);
         JOptionPane.showMessageDialog(null, "Successfully created your profile!", "Success", JOptionPane.INFORMATION_MESSAGE);
-        view.clearMealHistory();
+        observeUser(email, view::clearMealHistory);
         view.showHomePanel();
         this.currentPage = "HomePage";
     }
     
+    /**
+     * Tells the model whose meals to notify, running the history load in step with the meals
+     * being written, so a meal logged by the user is neither missed nor shown twice.
+     *
+     * @param email the email of the logged in user, or null when no one is logged in
+     * @param loadHistory loads the user's meal history into the view
+     */
+    private void observeUser(String email, Runnable loadHistory) {
+        if (mealSubject != null) {
+            mealSubject.observeUser(email, loadHistory);
+        } else {
+            loadHistory.run();
+        }
+    }
+
     /**
      * Deletes the currently logged-in user's profile from the system.
      * <p>
@@ -603,6 +633,7 @@ public class Controller {
      */
     private void deleteProfile() {
         model.deleteProfile(this.currentUser.getEmail());  
+        observeUser(null, () -> {});
         JOptionPane.showMessageDialog(null, "Successfully deleted your profile!", "Success", JOptionPane.INFORMATION_MESSAGE);
         view.clearMealHistory();
         this.currentUser = null;
@@ -812,23 +843,42 @@ public class Controller {
                 
         Meal meal = new Meal(mealDate, foodList, mealType);
         
-        model.addMeal(meal, currentUser.getEmail());
-        
-        if (cachedStartDate != null && cachedEndDate != null && !mealDate.before(cachedStartDate) && !mealDate.after(cachedEndDate)) {
-            clearAnalysisCache();
-        }
+        model.addMeal(meal, currentUser.getEmail()); // the analysis caches are cleared once it is stored, see mealStored
             
         JOptionPane.showMessageDialog(null, "Logged meal data successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         view.clearMealFields();
     }
     
+    /**
+     * Invalidates the analyses a newly stored meal changes.
+     * <p>
+     * Registered as a meal observer, so it runs once the meal is in storage: right away when
+     * meals are written directly, and on the event dispatch thread after the background write
+     * otherwise. Clearing the caches any earlier would let an analysis run in between cache a
+     * result without the meal. Each cache is cleared only if its period covers the meal's day.
+     * </p>
+     *
+     * @param meal the stored meal
+     * @param nutrition the nutritional value of the meal
+     */
+    private void mealStored(Meal meal, Nutrition nutrition) {
+        if (cachedComparison != null && cachedComparison.covers(meal.getDate())) {
+            clearAnalysisCache();
+        }
+        if (cachedAnalysisStartDate != null && cachedAnalysisEndDate != null
+                && meal.getEpochDay() >= EpochDays.of(cachedAnalysisStartDate)
+                && meal.getEpochDay() <= EpochDays.of(cachedAnalysisEndDate)) {
+            clearSwapAnalysisCache();
+        }
+    }
+
     /**
      * Checks if a specific meal type already exists for a given date.
      * <p>
      * This method enforces the business rule that users can only log one
      * Breakfast, one Lunch, and one Dinner per day (but multiple Snacks).
-     * It iterates through all meals for the current user and checks if any
-     * meal matches both the date (year, month, day) and type.
+     * The model answers with a single indexed existence query instead of
+     * loading the user's whole meal history.
      * </p>
      *
      * @param date The date to check for existing meals
@@ -836,39 +886,27 @@ public class Controller {
      * @return true if a meal of the specified type already exists on the given date, false otherwise
      */
     private boolean mealTypeExist(Date date, String type) {
-        List<Meal> meals = model.getMeals(this.currentUser.getEmail()); 
-        Calendar targetDate = Calendar.getInstance();
-        targetDate.setTime(date);
-        for(Meal m : meals) {
-            Calendar mealDate = Calendar.getInstance();
-            mealDate.setTime(m.getDate());
-            if(mealDate.get(Calendar.YEAR) == targetDate.get(Calendar.YEAR) &&
-                mealDate.get(Calendar.MONTH) == targetDate.get(Calendar.MONTH) &&
-                mealDate.get(Calendar.DAY_OF_MONTH) == targetDate.get(Calendar.DAY_OF_MONTH) &&
-                m.getType().equals(type)) {
-                return true;
-            }
-        }
-        return false;
+        return model.mealExists(this.currentUser.getEmail(), date, type);
     }
     
     /**
      * Fetches all available food names from the Nutrient database and populates the view.
      * <p>
      * This method retrieves the complete list of food items available in the
-     * system's nutrient database and converts it to an array format required
-     * by the view's combo boxes. This provides users with a comprehensive
-     * list of ingredients they can select when logging meals.
+     * system's nutrient database and builds a search index over it for the
+     * view's type-ahead ingredient fields. The food names do not change while
+     * the application runs, so the index is built on the first visit to the
+     * Log Meal page and reused afterwards.
      * </p>
      * 
      * @see Model#getFoodNames()
-     * @see ViewFacade#setMealIngredients(String[])
+     * @see ViewFacade#setMealIngredients(FoodNameIndex)
      */
     private void getAvailableIngredients() {
-        List<String> availableIngredients = model.getFoodNames(); 
-        String[] foodNameAry = new String[availableIngredients.size()];
-        availableIngredients.toArray(foodNameAry);
-        view.setMealIngredients(foodNameAry);
+        if (foodNameIndex == null) {
+            foodNameIndex = new FoodNameIndex(model.getFoodNames());
+            view.setMealIngredients(foodNameIndex);
+        }
     }
     
     /**
@@ -885,12 +923,18 @@ public class Controller {
      *   <li>Updating the view to show only the appropriate unit for that ingredient</li>
      * </ol>
      * This ensures accurate quantity tracking by standardizing to the smallest
-     * available unit for each food item.
+     * available unit for each food item. It also hooks up the typo-tolerant
+     * search that suggests ingredients when the typed text matches nothing by prefix,
+     * and lets a complete French food description select its English counterpart.
      * </p>
      * 
      * @see ViewFacade#setIngredientSelectionListener(BiConsumer)
+     * @see Model#searchFoodNames(String, int)
      */
     private void addMealPanelIngredientComboBoxListeners() {
+        view.setFuzzyIngredientSearch(model::searchFoodNames);
+        view.setIngredientNameResolver(model::resolveFoodName);
+        
         view.setIngredientSelectionListener((rowIndex, foodName) -> {
             List<String> unitList = model.getAvailableUnits(foodName);
             List<String> filteredUnits = new ArrayList<>();
@@ -1256,7 +1300,10 @@ public class Controller {
             return;
         }
         
-        if (!isAnalysisCacheValid(startDate, endDate)) {
+        if (isAnalysisCacheValid(startDate, endDate)) {
+            MetricsRegistry.getInstance().cache("swapAnalysis").hit();
+        } else {
+            MetricsRegistry.getInstance().cache("swapAnalysis").miss();
             boolean success = performAndCacheAnalysis(startDate, endDate);
             if (!success) {
                 return; 
@@ -1296,115 +1343,73 @@ public class Controller {
      * @return          true if analysis succeeded and found applicable swaps, false otherwise
      */
     private boolean performAndCacheAnalysis(Date startDate, Date endDate) {
+        // phases are recorded as flight recorder events; they end before any dialog is shown
+        AnalysisPhaseEvent analysisEvent = AnalysisPhaseEvent.begin("performAndCacheAnalysis");
+        String email = this.currentUser.getEmail();
         clearSwapAnalysisCache();
 
-        Date start = startDate;
-        Date end = endDate;
-        if (start == null || end == null) {
-            Calendar cal = Calendar.getInstance();
-            cal.set(1000, Calendar.JANUARY, 1);
-            start = cal.getTime();
-            cal.set(9999, Calendar.DECEMBER, 31);
-            end = cal.getTime();
+        SwapImpactAnalysis.Result result = null;
+        try {
+            AnalysisPhaseEvent simulationEvent = AnalysisPhaseEvent.begin("swapSimulation");
+            try {
+                result = swapImpactAnalysis.analyze(email, startDate, endDate,
+                                                    this.itemToSwap, this.selectedReplacementItem, this.swapRatio);
+            } finally {
+                simulationEvent.finish(email, result);
+            }
+            if (result.getMealCount() > 0 && !result.getChangedMeals().isEmpty()) {
+                cacheSwapAnalysis(result, startDate, endDate, email);
+            }
+        } finally {
+            analysisEvent.finish(email, result);
         }
 
-        List<Meal> originalMeals = model.getMealsByTimeFrame(this.currentUser.getEmail(), start, end);
-        if (originalMeals.isEmpty()) {
+        if (result.getMealCount() == 0) {
             JOptionPane.showMessageDialog(null, "No meals found in the selected time period.", "No Data", JOptionPane.INFORMATION_MESSAGE);
             return false;
         }
-        
-        cachedOriginalTotals = new HashMap<>();
-        cachedModifiedTotals = new HashMap<>();
-        cachedOriginalCFGServings = new HashMap<>();
-        cachedModifiedCFGServings = new HashMap<>();
-        cachedChangedMeals = new ArrayList<>();
-        cachedOriginalMealNutritions = new HashMap<>();
-        cachedModifiedMealNutritions = new HashMap<>();
-        Set<String> uniqueDays = new HashSet<>();
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-
-        for (Meal meal : originalMeals) {
-            uniqueDays.add(sdf.format(meal.getDate()));
-            boolean mealModified = false;
-            List<FoodItem> newFoodItems = new ArrayList<>();
-            for (FoodItem item : meal.getFoodItems()) {
-                if (item.getName().equals(itemToSwap.getName())) {
-                    double originalQuantity = item.getQuantity();
-                    double proportionalQuantity = originalQuantity * this.swapRatio;
-
-                    FoodItem proportionalReplacement = new FoodItem(
-                        selectedReplacementItem.getName(),
-                        proportionalQuantity,
-                        selectedReplacementItem.getUnit()
-                    );
-                    newFoodItems.add(proportionalReplacement);
-                    mealModified = true;
-                } else {
-                    newFoodItems.add(item);
-                }
-            }
-            
-            Nutrition originalNutrition = model.getMealNutrtionalValue(meal);
-            originalNutrition.getNutrients().forEach((k, v) -> cachedOriginalTotals.merge(k, v, Double::sum));
-
-            CFGFoodGroup originalServings = model.getUserMealCFGServings(meal);
-            mergeCFGServings(cachedOriginalCFGServings, originalServings);
-
-            if (mealModified) {
-                Meal modifiedMeal = new Meal(meal.getDate(), newFoodItems, meal.getType());
-                cachedChangedMeals.add(meal);
-                
-                Nutrition modifiedNutrition = model.getMealNutrtionalValue(modifiedMeal);
-                modifiedNutrition.getNutrients().forEach((k, v) -> cachedModifiedTotals.merge(k, v, Double::sum));
-                
-                CFGFoodGroup modifiedServings = model.getUserMealCFGServings(modifiedMeal);
-                mergeCFGServings(cachedModifiedCFGServings, modifiedServings);
-                
-                cachedOriginalMealNutritions.put(meal, originalNutrition);
-                cachedModifiedMealNutritions.put(meal, modifiedNutrition);
-            } else {
-                originalNutrition.getNutrients().forEach((k, v) -> cachedModifiedTotals.merge(k, v, Double::sum));
-                mergeCFGServings(cachedModifiedCFGServings, originalServings);
-            }
-        }
-        
-        if (cachedChangedMeals.isEmpty()) {
+        if (result.getChangedMeals().isEmpty()) {
             JOptionPane.showMessageDialog(null, "The item to swap was not found in any meal in the selected period.", "No Swaps Applied", JOptionPane.INFORMATION_MESSAGE);
             return false;
         }
-        
-        cachedAnalysisNumberOfDays = uniqueDays.size();
-        
-        // Calculate nutrient averages per day
-        cachedOriginalAverages = new HashMap<>();
-        cachedOriginalTotals.forEach((k, v) -> cachedOriginalAverages.put(k, v / cachedAnalysisNumberOfDays));
-        cachedModifiedAverages = new HashMap<>();
-        cachedModifiedTotals.forEach((k, v) -> cachedModifiedAverages.put(k, v / cachedAnalysisNumberOfDays));
-
-        // Calculate CFG servings averages per day for average impact visualization
-        cachedOriginalCFGServingsAverage = new HashMap<>();
-        cachedModifiedCFGServingsAverage = new HashMap<>();
-        cachedOriginalCFGServings.forEach((k, v) -> 
-            cachedOriginalCFGServingsAverage.put(k, v / cachedAnalysisNumberOfDays));
-        cachedModifiedCFGServings.forEach((k, v) -> 
-            cachedModifiedCFGServingsAverage.put(k, v / cachedAnalysisNumberOfDays));
+        return true;
+    }
+
+    // caches the result of a swap simulation that changed at least one meal, with the units of its nutrients
+    private void cacheSwapAnalysis(SwapImpactAnalysis.Result result, Date startDate, Date endDate, String email) {
+        cachedOriginalTotals = result.getOriginalTotals();
+        cachedModifiedTotals = result.getModifiedTotals();
+        cachedOriginalCFGServings = result.getOriginalCFGServings();
+        cachedModifiedCFGServings = result.getModifiedCFGServings();
+        cachedChangedMeals = result.getChangedMeals();
+        cachedOriginalMealNutritions = result.getOriginalMealNutritions();
+        cachedModifiedMealNutritions = result.getModifiedMealNutritions();
+        cachedAnalysisNumberOfDays = result.getNumberOfDays();
+
+        // nutrient and CFG servings averages per day
+        cachedOriginalAverages = result.getOriginalAverages();
+        cachedModifiedAverages = result.getModifiedAverages();
+        cachedOriginalCFGServingsAverage = result.getOriginalCFGServingsAverage();
+        cachedModifiedCFGServingsAverage = result.getModifiedCFGServingsAverage();
 
         this.cachedItemToSwap = this.itemToSwap;
         this.cachedReplacementItem = this.selectedReplacementItem;
         this.cachedAnalysisStartDate = startDate;
         this.cachedAnalysisEndDate = endDate;
 
-        cachedNutrientUnits = new HashMap<>();
-        for (String nutrientName : this.cachedOriginalTotals.keySet()) {
-            try {
-                cachedNutrientUnits.put(nutrientName, model.getNutrientUnit(nutrientName));
-            } catch (IllegalArgumentException e) {
-                cachedNutrientUnits.put(nutrientName, "");
+        AnalysisPhaseEvent unitsEvent = AnalysisPhaseEvent.begin("nutrientUnits");
+        try {
+            cachedNutrientUnits = new HashMap<>();
+            for (String nutrientName : this.cachedOriginalTotals.keySet()) {
+                try {
+                    cachedNutrientUnits.put(nutrientName, model.getNutrientUnit(nutrientName));
+                } catch (IllegalArgumentException e) {
+                    cachedNutrientUnits.put(nutrientName, "");
+                }
             }
+        } finally {
+            unitsEvent.finish(email, null);
         }
-        
-        return true;
     }
 
     /**
@@ -1513,11 +1518,12 @@ public class Controller {
      * Handles visualization requests from the PerMealAnalysisPanel for time series data.
      * <p>
      * This specialized method transforms per-meal analysis data into a time series
-     * format suitable for temporal visualization. It:
+     * suitable for temporal visualization. It:
      * <ol>
      *   <li>Validates that meal data is available</li>
-     *   <li>Creates compound keys in format "DATE|MEALTYPE|NUTRIENT"</li>
-     *   <li>Preserves both temporal and nutritional information</li>
+     *   <li>Gives every changed meal its own timestamp (day plus meal-type offset),
+     *       so meals eaten on the same day remain separate points</li>
+     *   <li>Records the original and modified value of every nutrient at that timestamp</li>
      *   <li>Enables trend analysis across time for specific nutrients</li>
      * </ol>
      * This format allows the visualization panel to display how nutritional
@@ -1530,42 +1536,35 @@ public class Controller {
             return;
         }
 
-        // Transform the meal data into time series format
-        Map<String, Double> timeSeriesOriginalData = new HashMap<>();
-        Map<String, Double> timeSeriesModifiedData = new HashMap<>();
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        TimeSeriesData timeSeriesData = new TimeSeriesData();
+        Map<Long, Integer> mealsAtTimestamp = new HashMap<>();
 
         for (Meal meal : cachedChangedMeals) {
-            String dateStr = sdf.format(meal.getDate());
-            String mealType = meal.getType();
-            
             Nutrition originalNutrition = cachedOriginalMealNutritions.get(meal);
             Nutrition modifiedNutrition = cachedModifiedMealNutritions.get(meal);
-            
-            if (originalNutrition != null) {
-                for (Map.Entry<String, Double> nutrientEntry : originalNutrition.getNutrients().entrySet()) {
-                    String key = dateStr + "|" + mealType + "|" + nutrientEntry.getKey();
-                    timeSeriesOriginalData.put(key, nutrientEntry.getValue());
-                }
+            if (originalNutrition == null || modifiedNutrition == null) {
+                continue;
             }
-            
-            if (modifiedNutrition != null) {
-                for (Map.Entry<String, Double> nutrientEntry : modifiedNutrition.getNutrients().entrySet()) {
-                    String key = dateStr + "|" + mealType + "|" + nutrientEntry.getKey();
-                    timeSeriesModifiedData.put(key, nutrientEntry.getValue());
+
+            // several snacks on one day get distinct timestamps
+            long baseTimestamp = TimeSeriesData.mealTimestamp(meal.getEpochDay(), meal.getType(), 0);
+            int sequence = mealsAtTimestamp.merge(baseTimestamp, 1, Integer::sum) - 1;
+            long timestamp = TimeSeriesData.mealTimestamp(meal.getEpochDay(), meal.getType(), sequence);
+
+            Map<String, Double> originalNutrients = originalNutrition.getNutrients();
+            Map<String, Double> modifiedNutrients = modifiedNutrition.getNutrients();
+            for (Map.Entry<String, Double> nutrientEntry : originalNutrients.entrySet()) {
+                timeSeriesData.add(nutrientEntry.getKey(), timestamp, nutrientEntry.getValue(),
+                                   modifiedNutrients.getOrDefault(nutrientEntry.getKey(), 0.0));
+            }
+            for (Map.Entry<String, Double> nutrientEntry : modifiedNutrients.entrySet()) {
+                if (!originalNutrients.containsKey(nutrientEntry.getKey())) {
+                    timeSeriesData.add(nutrientEntry.getKey(), timestamp, 0.0, nutrientEntry.getValue());
                 }
             }
         }
 
-        // Display the visualization with time series context
-        view.displaySwapVisualizationWithContext(
-            timeSeriesOriginalData,
-            timeSeriesModifiedData,
-            cachedNutrientUnits,
-            "Per-Meal Nutrient Trends",
-            null, // No CFG recommendations needed for time series
-            SwapVisualizationPanel.VisualizationContext.TIME_SERIES_ANALYSIS
-        );
+        view.displayTimeSeriesVisualization(timeSeriesData, cachedNutrientUnits, "Per-Meal Nutrient Trends");
         this.currentPage = "SwapVisualizationPanel";
     }
 
@@ -1641,32 +1640,6 @@ public class Controller {
         view.setVisualizationData(originalData, modifiedData, cachedNutrientUnits, title, recommended);
     }
     
-    /**
-     * Aggregates Canada Food Guide (CFG) servings data into cumulative totals.
-     * <p>
-     * This utility method takes individual CFG serving data and merges it into
-     * a running total. It handles all five CFG food groups:
-     * <ul>
-     *   <li>Vegetables & Fruits</li>
-     *   <li>Grain Products</li>
-     *   <li>Milk & Alternatives</li>
-     *   <li>Meat & Alternatives</li>
-     *   <li>Oils & Fats</li>
-     * </ul>
-     * The method uses the Map.merge() function to efficiently accumulate values.
-     * </p>
-     *
-     * @param totalServings The map holding cumulative CFG serving totals
-     * @param newServings   A CFGFoodGroup object containing servings to add
-     */
-    private void mergeCFGServings(Map<String, Double> totalServings, CFGFoodGroup newServings) {
-        totalServings.merge("Vegetables & Fruits", newServings.getVegtablesAndFruits(), Double::sum);
-        totalServings.merge("Grain Products", newServings.getGrainProducts(), Double::sum);
-        totalServings.merge("Milk & Alternatives", newServings.getMilkAndAlternatives(), Double::sum);
-        totalServings.merge("Meat & Alternatives", newServings.getMeatAndAlternatives(), Double::sum);
-        totalServings.merge("Oils & Fats", newServings.getOilsAndFat(), Double::sum);
-    }
-
     //===========================================================
     // Nutrient & CFG Analysis Methods
     //===========================================================
@@ -1677,190 +1650,162 @@ public class Controller {
      * This method resets the analysis cache to ensure fresh calculations when
      * users request new analyses. It clears:
      * <ul>
-     *   <li>Cached meal lists</li>
+     *   <li>The cached period comparison (totals, CFG servings and day counts)</li>
      *   <li>Date range parameters</li>
-     *   <li>Nutrient totals and units</li>
-     *   <li>CFG serving totals</li>
-     *   <li>Day count calculations</li>
+     *   <li>Nutrient units</li>
      * </ul>
      * This prevents stale data from affecting new analysis results.
      * </p>
      */
     private void clearAnalysisCache() {
-        cachedMeals = null;
+        cachedComparison = null;
         cachedStartDate = null;
         cachedEndDate = null;
-        cachedTotalNutrients = null;
         cachedNutrientUnits = null;
-        cachedTotalCFGServings = null;
-        cachedNumberOfDays = 0;
     }
-    
+
     /**
-     * Retrieves meals for a date range with intelligent caching.
+     * Retrieves the selected-period vs. previous-period comparison with intelligent caching.
      * <p>
      * This method implements a caching strategy to minimize database queries:
      * <ol>
      *   <li>Checks if the requested date range matches the cached range</li>
-     *   <li>Returns cached meals if available and valid</li>
-     *   <li>Otherwise, fetches fresh data from the model</li>
-     *   <li>Updates cache parameters and clears dependent caches</li>
+     *   <li>Returns the cached comparison if it is valid and holds CFG servings when they are needed</li>
+     *   <li>Otherwise, computes both periods, which are adjacent, from a single meal scan via
+     *       {@link PeriodComparisonEngine}</li>
+     *   <li>Updates cache parameters</li>
      * </ol>
-     * This optimization significantly improves performance when users switch
-     * between nutrient and CFG analysis views for the same date range.
+     * CFG servings are computed only for the CFG analysis, which is the only view that shows them;
+     * a comparison computed for it also answers a later nutrient analysis of the same range.
      * </p>
      *
-     * @param startDate The start date of the desired period
-     * @param endDate   The end date of the desired period
-     * @return          A list of Meal objects within the specified date range
+     * @param startDate       The start date of the desired period
+     * @param endDate         The end date of the desired period
+     * @param includeServings Whether the caller needs CFG servings
+     * @return                The comparison; window 0 is the selected period, window 1 the previous one
      */
-    private List<Meal> getCachedMealsForDateRange(Date startDate, Date endDate) {
-        if (cachedMeals != null && cachedStartDate != null && cachedEndDate != null &&
-            cachedStartDate.equals(startDate) && cachedEndDate.equals(endDate)) {
-            return cachedMeals;
+    private PeriodComparisonEngine.Comparison getCachedComparisonForDateRange(Date startDate, Date endDate, boolean includeServings) {
+        if (cachedComparison != null && cachedStartDate != null && cachedEndDate != null &&
+            cachedStartDate.equals(startDate) && cachedEndDate.equals(endDate) &&
+            (!includeServings || cachedComparison.getWindow(0).getTotalServings() != null)) {
+            MetricsRegistry.getInstance().cache("periodComparison").hit();
+            return cachedComparison;
+        }
+        MetricsRegistry.getInstance().cache("periodComparison").miss();
+
+        AnalysisPhaseEvent comparisonEvent = AnalysisPhaseEvent.begin("periodComparison");
+        try {
+            PeriodComparisonEngine.Window selected = PeriodComparisonEngine.Window.of("Selected period", startDate, endDate);
+            cachedComparison = periodComparisonEngine.compare(this.currentUser.getEmail(),
+                List.of(selected, selected.previousPeriod()), includeServings);
+        } finally {
+            comparisonEvent.finish(this.currentUser.getEmail(), null);
         }
-        
-        cachedMeals = model.getMealsByTimeFrame(this.currentUser.getEmail(), startDate, endDate);  
         cachedStartDate = startDate;
         cachedEndDate = endDate;
-        cachedTotalNutrients = null;
         cachedNutrientUnits = null;
-        cachedTotalCFGServings = null;
-        cachedNumberOfDays = 0;
-        return cachedMeals;
+        return cachedComparison;
     }
-    
+
     /**
      * Calculates and displays the user's average daily nutrient intake for a selected period.
      * <p>
      * This comprehensive method performs nutrient intake analysis:
      * <ol>
      *   <li>Validates the selected date range</li>
-     *   <li>Retrieves meals using the caching mechanism</li>
-     *   <li>Aggregates nutritional values across all meals</li>
+     *   <li>Retrieves the selected and previous period totals using the caching mechanism</li>
      *   <li>Counts unique days (not meal count) for accurate averaging</li>
      *   <li>Calculates daily averages by dividing totals by day count</li>
      *   <li>Fetches unit information for each nutrient</li>
-     *   <li>Displays results in the nutrient analysis panel</li>
+     *   <li>Displays results, alongside the previous period's averages, in the nutrient analysis panel</li>
      * </ol>
      * The method handles edge cases like empty date ranges and missing meals
      * appropriately with user-friendly messages.
      * </p>
-     * 
-     * @see Model#getMealNutrtionalValue(Meal)
-     * @see ViewFacade#displayNutrientAnalysis(Map, int, Map)
+     *
+     * @see PeriodComparisonEngine#compare(String, List, boolean)
+     * @see ViewFacade#displayNutrientAnalysis(Map, int, Map, Map)
      */
     private void analyzeNutrientIntake() {
         Date startDate = view.getNutrientAnalysisStartDate();
         Date endDate = view.getNutrientAnalysisEndDate();
-        
+
         if (startDate == null || endDate == null || startDate.after(endDate)) {
             JOptionPane.showMessageDialog(null, "Please select a valid date range.", "Invalid Dates", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        
-        List<Meal> mealsInRange = getCachedMealsForDateRange(startDate, endDate);
-        if (mealsInRange.isEmpty()) {
+
+        PeriodComparisonEngine.Comparison comparison = getCachedComparisonForDateRange(startDate, endDate, false);
+        PeriodComparisonEngine.WindowSummary selected = comparison.getWindow(0);
+        PeriodComparisonEngine.WindowSummary previous = comparison.getWindow(1);
+        if (selected.getMealCount() == 0) {
             JOptionPane.showMessageDialog(null, "No meals found in the selected time period.", "No Data", JOptionPane.INFORMATION_MESSAGE);
             view.clearNutrientAnalysis();
             return;
         }
-        
-        if (cachedTotalNutrients == null || cachedNumberOfDays == 0) {
-            cachedTotalNutrients = new HashMap<>();
-            Set<String> uniqueMealDays = new HashSet<>();
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            
-            for (Meal meal : mealsInRange) {
-                uniqueMealDays.add(sdf.format(meal.getDate()));
-                Nutrition nutrition = model.getMealNutrtionalValue(meal); 
-                if (nutrition != null && nutrition.getNutrients() != null) {
-                    for (Map.Entry<String, Double> nutrientEntry : nutrition.getNutrients().entrySet()) {
-                        cachedTotalNutrients.merge(nutrientEntry.getKey(), nutrientEntry.getValue(), Double::sum);
-                    }
-                }
-            }
-            
-            cachedNumberOfDays = uniqueMealDays.isEmpty() ? 1 : uniqueMealDays.size();
-            
-            if (cachedNutrientUnits == null) {
-                cachedNutrientUnits = new HashMap<>();
-                for (String nutrientName : cachedTotalNutrients.keySet()) {
-                    try {
-                        cachedNutrientUnits.put(nutrientName, model.getNutrientUnit(nutrientName));  
-                    } catch (IllegalArgumentException e) {
-                        cachedNutrientUnits.put(nutrientName, null);
-                    }
+
+        if (cachedNutrientUnits == null) {
+            cachedNutrientUnits = new HashMap<>();
+            for (String nutrientName : comparison.getNutrientNames()) {
+                try {
+                    cachedNutrientUnits.put(nutrientName, model.getNutrientUnit(nutrientName));
+                } catch (IllegalArgumentException e) {
+                    cachedNutrientUnits.put(nutrientName, null);
                 }
             }
         }
-        
-        Map<String, Double> averageDailyNutrients = new HashMap<>();
-        for (Map.Entry<String, Double> entry : cachedTotalNutrients.entrySet()) {
-            averageDailyNutrients.put(entry.getKey(), entry.getValue() / cachedNumberOfDays);
-        }
-        view.displayNutrientAnalysis(averageDailyNutrients, cachedNumberOfDays, cachedNutrientUnits);
+
+        Map<String, Double> averageDailyNutrients = comparison.toMap(selected.getAverageDailyNutrients());
+        Map<String, Double> previousDailyNutrients = previous.getMealCount() == 0
+            ? null
+            : comparison.toMap(previous.getAverageDailyNutrients());
+        int numberOfDays = Math.max(1, selected.getNumberOfDays());
+        view.displayNutrientAnalysis(averageDailyNutrients, numberOfDays, cachedNutrientUnits, previousDailyNutrients);
     }
-    
+
     /**
      * Analyzes and displays the user's alignment with Canada Food Guide recommendations.
      * <p>
      * This method evaluates how well the user's diet aligns with CFG guidelines:
      * <ol>
      *   <li>Validates the selected date range</li>
-     *   <li>Retrieves meals using the caching mechanism</li>
-     *   <li>Aggregates CFG servings across all meals for each food group</li>
+     *   <li>Retrieves the selected and previous period servings using the caching mechanism</li>
      *   <li>Counts unique days for accurate daily averaging</li>
      *   <li>Calculates average daily servings per food group</li>
      *   <li>Fetches personalized CFG recommendations based on user profile</li>
-     *   <li>Displays comparison between actual intake and recommendations</li>
+     *   <li>Displays comparison between actual intake, the previous period and recommendations</li>
      * </ol>
      * The personalized recommendations consider the user's age and gender to
      * provide appropriate serving targets for each food group.
      * </p>
-     * 
-     * @see Model#getUserMealCFGServings(Meal)
+     *
+     * @see PeriodComparisonEngine#compare(String, List, boolean)
      * @see Model#getDailyRecommendedServingsFromCFG(UserProfile)
-     * @see ViewFacade#displayCFGAnalysis(CFGFoodGroup, CFGFoodGroup, int)
+     * @see ViewFacade#displayCFGAnalysis(CFGFoodGroup, CFGFoodGroup, int, CFGFoodGroup)
      */
     private void analyzeCFGAlignment() {
         Date startDate = view.getCFGAnalysisStartDate();
         Date endDate = view.getCFGAnalysisEndDate();
-        
+
         if (startDate == null || endDate == null || startDate.after(endDate)) {
             JOptionPane.showMessageDialog(null, "Please select a valid date range.", "Invalid Dates", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        
-        List<Meal> mealsInRange = getCachedMealsForDateRange(startDate, endDate);
-        if (mealsInRange.isEmpty()) {
+
+        PeriodComparisonEngine.Comparison comparison = getCachedComparisonForDateRange(startDate, endDate, true);
+        PeriodComparisonEngine.WindowSummary selected = comparison.getWindow(0);
+        PeriodComparisonEngine.WindowSummary previous = comparison.getWindow(1);
+        if (selected.getMealCount() == 0) {
             JOptionPane.showMessageDialog(null, "No meals found in the selected time period.", "No Data", JOptionPane.INFORMATION_MESSAGE);
             view.clearCFGAnalysis();
             return;
         }
-        
-        if (cachedTotalCFGServings == null || cachedNumberOfDays == 0) {
-            cachedTotalCFGServings = new CFGFoodGroup(0, 0, 0, 0, 0);
-            Set<String> uniqueDays = new HashSet<>();
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            
-            for (Meal meal : mealsInRange) {
-                uniqueDays.add(sdf.format(meal.getDate()));
-                CFGFoodGroup mealServings = model.getUserMealCFGServings(meal);
-                cachedTotalCFGServings = cachedTotalCFGServings.add(mealServings);
-            }
-            cachedNumberOfDays = uniqueDays.isEmpty() ? 1 : uniqueDays.size();
-        }
-        
-        CFGFoodGroup averageDailyServings = new CFGFoodGroup(
-            cachedTotalCFGServings.getVegtablesAndFruits() / cachedNumberOfDays,
-            cachedTotalCFGServings.getGrainProducts() / cachedNumberOfDays,
-            cachedTotalCFGServings.getMilkAndAlternatives() / cachedNumberOfDays,
-            cachedTotalCFGServings.getMeatAndAlternatives() / cachedNumberOfDays,
-            cachedTotalCFGServings.getOilsAndFat() / cachedNumberOfDays
-        );
-        
+
+        CFGFoodGroup averageDailyServings = selected.getAverageDailyServings();
+        CFGFoodGroup previousDailyServings = previous.getMealCount() == 0 ? null : previous.getAverageDailyServings();
+        int numberOfDays = Math.max(1, selected.getNumberOfDays());
+
         CFGFoodGroup recommendedServings = model.getDailyRecommendedServingsFromCFG(this.currentUser);
-        view.displayCFGAnalysis(averageDailyServings, recommendedServings, cachedNumberOfDays);
+        view.displayCFGAnalysis(averageDailyServings, recommendedServings, numberOfDays, previousDailyServings);
     }
 }
@@ -0,0 +1,465 @@
+package healthyBites.controller;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import healthyBites.model.CFGFoodGroup;
+import healthyBites.model.EpochDays;
+import healthyBites.model.Meal;
+import healthyBites.model.Model;
+import healthyBites.model.Nutrition;
+
+/**
+ * Computes nutrient and Canada Food Guide (CFG) totals for several date windows at once.
+ * <p>
+ * Trend views usually compare one period against another (this week vs. last week,
+ * month over month, rolling 7/30/90-day windows). Instead of querying and summing each
+ * window separately, the engine merges windows that overlap or touch into spans, fetches each
+ * span with one {@link Model#getMealsByTimeFrame(String, Date, Date)} call, so the days between
+ * two distant windows are never read, evaluates every meal's nutrition (and optionally CFG
+ * servings) exactly once, and then adds the meal into each window that contains its date.
+ * </p>
+ * <p>
+ * The nutrient totals of every window are returned as plain {@code double[]} vectors that
+ * share one ordering ({@link Comparison#getNutrientNames()}), so callers can compare or
+ * chart windows index by index without re-aligning maps.
+ * </p>
+ *
+ * @author HealthyBites Team
+ */
+public class PeriodComparisonEngine {
+
+    /** The model used to fetch meals and evaluate their nutritional value */
+    private final Model model;
+
+    /**
+     * Creates a comparison engine backed by the given model.
+     *
+     * @param model The model used for meal retrieval and nutrition lookups
+     */
+    public PeriodComparisonEngine(Model model) {
+        this.model = model;
+    }
+
+    /**
+     * Computes totals for every given window from one scan of the user's meals per span of
+     * overlapping or adjacent windows.
+     *
+     * @param email           The user's email
+     * @param windows         The windows to compute, in the order they should be reported
+     * @param includeServings Whether CFG servings should be aggregated as well as nutrients
+     * @return The aligned per-window results
+     * @throws IllegalArgumentException if no windows are given
+     */
+    public Comparison compare(String email, List<Window> windows, boolean includeServings) {
+        if (windows == null || windows.isEmpty()) {
+            throw new IllegalArgumentException("At least one window is required");
+        }
+
+        List<Meal> meals = new ArrayList<>();
+        for (Window span : spansOf(windows)) {
+            meals.addAll(model.getMealsByTimeFrame(email, EpochDays.toDate((int) span.getStart().toEpochDay()),
+                                                   EpochDays.toDate((int) span.getEnd().toEpochDay())));
+        }
+
+        // evaluate each meal once, whatever the number of windows it falls into
+        int[] mealDays = new int[meals.size()];
+        List<Nutrition> mealNutrition = new ArrayList<>(meals.size());
+        List<CFGFoodGroup> mealServings = new ArrayList<>(meals.size());
+        Set<String> names = new TreeSet<>();
+        for (int m = 0; m < meals.size(); m++) {
+            Meal meal = meals.get(m);
+            Nutrition nutrition = model.getMealNutrtionalValue(meal);
+            mealDays[m] = meal.getEpochDay();
+            mealNutrition.add(nutrition);
+            mealServings.add(includeServings ? model.getUserMealCFGServings(meal) : null);
+            if (nutrition != null) {
+                names.addAll(nutrition.getNutrients().keySet());
+            }
+        }
+
+        List<String> nutrientNames = List.copyOf(names);
+        Map<String, Integer> indexOf = new HashMap<>();
+        for (int i = 0; i < nutrientNames.size(); i++) {
+            indexOf.put(nutrientNames.get(i), i);
+        }
+
+        List<WindowSummary> summaries = new ArrayList<>(windows.size());
+        for (Window window : windows) {
+            double[] totals = new double[nutrientNames.size()];
+            double[] servings = new double[5];
+            int[] days = new int[meals.size()];
+            int mealCount = 0;
+
+            for (int m = 0; m < meals.size(); m++) {
+                int day = mealDays[m];
+                if (!window.contains(day)) {
+                    continue;
+                }
+                days[mealCount++] = day;
+
+                Nutrition nutrition = mealNutrition.get(m);
+                if (nutrition != null) {
+                    for (Map.Entry<String, Double> entry : nutrition.getNutrients().entrySet()) {
+                        totals[indexOf.get(entry.getKey())] += entry.getValue();
+                    }
+                }
+                CFGFoodGroup cfg = mealServings.get(m);
+                if (cfg != null) {
+                    servings[0] += cfg.getVegtablesAndFruits();
+                    servings[1] += cfg.getGrainProducts();
+                    servings[2] += cfg.getMilkAndAlternatives();
+                    servings[3] += cfg.getMeatAndAlternatives();
+                    servings[4] += cfg.getOilsAndFat();
+                }
+            }
+
+            CFGFoodGroup totalServings = includeServings
+                ? new CFGFoodGroup(servings[0], servings[1], servings[2], servings[3], servings[4])
+                : null;
+            int numberOfDays = EpochDays.countDistinct(Arrays.copyOf(days, mealCount));
+            summaries.add(new WindowSummary(window, numberOfDays, mealCount, totals, totalServings));
+        }
+
+        return new Comparison(nutrientNames, summaries);
+    }
+
+    // the disjoint ranges of days covered by the windows, merging windows that overlap or touch
+    static List<Window> spansOf(List<Window> windows) {
+        List<Window> sorted = new ArrayList<>(windows);
+        sorted.sort(Comparator.comparing(Window::getStart));
+        List<Window> spans = new ArrayList<>();
+        LocalDate start = sorted.getFirst().getStart();
+        LocalDate end = sorted.getFirst().getEnd();
+        for (Window window : sorted) {
+            if (window.getStart().isAfter(end.plusDays(1))) {
+                spans.add(new Window("Span", start, end));
+                start = window.getStart();
+            }
+            if (window.getEnd().isAfter(end)) {
+                end = window.getEnd();
+            }
+        }
+        spans.add(new Window("Span", start, end));
+        return spans;
+    }
+
+    /**
+     * An inclusive range of calendar days with a display label.
+     */
+    public static final class Window {
+        /** Label used to identify the window in results (e.g., "This week") */
+        private final String label;
+        /** First day of the window (inclusive) */
+        private final LocalDate start;
+        /** Last day of the window (inclusive) */
+        private final LocalDate end;
+        /** {@link #start} as an epoch day, for primitive range checks */
+        private final int startDay;
+        /** {@link #end} as an epoch day, for primitive range checks */
+        private final int endDay;
+
+        /**
+         * Creates a window covering {@code start} through {@code end}, inclusive.
+         *
+         * @param label The display label
+         * @param start The first day of the window
+         * @param end   The last day of the window
+         * @throws IllegalArgumentException if the end is before the start
+         */
+        public Window(String label, LocalDate start, LocalDate end) {
+            if (end.isBefore(start)) {
+                throw new IllegalArgumentException("Window end " + end + " is before its start " + start);
+            }
+            this.label = label;
+            this.start = start;
+            this.end = end;
+            this.startDay = (int) start.toEpochDay();
+            this.endDay = (int) end.toEpochDay();
+        }
+
+        /**
+         * Creates a window from two {@link Date} values, ignoring their time of day.
+         *
+         * @param label The display label
+         * @param start The first day of the window
+         * @param end   The last day of the window
+         * @return The new window
+         */
+        public static Window of(String label, Date start, Date end) {
+            return new Window(label, EpochDays.toLocalDate(EpochDays.of(start)), EpochDays.toLocalDate(EpochDays.of(end)));
+        }
+
+        /**
+         * Creates a rolling window of the given number of days ending on {@code anchor}.
+         *
+         * @param days   The window length in days (must be positive)
+         * @param anchor The last day of the window
+         * @return The new window, labelled "Last N days"
+         */
+        public static Window rollingDays(int days, LocalDate anchor) {
+            if (days <= 0) {
+                throw new IllegalArgumentException("Window length must be positive: " + days);
+            }
+            return new Window("Last " + days + " days", anchor.minusDays(days - 1L), anchor);
+        }
+
+        /**
+         * Creates a Monday-to-Sunday calendar week relative to the week containing {@code anchor}.
+         *
+         * @param anchor    Any day of the reference week
+         * @param weeksBack 0 for the reference week, 1 for the week before, and so on
+         * @return The new window
+         */
+        public static Window calendarWeek(LocalDate anchor, int weeksBack) {
+            LocalDate monday = anchor.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(weeksBack);
+            String label = switch (weeksBack) {
+                case 0 -> "This week";
+                case 1 -> "Last week";
+                default -> weeksBack + " weeks ago";
+            };
+            return new Window(label, monday, monday.plusDays(6));
+        }
+
+        /**
+         * Creates a calendar month relative to the month containing {@code anchor}.
+         *
+         * @param anchor     Any day of the reference month
+         * @param monthsBack 0 for the reference month, 1 for the month before, and so on
+         * @return The new window
+         */
+        public static Window calendarMonth(LocalDate anchor, int monthsBack) {
+            LocalDate first = anchor.withDayOfMonth(1).minusMonths(monthsBack);
+            String label = switch (monthsBack) {
+                case 0 -> "This month";
+                case 1 -> "Last month";
+                default -> monthsBack + " months ago";
+            };
+            return new Window(label, first, first.with(TemporalAdjusters.lastDayOfMonth()));
+        }
+
+        /**
+         * Creates the window of equal length that ends the day before this one starts.
+         *
+         * @return The preceding window, labelled "Previous period"
+         */
+        public Window previousPeriod() {
+            long length = getLengthInDays();
+            return new Window("Previous period", start.minusDays(length), start.minusDays(1));
+        }
+
+        /**
+         * @param day The day to test
+         * @return true if the day lies within this window
+         */
+        public boolean contains(LocalDate day) {
+            return contains((int) day.toEpochDay());
+        }
+
+        /**
+         * @param epochDay The day to test, as an epoch day
+         * @return true if the day lies within this window
+         */
+        public boolean contains(int epochDay) {
+            return epochDay >= startDay && epochDay <= endDay;
+        }
+
+        /** @return The number of calendar days covered by the window */
+        public long getLengthInDays() {
+            return ChronoUnit.DAYS.between(start, end) + 1;
+        }
+
+        /** @return The window's display label */
+        public String getLabel() { return label; }
+
+        /** @return The first day of the window */
+        public LocalDate getStart() { return start; }
+
+        /** @return The last day of the window */
+        public LocalDate getEnd() { return end; }
+
+        @Override
+        public String toString() {
+            return label + " [" + start + " - " + end + "]";
+        }
+    }
+
+    /**
+     * Returns "this week" and "last week" windows for the week containing {@code anchor}.
+     *
+     * @param anchor Any day of the current week
+     * @return The two windows, current week first
+     */
+    public static List<Window> weekOverWeek(LocalDate anchor) {
+        return List.of(Window.calendarWeek(anchor, 0), Window.calendarWeek(anchor, 1));
+    }
+
+    /**
+     * Returns "this month" and "last month" windows for the month containing {@code anchor}.
+     *
+     * @param anchor Any day of the current month
+     * @return The two windows, current month first
+     */
+    public static List<Window> monthOverMonth(LocalDate anchor) {
+        return List.of(Window.calendarMonth(anchor, 0), Window.calendarMonth(anchor, 1));
+    }
+
+    /**
+     * Returns rolling 7, 30 and 90-day windows ending on {@code anchor}.
+     *
+     * @param anchor The last day of every window
+     * @return The three windows, shortest first
+     */
+    public static List<Window> rollingWindows(LocalDate anchor) {
+        return List.of(Window.rollingDays(7, anchor), Window.rollingDays(30, anchor), Window.rollingDays(90, anchor));
+    }
+
+    /**
+     * Aggregated totals for one window.
+     */
+    public static final class WindowSummary {
+        /** The window these totals belong to */
+        private final Window window;
+        /** Number of distinct days with at least one logged meal */
+        private final int numberOfDays;
+        /** Number of meals in the window */
+        private final int mealCount;
+        /** Nutrient totals, aligned with {@link Comparison#getNutrientNames()} */
+        private final double[] nutrientTotals;
+        /** Total CFG servings, or null when servings were not requested */
+        private final CFGFoodGroup totalServings;
+
+        WindowSummary(Window window, int numberOfDays, int mealCount, double[] nutrientTotals, CFGFoodGroup totalServings) {
+            this.window = window;
+            this.numberOfDays = numberOfDays;
+            this.mealCount = mealCount;
+            this.nutrientTotals = nutrientTotals;
+            this.totalServings = totalServings;
+        }
+
+        /** @return The window these totals belong to */
+        public Window getWindow() { return window; }
+
+        /** @return The number of distinct days with logged meals */
+        public int getNumberOfDays() { return numberOfDays; }
+
+        /** @return The number of meals in the window */
+        public int getMealCount() { return mealCount; }
+
+        /** @return A copy of the nutrient totals vector */
+        public double[] getNutrientTotals() { return nutrientTotals.clone(); }
+
+        /**
+         * Divides the totals by the number of logged days (at least one).
+         *
+         * @return The average daily nutrient vector
+         */
+        public double[] getAverageDailyNutrients() {
+            int divisor = Math.max(1, numberOfDays);
+            double[] averages = new double[nutrientTotals.length];
+            for (int i = 0; i < averages.length; i++) {
+                averages[i] = nutrientTotals[i] / divisor;
+            }
+            return averages;
+        }
+
+        /** @return The total CFG servings, or null if servings were not requested */
+        public CFGFoodGroup getTotalServings() { return totalServings; }
+
+        /** @return The average daily CFG servings, or null if servings were not requested */
+        public CFGFoodGroup getAverageDailyServings() {
+            if (totalServings == null) {
+                return null;
+            }
+            int divisor = Math.max(1, numberOfDays);
+            return new CFGFoodGroup(
+                totalServings.getVegtablesAndFruits() / divisor,
+                totalServings.getGrainProducts() / divisor,
+                totalServings.getMilkAndAlternatives() / divisor,
+                totalServings.getMeatAndAlternatives() / divisor,
+                totalServings.getOilsAndFat() / divisor
+            );
+        }
+    }
+
+    /**
+     * The result of a comparison: one summary per requested window, sharing a nutrient ordering.
+     */
+    public static final class Comparison {
+        /** Nutrient names in vector order */
+        private final List<String> nutrientNames;
+        /** Per-window summaries, in request order */
+        private final List<WindowSummary> windows;
+
+        Comparison(List<String> nutrientNames, List<WindowSummary> windows) {
+            this.nutrientNames = nutrientNames;
+            this.windows = Collections.unmodifiableList(windows);
+        }
+
+        /** @return The nutrient names; index i names element i of every vector */
+        public List<String> getNutrientNames() { return nutrientNames; }
+
+        /** @return The per-window summaries in request order */
+        public List<WindowSummary> getWindows() { return windows; }
+
+        /**
+         * @param index The window index
+         * @return The summary of the window at that position
+         */
+        public WindowSummary getWindow(int index) { return windows.get(index); }
+
+        /**
+         * @param label The window label
+         * @return The first summary with that label, or null if none matches
+         */
+        public WindowSummary getWindow(String label) {
+            for (WindowSummary summary : windows) {
+                if (summary.getWindow().getLabel().equals(label)) {
+                    return summary;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Converts a nutrient vector back into a name-keyed map.
+         *
+         * @param vector A vector aligned with {@link #getNutrientNames()}
+         * @return A map of nutrient names to values
+         */
+        public Map<String, Double> toMap(double[] vector) {
+            Map<String, Double> map = new LinkedHashMap<>();
+            for (int i = 0; i < nutrientNames.size(); i++) {
+                map.put(nutrientNames.get(i), vector[i]);
+            }
+            return map;
+        }
+
+        /**
+         * @param date A date to test
+         * @return true if any window of this comparison contains the date
+         */
+        public boolean covers(Date date) {
+            int day = EpochDays.of(date);
+            for (WindowSummary summary : windows) {
+                if (summary.getWindow().contains(day)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
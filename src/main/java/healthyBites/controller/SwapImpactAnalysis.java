@@ -0,0 +1,210 @@
+package healthyBites.controller;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import healthyBites.model.CFGFoodGroup;
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.Model;
+import healthyBites.model.Nutrition;
+import healthyBites.model.NutritionAccumulator;
+
+/**
+ * Computes the impact of a food swap over a period: the "what-if" behind the cumulative,
+ * average and per-meal analysis views.
+ * <p>
+ * Every meal of the period is evaluated once as logged and, if it contains the item to swap,
+ * once more with the item replaced by a proportional quantity of the replacement. Nutrient
+ * totals are summed in place with {@link NutritionAccumulator}s, and CFG servings are summed
+ * per food group; daily averages divide both by the number of distinct days with meals.
+ * The analysis has no user interface, so the controller decides how to report an empty result.
+ * </p>
+ *
+ * @author HealthyBites Team
+ */
+public class SwapImpactAnalysis {
+
+    /** The model used to fetch meals and evaluate their nutritional value */
+    private final Model model;
+
+    /**
+     * Creates a swap analysis backed by the given model.
+     *
+     * @param model The model used for meal retrieval and nutrition lookups
+     */
+    public SwapImpactAnalysis(Model model) {
+        this.model = model;
+    }
+
+    /**
+     * Simulates a swap across the user's meals in a period.
+     *
+     * @param email       The user's email
+     * @param startDate   The first day of the period, or null for all time
+     * @param endDate     The last day of the period, or null for all time
+     * @param itemToSwap  The food item to replace, matched by name
+     * @param replacement The replacement food item
+     * @param swapRatio   The replacement quantity per unit of quantity of the swapped item
+     * @return            The original and modified totals, averages and per-meal nutrition
+     */
+    public Result analyze(String email, Date startDate, Date endDate, FoodItem itemToSwap, FoodItem replacement, double swapRatio) {
+        Date start = startDate;
+        Date end = endDate;
+        if (start == null || end == null) {
+            Calendar cal = Calendar.getInstance();
+            cal.set(1000, Calendar.JANUARY, 1);
+            start = cal.getTime();
+            cal.set(9999, Calendar.DECEMBER, 31);
+            end = cal.getTime();
+        }
+        List<Meal> originalMeals = model.getMealsByTimeFrame(email, start, end);
+
+        // totals are added up in place; mealTotals is reused for every meal
+        NutritionAccumulator originalTotals = model.newNutritionAccumulator();
+        NutritionAccumulator modifiedTotals = model.newNutritionAccumulator();
+        NutritionAccumulator mealTotals = model.newNutritionAccumulator();
+        Map<String, Double> originalServings = new HashMap<>();
+        Map<String, Double> modifiedServings = new HashMap<>();
+        List<Meal> changedMeals = new ArrayList<>();
+        Map<Meal, Nutrition> originalMealNutritions = new HashMap<>();
+        Map<Meal, Nutrition> modifiedMealNutritions = new HashMap<>();
+
+        for (Meal meal : originalMeals) {
+            boolean mealModified = false;
+            List<FoodItem> newFoodItems = new ArrayList<>();
+            for (FoodItem item : meal.getFoodItems()) {
+                if (item.getName().equals(itemToSwap.getName())) {
+                    double proportionalQuantity = item.getQuantity() * swapRatio;
+                    newFoodItems.add(new FoodItem(replacement.getName(), proportionalQuantity, replacement.getUnit()));
+                    mealModified = true;
+                } else {
+                    newFoodItems.add(item);
+                }
+            }
+
+            mealTotals.reset();
+            model.addMealNutrition(meal, mealTotals);
+            originalTotals.addScaled(mealTotals, 1);
+
+            CFGFoodGroup mealServings = model.getUserMealCFGServings(meal);
+            mergeCFGServings(originalServings, mealServings);
+
+            if (mealModified) {
+                Meal modifiedMeal = new Meal(meal.getDate(), newFoodItems, meal.getType());
+                changedMeals.add(meal);
+
+                originalMealNutritions.put(meal, mealTotals.toNutrition());
+                mealTotals.reset();
+                model.addMealNutrition(modifiedMeal, mealTotals);
+                modifiedTotals.addScaled(mealTotals, 1);
+                modifiedMealNutritions.put(meal, mealTotals.toNutrition());
+
+                mergeCFGServings(modifiedServings, model.getUserMealCFGServings(modifiedMeal));
+            } else {
+                modifiedTotals.addScaled(mealTotals, 1);
+                mergeCFGServings(modifiedServings, mealServings);
+            }
+        }
+
+        return new Result(originalMeals.size(), EpochDays.countDistinctDays(originalMeals),
+                          originalTotals.toNutrition().getNutrients(), modifiedTotals.toNutrition().getNutrients(),
+                          originalServings, modifiedServings,
+                          changedMeals, originalMealNutritions, modifiedMealNutritions);
+    }
+
+    /**
+     * Adds CFG servings into running totals by food group name.
+     *
+     * @param totalServings The map holding the totals
+     * @param newServings   The servings to add
+     */
+    static void mergeCFGServings(Map<String, Double> totalServings, CFGFoodGroup newServings) {
+        totalServings.merge("Vegetables & Fruits", newServings.getVegtablesAndFruits(), Double::sum);
+        totalServings.merge("Grain Products", newServings.getGrainProducts(), Double::sum);
+        totalServings.merge("Milk & Alternatives", newServings.getMilkAndAlternatives(), Double::sum);
+        totalServings.merge("Meat & Alternatives", newServings.getMeatAndAlternatives(), Double::sum);
+        totalServings.merge("Oils & Fats", newServings.getOilsAndFat(), Double::sum);
+    }
+
+    private static Map<String, Double> perDay(Map<String, Double> totals, int numberOfDays) {
+        Map<String, Double> averages = new HashMap<>();
+        totals.forEach((k, v) -> averages.put(k, v / numberOfDays));
+        return averages;
+    }
+
+    /**
+     * The result of a swap analysis.
+     */
+    public static final class Result {
+        /** Number of meals in the period */
+        private final int mealCount;
+        /** Number of distinct days with logged meals */
+        private final int numberOfDays;
+        private final Map<String, Double> originalTotals, modifiedTotals;
+        private final Map<String, Double> originalServings, modifiedServings;
+        /** Meals that contain the swapped item, in date order */
+        private final List<Meal> changedMeals;
+        private final Map<Meal, Nutrition> originalMealNutritions, modifiedMealNutritions;
+
+        Result(int mealCount, int numberOfDays,
+               Map<String, Double> originalTotals, Map<String, Double> modifiedTotals,
+               Map<String, Double> originalServings, Map<String, Double> modifiedServings,
+               List<Meal> changedMeals, Map<Meal, Nutrition> originalMealNutritions, Map<Meal, Nutrition> modifiedMealNutritions) {
+            this.mealCount = mealCount;
+            this.numberOfDays = numberOfDays;
+            this.originalTotals = originalTotals;
+            this.modifiedTotals = modifiedTotals;
+            this.originalServings = originalServings;
+            this.modifiedServings = modifiedServings;
+            this.changedMeals = Collections.unmodifiableList(changedMeals);
+            this.originalMealNutritions = originalMealNutritions;
+            this.modifiedMealNutritions = modifiedMealNutritions;
+        }
+
+        /** @return The number of meals in the period */
+        public int getMealCount() { return mealCount; }
+
+        /** @return The number of distinct days with logged meals */
+        public int getNumberOfDays() { return numberOfDays; }
+
+        /** @return The nutrient totals of the meals as logged */
+        public Map<String, Double> getOriginalTotals() { return originalTotals; }
+
+        /** @return The nutrient totals of the meals with the swap applied */
+        public Map<String, Double> getModifiedTotals() { return modifiedTotals; }
+
+        /** @return The daily average nutrients of the meals as logged */
+        public Map<String, Double> getOriginalAverages() { return perDay(originalTotals, numberOfDays); }
+
+        /** @return The daily average nutrients of the meals with the swap applied */
+        public Map<String, Double> getModifiedAverages() { return perDay(modifiedTotals, numberOfDays); }
+
+        /** @return The CFG servings of the meals as logged, by food group */
+        public Map<String, Double> getOriginalCFGServings() { return originalServings; }
+
+        /** @return The CFG servings of the meals with the swap applied, by food group */
+        public Map<String, Double> getModifiedCFGServings() { return modifiedServings; }
+
+        /** @return The daily average CFG servings of the meals as logged */
+        public Map<String, Double> getOriginalCFGServingsAverage() { return perDay(originalServings, numberOfDays); }
+
+        /** @return The daily average CFG servings of the meals with the swap applied */
+        public Map<String, Double> getModifiedCFGServingsAverage() { return perDay(modifiedServings, numberOfDays); }
+
+        /** @return The meals that contain the swapped item */
+        public List<Meal> getChangedMeals() { return changedMeals; }
+
+        /** @return The nutrition of each changed meal as logged */
+        public Map<Meal, Nutrition> getOriginalMealNutritions() { return originalMealNutritions; }
+
+        /** @return The nutrition of each changed meal with the swap applied */
+        public Map<Meal, Nutrition> getModifiedMealNutritions() { return modifiedMealNutritions; }
+    }
+}
@@ -3,6 +3,9 @@ package healthyBites.model;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.function.Consumer;
+
+import healthyBites.model.storage.CnfSnapshot;
 
 /**
  * The class that helps the Model load the csv files into the database.
@@ -24,6 +27,44 @@ public class CSVLoader {
         loadConversionFactorsFromCSV(conn, path);
     }
 
+    /**
+     * Reads the Canada Nutrient File data in the specified folder once and writes the part of it
+     * the application uses, the foods, nutrients, nutrient amounts, measures and conversion factors,
+     * as a {@link CnfSnapshot} file.
+     *
+     * @param path the path to the folder containing the CNF data.
+     * @param snapshotFile the snapshot file to write.
+     * @return true if the snapshot was written.
+     */
+    public static boolean writeSnapshot(String path, Path snapshotFile) {
+        CnfSnapshot.Builder builder = new CnfSnapshot.Builder();
+        try {
+            // same files and columns as the tables loaded above
+            readRows(path, "FOOD NAME.csv", row -> builder.addFood(Integer.parseInt(row[0]), Integer.parseInt(row[2]), row[4], row[5]));
+            readRows(path, "NUTRIENT NAME.csv", row -> builder.addNutrient(Integer.parseInt(row[0]), row[4], row[5], row[3]));
+            readRows(path, "NUTRIENT AMOUNT.csv", row -> builder.addNutrientAmount(Integer.parseInt(row[0]), Integer.parseInt(row[1]), Double.parseDouble(row[2])));
+            readRows(path, "MEASURE NAME.csv", row -> builder.addMeasure(Integer.parseInt(row[0]), row[1], row[2]));
+            readRows(path, "CONVERSION FACTOR.csv", row -> builder.addConversionFactor(Integer.parseInt(row[0]), Integer.parseInt(row[1]), Double.parseDouble(row[2])));
+            builder.write(snapshotFile);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // closed in finally rather than with try-with-resources, as Reader.close() may throw InterruptedException
+    private static void readRows(String path, String fileName, Consumer<String[]> rowHandler) throws Exception {
+        Reader reader = new CSVAdapter(Path.of(path, fileName).toString());
+        try {
+            for (int i = 0; i < reader.getRowCount(); i++) {
+                rowHandler.accept(reader.readRow(i));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
     private static void loadFoodSourcesFromCSV(Connection conn, String path) {
         // FoodSourceID, FoodSourceCode, FoodSourceDescription, FoodSourceDescriptionF
         String sql = "INSERT IGNORE INTO food_sources VALUES (?, ?, ?, ?)";
@@ -1,20 +1,26 @@
 package healthyBites.model;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.swing.SwingUtilities;
+
+import healthyBites.model.storage.CnfSnapshot;
+import healthyBites.model.storage.InMemoryStorage;
+import healthyBites.model.storage.JdbcStorage;
+import healthyBites.model.storage.SegmentMealStore;
+import healthyBites.model.storage.SegmentedMealStorage;
+import healthyBites.model.storage.SnapshotReferenceStorage;
+import healthyBites.model.storage.StorageBackend;
 import io.github.cdimascio.dotenv.Dotenv;
 
 
@@ -35,8 +41,15 @@ public class ConcreteModel implements Model, MealSubject {
 
     // follows singleton pattern
     private static ConcreteModel instance;
-    private Connection conn;
+    private final StorageBackend storage;
+    private WriteBehindMealWriter mealWriter; // null unless write-behind logging is enabled
     private ArrayList<MealObserver> mealObservers = new ArrayList<>();
+    private volatile String observedEmail; // the user whose meals the observers are notified of
+    private volatile long observedGeneration; // bumped each time a user's history is loaded
+    private FuzzyFoodMatcher foodNameMatcher; // built on the first food name search
+    private ReferenceNameIndex referenceNames; // English and French reference names, loaded on first use
+    private NutrientMatrix nutrientMatrix; // nutrient amounts of every food, off the heap, loaded on first use
+    private Map<String, Integer> measureIdCache = new ConcurrentHashMap<>(); // "food_id|unit" -> measure_id
 
     /**
      * Gets the singleton instance of the ConcreteModel.
@@ -44,57 +57,109 @@ public class ConcreteModel implements Model, MealSubject {
      * @return the ConcreteModel instance
      */
     public static ConcreteModel getInstance() {
-        if (instance == null)
-            instance = new ConcreteModel();
+        if (instance == null) {
+            Dotenv config = Dotenv.configure().ignoreIfMissing().load();
+            instance = new ConcreteModel(openStorage(config));
+            instance.startMealWriter(config.get("MEAL_JOURNAL")); // write-behind meal logging, if MEAL_JOURNAL is set
+        }
         return instance;
     }
 
-    private ConcreteModel() {
-        connectToDatabase(); // connect to the my sql database
-        initializeTables(); // adds the necessary tables to the database
+    /**
+     * Creates a model over the given storage, separate from the application's singleton.
+     * Tests, benchmarks and tools use this to run against an {@link InMemoryStorage}.
+     *
+     * @param storage the storage backend
+     * @return a new model
+     */
+    public static ConcreteModel withStorage(StorageBackend storage) {
+        return new ConcreteModel(storage);
+    }
+
+    // whether a model is the application's singleton, without creating it
+    static boolean isInstance(ConcreteModel model) {
+        return model != null && model == instance;
+    }
+
+    private ConcreteModel(StorageBackend storage) {
+        this.storage = storage;
     }
 
-    private void connectToDatabase() {
+    // STORAGE=embedded selects the in-process backend, with the user data kept in STORAGE_FILE if it is
+    // set and the CNF data loaded from CNF_PATH; otherwise the MySQL database named by DB_URL is used.
+    // CNF_SNAPSHOT has either backend read the CNF data from that snapshot file, written from CNF_PATH
+    // when it does not exist yet. MEAL_LOG_DIR moves the meals of either backend into segment files in that directory
+    private static StorageBackend openStorage(Dotenv config) {
+        StorageBackend storage = openBaseStorage(config);
+        CnfSnapshot snapshot = openSnapshot(config.get("CNF_SNAPSHOT"), config.get("CNF_PATH"));
+        if (snapshot != null)
+            storage = new SnapshotReferenceStorage(storage, snapshot);
+        String mealLogDir = config.get("MEAL_LOG_DIR");
+        if (mealLogDir == null || mealLogDir.isBlank())
+            return storage;
         try {
-            Dotenv dotenv = Dotenv.load();
-            String url = dotenv.get("DB_URL");
-            String user = dotenv.get("DB_USER");
-            String password = dotenv.get("DB_PASSWORD");
-
-            conn = DriverManager.getConnection(url, user, password);
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-    }
-
-    private void initializeTables() {
-        try (Statement stmt = conn.createStatement()) {
-            // our tables
-            stmt.execute(TableDefinitions.USER_PROFILE_TABLE);
-            stmt.execute(TableDefinitions.MEAL_TABLE);
-            stmt.execute(TableDefinitions.FOOD_ITEM_TABLE);
-            // csv tables
-            stmt.execute(TableDefinitions.FOOD_SOURCE_TABLE);
-            stmt.execute(TableDefinitions.FOOD_GROUP_TABLE);
-            stmt.execute(TableDefinitions.FOOD_NAME_TABLE);
-            stmt.execute(TableDefinitions.NUTRIENT_NAME_TABLE);
-            stmt.execute(TableDefinitions.NUTRIENT_AMOUNT_TABLE);
-            stmt.execute(TableDefinitions.MEASURE_NAME_TABLE);
-            stmt.execute(TableDefinitions.CONVERSION_FACTOR_TABLE);
-        } catch (SQLException ex) {
-            System.out.println("SQLException: " + ex.getMessage());
-            System.out.println("SQLState: " + ex.getSQLState());
-            System.out.println("VendorError: " + ex.getErrorCode());
+            return new SegmentedMealStorage(storage, new SegmentMealStore(Path.of(mealLogDir)));
+        } catch (IOException ex) {
+            ex.printStackTrace(); // keep the meals in the base backend
+            return storage;
         }
     }
-    
+
+    private static StorageBackend openBaseStorage(Dotenv config) {
+        if (!"embedded".equalsIgnoreCase(config.get("STORAGE", "mysql")))
+            return new JdbcStorage(config.get("DB_URL"), config.get("DB_USER"), config.get("DB_PASSWORD"));
+
+        InMemoryStorage embedded = new InMemoryStorage();
+        String file = config.get("STORAGE_FILE");
+        if (file != null && !file.isBlank()) {
+            try {
+                embedded = new InMemoryStorage(Path.of(file));
+            } catch (IOException ex) {
+                ex.printStackTrace(); // keep the user data in memory only
+            }
+        }
+        String cnfPath = config.get("CNF_PATH");
+        String snapshotPath = config.get("CNF_SNAPSHOT");
+        if (cnfPath != null && !cnfPath.isBlank() && (snapshotPath == null || snapshotPath.isBlank()))
+            embedded.loadReferenceData(cnfPath);
+        return embedded;
+    }
+
+    private static CnfSnapshot openSnapshot(String snapshotPath, String cnfPath) {
+        if (snapshotPath == null || snapshotPath.isBlank())
+            return null;
+        Path file = Path.of(snapshotPath);
+        if (!Files.exists(file) && (cnfPath == null || cnfPath.isBlank() || !CSVLoader.writeSnapshot(cnfPath, file)))
+            return null;
+        try {
+            return CnfSnapshot.open(file);
+        } catch (IOException ex) {
+            ex.printStackTrace(); // keep the reference data of the base backend
+            return null;
+        }
+    }
+
+    // when a journal file is given, meals are journaled there and written to the storage in the
+    // background; meals left in the journal by the previous run are written first
+    private void startMealWriter(String journalPath) {
+        if (journalPath == null || journalPath.isBlank())
+            return;
+        getNutrientMatrix(); // with its conversion factors, so the writer thread computes nutrition without a query
+        try {
+            mealWriter = new WriteBehindMealWriter(new MealJournal(Path.of(journalPath)), this::insertMeals, this::mealSaved);
+            Runtime.getRuntime().addShutdownHook(new Thread(mealWriter::close, "meal-writer-shutdown"));
+        } catch (IOException ex) {
+            ex.printStackTrace(); // fall back to writing meals directly
+        }
+    }
+
      /**
      * Loads data from CNF files into the database.
      * 
      * @param path path to the CNF directory
      */
     public void loadDataFromCSV(String path) {
-        CSVLoader.loadDataFromCSV(conn, path);
+        storage.loadReferenceData(path);
     }
     
     @Override
@@ -104,18 +169,11 @@ public class ConcreteModel implements Model, MealSubject {
      * @param profile the user profile to store
      */
     public void setProfile(UserProfile profile) {
-        String sql = "INSERT INTO user_profiles (email, name, sex, unit, height, weight, dob) VALUES (?, ?, ?, ?, ?, ?, ?);";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, profile.getEmail());
-            stmt.setString(2, profile.getName());
-            stmt.setString(3, profile.getSex());
-            stmt.setString(4, profile.getUnitOfMeasurement());
-            stmt.setDouble(5, profile.getHeight());
-            stmt.setDouble(6, profile.getWeight());
-            stmt.setDate(7, new java.sql.Date(profile.getDob().getTime())); // getTime()'s returns type is long
-            stmt.executeUpdate(); // return the number of rows affected (int type)
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("setProfile");
+        try {
+            storage.insertProfile(profile);
+        } finally {
+            event.finish(profile.getEmail(), 0, 0);
         }
     }
 
@@ -127,27 +185,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return the user profile or null if not found
      */
     public UserProfile getProfile(String email) {
-        // take the email, fomulate a query with it, execute it on the database, get the results, make a UserProfile using the results
-        String query = "SELECT * FROM user_profiles WHERE email = ?;";
-
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, email);
-            ResultSet rs = stmt.executeQuery();
-            if(rs.next()) { // if there is any new rows in result
-                return new UserProfile(
-                    rs.getString("name"), 
-                    rs.getString("sex"),
-                    rs.getString("email"),
-                    rs.getString("unit"),
-                    rs.getDate("dob"),
-                    rs.getDouble("height"),
-                    rs.getDouble("weight"));
-            }
-        }
-        catch (SQLException ex){
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getProfile");
+        UserProfile profile = null;
+        try {
+            profile = storage.findProfile(email);
+            return profile;
+        } finally {
+            event.finish(email, 0, profile == null ? 0 : 1);
         }
-        return null;
     }
 
     @Override
@@ -157,20 +202,11 @@ public class ConcreteModel implements Model, MealSubject {
      * @param profile the user profile with updated information
      */
     public void updateProfile(UserProfile profile) {
-        String sql = "UPDATE user_profiles SET name = ?, sex = ?, unit = ?, height = ?, weight = ?, dob = ? WHERE email = ?;";
-        // we set every attribute even tho some main remain the same
-        // email is primary key
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, profile.getName());
-            stmt.setString(2, profile.getSex());
-            stmt.setString(3, profile.getUnitOfMeasurement());
-            stmt.setDouble(4, profile.getHeight());
-            stmt.setDouble(5, profile.getWeight());
-            stmt.setDate(6, new java.sql.Date(profile.getDob().getTime()));
-            stmt.setString(7, profile.getEmail());
-            stmt.executeUpdate();
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("updateProfile");
+        try {
+            storage.updateProfile(profile);
+        } finally {
+            event.finish(profile.getEmail(), 0, 0);
         }
     }
 
@@ -181,12 +217,11 @@ public class ConcreteModel implements Model, MealSubject {
      * @param email the email of the user to delete
      */
     public void deleteProfile(String email) {
-        String sql = "DELETE FROM user_profiles WHERE email = ?;";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, email);
-            stmt.executeUpdate();
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("deleteProfile");
+        try {
+            storage.deleteProfile(email);
+        } finally {
+            event.finish(email, 0, 0);
         }
     }
 
@@ -198,38 +233,65 @@ public class ConcreteModel implements Model, MealSubject {
      * @param email the email of the user who ate the meal
      */
     public void addMeal(Meal meal, String email) {
-        int generatedMealId = 0; // to save auto gen id
-        // add a meal into the table and save the auto gen id
-        String sql = "INSERT INTO meals (date, type, email) VALUES (?, ?, ?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setDate(1, new java.sql.Date(meal.getDate().getTime()));
-            stmt.setString(2, meal.getType());
-            stmt.setString(3, email);
-            stmt.executeUpdate();
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) 
-                generatedMealId = rs.getInt(1); 
-            
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-
-        // use the auto gen id to add entries to food items table
-        String foodItemsql = "INSERT INTO food_items (meal_id, food_name, quantity, unit) VALUES (?, ?, ?, ?)";
-        for (FoodItem item : meal.getFoodItems()) {
-            try (PreparedStatement stmt = conn.prepareStatement(foodItemsql)) {
-                stmt.setInt(1, generatedMealId);
-                stmt.setString(2, item.getName());
-                stmt.setDouble(3, item.getQuantity());
-                stmt.setString(4, item.getUnit());
-                stmt.executeUpdate();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("addMeal");
+        try {
+            if (mealWriter != null) {
+                try {
+                    // ids are resolved here, so the writer thread never needs the UI's connection;
+                    // observers are notified once the meal is written
+                    mealWriter.submit(email, withResolvedIds(meal));
+                    return;
+                } catch (IOException ex) {
+                    ex.printStackTrace(); // journal unavailable, write the meal directly
+                }
             }
+
+            Meal savedMeal = storage.insertMeal(email, withResolvedIds(meal));
+            notifyObservers(savedMeal, mealNutritionOf(savedMeal));
+        } finally {
+            event.finish(email, meal.getFoodItems().size(), 0);
         }
+    }
+
+    /**
+     * Inserts a batch of journaled meals atomically. Called on the meal writer thread, so it makes
+     * no reference lookups: the CNF ids of the food items were resolved when the meals were
+     * submitted, and an item whose ids could not be resolved is stored without them, as
+     * {@link #addMeal} does.
+     *
+     * @param entries the meals to insert
+     * @return the saved meals, with their database ids, aligned with entries
+     */
+    private List<Meal> insertMeals(List<MealJournal.Entry> entries) {
+        return storage.insertMeals(entries);
+    }
 
-        notifyObservers(meal, getMealNutrtionalValue(meal));
+    // computes the nutrition of a written meal on the writer thread and notifies the observers of it
+    // on the event dispatch thread, since they update the view. This includes meals replayed from a
+    // previous run, as long as they belong to the observed user and no history was loaded since:
+    // a reload already holds the meal, as it waits for this batch to finish
+    private void mealSaved(MealJournal.Entry entry) {
+        String email = observedEmail;
+        long generation = observedGeneration;
+        if (email == null || !email.equalsIgnoreCase(entry.getEmail()))
+            return;
+        Meal savedMeal = entry.getMeal();
+        Nutrition nutrition = savedMealNutritionOf(savedMeal);
+        SwingUtilities.invokeLater(() -> {
+            if (generation == observedGeneration)
+                notifyObservers(savedMeal, nutrition);
+        });
+    }
 
+    // the nutrition of a meal written by the meal writer. Its food items carry the ids resolved when
+    // it was submitted, and the nutrient matrix, loaded before the writer started, holds the amounts
+    // and conversion factors, so nothing here queries the storage, whose connection belongs to the UI
+    private Nutrition savedMealNutritionOf(Meal meal) {
+        for (FoodItem item : meal.getFoodItems()) {
+            if (item.getFoodId() == 0 || (item.getUnit() != null && item.getMeasureId() == 0))
+                throw new IllegalArgumentException(item.getName()); // its ids could not be resolved
+        }
+        return mealNutritionOf(meal);
     }
     
     @Override
@@ -247,7 +309,152 @@ public class ConcreteModel implements Model, MealSubject {
         cal.set(9999, Calendar.DECEMBER, 31); // MySQL max date
         Date maxDate = cal.getTime();
         
-        return getMealsByTimeFrame(email, minDate, maxDate);
+        ModelOperationEvent event = ModelOperationEvent.begin("getMeals");
+        List<Meal> meals = null;
+        try {
+            meals = storage.findMeals(email, minDate, maxDate);
+            return meals;
+        } finally {
+            event.finish(email, 0, meals == null ? 0 : meals.size());
+        }
+    }
+
+    @Override
+    /**
+     * Checks whether the user has already logged a meal of a type on a day.
+     * This is a single probe of the (email, date, id) index rather than a load of the history,
+     * plus a check of the meals still waiting to be written when write-behind logging is on.
+     *
+     * @param email the user's email
+     * @param date the day to check; the time of day is ignored
+     * @param type the meal type (e.g., Breakfast)
+     * @return true if such a meal exists
+     */
+    public boolean mealExists(String email, Date date, String type) {
+        ModelOperationEvent event = ModelOperationEvent.begin("mealExists");
+        boolean exists = false;
+        try {
+            exists = (mealWriter != null && mealWriter.hasPendingMeal(email, date, type))
+                     || storage.mealExists(email, date, type);
+            return exists;
+        } finally {
+            event.finish(email, 0, exists ? 1 : 0);
+        }
+    }
+
+    @Override
+    /**
+     * Retrieves one page of a user's meals, newest first.
+     * Pages are keyed on (date, id) rather than OFFSET, so each page is a range scan of
+     * the (email, date, id) index no matter how deep into the history it is.
+     *
+     * @param email the user's email
+     * @param after the last meal of the previous page, or null for the first page
+     * @param pageSize the maximum number of meals to return
+     * @return up to pageSize meals older than after
+     */
+    public List<Meal> getMealsPage(String email, Meal after, int pageSize) {
+        ModelOperationEvent event = ModelOperationEvent.begin("getMealsPage");
+        List<Meal> meals = null;
+        try {
+            meals = storage.findMealsPage(email, after, pageSize);
+            return meals;
+        } finally {
+            event.finish(email, 0, meals == null ? 0 : meals.size());
+        }
+    }
+
+    @Override
+    /**
+     * Searches the available food items by English or French description, tolerating typos.
+     * The search index is built from the reference data on the first call and reused afterwards.
+     *
+     * @param query the text the user typed
+     * @param limit the maximum number of names to return
+     * @return up to limit English food descriptions, best match first
+     */
+    public List<String> searchFoodNames(String query, int limit) {
+        ModelOperationEvent event = ModelOperationEvent.begin("searchFoodNames");
+        List<String> names = null;
+        try {
+            names = getFoodNameMatcher().search(query, limit);
+            return names;
+        } finally {
+            event.finish(null, 0, names == null ? 0 : names.size());
+        }
+    }
+
+    /**
+     * Returns the fuzzy matcher over the food names, building it on first use.
+     *
+     * @return the matcher
+     */
+    private synchronized FuzzyFoodMatcher getFoodNameMatcher() {
+        if (foodNameMatcher == null) {
+            foodNameMatcher = buildFoodNameMatcher();
+        }
+        return foodNameMatcher;
+    }
+
+    /**
+     * Builds the fuzzy matcher over the food items that can be logged, with their French descriptions.
+     *
+     * @return the matcher
+     */
+    private FuzzyFoodMatcher buildFoodNameMatcher() {
+        ReferenceNameIndex.NameTable foods = getReferenceNames().getFoods();
+        List<String> names = new ArrayList<>();
+        List<String> frenchNames = new ArrayList<>();
+        for (String name : storage.findLoggableFoodNames()) { // already distinct
+            int foodId = foods.getId(name);
+            names.add(name);
+            frenchNames.add(foodId < 0 ? null : foods.getName(foodId, ReferenceNameIndex.Language.FRENCH));
+        }
+        return new FuzzyFoodMatcher(names, frenchNames);
+    }
+
+    @Override
+    /**
+     * Translates a food description given in English or French into the English description.
+     *
+     * @param name the food description in either language
+     * @return the English food description, or null if no food has that description
+     */
+    public String resolveFoodName(String name) {
+        ModelOperationEvent event = ModelOperationEvent.begin("resolveFoodName");
+        String englishName = null;
+        try {
+            englishName = getReferenceNames().getFoods().toEnglish(name);
+            return englishName;
+        } finally {
+            event.finish(null, 0, englishName == null ? 0 : 1);
+        }
+    }
+
+    /**
+     * Returns the nutrient amounts of every food, loading them with a single pass over the
+     * reference data on first use.
+     *
+     * @return the nutrient matrix
+     */
+    private synchronized NutrientMatrix getNutrientMatrix() {
+        if (nutrientMatrix == null) {
+            nutrientMatrix = NutrientMatrix.load(storage);
+        }
+        return nutrientMatrix;
+    }
+
+    /**
+     * Returns the bilingual index of food, nutrient and measure names, loading it on first use.
+     * Each table is read with a single query covering both languages.
+     *
+     * @return the reference name index
+     */
+    private synchronized ReferenceNameIndex getReferenceNames() {
+        if (referenceNames == null) {
+            referenceNames = storage.loadReferenceNames();
+        }
+        return referenceNames;
     }
 
     @Override
@@ -259,7 +466,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of meals on that date
      */
     public List<Meal> getMealsByDate(String email, Date date) {
-        return getMealsByTimeFrame(email, date, date);
+        ModelOperationEvent event = ModelOperationEvent.begin("getMealsByDate");
+        List<Meal> meals = null;
+        try {
+            meals = storage.findMeals(email, date, date);
+            return meals;
+        } finally {
+            event.finish(email, 0, meals == null ? 0 : meals.size());
+        }
     }
 
     @Override
@@ -272,43 +486,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of meals in the given time frame
      */
     public List<Meal> getMealsByTimeFrame(String email, Date begin, Date end) {
-        // join meals and food items tables to produce meal objects
-        String query = 
-        """
-            SELECT * 
-            FROM meals 
-            INNER JOIN food_items 
-            ON meals.id = food_items.meal_id
-            WHERE meals.email = ?
-            AND meals.date >= ? AND meals.date <= ?
-        """; 
-        ArrayList<Meal> result = new ArrayList<>();
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, email);
-            stmt.setDate(2, new java.sql.Date(begin.getTime()));
-            stmt.setDate(3, new java.sql.Date(end.getTime()));
-            ResultSet rs = stmt.executeQuery();
-            Meal currMeal = null;
-            int currMealId = -1;        
-            while(rs.next()) {
-                String type = rs.getString("type");
-                int meal_id = rs.getInt("meal_id");
-                String foodName = rs.getString("food_name");
-                double quantity = rs.getDouble("quantity");
-                String unit = rs.getString("unit");
-                Date date = rs.getDate("date");
-                if (currMealId != meal_id) { // new meal has to be created
-                    currMeal = new Meal(date, new ArrayList<>(), type);
-                    result.add(currMeal);
-                    currMealId = meal_id;
-                }
-                currMeal.getFoodItems().add(new FoodItem(foodName, quantity, unit));
-            }
-        }
-        catch (SQLException ex){
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getMealsByTimeFrame");
+        List<Meal> meals = null;
+        try {
+            meals = storage.findMeals(email, begin, end);
+            return meals;
+        } finally {
+            event.finish(email, 0, meals == null ? 0 : meals.size());
         }
-        return result;
     }
 
     @Override
@@ -320,30 +505,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of units (can be empty list)
      */
     public List<String> getAvailableUnits(String foodName) {
-        //get all the measurement units of the food name
-        List<String> result = new ArrayList<>();
-        String query = 
-        """
-            SELECT measure_description 
-            FROM measure_names m 
-            JOIN conversion_factors c ON m.measure_id = c.measure_id
-            JOIN food_names f ON f.food_id = c.food_id
-            WHERE f.food_description = ?
-            AND ((food_group_id IN (1, 9, 11, 12, 16, 20, 5, 7, 10, 13, 15, 17, 4) AND measure_description LIKE "%ml%") 
-            OR (food_group_id IN (18, 8, 5, 7, 10, 13, 15, 17, 4) AND measure_description REGEXP ?));
-        """;
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, foodName);
-            stmt.setString(2, "\\d+\\s?g");
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                result.add(rs.getString(1));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getAvailableUnits");
+        List<String> units = null;
+        try {
+            units = unitsOf(foodName);
+            return units;
+        } finally {
+            event.finish(null, 0, units == null ? 0 : units.size());
         }
-
-        return result;
     }
 
     @Override
@@ -354,30 +523,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of food names
      */
     public List<String> getFoodNames() {
-    	String query =
-        """
-        SELECT DISTINCT food_description
-        FROM food_names
-        INNER JOIN conversion_factors ON food_names.food_id = conversion_factors.food_id
-        INNER JOIN measure_names ON measure_names.measure_id = conversion_factors.measure_id
-        WHERE (
-            (food_group_id IN (1, 9, 11, 12, 16, 20, 5, 7, 10, 13, 15, 17, 4) AND measure_description LIKE '%ml%') 
-            OR 
-            (food_group_id IN (18, 8, 5, 7, 10, 13, 15, 17, 4) AND measure_description REGEXP ? )
-        );
-        """;
-
-        List<String> foodNames = new ArrayList<>();
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, "\\d+\\s?g");
-            ResultSet rs = stmt.executeQuery();
-            while(rs.next()) {
-                foodNames.add(rs.getString(1));
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getFoodNames");
+        List<String> names = null;
+        try {
+            names = storage.findLoggableFoodNames();
+            return names;
+        } finally {
+            event.finish(null, 0, names == null ? 0 : names.size());
         }
-        return foodNames;
     }
 
     @Override
@@ -387,21 +540,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of nutrient names
      */
     public List<String> getNutrientNames() {
-        String query = 
-        """        
-        SELECT nutrient_name 
-        FROM nutrient_names;
-        """;
-        List<String> nutrientNames = new ArrayList<>();
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                nutrientNames.add(rs.getString("nutrient_name"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getNutrientNames");
+        List<String> names = null;
+        try {
+            names = getReferenceNames().getNutrients().getNames(ReferenceNameIndex.Language.ENGLISH);
+            return names;
+        } finally {
+            event.finish(null, 0, names == null ? 0 : names.size());
         }
-        return nutrientNames;
     }
 
     @Override
@@ -412,59 +558,29 @@ public class ConcreteModel implements Model, MealSubject {
      * @return nutritional values of the food item
      */
     public Nutrition getFoodItemNutrtionalValue(FoodItem foodItem) {
-        Map<String, Double> nutrients = new HashMap<>();
-        String query = 
-        """
-        SELECT nutrient_names.nutrient_name, nutrient_amounts.nutrient_value
-        FROM nutrient_amounts
-        INNER JOIN nutrient_names ON nutrient_amounts.nutrient_id = nutrient_names.nutrient_id
-        WHERE nutrient_amounts.food_id = 
-            (SELECT food_id
-            FROM food_names
-            WHERE food_description = ?
-            LIMIT 1);
-        """;
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, foodItem.getName());
-            ResultSet rs = stmt.executeQuery();
-            while(rs.next()) {
-                nutrients.put(rs.getString(1), rs.getDouble(2));
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getFoodItemNutrtionalValue");
+        try {
+            return nutritionOf(foodItem);
+        } finally {
+            event.finish(null, 1, 0);
         }
+    }
 
-        // nutrient map has all the values 
-        // have to multiply by conversion factor (from unit) and quantity 
-
-        Nutrition result = new Nutrition(nutrients);
-        result.multiplyBy(foodItem.getQuantity());
+    private Nutrition nutritionOf(FoodItem foodItem) {
+        int foodId = foodIdOf(foodItem);
+        // the matrix has the amounts per reference quantity;
+        // they are multiplied by conversion factor (from unit) and quantity
+        return getNutrientMatrix().nutritionOf(foodId, scaleOf(foodItem, foodId));
+    }
 
+    // the factor from a food's reference quantity to the quantity of a food item
+    private double scaleOf(FoodItem foodItem, int foodId) {
         if (foodItem.getUnit() == null) // no unit available
-            return result;
-        // multiply by conversion factor of unit 
-        double conversion_factor = 0;
-        query = 
-        """
-        SELECT conversion_factors.conversion_factor_value
-        FROM conversion_factors
-        INNER JOIN measure_names ON measure_names.measure_id = conversion_factors.measure_id
-        WHERE measure_names.measure_description = ?;
-        """;
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, foodItem.getUnit());
-            ResultSet rs = stmt.executeQuery();
-            if(rs.next()) {
-                conversion_factor = rs.getDouble(1);
-            } else {
-                throw new IllegalArgumentException();
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-
-        result.multiplyBy(conversion_factor);
-        return result;
+            return foodItem.getQuantity();
+        double conversion_factor = getNutrientMatrix().conversionFactorOf(foodId, measureIdOf(foodItem, foodId));
+        if (conversion_factor < 0)
+            throw new IllegalArgumentException();
+        return foodItem.getQuantity() * conversion_factor;
     }
 
     @Override
@@ -475,12 +591,56 @@ public class ConcreteModel implements Model, MealSubject {
      * @return total nutrition of the meal
      */
     public Nutrition getMealNutrtionalValue(Meal originalMeal) {
-        Nutrition totalNutrition = new Nutrition();
-        for (FoodItem item : originalMeal.getFoodItems()) {
-            Nutrition nutrition = getFoodItemNutrtionalValue(item);
-            totalNutrition = totalNutrition.add(nutrition);
+        ModelOperationEvent event = ModelOperationEvent.begin("getMealNutrtionalValue");
+        try {
+            return mealNutritionOf(originalMeal);
+        } finally {
+            event.finish(null, originalMeal.getFoodItems().size(), 0);
+        }
+    }
+
+    private Nutrition mealNutritionOf(Meal meal) {
+        NutritionAccumulator totals = new NutritionAccumulator(getNutrientMatrix());
+        for (FoodItem item : meal.getFoodItems())
+            addFoodItemNutrition(item, totals);
+        return totals.toNutrition();
+    }
+
+    @Override
+    /**
+     * Creates empty running nutrient totals over the nutrient matrix.
+     *
+     * @return the totals
+     */
+    public NutritionAccumulator newNutritionAccumulator() {
+        ModelOperationEvent event = ModelOperationEvent.begin("newNutritionAccumulator"); // loads the matrix on first use
+        try {
+            return new NutritionAccumulator(getNutrientMatrix());
+        } finally {
+            event.finish(null, 0, 0);
+        }
+    }
+
+    @Override
+    /**
+     * Adds the nutritional value of a meal to running totals in place.
+     *
+     * @param meal the meal
+     * @param totals the totals to add to
+     */
+    public void addMealNutrition(Meal meal, NutritionAccumulator totals) {
+        ModelOperationEvent event = ModelOperationEvent.begin("addMealNutrition");
+        try {
+            for (FoodItem item : meal.getFoodItems())
+                addFoodItemNutrition(item, totals);
+        } finally {
+            event.finish(null, meal.getFoodItems().size(), 0);
         }
-        return totalNutrition;
+    }
+
+    private void addFoodItemNutrition(FoodItem foodItem, NutritionAccumulator totals) {
+        int foodId = foodIdOf(foodItem);
+        totals.addScaled(getNutrientMatrix().rowOf(foodId), scaleOf(foodItem, foodId));
     }
 
     @Override
@@ -493,38 +653,67 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of valid alternative food items
      */
     public List<FoodItem> getAlternativeFoodOptions(Meal originalMeal, FoodItem selectedFoodItem, List<Goal> goals) {
+        ModelOperationEvent event = ModelOperationEvent.begin("getAlternativeFoodOptions");
+        List<String> alternativeFoodNames = null;
+        List<FoodItem> altFoodItemsList = null;
+        try {
+            alternativeFoodNames = foodNamesInGroupOf(selectedFoodItem.getName());
+            altFoodItemsList = alternativesAmong(alternativeFoodNames, originalMeal, selectedFoodItem, goals);
+            return altFoodItemsList;
+        } finally {
+            // the food group costs a lookup, so it is only read for a search that is recorded
+            // and that succeeded, as the selected item may not be a known food
+            event.end();
+            if (event.shouldCommit()) {
+                event.foodGroup = altFoodItemsList == null ? 0 : storage.findFoodGroupId(foodIdOf(selectedFoodItem));
+                event.candidateCount = alternativeFoodNames == null ? 0 : alternativeFoodNames.size();
+                event.itemCount = originalMeal.getFoodItems().size();
+                event.resultCount = altFoodItemsList == null ? 0 : altFoodItemsList.size();
+                event.commit();
+            }
+        }
+    }
+
+    // the alternatives among the foods of the selected item's group that meet the goals
+    // while keeping the other important nutrients of the meal within the margin of error
+    private List<FoodItem> alternativesAmong(List<String> alternativeFoodNames, Meal originalMeal, FoodItem selectedFoodItem,
+                                             List<Goal> goals) {
         // nutrition of original meal without the food item that user wants to replace
-        Nutrition unselectedFoodItemsNutrition = new Nutrition(); 
+        NutritionAccumulator totals = new NutritionAccumulator(getNutrientMatrix());
         for (FoodItem foodItem:  originalMeal.getFoodItems()) {
             if (foodItem.equals(selectedFoodItem)) // skip the food item we want to replace
                 continue;
 
-            unselectedFoodItemsNutrition = unselectedFoodItemsNutrition.add(getFoodItemNutrtionalValue(foodItem));
+            addFoodItemNutrition(foodItem, totals);
         }
+        Nutrition unselectedFoodItemsNutrition = totals.toNutrition();
 
-        Nutrition selectedFoodItemNutrition = getFoodItemNutrtionalValue(selectedFoodItem);
-        Nutrition originalMealNutrition = unselectedFoodItemsNutrition.add(selectedFoodItemNutrition);
+        addFoodItemNutrition(selectedFoodItem, totals);
+        Nutrition originalMealNutrition = totals.toNutrition();
 
        
         List<FoodItem> altFoodItemsList = new ArrayList<>();
         
-        List<String> alternativeFoodNames = getFoodNamesWithSameFoodCategoryAs(selectedFoodItem.getName());
         for (String altFoodName: alternativeFoodNames) {
             boolean isValidAlternative = true;
             double high = Double.MAX_VALUE, low = 0; // initial range of valid quantities
 
-            List<String> units = getAvailableUnits(altFoodName); // get available units for the food item
+            List<String> units = unitsOf(altFoodName); // get available units for the food item
             //calculate nutrition of food item with first unit and quantity 1
             if (units.isEmpty())
                 continue;
 
             FoodItem altFoodItem = new FoodItem(altFoodName, 1, units.getFirst());
-            Nutrition altFoodItemNutrition = getFoodItemNutrtionalValue(altFoodItem);
+            // read the alternative's amounts straight from the nutrient matrix
+            NutrientMatrix matrix = getNutrientMatrix();
+            int altFoodId = foodIdOf(altFoodItem);
+            int altRow = matrix.rowOf(altFoodId);
+            double altScale = scaleOf(altFoodItem, altFoodId);
 
             for (Goal goal: goals) {
                 double intensity = goal.getIntensity();
                 double unselectedFoodItemsNutrient = unselectedFoodItemsNutrition.getNutrientValue(goal.getNutrient());
-                double altFoodItemNutrient = altFoodItemNutrition.getNutrientValue(goal.getNutrient());
+                double altFoodItemNutrient = matrix.get(altRow, matrix.columnOf(goal.getNutrient()), altScale);
                 if (altFoodItemNutrient == 0) {
                     isValidAlternative = false;
                     break; 
@@ -563,7 +752,7 @@ public class ConcreteModel implements Model, MealSubject {
 
                 double nutrientInOriginalMeal = originalMealNutrition.getNutrientValue(nutrient);
                 double nutrientInUnselectedFoodItems = unselectedFoodItemsNutrition.getNutrientValue(nutrient);
-                double nutrientInAltFoodItem = altFoodItemNutrition.getNutrientValue(nutrient);
+                double nutrientInAltFoodItem = matrix.get(altRow, matrix.columnOf(nutrient), altScale);
                 if (nutrientInAltFoodItem == 0) {
                     continue; // skip if nutrient is not present in alternative food item
                 }
@@ -588,8 +777,6 @@ public class ConcreteModel implements Model, MealSubject {
             // if (altFoodItemsList.size() > 10) 
             //     break;
         }
-
-
         return altFoodItemsList;
     }
 
@@ -601,27 +788,22 @@ public class ConcreteModel implements Model, MealSubject {
      * @return list of similar food names
      */
     public List<String> getFoodNamesWithSameFoodCategoryAs(String foodName) {
-        List<String> foodNames = new ArrayList<>();
-        String query =
-        """
-        SELECT food_description 
-        FROM food_names 
-        WHERE food_group_id = 
-            (SELECT food_group_id 
-            FROM food_names 
-            WHERE food_description = ?);
-        """;
-
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, foodName);
-            ResultSet rs = stmt.executeQuery();
-            while(rs.next()) {
-                foodNames.add(rs.getString(1));
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getFoodNamesWithSameFoodCategoryAs");
+        List<String> names = null;
+        try {
+            names = foodNamesInGroupOf(foodName);
+            return names;
+        } finally {
+            event.finish(null, 0, names == null ? 0 : names.size());
         }
-        return foodNames;
+    }
+
+    private List<String> foodNamesInGroupOf(String foodName) {
+        return storage.findFoodNamesInGroupOf(getReferenceNames().getFoods().getId(foodName));
+    }
+
+    private List<String> unitsOf(String foodName) {
+        return storage.findAvailableUnits(getReferenceNames().getFoods().getId(foodName));
     }
 
     @Override
@@ -644,6 +826,27 @@ public class ConcreteModel implements Model, MealSubject {
         mealObservers.remove(observer);
     }
 
+    @Override
+    /**
+     * Sets the user whose meals the observers are notified of. With write-behind logging, the
+     * history is loaded between two batches of the meal writer, so a meal committed while it
+     * loads is notified afterwards instead of being missed or counted twice.
+     *
+     * @param email the email of the logged in user, or null when no one is logged in
+     * @param loadHistory loads the meal history of the user into the observers
+     */
+    public void observeUser(String email, Runnable loadHistory) {
+        Runnable observe = () -> {
+            observedEmail = email;
+            observedGeneration++;
+            loadHistory.run();
+        };
+        if (mealWriter != null)
+            mealWriter.runBetweenBatches(observe);
+        else
+            observe.run();
+    }
+
     @Override
     /**
      * Notifies all observers of a meal update.
@@ -666,25 +869,16 @@ public class ConcreteModel implements Model, MealSubject {
      * @return the unit of the nutrient
      */
     public String getNutrientUnit(String nutrientName) {
-        String query = 
-        """
-        SELECT nutrient_unit 
-        FROM nutrient_names
-        WHERE nutrient_name = ?;
-        """;
-
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, nutrientName);
-            ResultSet rs = stmt.executeQuery();
-            if(rs.next()) {
-                return rs.getString(1);
-            } else {
-                throw new IllegalArgumentException("Nutrient not found: " + nutrientName);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        ModelOperationEvent event = ModelOperationEvent.begin("getNutrientUnit");
+        String unit = null;
+        try {
+            unit = storage.findNutrientUnit(nutrientName);
+        } finally {
+            event.finish(null, 0, unit == null ? 0 : 1);
         }
-        return null;
+        if (unit == null)
+            throw new IllegalArgumentException("Nutrient not found: " + nutrientName);
+        return unit;
     }
 
     @Override
@@ -695,10 +889,14 @@ public class ConcreteModel implements Model, MealSubject {
      * @return recommended CFG servings
      */
     public CFGFoodGroup getDailyRecommendedServingsFromCFG(UserProfile profile) {
-        if (profile.getSex().equalsIgnoreCase("Male"))
-            return new CFGFoodGroup(9, 8, 2, 3, 45); 
-        else
-            return new CFGFoodGroup(7.5, 6.5, 2, 2, 45);  // measured in ml instead of serving
+        ModelOperationEvent event = ModelOperationEvent.begin("getDailyRecommendedServingsFromCFG");
+        try {
+            return profile.getSex().equalsIgnoreCase("Male")
+                ? new CFGFoodGroup(9, 8, 2, 3, 45)
+                : new CFGFoodGroup(7.5, 6.5, 2, 2, 45); // measured in ml instead of serving
+        } finally {
+            event.finish(profile.getEmail(), 0, 0);
+        }
     }
 
     private int getUnitValue(String unit) {
@@ -715,25 +913,51 @@ public class ConcreteModel implements Model, MealSubject {
         }
     }
 
-    private int getFoodGroupId(String foodName) {
-        String query = 
-        """
-        SELECT food_group_id
-        FROM food_names
-        WHERE food_description = ?;
-        """;
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, foodName);
-            ResultSet rs = stmt.executeQuery();
-            if(rs.next()) {
-                return rs.getInt(1);
-            } else {
-                throw new IllegalArgumentException(foodName);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private int getFoodGroupId(FoodItem foodItem) {
+        int foodGroupId = storage.findFoodGroupId(foodIdOf(foodItem));
+        if (foodGroupId < 0)
+            throw new IllegalArgumentException(foodItem.getName());
+        return foodGroupId;
+    }
+
+    // the CNF food_id of a food item, resolved from its name if it was not stored with the item
+    private int foodIdOf(FoodItem foodItem) {
+        if (foodItem.getFoodId() != 0)
+            return foodItem.getFoodId();
+        return getReferenceNames().getFoods().getId(foodItem.getName());
+    }
+
+    // the CNF measure_id of a food item's unit; measure descriptions are not unique,
+    // so an unresolved unit is looked up among the measures of that particular food
+    private int measureIdOf(FoodItem foodItem, int foodId) {
+        if (foodItem.getMeasureId() != 0)
+            return foodItem.getMeasureId();
+        String key = foodId + "|" + foodItem.getUnit();
+        Integer measureId = measureIdCache.get(key);
+        if (measureId != null) {
+            MetricsRegistry.getInstance().cache("measureIds").hit();
+            return measureId;
         }
-        throw new IllegalArgumentException(foodName);
+        MetricsRegistry.getInstance().cache("measureIds").miss();
+        return measureIdCache.computeIfAbsent(key, k -> storage.findMeasureId(foodId, foodItem.getUnit()));
+    }
+
+    // a copy of the meal whose food items carry their CNF ids
+    private Meal withResolvedIds(Meal meal) {
+        List<FoodItem> items = new ArrayList<>(meal.getFoodItems().size());
+        for (FoodItem item : meal.getFoodItems())
+            items.add(withResolvedIds(item));
+        return new Meal(meal.getId(), meal.getDate(), items, meal.getType());
+    }
+
+    // a copy of the food item carrying its CNF ids, so they can be stored with it
+    private FoodItem withResolvedIds(FoodItem foodItem) {
+        if (foodItem.getFoodId() != 0 && foodItem.getMeasureId() != 0)
+            return foodItem;
+        int foodId = foodIdOf(foodItem);
+        int measureId = foodItem.getUnit() == null ? -1 : measureIdOf(foodItem, foodId);
+        return new FoodItem(Math.max(foodId, 0), foodItem.getName(), foodItem.getQuantity(),
+                            Math.max(measureId, 0), foodItem.getUnit());
     }
 
     @Override
@@ -744,12 +968,17 @@ public class ConcreteModel implements Model, MealSubject {
      * @return CFG servings
      */
     public CFGFoodGroup getUserMealCFGServings(Meal meal) {
-        CFGFoodGroup total = new CFGFoodGroup(0, 0, 0, 0, 0);
-        for (FoodItem foodItem : meal.getFoodItems()) {
-            CFGFoodGroup foodItemCFGServings = getFoodItemCFGServings(foodItem);
-            total = total.add(foodItemCFGServings);
+        ModelOperationEvent event = ModelOperationEvent.begin("getUserMealCFGServings");
+        try {
+            CFGFoodGroup total = new CFGFoodGroup(0, 0, 0, 0, 0);
+            for (FoodItem foodItem : meal.getFoodItems()) {
+                CFGFoodGroup foodItemCFGServings = servingsOf(foodItem, getFoodGroupId(foodItem));
+                total = total.add(foodItemCFGServings);
+            }
+            return total;
+        } finally {
+            event.finish(null, meal.getFoodItems().size(), 0);
         }
-        return total;
     }
     
     @Override
@@ -760,7 +989,18 @@ public class ConcreteModel implements Model, MealSubject {
      * @return CFG servings
      */
     public CFGFoodGroup getFoodItemCFGServings(FoodItem foodItem) {
-        int foodGroupId = getFoodGroupId(foodItem.getName());
+        ModelOperationEvent event = ModelOperationEvent.begin("getFoodItemCFGServings");
+        try {
+            int foodGroupId = getFoodGroupId(foodItem);
+            event.foodGroup = foodGroupId;
+            return servingsOf(foodItem, foodGroupId);
+        } finally {
+            event.finish(null, 1, 0);
+        }
+    }
+
+    // the CFG servings of a food item of a food group
+    private CFGFoodGroup servingsOf(FoodItem foodItem, int foodGroupId) {
         int unitValue = getUnitValue(foodItem.getUnit());
         double foodItemAmount = foodItem.getQuantity() * unitValue;
         
@@ -784,7 +1024,7 @@ public class ConcreteModel implements Model, MealSubject {
             case 12:
                 return new CFGFoodGroup(0, 0, 0, foodItemAmount/60, 0);
             case 4:
-                double fatInGram = getFoodItemNutrtionalValue(foodItem).getNutrientValue("FAT (TOTAL LIPIDS)");
+                double fatInGram = nutritionOf(foodItem).getNutrientValue("FAT (TOTAL LIPIDS)");
                 double fatInMl = fatInGram * 1.15; // fat gram to ml convertion ratio based on avg fat density
                 return new CFGFoodGroup(0, 0, 0, 0, fatInMl);
         }
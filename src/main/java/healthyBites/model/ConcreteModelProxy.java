@@ -2,205 +2,203 @@ package healthyBites.model;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.github.cdimascio.dotenv.Dotenv;
 
 public class ConcreteModelProxy implements Model {
     private static ConcreteModelProxy instance;
     private final ConcreteModel model;
+    private final MetricsRegistry metrics;
 
-    private ConcreteModelProxy() {
-        this.model = ConcreteModel.getInstance();
+    private ConcreteModelProxy(ConcreteModel model) {
+        this.model = model;
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public static ConcreteModelProxy getInstance() {
         if (instance == null) {
-            instance = new ConcreteModelProxy();
+            instance = new ConcreteModelProxy(ConcreteModel.getInstance());
+            instance.startReporting();
         }
         return instance;
     }
 
-    private void log(String methodName, long duration) {
-        System.out.println(methodName + " took " + duration + "ms");
+    /**
+     * Gets the proxy of a model: the application's proxy for the singleton model, or a new proxy,
+     * which does not report the metrics periodically, for a model made by
+     * {@link ConcreteModel#withStorage}.
+     *
+     * @param model the model
+     * @return the proxy of the model
+     */
+    public static ConcreteModelProxy of(ConcreteModel model) {
+        return ConcreteModel.isInstance(model) ? getInstance() : new ConcreteModelProxy(model);
+    }
+
+    private void startReporting() {
+        // METRICS_REPORT_SECONDS prints the metrics at that period; they can be read on demand otherwise
+        String period = Dotenv.configure().ignoreIfMissing().load().get("METRICS_REPORT_SECONDS");
+        if (period != null && !period.isBlank()) {
+            try {
+                metrics.startReporting(Long.parseLong(period.trim()), TimeUnit.SECONDS, System.out::print);
+            } catch (IllegalArgumentException ex) {
+                ex.printStackTrace(); // not a positive number of seconds; report on demand only
+            }
+        }
+    }
+
+    /**
+     * @return the latency of the model's operations and the hit ratio of the application's caches so far
+     */
+    public MetricsRegistry.Snapshot getMetrics() {
+        return metrics.snapshot();
+    }
+
+    // times a call to the model, counting it as an error if it throws
+    private <T> T time(String methodName, Supplier<T> call) {
+        MetricsRegistry.Timer timer = metrics.timer(methodName);
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            timer.record(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            timer.recordError(System.nanoTime() - start);
+            throw ex;
+        }
+    }
+
+    private void run(String methodName, Runnable call) {
+        time(methodName, () -> {
+            call.run();
+            return null;
+        });
     }
 
     @Override
     public void setProfile(UserProfile profile) {
-        long start = System.currentTimeMillis();
-        model.setProfile(profile);
-        
-        log("setProfile", System.currentTimeMillis() - start);
+        run("setProfile", () -> model.setProfile(profile));
     }
 
     @Override
     public UserProfile getProfile(String email) {
-        long start = System.currentTimeMillis();
-        UserProfile result = model.getProfile(email);
-        
-        log("getProfile", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getProfile", () -> model.getProfile(email));
     }
 
     @Override
     public void updateProfile(UserProfile profile) {
-        long start = System.currentTimeMillis();
-        model.updateProfile(profile);
-        
-        log("updateProfile", System.currentTimeMillis() - start);
+        run("updateProfile", () -> model.updateProfile(profile));
     }
 
     @Override
     public void deleteProfile(String email) {
-        long start = System.currentTimeMillis();
-        model.deleteProfile(email);
-        
-        log("deleteProfile", System.currentTimeMillis() - start);
+        run("deleteProfile", () -> model.deleteProfile(email));
     }
 
     @Override
     public void addMeal(Meal meal, String email) {
-        long start = System.currentTimeMillis();
-        model.addMeal(meal, email);
-        
-        log("addMeal", System.currentTimeMillis() - start);
+        run("addMeal", () -> model.addMeal(meal, email));
     }
 
     @Override
     public List<Meal> getMeals(String email) {
-        long start = System.currentTimeMillis();
-        List<Meal> result = model.getMeals(email);
-        
-        log("getMeals", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getMeals", () -> model.getMeals(email));
     }
 
     @Override
     public List<Meal> getMealsByDate(String email, Date date) {
-        long start = System.currentTimeMillis();
-        List<Meal> result = model.getMealsByDate(email, date);
-        
-        log("getMealsByDate", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getMealsByDate", () -> model.getMealsByDate(email, date));
+    }
+
+    @Override
+    public List<Meal> getMealsPage(String email, Meal after, int pageSize) {
+        return time("getMealsPage", () -> model.getMealsPage(email, after, pageSize));
+    }
+
+    @Override
+    public boolean mealExists(String email, Date date, String type) {
+        return time("mealExists", () -> model.mealExists(email, date, type));
     }
 
     @Override
     public List<Meal> getMealsByTimeFrame(String email, Date begin, Date end) {
-        long start = System.currentTimeMillis();
-        List<Meal> result = model.getMealsByTimeFrame(email, begin, end);
-        
-        log("getMealsByTimeFrame", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getMealsByTimeFrame", () -> model.getMealsByTimeFrame(email, begin, end));
     }
 
     @Override
     public List<String> getAvailableUnits(String foodName) {
-        long start = System.currentTimeMillis();
-        List<String> result = model.getAvailableUnits(foodName);
-        
-        log("getAvailableUnits", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getAvailableUnits", () -> model.getAvailableUnits(foodName));
     }
 
     @Override
     public List<String> getFoodNames() {
-        long start = System.currentTimeMillis();
-        List<String> result = model.getFoodNames();
-        
-        log("getFoodNames", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getFoodNames", () -> model.getFoodNames());
+    }
+
+    @Override
+    public List<String> searchFoodNames(String query, int limit) {
+        return time("searchFoodNames", () -> model.searchFoodNames(query, limit));
+    }
+
+    @Override
+    public String resolveFoodName(String name) {
+        return time("resolveFoodName", () -> model.resolveFoodName(name));
     }
 
     @Override
     public List<String> getNutrientNames() {
-        long start = System.currentTimeMillis();
-        List<String> result = model.getNutrientNames();
-        
-        log("getNutrientNames", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getNutrientNames", () -> model.getNutrientNames());
     }
 
     @Override
     public Nutrition getFoodItemNutrtionalValue(FoodItem foodItem) {
-        long start = System.currentTimeMillis();
-        Nutrition result = model.getFoodItemNutrtionalValue(foodItem);
-        
-        log("getFoodItemNutrtionalValue", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getFoodItemNutrtionalValue", () -> model.getFoodItemNutrtionalValue(foodItem));
     }
 
     @Override
     public Nutrition getMealNutrtionalValue(Meal meal) {
-        long start = System.currentTimeMillis();
-        Nutrition result = model.getMealNutrtionalValue(meal);
-        
-        log("getMealNutrtionalValue", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getMealNutrtionalValue", () -> model.getMealNutrtionalValue(meal));
+    }
+
+    @Override
+    public NutritionAccumulator newNutritionAccumulator() {
+        return time("newNutritionAccumulator", () -> model.newNutritionAccumulator());
+    }
+
+    @Override
+    public void addMealNutrition(Meal meal, NutritionAccumulator totals) {
+        run("addMealNutrition", () -> model.addMealNutrition(meal, totals));
     }
 
     @Override
     public List<FoodItem> getAlternativeFoodOptions(Meal meal, FoodItem item, List<Goal> goals) {
-        long start = System.currentTimeMillis();
-        List<FoodItem> result = model.getAlternativeFoodOptions(meal, item, goals);
-        
-        log("getAlternativeFoodOptions", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getAlternativeFoodOptions", () -> model.getAlternativeFoodOptions(meal, item, goals));
     }
 
     @Override
     public List<String> getFoodNamesWithSameFoodCategoryAs(String foodName) {
-        long start = System.currentTimeMillis();
-        List<String> result = model.getFoodNamesWithSameFoodCategoryAs(foodName);
-        
-        log("getFoodNamesWithSameFoodCategoryAs", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getFoodNamesWithSameFoodCategoryAs", () -> model.getFoodNamesWithSameFoodCategoryAs(foodName));
     }
 
     @Override
     public String getNutrientUnit(String nutrientName) {
-        long start = System.currentTimeMillis();
-        String result = model.getNutrientUnit(nutrientName);
-        
-        log("getNutrientUnit", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getNutrientUnit", () -> model.getNutrientUnit(nutrientName));
     }
 
     @Override
     public CFGFoodGroup getDailyRecommendedServingsFromCFG(UserProfile profile) {
-        long start = System.currentTimeMillis();
-        CFGFoodGroup result = model.getDailyRecommendedServingsFromCFG(profile);
-        
-        log("getDailyRecommendedServingsFromCFG", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getDailyRecommendedServingsFromCFG", () -> model.getDailyRecommendedServingsFromCFG(profile));
     }
 
     @Override
     public CFGFoodGroup getUserMealCFGServings(Meal meal) {
-        long start = System.currentTimeMillis();
-        CFGFoodGroup result = model.getUserMealCFGServings(meal);
-        
-        log("getUserMealCFGServings", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getUserMealCFGServings", () -> model.getUserMealCFGServings(meal));
     }
 
     @Override
     public CFGFoodGroup getFoodItemCFGServings(FoodItem foodItem) {
-        long start = System.currentTimeMillis();
-        CFGFoodGroup result = model.getFoodItemCFGServings(foodItem);
-        
-        log("getFoodItemCFGServings", System.currentTimeMillis() - start);
-        
-        return result;
+        return time("getFoodItemCFGServings", () -> model.getFoodItemCFGServings(foodItem));
     }
 }
\ No newline at end of file
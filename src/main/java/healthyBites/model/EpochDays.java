@@ -0,0 +1,88 @@
+package healthyBites.model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Helpers for the epoch-day representation of calendar days used by {@link Meal}.
+ * An epoch day is the number of days since 1970-01-01 in the system time zone, which
+ * makes day identity, bucketing and range checks plain {@code int} operations.
+ */
+public final class EpochDays {
+
+    private EpochDays() {
+    }
+
+    /**
+     * Converts a date to its epoch day in the system time zone.
+     * {@code java.sql.Date} (as returned by JDBC) does not support {@code toInstant()},
+     * so it is converted through its own {@code toLocalDate()}.
+     *
+     * @param date the date to convert
+     * @return the epoch day of the date
+     */
+    public static int of(Date date) {
+        if (date instanceof java.sql.Date sqlDate) {
+            return (int) sqlDate.toLocalDate().toEpochDay();
+        }
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Converts an epoch day to the {@link Date} at the start of that day in the system time zone.
+     *
+     * @param epochDay the epoch day
+     * @return the start of the day
+     */
+    public static Date toDate(int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Converts an epoch day to a {@link LocalDate}.
+     *
+     * @param epochDay the epoch day
+     * @return the corresponding local date
+     */
+    public static LocalDate toLocalDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Counts the distinct days on which the given meals were eaten.
+     *
+     * @param meals the meals to inspect
+     * @return the number of distinct epoch days
+     */
+    public static int countDistinctDays(Collection<Meal> meals) {
+        int[] days = new int[meals.size()];
+        int i = 0;
+        for (Meal meal : meals) {
+            days[i++] = meal.getEpochDay();
+        }
+        return countDistinct(days);
+    }
+
+    /**
+     * Counts the distinct values in an array of epoch days. The array is sorted in place.
+     *
+     * @param days the epoch days
+     * @return the number of distinct days
+     */
+    public static int countDistinct(int[] days) {
+        if (days.length == 0) {
+            return 0;
+        }
+        Arrays.sort(days);
+        int count = 1;
+        for (int i = 1; i < days.length; i++) {
+            if (days[i] != days[i - 1]) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
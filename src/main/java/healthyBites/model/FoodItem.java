@@ -1,27 +1,68 @@
 package healthyBites.model;
 
+import java.util.Objects;
+
 /**
  * FoodItem represents a class to store a food and its quantity.
- * It includes the food's name, quantity, and unit of measurement.
+ * It includes the food's name, quantity, and unit of measurement, and, once known,
+ * the CNF food_id and measure_id they refer to.
+ * Food items are immutable values; equality and hashing use the name, quantity and unit,
+ * since the ids are derived from them.
  */
-public class FoodItem {
+public final class FoodItem {
+    private final int foodId; // CNF food_id, or 0 if not resolved yet
     private final String name;
     private final double quantity;
+    private final int measureId; // CNF measure_id, or 0 if not resolved yet
     private final String unit;
 
     /**
      * Constructs a FoodItem with a name, quantity, and unit.
+     * The CNF ids are resolved from the name and unit when they are needed.
      *
      * @param name the name of the food
      * @param quantity the amount of the food
      * @param unit the unit of measurement (e.g., grams, cups)
      */
     public FoodItem(String name, double quantity, String unit) {
+        this(0, name, quantity, 0, unit);
+    }
+
+    /**
+     * Constructs a FoodItem whose CNF food and measure ids are already known.
+     *
+     * @param foodId the CNF food_id, or 0 if unknown
+     * @param name the name of the food
+     * @param quantity the amount of the food
+     * @param measureId the CNF measure_id of the unit, or 0 if unknown
+     * @param unit the unit of measurement (e.g., grams, cups)
+     */
+    public FoodItem(int foodId, String name, double quantity, int measureId, String unit) {
+        this.foodId = foodId;
         this.name = name;
         this.quantity = quantity;
+        this.measureId = measureId;
         this.unit = unit;
     }
 
+    /**
+     * Gets the CNF food_id of the food.
+     *
+     * @return the food id, or 0 if it has not been resolved
+     */
+    public int getFoodId() {
+        return foodId;
+    }
+
+    /**
+     * Gets the CNF measure_id of the unit.
+     *
+     * @return the measure id, or 0 if it has not been resolved
+     */
+    public int getMeasureId() {
+        return measureId;
+    }
+
     /**
      * Gets the name of the food.
      *
@@ -71,6 +112,16 @@ public class FoodItem {
         FoodItem foodItem = (FoodItem) o;
         return Double.compare(foodItem.quantity, quantity) == 0 &&
                name.equals(foodItem.getName()) &&
-               unit.equals(foodItem.getUnit());
+               Objects.equals(unit, foodItem.getUnit());
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, quantity, unit);
     }
 }
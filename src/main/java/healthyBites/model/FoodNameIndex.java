@@ -0,0 +1,232 @@
+package healthyBites.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * An immutable search index over food descriptions, used for type-ahead ingredient search.
+ * <p>
+ * The names are kept in a sorted array, so names starting with the query are found with a
+ * binary search. Every word of every name is also kept in a sorted token array with the ids of
+ * the names containing it, so a query such as {@code "ched ch"} finds "Cheese, cheddar" by
+ * intersecting the names whose words start with each query word. The index is built once and can
+ * be shared by any number of input fields.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class FoodNameIndex {
+
+    /** An index with no names. */
+    public static final FoodNameIndex EMPTY = new FoodNameIndex(Collections.emptyList());
+
+    /** The names, sorted case-insensitively; a name's position is its id. */
+    private final String[] names;
+    /** The lower-case names, aligned with {@link #names} and sorted. */
+    private final String[] lowerNames;
+    /** Every distinct word of every name, lower-case and sorted. */
+    private final String[] tokens;
+    /** For each token, the ascending ids of the names containing it. */
+    private final int[][] postings;
+
+    /**
+     * Builds an index over the given names. Duplicates are removed.
+     *
+     * @param foodNames the food descriptions to index
+     */
+    public FoodNameIndex(Collection<String> foodNames) {
+        String[] sorted = foodNames.toArray(new String[0]);
+        String[] lower = new String[sorted.length];
+        Integer[] order = new Integer[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            lower[i] = normalize(sorted[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = lower[a].compareTo(lower[b]);
+            return cmp != 0 ? cmp : sorted[a].compareTo(sorted[b]);
+        });
+
+        List<String> uniqueNames = new ArrayList<>(sorted.length);
+        List<String> uniqueLower = new ArrayList<>(sorted.length);
+        for (int i : order) {
+            if (!uniqueNames.isEmpty() && uniqueNames.get(uniqueNames.size() - 1).equals(sorted[i])) {
+                continue;
+            }
+            uniqueNames.add(sorted[i]);
+            uniqueLower.add(lower[i]);
+        }
+        names = uniqueNames.toArray(new String[0]);
+        lowerNames = uniqueLower.toArray(new String[0]);
+
+        // names are visited in id order, so each posting list is built already sorted
+        TreeMap<String, List<Integer>> postingsByToken = new TreeMap<>();
+        for (int id = 0; id < lowerNames.length; id++) {
+            for (String token : tokenize(lowerNames[id])) {
+                List<Integer> list = postingsByToken.computeIfAbsent(token, k -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != id) { // a word may occur twice in a name
+                    list.add(id);
+                }
+            }
+        }
+        tokens = postingsByToken.keySet().toArray(new String[0]);
+        postings = new int[tokens.length][];
+        int t = 0;
+        for (List<Integer> list : postingsByToken.values()) {
+            postings[t++] = list.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @return the number of distinct names in the index
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name with the given id.
+     *
+     * @param id a name id, between 0 and {@link #size()} - 1
+     * @return the name
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Looks up a name ignoring case.
+     *
+     * @param name the name to look up
+     * @return the name as it is stored in the index, or null if it is not indexed
+     */
+    public String find(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = normalize(name);
+        int i = lowerBound(lowerNames, key);
+        return i < lowerNames.length && lowerNames[i].equals(key) ? names[i] : null;
+    }
+
+    /**
+     * Finds the names matching a type-ahead query, best matches first.
+     * <p>
+     * Names that start with the whole query come first, in alphabetical order. They are followed
+     * by names in which every word of the query is the start of some word of the name, shortest
+     * name first.
+     * </p>
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of names to return
+     * @return up to {@code limit} matching names
+     */
+    public List<String> search(String query, int limit) {
+        List<String> result = new ArrayList<>();
+        String key = query == null ? "" : normalize(query);
+        if (key.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        // names starting with the whole query form one contiguous run of the sorted array
+        BitSet prefixHits = new BitSet(names.length);
+        for (int i = lowerBound(lowerNames, key); i < lowerNames.length && lowerNames[i].startsWith(key); i++) {
+            if (result.size() == limit) {
+                return result;
+            }
+            result.add(names[i]);
+            prefixHits.set(i);
+        }
+
+        BitSet candidates = matchAllTokens(tokenize(key));
+        if (candidates == null) {
+            return result;
+        }
+        candidates.andNot(prefixHits);
+
+        // rank by (length, id), packed into one long so the sort works on primitives
+        long[] ranked = new long[candidates.cardinality()];
+        int count = 0;
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            ranked[count++] = ((long) names[id].length() << 32) | id;
+        }
+        Arrays.sort(ranked);
+        for (int i = 0; i < count && result.size() < limit; i++) {
+            result.add(names[(int) ranked[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the names in which every query word is the start of some word of the name.
+     *
+     * @param queryTokens the lower-case query words
+     * @return the ids of the matching names, or null if there are no query words
+     */
+    private BitSet matchAllTokens(String[] queryTokens) {
+        BitSet matches = null;
+        for (String queryToken : queryTokens) {
+            BitSet tokenMatches = new BitSet(names.length);
+            for (int t = lowerBound(tokens, queryToken); t < tokens.length && tokens[t].startsWith(queryToken); t++) {
+                for (int id : postings[t]) {
+                    tokenMatches.set(id);
+                }
+            }
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Binary search for the first element that is not less than the key.
+     *
+     * @param sorted a sorted array
+     * @param key the value to search for
+     * @return the index of the first element {@code >= key}, or the array length if there is none
+     */
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param text the text to normalize
+     * @return the text trimmed and in lower case
+     */
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits normalized text into words at every character that is not a letter or digit.
+     *
+     * @param text normalized text
+     * @return the non-empty words
+     */
+    static String[] tokenize(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{Nd}]+"))
+            .filter(token -> !token.isEmpty())
+            .toArray(String[]::new);
+    }
+}
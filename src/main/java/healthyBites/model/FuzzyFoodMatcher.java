@@ -0,0 +1,266 @@
+package healthyBites.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A typo-tolerant search over food descriptions.
+ * <p>
+ * Every searchable text (an English description, or its French translation) is split into words
+ * and indexed by the trigrams of those words. A query first counts the trigrams it shares with each
+ * text to pick a few hundred candidates, then verifies each candidate by checking that every query
+ * word occurs in the text within a small edit distance. Results are ranked by total edit distance,
+ * then by shared trigrams, then by shortest text, and are always returned as the English
+ * description used everywhere else in the model.
+ * </p>
+ * <p>
+ * Case and accents are ignored, so "boeuf hache" finds "Bœuf haché" and "chedar chese" finds
+ * "Cheese, cheddar".
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class FuzzyFoodMatcher {
+
+    /** The number of best trigram candidates that are verified with the edit distance. */
+    private static final int MAX_CANDIDATES = 500;
+    /** Combining marks left over after decomposing accented letters. */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    /** Runs of characters that separate words. */
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    /** The normalized searchable texts. */
+    private final String[] texts;
+    /** For each searchable text, the English description it resolves to. */
+    private final String[] canonicalNames;
+    /** For each trigram, the ascending ids of the texts containing it. */
+    private final Map<String, int[]> postings;
+
+    /**
+     * Builds a matcher over the given descriptions.
+     *
+     * @param names the English food descriptions
+     * @param alternateNames other descriptions of the same foods, aligned with {@code names}
+     *                       (for example the French descriptions); may be null, as may any element
+     */
+    public FuzzyFoodMatcher(List<String> names, List<String> alternateNames) {
+        List<String> textList = new ArrayList<>();
+        List<String> canonicalList = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            addText(textList, canonicalList, name, name);
+            if (alternateNames != null && alternateNames.get(i) != null) {
+                addText(textList, canonicalList, alternateNames.get(i), name);
+            }
+        }
+        texts = textList.toArray(new String[0]);
+        canonicalNames = canonicalList.toArray(new String[0]);
+
+        Map<String, List<Integer>> postingLists = new HashMap<>();
+        for (int id = 0; id < texts.length; id++) {
+            for (String gram : trigrams(texts[id].split(" "))) {
+                postingLists.computeIfAbsent(gram, k -> new ArrayList<>()).add(id);
+            }
+        }
+        postings = new HashMap<>(postingLists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : postingLists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Adds a searchable text unless it normalizes to nothing.
+     *
+     * @param textList the normalized texts being collected
+     * @param canonicalList the English descriptions aligned with {@code textList}
+     * @param text the text to add
+     * @param canonical the English description the text resolves to
+     */
+    private static void addText(List<String> textList, List<String> canonicalList, String text, String canonical) {
+        String normalized = normalize(text);
+        if (!normalized.isEmpty()) {
+            textList.add(normalized);
+            canonicalList.add(canonical);
+        }
+    }
+
+    /**
+     * Finds the foods whose description, in either language, matches the query despite typos.
+     *
+     * @param query the text the user typed
+     * @param limit the maximum number of names to return
+     * @return up to {@code limit} distinct English descriptions, best match first
+     */
+    public List<String> search(String query, int limit) {
+        String normalized = query == null ? "" : normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String[] queryWords = normalized.split(" ");
+
+        // count the trigrams each text shares with the query
+        int[] shared = new int[texts.length];
+        int[] touched = new int[texts.length];
+        int touchedCount = 0;
+        for (String gram : trigrams(queryWords)) {
+            int[] ids = postings.get(gram);
+            if (ids == null) continue;
+            for (int id : ids) {
+                if (shared[id]++ == 0) {
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        // keep the texts sharing the most trigrams, packed as (count, id) so the sort works on primitives
+        long[] byCount = new long[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            byCount[i] = ((long) shared[touched[i]] << 32) | touched[i];
+        }
+        Arrays.sort(byCount);
+
+        int candidateCount = Math.min(MAX_CANDIDATES, touchedCount);
+        int[] matchIds = new int[candidateCount];
+        int[] distances = new int[texts.length];
+        int matchCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int id = (int) byCount[touchedCount - 1 - i];
+            int distance = distance(queryWords, texts[id]);
+            if (distance >= 0) {
+                distances[id] = distance;
+                matchIds[matchCount++] = id;
+            }
+        }
+
+        Integer[] ranked = new Integer[matchCount];
+        for (int i = 0; i < matchCount; i++) {
+            ranked[i] = matchIds[i];
+        }
+        Arrays.sort(ranked, (a, b) -> {
+            if (distances[a] != distances[b]) return Integer.compare(distances[a], distances[b]);
+            if (shared[a] != shared[b]) return Integer.compare(shared[b], shared[a]);
+            return Integer.compare(texts[a].length(), texts[b].length());
+        });
+
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < ranked.length && result.size() < limit; i++) {
+            result.add(canonicalNames[ranked[i]]);
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * @return the number of searchable texts in the index
+     */
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * Sums, over the query words, the smallest edit distance between the word and any part of the text.
+     *
+     * @param queryWords the normalized query words
+     * @param text a normalized searchable text
+     * @return the total distance, or -1 if some word is further than its allowed number of edits
+     */
+    static int distance(String[] queryWords, String text) {
+        int total = 0;
+        for (String word : queryWords) {
+            int allowed = allowedEdits(word.length());
+            int d = substringDistance(word, text);
+            if (d > allowed) {
+                return -1;
+            }
+            total += d;
+        }
+        return total;
+    }
+
+    /**
+     * The number of typos tolerated in a query word: none for very short words, one for
+     * medium words and two for long words.
+     *
+     * @param length the length of the word
+     * @return the maximum edit distance
+     */
+    static int allowedEdits(int length) {
+        if (length <= 3) return 0;
+        if (length <= 6) return 1;
+        return 2;
+    }
+
+    /**
+     * Computes the smallest edit distance between a pattern and any substring of a text
+     * (Sellers' algorithm), stopping early on an exact occurrence. Swapping two adjacent
+     * letters counts as one edit, since it is one of the most common typos.
+     *
+     * @param pattern the query word
+     * @param text the text to search
+     * @return the smallest edit distance
+     */
+    static int substringDistance(String pattern, String text) {
+        int m = pattern.length();
+        int[] beforePrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 0; j < text.length() && best > 0; j++) {
+            char c = text.charAt(j);
+            current[0] = 0; // a match may start anywhere in the text
+            for (int i = 1; i <= m; i++) {
+                int substitute = previous[i - 1] + (pattern.charAt(i - 1) == c ? 0 : 1);
+                current[i] = Math.min(substitute, Math.min(previous[i], current[i - 1]) + 1);
+                if (i > 1 && j > 0 && pattern.charAt(i - 1) == text.charAt(j - 1) && pattern.charAt(i - 2) == c) {
+                    current[i] = Math.min(current[i], beforePrevious[i - 2] + 1);
+                }
+            }
+            best = Math.min(best, current[m]);
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    /**
+     * Collects the distinct trigrams of some words, each word padded with a space on both sides
+     * so that short words and word boundaries still produce trigrams.
+     *
+     * @param words normalized words
+     * @return the trigrams
+     */
+    static Set<String> trigrams(String[] words) {
+        Set<String> grams = new HashSet<>();
+        for (String word : words) {
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Lower-cases text, removes accents and reduces every run of separators to one space.
+     *
+     * @param text the text to normalize
+     * @return the normalized text, possibly empty
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.replace("œ", "oe").replace("Œ", "OE"), Normalizer.Form.NFD);
+        String plain = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -1,16 +1,23 @@
 package healthyBites.model;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Meal represents a class to store a meal 
  * with type (breakfast, lunch, etc),
  * the date it was eaten, and a list of food items included in the meal.
+ * Meals are immutable values: two meals are equal when they have the same database id,
+ * day, type and food items, so they can be used as keys of hash-based caches.
  */
-public class Meal {
+public final class Meal {
+    private final int id; // database id, or 0 if the meal has not been saved
     private final String type;
     private final List<FoodItem> foodItems;
     private final Date date;
+    private final int epochDay; // day the meal was eaten, as days since 1970-01-01
+    private int hash; // cached hash code, 0 until computed
 
     /**
      * Constructs a Meal object.
@@ -20,11 +27,34 @@ public class Meal {
      * @param type the type of the meal (e.g., breakfast, lunch)
      */
     public Meal(Date date, List<FoodItem> foodItems, String type) {
+        this(0, date, foodItems, type);
+    }
+
+    /**
+     * Constructs a Meal object for a meal that has been saved to the database.
+     *
+     * @param id the database id of the meal
+     * @param date the date the meal was eaten
+     * @param foodItems the list of food items in the meal
+     * @param type the type of the meal (e.g., breakfast, lunch)
+     */
+    public Meal(int id, Date date, List<FoodItem> foodItems, String type) {
+        this.id = id;
         this.date = date;
-        this.foodItems = foodItems;
+        this.epochDay = EpochDays.of(date);
+        this.foodItems = List.copyOf(foodItems);
         this.type = type;
     }
 
+    /**
+     * Gets the database id of the meal.
+     *
+     * @return the meal id, or 0 if the meal has not been saved
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Gets the type of the meal (e.g., breakfast, lunch).
      *
@@ -37,7 +67,7 @@ public class Meal {
     /**
      * Gets the list of food items in the meal.
      *
-     * @return list of food items
+     * @return unmodifiable list of food items
      */
     public List<FoodItem> getFoodItems() {
         return foodItems;
@@ -51,4 +81,66 @@ public class Meal {
     public Date getDate() {
         return date;
     }
+
+    /**
+     * Gets the day the meal was eaten as an epoch day (days since 1970-01-01).
+     * Use this rather than formatting {@link #getDate()} when grouping or comparing meals by day.
+     *
+     * @return the epoch day of the meal
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * Gets the day the meal was eaten as a {@link LocalDate}.
+     *
+     * @return the local date of the meal
+     */
+    public LocalDate getLocalDate() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Compares this meal with another for equality.
+     * The date is compared by day, since the time of day of a meal is not stored.
+     *
+     * @param o the object to compare
+     * @return true if both meals have the same id, day, type and food items
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Meal meal)) return false;
+        return id == meal.id &&
+               epochDay == meal.epochDay &&
+               Objects.equals(type, meal.type) &&
+               foodItems.equals(meal.foodItems);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     * It is computed once, since a meal never changes.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(id, epochDay, type, foodItems);
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of the meal.
+     *
+     * @return string format of the meal
+     */
+    @Override
+    public String toString() {
+        return type + " on " + getLocalDate() + " " + foodItems;
+    }
 }
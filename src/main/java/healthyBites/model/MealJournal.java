@@ -0,0 +1,332 @@
+package healthyBites.model;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVParser;
+import com.opencsv.exceptions.CsvValidationException;
+
+/**
+ * An append-only local journal of meals that have been logged but not yet written to the database.
+ * <p>
+ * Each logged meal is appended as one CSV record and forced to disk before {@link #append} returns,
+ * so a meal that has been acknowledged survives a crash or a database outage. Once a batch of meals
+ * has been committed to the database, a flush record is appended for each of them; when no meal is
+ * left waiting, the file is truncated so it never grows beyond the meals still in flight.
+ * On startup, {@link #replay()} returns the meals that were journaled but never flushed.
+ * </p>
+ * <p>
+ * Records have the form {@code M,seq,key,email,epochDay,type,itemCount,(foodId,name,quantity,measureId,unit)*}
+ * for a meal and {@code F,seq} for a flushed meal. The key is a random number that the stores keep
+ * with the meal, so a meal that was committed but not yet marked flushed when the application
+ * stopped is recognized, and not stored again, when it is replayed. A missing unit is written as {@code \N}, so it
+ * reads back as null rather than as an empty unit (see {@link #encodeNullable}). A record cut short
+ * by a crash is ignored, since the meal it describes was never acknowledged.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class MealJournal implements AutoCloseable {
+
+    private static final String MEAL_RECORD = "M";
+    private static final String FLUSH_RECORD = "F";
+    private static final int ITEM_FIELDS = 5;
+    private static final String NULL_FIELD = "\\N";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final SecureRandom keys = new SecureRandom();
+    private long nextSequence = 1;
+    private int unflushed; // meals appended (or replayed) and not yet flushed
+
+    /**
+     * A meal recorded in the journal.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final long key;
+        private final String email;
+        private final Meal meal;
+        private final boolean replayed;
+
+        Entry(long sequence, long key, String email, Meal meal, boolean replayed) {
+            this.sequence = sequence;
+            this.key = key;
+            this.email = email;
+            this.meal = meal;
+            this.replayed = replayed;
+        }
+
+        /** @return the position of the meal in the journal */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /** @return the idempotency key of the meal, never 0, which the stores keep with it */
+        public long getKey() {
+            return key;
+        }
+
+        /** @return the email of the user who logged the meal */
+        public String getEmail() {
+            return email;
+        }
+
+        /** @return the meal as it was logged */
+        public Meal getMeal() {
+            return meal;
+        }
+
+        /** @return true if the meal was read back from the journal on startup */
+        public boolean isReplayed() {
+            return replayed;
+        }
+
+        /**
+         * @param meal the meal to carry instead, such as the meal as it was saved
+         * @return a copy of this entry carrying the given meal
+         */
+        public Entry withMeal(Meal meal) {
+            return new Entry(sequence, key, email, meal, replayed);
+        }
+    }
+
+    /**
+     * Opens the journal, creating the file if it does not exist.
+     *
+     * @param file the journal file
+     * @throws IOException if the file cannot be opened
+     */
+    public MealJournal(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    /**
+     * Reads back the meals that were journaled but never flushed, oldest first.
+     * Call this once, before appending.
+     *
+     * @return the unflushed meals
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized List<Entry> replay() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            // drop a record cut short by a crash, so the next append starts on a fresh line
+            channel.truncate(end);
+            channel.position(end);
+            channel.force(true);
+        }
+        String content = new String(bytes, 0, end, StandardCharsets.UTF_8);
+        Map<Long, Entry> pending = new LinkedHashMap<>();
+        try (CSVReader reader = newReader(content)) {
+            String[] record;
+            while ((record = readRecord(reader)) != null) {
+                try {
+                    if (MEAL_RECORD.equals(record[0])) {
+                        Entry entry = parseMeal(record);
+                        pending.put(entry.getSequence(), entry);
+                        nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+                    } else if (FLUSH_RECORD.equals(record[0]) && record.length == 2) {
+                        pending.remove(parseLong(record[1]));
+                    }
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace(); // skip a damaged record, keep replaying the ones after it
+                }
+            }
+        }
+        unflushed = pending.size();
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Appends a meal and forces it to disk.
+     *
+     * @param email the email of the user who logged the meal
+     * @param meal the meal
+     * @return the journal entry of the meal
+     * @throws IOException if the meal could not be made durable
+     */
+    public synchronized Entry append(String email, Meal meal) throws IOException {
+        Entry entry = new Entry(nextSequence, newKey(), email, meal, false);
+        List<String> record = new ArrayList<>();
+        record.add(MEAL_RECORD);
+        record.add(Long.toString(entry.getSequence()));
+        record.add(Long.toString(entry.getKey()));
+        record.add(email);
+        record.add(Integer.toString(meal.getEpochDay()));
+        record.add(meal.getType());
+        record.add(Integer.toString(meal.getFoodItems().size()));
+        for (FoodItem item : meal.getFoodItems()) {
+            record.add(Integer.toString(item.getFoodId()));
+            record.add(item.getName());
+            record.add(Double.toString(item.getQuantity()));
+            record.add(Integer.toString(item.getMeasureId()));
+            record.add(encodeNullable(item.getUnit()));
+        }
+        write(record.toArray(new String[0]));
+        nextSequence++;
+        unflushed++;
+        return entry;
+    }
+
+    // a random idempotency key; 0 is left for meals stored without one
+    private long newKey() {
+        long key;
+        do {
+            key = keys.nextLong();
+        } while (key == 0);
+        return key;
+    }
+
+    /**
+     * Records that some meals have been committed to the database. When no meal is left
+     * waiting, the journal is emptied instead.
+     *
+     * @param entries the meals that were committed
+     * @throws IOException if the journal could not be updated
+     */
+    public synchronized void markFlushed(List<Entry> entries) throws IOException {
+        unflushed = Math.max(0, unflushed - entries.size());
+        if (unflushed == 0) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            return;
+        }
+        for (Entry entry : entries) {
+            write(new String[] { FLUSH_RECORD, Long.toString(entry.getSequence()) });
+        }
+    }
+
+    /**
+     * @return the number of journaled meals that have not been flushed
+     */
+    public synchronized int getUnflushedCount() {
+        return unflushed;
+    }
+
+    /**
+     * Closes the journal file. Unflushed meals stay in it and are replayed on the next start.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // writes one record and forces it, with the file size, to disk
+    private void write(String[] record) throws IOException {
+        StringWriter line = new StringWriter();
+        try (CSVWriter writer = new CSVWriter(line)) {
+            writer.writeNext(record, false);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Creates a reader of records written by a {@link CSVWriter}. The writer escapes quotes by
+     * doubling them and leaves backslashes alone, so the reader must not treat them as escapes.
+     *
+     * @param content the records
+     * @return the reader
+     */
+    public static CSVReader newReader(String content) {
+        return new CSVReaderBuilder(new StringReader(content))
+            .withCSVParser(new CSVParserBuilder().withEscapeChar(ICSVParser.NULL_CHARACTER).build())
+            .build();
+    }
+
+    // the next record, or null at the end of the file; a line that cannot be read is logged and
+    // skipped, as the records after it are intact. A record cut short by a crash was already dropped
+    private static String[] readRecord(CSVReader reader) throws IOException {
+        while (true) {
+            try {
+                String[] record = reader.readNext();
+                if (record == null || record.length > 0) {
+                    return record;
+                }
+            } catch (CsvValidationException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // a meal record; throws IllegalArgumentException if it is damaged
+    private static Entry parseMeal(String[] record) {
+        if (record.length < 7) {
+            throw new IllegalArgumentException("Meal record with " + record.length + " fields");
+        }
+        int itemCount = Integer.parseInt(record[6]);
+        if (record.length != 7 + itemCount * ITEM_FIELDS) {
+            throw new IllegalArgumentException("Meal record with " + record.length + " fields for " + itemCount + " items");
+        }
+        List<FoodItem> items = new ArrayList<>(itemCount);
+        for (int i = 7; i < record.length; i += ITEM_FIELDS) {
+            items.add(new FoodItem(Integer.parseInt(record[i]), record[i + 1], Double.parseDouble(record[i + 2]),
+                                   Integer.parseInt(record[i + 3]), decodeNullable(record[i + 4])));
+        }
+        Meal meal = new Meal(EpochDays.toDate(Integer.parseInt(record[4])), items, record[5]);
+        return new Entry(Long.parseLong(record[1]), Long.parseLong(record[2]), record[3], meal, true);
+    }
+
+    /**
+     * Encodes a value that may be null as a CSV field. Null is written as {@code \N}, and a value
+     * starting with a backslash gets one more, so every value reads back as it was written.
+     *
+     * @param value the value, or null
+     * @return the field
+     */
+    public static String encodeNullable(String value) {
+        if (value == null)
+            return NULL_FIELD;
+        return value.startsWith("\\") ? "\\" + value : value;
+    }
+
+    /**
+     * Decodes a field written by {@link #encodeNullable}.
+     *
+     * @param field the field
+     * @return the value, or null
+     */
+    public static String decodeNullable(String field) {
+        if (NULL_FIELD.equals(field))
+            return null;
+        return field.startsWith("\\") ? field.substring(1) : field;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
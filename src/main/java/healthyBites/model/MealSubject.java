@@ -15,6 +15,16 @@ public interface MealSubject {
      */
     void removeObserver(MealObserver o);
 
+    /**
+     * Sets the user whose meals the observers are notified of, loading the user's meal history
+     * in step with the meals being written, so that each meal is either in the loaded history or
+     * notified afterwards. Meals of other users are not notified.
+     *
+     * @param email the email of the logged in user, or null when no one is logged in
+     * @param loadHistory loads the meal history of the user into the observers
+     */
+    void observeUser(String email, Runnable loadHistory);
+
     /**
      * Notifies all registered observers about a meal and its nutritional value.
      *
@@ -0,0 +1,300 @@
+package healthyBites.model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Collects the latency of operations and the hit ratio of caches, for the model proxy and
+ * the controller.
+ * <p>
+ * Recording is lock-free and does no I/O: a {@link Timer} adds a nanosecond latency to a
+ * histogram of atomic counters, and a {@link Cache} counts hits and misses with
+ * {@link LongAdder}s. The histogram buckets have 8 linear steps per power of two, so a
+ * percentile is reported within 12.5% of the true value. Reports are taken on demand with
+ * {@link #snapshot()} or periodically with {@link #startReporting}; both are cumulative since
+ * the registry was created.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private static final int SUB_BUCKET_BITS = 3; // 8 buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS; // values below this have a bucket each
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+    private ScheduledFuture<?> report;
+
+    /**
+     * @return the registry of the application
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param name the name of an operation
+     * @return the timer of the operation, created on first use
+     */
+    public Timer timer(String name) {
+        Timer timer = timers.get(name);
+        return timer != null ? timer : timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    /**
+     * @param name the name of a cache
+     * @return the hit and miss counters of the cache, created on first use
+     */
+    public Cache cache(String name) {
+        Cache cache = caches.get(name);
+        return cache != null ? cache : caches.computeIfAbsent(name, n -> new Cache());
+    }
+
+    /**
+     * @return the current values of every timer and cache
+     */
+    public Snapshot snapshot() {
+        Map<String, TimerSnapshot> timerSnapshots = new TreeMap<>();
+        timers.forEach((name, timer) -> timerSnapshots.put(name, timer.snapshot()));
+        Map<String, CacheSnapshot> cacheSnapshots = new TreeMap<>();
+        caches.forEach((name, cache) -> cacheSnapshots.put(name, new CacheSnapshot(cache.hits.sum(), cache.misses.sum())));
+        return new Snapshot(timerSnapshots, cacheSnapshots);
+    }
+
+    /**
+     * Hands a snapshot to a reporter at a fixed period, on a background thread, replacing
+     * any reporting started before.
+     *
+     * @param period the time between reports
+     * @param unit the unit of the period
+     * @param consumer receives each snapshot, e.g. {@code System.out::print}
+     */
+    public synchronized void startReporting(long period, TimeUnit unit, Consumer<Snapshot> consumer) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("The reporting period must be positive");
+        }
+        stopReporting();
+        if (reporter == null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        report = reporter.scheduleAtFixedRate(() -> consumer.accept(snapshot()), period, period, unit);
+    }
+
+    /**
+     * Stops the periodic reporting, if any.
+     */
+    public synchronized void stopReporting() {
+        if (report != null) {
+            report.cancel(false);
+            report = null;
+        }
+    }
+
+    // the histogram bucket of a latency
+    static int bucketOf(long nanos) {
+        if (nanos < LINEAR_LIMIT) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos); // at least SUB_BUCKET_BITS + 1
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // the largest latency that falls in a bucket
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * The latency histogram and call and error counts of an operation.
+     */
+    public static final class Timer {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private final LongAdder errors = new LongAdder();
+
+        private Timer() {
+        }
+
+        /**
+         * Records a completed call.
+         *
+         * @param nanos the latency of the call, from {@link System#nanoTime()}
+         */
+        public void record(long nanos) {
+            buckets.incrementAndGet(bucketOf(nanos));
+            max.accumulate(nanos);
+        }
+
+        /**
+         * Records a call that threw; its latency is recorded as well.
+         *
+         * @param nanos the latency of the call, from {@link System#nanoTime()}
+         */
+        public void recordError(long nanos) {
+            errors.increment();
+            record(nanos);
+        }
+
+        private TimerSnapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            long maxNanos = max.get();
+            return new TimerSnapshot(count, errors.sum(), percentile(counts, count, 50, maxNanos),
+                percentile(counts, count, 90, maxNanos), percentile(counts, count, 99, maxNanos), maxNanos);
+        }
+
+        private static long percentile(long[] counts, long count, double percentile, long maxNanos) {
+            long rank = (long) Math.ceil(percentile / 100 * count); // nearest rank
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(upperBoundOf(i), maxNanos);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * The hit and miss counts of a cache.
+     */
+    public static final class Cache {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private Cache() {
+        }
+
+        /** Records a lookup answered by the cache. */
+        public void hit() {
+            hits.increment();
+        }
+
+        /** Records a lookup the cache could not answer. */
+        public void miss() {
+            misses.increment();
+        }
+    }
+
+    /**
+     * The values of a timer when a snapshot was taken. Latencies are in nanoseconds.
+     */
+    public static final class TimerSnapshot {
+        private final long count, errors, p50, p90, p99, max;
+
+        TimerSnapshot(long count, long errors, long p50, long p90, long p99, long max) {
+            this.count = count;
+            this.errors = errors;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        /** @return the number of calls */
+        public long getCount() { return count; }
+
+        /** @return the number of calls that threw */
+        public long getErrors() { return errors; }
+
+        /** @return the median latency */
+        public long getP50() { return p50; }
+
+        /** @return the 90th percentile latency */
+        public long getP90() { return p90; }
+
+        /** @return the 99th percentile latency */
+        public long getP99() { return p99; }
+
+        /** @return the longest latency */
+        public long getMax() { return max; }
+    }
+
+    /**
+     * The counts of a cache when a snapshot was taken.
+     */
+    public static final class CacheSnapshot {
+        private final long hits, misses;
+
+        CacheSnapshot(long hits, long misses) {
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        /** @return the number of lookups answered by the cache */
+        public long getHits() { return hits; }
+
+        /** @return the number of lookups the cache could not answer */
+        public long getMisses() { return misses; }
+
+        /** @return the share of lookups answered by the cache, or 0 before any lookup */
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * The values of every timer and cache at one time, by name.
+     */
+    public static final class Snapshot {
+        private final Map<String, TimerSnapshot> timers;
+        private final Map<String, CacheSnapshot> caches;
+
+        Snapshot(Map<String, TimerSnapshot> timers, Map<String, CacheSnapshot> caches) {
+            this.timers = Collections.unmodifiableMap(timers);
+            this.caches = Collections.unmodifiableMap(caches);
+        }
+
+        /** @return the timers, sorted by name */
+        public Map<String, TimerSnapshot> getTimers() { return timers; }
+
+        /** @return the caches, sorted by name */
+        public Map<String, CacheSnapshot> getCaches() { return caches; }
+
+        /**
+         * @return a table of the timers, with latencies in milliseconds, and of the caches
+         */
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%-36s %10s %8s %10s %10s %10s %10s%n",
+                "operation", "calls", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+            timers.forEach((name, t) -> text.append(String.format("%-36s %10d %8d %10.3f %10.3f %10.3f %10.3f%n",
+                name, t.count, t.errors, t.p50 / 1e6, t.p90 / 1e6, t.p99 / 1e6, t.max / 1e6)));
+            caches.forEach((name, c) -> text.append(String.format("%-36s %10d hits %10d misses %6.1f%% hit ratio%n",
+                name, c.hits, c.misses, c.getHitRatio() * 100)));
+            return text.toString();
+        }
+    }
+}
@@ -51,6 +51,26 @@ public interface Model {
      */
     List<Meal> getMeals(String email);
 
+    /**
+     * Retrieves one page of a user's meals, newest first, using keyset pagination on (date, id).
+     *
+     * @param email the user's email
+     * @param after the last meal of the previous page, or null for the first page
+     * @param pageSize the maximum number of meals to return
+     * @return up to pageSize meals older than after, ordered by date and id descending
+     */
+    List<Meal> getMealsPage(String email, Meal after, int pageSize);
+
+    /**
+     * Checks whether the user has already logged a meal of a type on a day.
+     *
+     * @param email the user's email
+     * @param date the day to check; the time of day is ignored
+     * @param type the meal type (e.g., Breakfast)
+     * @return true if such a meal exists
+     */
+    boolean mealExists(String email, Date date, String type);
+
     /**
      * Gets the available units of measurement for a given food.
      *
@@ -66,6 +86,23 @@ public interface Model {
      */
     List<String> getFoodNames(); // + getFoodItemsList(): List <String>
 
+    /**
+     * Searches the available food items by English or French description, tolerating typos.
+     *
+     * @param query the text the user typed
+     * @param limit the maximum number of names to return
+     * @return up to limit English food descriptions, best match first
+     */
+    List<String> searchFoodNames(String query, int limit);
+
+    /**
+     * Translates a food description given in English or French into the English description.
+     *
+     * @param name the food description in either language
+     * @return the English food description, or null if no food has that description
+     */
+    String resolveFoodName(String name);
+
     /**
      * Gets the nutritional value of a food item.
      *
@@ -82,6 +119,21 @@ public interface Model {
      */
     Nutrition getMealNutrtionalValue(Meal originalMeal); // new
 
+    /**
+     * Creates empty running nutrient totals, to add meals into with {@link #addMealNutrition}.
+     *
+     * @return the totals
+     */
+    NutritionAccumulator newNutritionAccumulator();
+
+    /**
+     * Adds the nutritional value of a meal to running totals in place.
+     *
+     * @param meal the meal
+     * @param totals the totals to add to
+     */
+    void addMealNutrition(Meal meal, NutritionAccumulator totals);
+
     // UC 3
     /**
      * Gets the names of all nutrients.
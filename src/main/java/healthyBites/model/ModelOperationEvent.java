@@ -0,0 +1,102 @@
+package healthyBites.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event for a call to an operation of the {@link ConcreteModel}.
+ * <p>
+ * By default only calls of 1 ms or more are recorded, so the recording can stay on in
+ * production; a recording setting such as {@code healthyBites.ModelOperation#threshold=0 ms}
+ * records every call. Users appear only as a hash of their email. Fields that cost a lookup
+ * are filled in after {@link #shouldCommit()}, so calls that are not recorded do not pay for them.
+ * </p>
+ * @author HealthyBites Team
+ */
+@Name("healthyBites.ModelOperation")
+@Label("Model Operation")
+@Category({ "HealthyBites", "Model" })
+@Description("A call to an operation of the model")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class ModelOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Email Hash")
+    @Description("The first 8 bytes of the SHA-256 of the user's lower-cased email, in hex")
+    String emailHash;
+
+    @Label("Items")
+    @Description("The food items of the meal the operation was given")
+    int itemCount;
+
+    @Label("Results")
+    @Description("The meals, food items or names the operation returned")
+    int resultCount;
+
+    @Label("Food Group")
+    @Description("The CNF food group of the food item the operation was given, or 0")
+    int foodGroup;
+
+    @Label("Candidates")
+    @Description("The foods the operation considered")
+    int candidateCount;
+
+    /**
+     * Creates and begins an event.
+     *
+     * @param operation the name of the model operation
+     * @return the event
+     */
+    static ModelOperationEvent begin(String operation) {
+        ModelOperationEvent event = new ModelOperationEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and records it, if it is enabled and over its threshold.
+     *
+     * @param email the email of the user the operation was for, or null
+     * @param itemCount the food items the operation was given
+     * @param resultCount the results the operation returned
+     */
+    void finish(String email, int itemCount, int resultCount) {
+        end();
+        if (shouldCommit()) {
+            this.emailHash = email == null ? null : hashOf(email);
+            this.itemCount = itemCount;
+            this.resultCount = resultCount;
+            commit();
+        }
+    }
+
+    /**
+     * Hashes an email, so recordings can tell users apart without holding their emails.
+     *
+     * @param email an email
+     * @return the first 8 bytes of the SHA-256 of the lower-cased email, in hex
+     */
+    public static String hashOf(String email) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // every JDK has SHA-256
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package healthyBites.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A canonicalizing registry (flyweight pool) for the strings the model reads over and over:
+ * food descriptions, measure descriptions, nutrient names and meal types.
+ * <p>
+ * JDBC returns a new {@code String} for every column of every row, so a long meal history and
+ * the nutrient maps computed from it would otherwise hold many copies of the same few thousand
+ * names. Passing each of those strings through {@link #intern(String)} keeps one shared instance
+ * per distinct value. The registry starts empty and is filled lazily as {@code JdbcStorage}
+ * interns the strings it reads, so once a name has been read (for a meal, a nutrient map or a
+ * reference list) every later read of it shares that instance; when an int key is preferable,
+ * the CNF id of a name is available from {@link ReferenceNameIndex}.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class NameRegistry {
+
+    /** Canonical instance of every string seen so far, keyed by itself. */
+    private final ConcurrentHashMap<String, String> canonical = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared instance equal to the given string, registering the string if it is new.
+     *
+     * @param name a name read from the database, or null
+     * @return the canonical instance, or null if {@code name} is null
+     */
+    public String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        String existing = canonical.putIfAbsent(name, name);
+        return existing != null ? existing : name;
+    }
+
+    /**
+     * @return the number of distinct names registered
+     */
+    public int size() {
+        return canonical.size();
+    }
+}
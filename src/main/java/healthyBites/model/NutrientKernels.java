@@ -0,0 +1,141 @@
+package healthyBites.model;
+
+/**
+ * Arithmetic on nutrient vectors: arrays of nutrient amounts laid out in the columns of the
+ * {@link NutrientMatrix}. Adding up a meal, a day or a range of days is a sequence of
+ * {@code totals += quantity × conversion factor × amounts per reference quantity}, which these
+ * kernels do a whole vector at a time.
+ * <p>
+ * When the application is built with {@code mvn -Pvector} and the {@code jdk.incubator.vector}
+ * module is present (run with {@code --add-modules jdk.incubator.vector}) the kernels use SIMD
+ * instructions through the Vector API; otherwise, or with {@code -DhealthyBites.vector=false},
+ * they fall back to plain loops, which give the same results up to rounding.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class NutrientKernels {
+
+    /**
+     * One implementation of the kernels.
+     */
+    interface Kernel {
+        void addScaled(double[] totals, double[] amounts, int offset, double scale);
+
+        void scale(double[] amounts, double scale);
+    }
+
+    private static final Kernel SCALAR = new ScalarKernel();
+    private static final Kernel KERNEL = select();
+
+    private NutrientKernels() {
+    }
+
+    private static Kernel select() {
+        if ("false".equalsIgnoreCase(System.getProperty("healthyBites.vector"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return SCALAR;
+        try {
+            return (Kernel) Class.forName("healthyBites.model.VectorNutrientKernel").getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException ex) {
+            return SCALAR; // built without the vector profile
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            ex.printStackTrace(); // the plain loops still work
+            return SCALAR;
+        }
+    }
+
+    /**
+     * @return true if the kernels use the Vector API
+     */
+    public static boolean isVectorized() {
+        return KERNEL != SCALAR;
+    }
+
+    /**
+     * Adds a food item's nutrients to running totals:
+     * {@code totals[i] += quantity * conversionFactor * amounts[i]}.
+     *
+     * @param totals the running totals, updated in place
+     * @param amounts the amounts per reference quantity, at least as long as totals
+     * @param quantity the quantity of the food item
+     * @param conversionFactor the conversion factor of its unit
+     */
+    public static void addScaled(double[] totals, double[] amounts, double quantity, double conversionFactor) {
+        addScaled(totals, amounts, quantity * conversionFactor);
+    }
+
+    /**
+     * Adds a scaled vector to running totals: {@code totals[i] += scale * amounts[i]}.
+     *
+     * @param totals the running totals, updated in place
+     * @param amounts the vector to add, at least as long as totals
+     * @param scale the factor to multiply the vector by
+     */
+    public static void addScaled(double[] totals, double[] amounts, double scale) {
+        addScaledAt(totals, amounts, 0, scale);
+    }
+
+    /**
+     * Adds a scaled vector, read from a larger array, to running totals:
+     * {@code totals[i] += scale * amounts[offset + i]}.
+     *
+     * @param totals the running totals, updated in place
+     * @param amounts the array holding the vector to add
+     * @param offset where the vector starts in amounts
+     * @param scale the factor to multiply the vector by
+     */
+    public static void addScaledAt(double[] totals, double[] amounts, int offset, double scale) {
+        checkRange(totals, amounts, offset);
+        KERNEL.addScaled(totals, amounts, offset, scale);
+    }
+
+    /**
+     * Adds a vector to running totals: {@code totals[i] += amounts[i]}.
+     *
+     * @param totals the running totals, updated in place
+     * @param amounts the vector to add, at least as long as totals
+     */
+    public static void add(double[] totals, double[] amounts) {
+        addScaled(totals, amounts, 1);
+    }
+
+    /**
+     * Multiplies a vector in place: {@code amounts[i] *= scale}.
+     *
+     * @param amounts the vector
+     * @param scale the factor
+     */
+    public static void scale(double[] amounts, double scale) {
+        KERNEL.scale(amounts, scale);
+    }
+
+    static Kernel scalar() {
+        return SCALAR;
+    }
+
+    static Kernel kernel() {
+        return KERNEL;
+    }
+
+    private static void checkRange(double[] totals, double[] amounts, int offset) {
+        if (offset < 0 || offset > amounts.length - totals.length)
+            throw new IllegalArgumentException("vector of " + totals.length + " at " + offset + " does not fit in " + amounts.length);
+    }
+
+    /**
+     * The plain loops, which the JIT may still unroll and vectorize on its own.
+     */
+    private static final class ScalarKernel implements Kernel {
+        @Override
+        public void addScaled(double[] totals, double[] amounts, int offset, double scale) {
+            for (int i = 0; i < totals.length; i++)
+                totals[i] += scale * amounts[offset + i];
+        }
+
+        @Override
+        public void scale(double[] amounts, double scale) {
+            for (int i = 0; i < amounts.length; i++)
+                amounts[i] *= scale;
+        }
+    }
+}
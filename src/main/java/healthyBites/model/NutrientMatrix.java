@@ -0,0 +1,227 @@
+package healthyBites.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import healthyBites.model.storage.ReferenceStore;
+
+/**
+ * The nutrient amounts of every CNF food, kept off the heap as one dense matrix of doubles
+ * with a row per food and a column per nutrient, in a direct buffer.
+ * <p>
+ * Only the index stays on the heap: the sorted food ids, which give the row of a food by
+ * binary search, the nutrient names with their columns, and one bit per cell marking the
+ * amounts the CNF lists. Unlisted amounts are stored as 0, so rows can be added up with the
+ * {@link NutrientKernels} as they are, while a food's {@link Nutrition} still holds exactly the
+ * nutrients it would have held when read from the database.
+ * </p>
+ * <p>
+ * The conversion factors from each food's reference quantity to its measures are loaded with the
+ * amounts. Once loaded, the matrix is only read, so any thread can compute nutrition from it
+ * without a query.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class NutrientMatrix {
+
+    private final int[] foodIds;        // sorted, the row of each food
+    private final int[] nutrientIds;    // sorted, the column of each nutrient
+    private final String[] nutrientNames;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final DoubleBuffer values;
+    private final BitSet listed;
+    private final Map<Long, Double> conversionFactors = new HashMap<>(); // key: (foodId << 32) | measureId
+    private final ThreadLocal<double[]> rowBuffer;
+
+    /**
+     * Creates a matrix with no amounts.
+     *
+     * @param foodIds the CNF food ids
+     * @param nutrientIds the CNF nutrient ids
+     * @param nutrientNames the nutrient names, in the order of nutrientIds
+     */
+    public NutrientMatrix(int[] foodIds, int[] nutrientIds, String[] nutrientNames) {
+        if (nutrientIds.length != nutrientNames.length)
+            throw new IllegalArgumentException("one name per nutrient is needed");
+        this.foodIds = foodIds.clone();
+        Arrays.sort(this.foodIds);
+
+        Integer[] order = new Integer[nutrientIds.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(nutrientIds[a], nutrientIds[b]));
+        this.nutrientIds = new int[order.length];
+        this.nutrientNames = new String[order.length];
+        for (int column = 0; column < order.length; column++) {
+            this.nutrientIds[column] = nutrientIds[order[column]];
+            this.nutrientNames[column] = nutrientNames[order[column]];
+            columns.putIfAbsent(nutrientNames[order[column]], column);
+        }
+
+        long size = (long) this.foodIds.length * this.nutrientIds.length;
+        if (size > Integer.MAX_VALUE / Double.BYTES)
+            throw new IllegalArgumentException("too many foods and nutrients: " + size);
+        values = ByteBuffer.allocateDirect((int) size * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        listed = new BitSet((int) size);
+        rowBuffer = ThreadLocal.withInitial(() -> new double[this.nutrientIds.length]);
+    }
+
+    /**
+     * Loads the nutrient amounts of all foods from the reference data.
+     *
+     * @param reference the reference data
+     * @return the matrix
+     */
+    public static NutrientMatrix load(ReferenceStore reference) {
+        ReferenceNameIndex names = reference.loadReferenceNames();
+        int[] nutrientIds = names.getNutrients().getIds();
+        String[] nutrientNames = new String[nutrientIds.length];
+        for (int i = 0; i < nutrientIds.length; i++)
+            nutrientNames[i] = names.getNutrients().getName(nutrientIds[i], ReferenceNameIndex.Language.ENGLISH);
+
+        NutrientMatrix matrix = new NutrientMatrix(names.getFoods().getIds(), nutrientIds, nutrientNames);
+        reference.forEachNutrientAmount(matrix::set);
+        reference.forEachConversionFactor(matrix::setConversionFactor);
+        return matrix;
+    }
+
+    /**
+     * Sets the factor from a food's reference quantity to one of its measures.
+     *
+     * @param foodId the CNF food id
+     * @param measureId the CNF measure id
+     * @param factor the conversion factor
+     */
+    public void setConversionFactor(int foodId, int measureId, double factor) {
+        conversionFactors.put(((long) foodId << 32) | (measureId & 0xFFFFFFFFL), factor);
+    }
+
+    /**
+     * @param foodId the CNF food id
+     * @param measureId the CNF measure id
+     * @return the factor from the food's reference quantity to the measure, or -1 if the food has no such measure
+     */
+    public double conversionFactorOf(int foodId, int measureId) {
+        Double factor = conversionFactors.get(((long) foodId << 32) | (measureId & 0xFFFFFFFFL));
+        return factor == null ? -1 : factor;
+    }
+
+    /**
+     * Sets an amount; amounts of unknown foods or nutrients are ignored.
+     *
+     * @param foodId the CNF food id
+     * @param nutrientId the CNF nutrient id
+     * @param value the amount per reference quantity
+     */
+    public void set(int foodId, int nutrientId, double value) {
+        int row = rowOf(foodId), column = Arrays.binarySearch(nutrientIds, nutrientId);
+        if (row >= 0 && column >= 0) {
+            values.put(row * nutrientIds.length + column, value);
+            listed.set(row * nutrientIds.length + column);
+        }
+    }
+
+    /**
+     * @param foodId the CNF food id
+     * @return the row of the food, or a negative number if the food is unknown
+     */
+    public int rowOf(int foodId) {
+        return Arrays.binarySearch(foodIds, foodId);
+    }
+
+    /**
+     * @param nutrientName the nutrient name, as in the CNF
+     * @return the column of the nutrient, or -1 if the nutrient is unknown
+     */
+    public int columnOf(String nutrientName) {
+        Integer column = columns.get(nutrientName);
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * Reads one amount, scaled, without building a {@link Nutrition}.
+     *
+     * @param row the row of the food
+     * @param column the column of the nutrient
+     * @param scale the factor to multiply the amount by
+     * @return the scaled amount, 0 if the CNF does not list it
+     */
+    public double get(int row, int column, double scale) {
+        if (row < 0 || column < 0)
+            return 0;
+        return values.get(row * nutrientIds.length + column) * scale;
+    }
+
+    /**
+     * Adds a scaled row to running totals, {@code totals[column] += scale * amount}, with the
+     * {@link NutrientKernels}.
+     *
+     * @param totals the running totals, one per column, updated in place
+     * @param row the row of the food; nothing is added for a negative row
+     * @param scale the factor to multiply the amounts by
+     */
+    public void addTo(double[] totals, int row, double scale) {
+        if (row < 0)
+            return;
+        double[] amounts = rowBuffer.get();
+        values.get(row * nutrientIds.length, amounts);
+        NutrientKernels.addScaled(totals, amounts, scale);
+    }
+
+    /**
+     * Marks the columns the CNF lists for a food.
+     *
+     * @param listed one flag per column, set in place for every amount the food has
+     * @param row the row of the food; nothing is marked for a negative row
+     */
+    public void markListed(boolean[] listed, int row) {
+        if (row < 0)
+            return;
+        int start = row * nutrientIds.length;
+        for (int column = this.listed.nextSetBit(start); column >= 0 && column < start + nutrientIds.length;
+                column = this.listed.nextSetBit(column + 1))
+            listed[column - start] = true;
+    }
+
+    /**
+     * @param column the column of a nutrient
+     * @return the nutrient's name
+     */
+    public String getNutrientName(int column) {
+        return nutrientNames[column];
+    }
+
+    /**
+     * Builds the nutrition of an amount of a food.
+     *
+     * @param foodId the CNF food id
+     * @param scale the factor to multiply the amounts by
+     * @return the nutrients listed for the food, scaled; empty if the food is unknown
+     */
+    public Nutrition nutritionOf(int foodId, double scale) {
+        Map<String, Double> nutrients = new HashMap<>();
+        int row = rowOf(foodId);
+        if (row >= 0) {
+            for (int column = 0, start = row * nutrientIds.length; column < nutrientIds.length; column++) {
+                if (listed.get(start + column))
+                    nutrients.put(nutrientNames[column], values.get(start + column) * scale);
+            }
+        }
+        return new Nutrition(nutrients);
+    }
+
+    /** @return the number of foods */
+    public int getFoodCount() {
+        return foodIds.length;
+    }
+
+    /** @return the number of nutrients */
+    public int getNutrientCount() {
+        return nutrientIds.length;
+    }
+}
@@ -0,0 +1,99 @@
+package healthyBites.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running nutrient totals, added to in place. Unlike {@link Nutrition#add}, which builds a new
+ * map for every item, an accumulator keeps one array per nutrient column of the
+ * {@link NutrientMatrix} and adds food items into it with the {@link NutrientKernels}, so a
+ * meal, a day or a year of meals is summed without allocating per item. Call {@link #reset()}
+ * to reuse it for the next meal or day, and {@link #toNutrition()} once the totals are needed
+ * by name.
+ * <p>
+ * An accumulator is not thread-safe; use one per thread.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class NutritionAccumulator {
+
+    private final NutrientMatrix matrix;
+    private final double[] totals;
+    private final boolean[] listed; // nutrients at least one added food has, as with the keys of a Nutrition
+
+    /**
+     * @param matrix the nutrient amounts the food items are read from
+     */
+    public NutritionAccumulator(NutrientMatrix matrix) {
+        this.matrix = matrix;
+        this.totals = new double[matrix.getNutrientCount()];
+        this.listed = new boolean[matrix.getNutrientCount()];
+    }
+
+    /**
+     * Adds an amount of a food: its amounts per reference quantity times a scale.
+     *
+     * @param row the food's row in the matrix; an unknown (negative) row adds nothing
+     * @param scale quantity × conversion factor of the food item
+     */
+    public void addScaled(int row, double scale) {
+        matrix.addTo(totals, row, scale);
+        matrix.markListed(listed, row);
+    }
+
+    /**
+     * Adds another accumulator's totals times a factor, for instance a meal into a day.
+     *
+     * @param other totals over the same matrix
+     * @param factor the factor to multiply them by
+     */
+    public void addScaled(NutritionAccumulator other, double factor) {
+        if (other.matrix != matrix)
+            throw new IllegalArgumentException("totals over another nutrient matrix");
+        NutrientKernels.addScaled(totals, other.totals, factor);
+        for (int column = 0; column < listed.length; column++)
+            listed[column] |= other.listed[column];
+    }
+
+    /**
+     * Clears the totals so the accumulator can be reused.
+     */
+    public void reset() {
+        Arrays.fill(totals, 0);
+        Arrays.fill(listed, false);
+    }
+
+    /**
+     * @param nutrient the name of the nutrient
+     * @return the total of the nutrient, 0 if no added food has it
+     */
+    public double getNutrientValue(String nutrient) {
+        int column = matrix.columnOf(nutrient);
+        return column < 0 ? 0 : totals[column];
+    }
+
+    /**
+     * @return true if nothing with nutrients has been added since the last reset
+     */
+    public boolean isEmpty() {
+        for (boolean nutrient : listed)
+            if (nutrient)
+                return false;
+        return true;
+    }
+
+    /**
+     * Copies the totals into a {@link Nutrition}, holding the nutrients the added foods have.
+     *
+     * @return the totals by nutrient name
+     */
+    public Nutrition toNutrition() {
+        Map<String, Double> nutrients = new HashMap<>();
+        for (int column = 0; column < totals.length; column++) {
+            if (listed[column])
+                nutrients.put(matrix.getNutrientName(column), totals[column]);
+        }
+        return new Nutrition(nutrients);
+    }
+}
@@ -0,0 +1,180 @@
+package healthyBites.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An in-memory, bilingual index of the Canadian Nutrient File reference names.
+ * <p>
+ * Foods, nutrients and measures each have an English and a French name in the database.
+ * Each kind is kept in a {@link NameTable} that maps a name in either language to the stable
+ * CNF id, and an id back to its name in either language. The tables are loaded with one query
+ * each, reading both languages together, so resolving a French name costs no more than
+ * resolving an English one.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class ReferenceNameIndex {
+
+    /**
+     * The languages of the reference names.
+     */
+    public enum Language {
+        ENGLISH, FRENCH;
+
+        /**
+         * @param locale a locale
+         * @return FRENCH for French locales, ENGLISH otherwise
+         */
+        public static Language of(Locale locale) {
+            return Locale.FRENCH.getLanguage().equals(locale.getLanguage()) ? FRENCH : ENGLISH;
+        }
+    }
+
+    /** Food descriptions keyed by food_id. */
+    private final NameTable foods;
+    /** Nutrient names keyed by nutrient_id. */
+    private final NameTable nutrients;
+    /** Measure descriptions keyed by measure_id. */
+    private final NameTable measures;
+
+    /**
+     * Creates an index from its three name tables.
+     *
+     * @param foods the food descriptions
+     * @param nutrients the nutrient names
+     * @param measures the measure descriptions
+     */
+    public ReferenceNameIndex(NameTable foods, NameTable nutrients, NameTable measures) {
+        this.foods = foods;
+        this.nutrients = nutrients;
+        this.measures = measures;
+    }
+
+    /** @return the food descriptions keyed by food_id */
+    public NameTable getFoods() {
+        return foods;
+    }
+
+    /** @return the nutrient names keyed by nutrient_id */
+    public NameTable getNutrients() {
+        return nutrients;
+    }
+
+    /** @return the measure descriptions keyed by measure_id */
+    public NameTable getMeasures() {
+        return measures;
+    }
+
+    /**
+     * The English and French names of one kind of reference entity, with lookups in both directions.
+     * Name lookups ignore case, accents and punctuation.
+     */
+    public static final class NameTable {
+        /** The ids, in insertion order. */
+        private final int[] ids;
+        /** English names aligned with {@link #ids}. */
+        private final String[] englishNames;
+        /** French names aligned with {@link #ids}. */
+        private final String[] frenchNames;
+        /** Position in the arrays by id. */
+        private final Map<Integer, Integer> positionById;
+        /** Position in the arrays by normalized name, in either language. */
+        private final Map<String, Integer> positionByName;
+
+        /**
+         * Creates a table from aligned lists. If two entries share a normalized name, the first
+         * English name wins over any later name, and an English name wins over a French one.
+         *
+         * @param ids the stable CNF ids
+         * @param englishNames the English names aligned with ids
+         * @param frenchNames the French names aligned with ids; elements may be null
+         */
+        public NameTable(List<Integer> ids, List<String> englishNames, List<String> frenchNames) {
+            int size = ids.size();
+            this.ids = new int[size];
+            this.englishNames = englishNames.toArray(new String[0]);
+            this.frenchNames = frenchNames.toArray(new String[0]);
+            this.positionById = new HashMap<>(size * 2);
+            this.positionByName = new HashMap<>(size * 4);
+            for (int i = 0; i < size; i++) {
+                this.ids[i] = ids.get(i);
+                positionById.put(this.ids[i], i);
+                positionByName.putIfAbsent(FuzzyFoodMatcher.normalize(this.englishNames[i]), i);
+            }
+            for (int i = 0; i < size; i++) {
+                if (this.frenchNames[i] != null) {
+                    positionByName.putIfAbsent(FuzzyFoodMatcher.normalize(this.frenchNames[i]), i);
+                }
+            }
+        }
+
+        /**
+         * Finds the id of a name given in either language.
+         *
+         * @param name an English or French name
+         * @return the id, or -1 if no entry has that name
+         */
+        public int getId(String name) {
+            Integer position = name == null ? null : positionByName.get(FuzzyFoodMatcher.normalize(name));
+            return position == null ? -1 : ids[position];
+        }
+
+        /**
+         * Returns the name of an id in the requested language, falling back to English when
+         * there is no French name.
+         *
+         * @param id the id
+         * @param language the language
+         * @return the name, or null if the id is unknown
+         */
+        public String getName(int id, Language language) {
+            Integer position = positionById.get(id);
+            if (position == null) {
+                return null;
+            }
+            if (language == Language.FRENCH && frenchNames[position] != null) {
+                return frenchNames[position];
+            }
+            return englishNames[position];
+        }
+
+        /**
+         * Translates a name given in either language into the English name used in the rest of the model.
+         *
+         * @param name an English or French name
+         * @return the English name, or null if no entry has that name
+         */
+        public String toEnglish(String name) {
+            Integer position = name == null ? null : positionByName.get(FuzzyFoodMatcher.normalize(name));
+            return position == null ? null : englishNames[position];
+        }
+
+        /**
+         * @param language the language
+         * @return every name in that language, in id insertion order
+         */
+        public List<String> getNames(Language language) {
+            List<String> names = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                names.add(language == Language.FRENCH && frenchNames[i] != null ? frenchNames[i] : englishNames[i]);
+            }
+            return Collections.unmodifiableList(names);
+        }
+
+        /** @return the ids, in insertion order */
+        public int[] getIds() {
+            return Arrays.copyOf(ids, ids.length);
+        }
+
+        /** @return the number of entries */
+        public int size() {
+            return ids.length;
+        }
+    }
+}
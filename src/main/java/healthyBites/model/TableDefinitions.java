@@ -23,22 +23,83 @@ public class TableDefinitions {
                 date DATE NOT NULL,
                 type VARCHAR(255) NOT NULL,
                 email VARCHAR(255) NOT NULL,
+                journal_key BIGINT,
                 FOREIGN KEY (email) REFERENCES user_profiles(email) ON DELETE CASCADE
             );
             """;
 
+    // migration of meals tables created before the journal key of a write-behind meal was stored
+    public static final String MEAL_ADD_JOURNAL_KEY = 
+            """
+            ALTER TABLE meals ADD COLUMN journal_key BIGINT;
+            """;
+
+    // finds a replayed meal that was already committed; meals logged directly have no key
+    public static final String MEAL_JOURNAL_KEY_INDEX = 
+            """
+            CREATE UNIQUE INDEX idx_meals_journal_key ON meals (journal_key);
+            """;
+
+    // supports keyset pagination of a user's meals on (date, id)
+    public static final String MEAL_DATE_INDEX = 
+            """
+            CREATE INDEX idx_meals_email_date_id ON meals (email, date, id);
+            """;
+
     public static final String FOOD_ITEM_TABLE = 
             """
             CREATE TABLE IF NOT EXISTS food_items (
                 id INTEGER PRIMARY KEY AUTO_INCREMENT,
                 meal_id INTEGER NOT NULL,
+                food_id INT,
                 food_name VARCHAR(255) NOT NULL,
                 quantity DOUBLE NOT NULL,
+                measure_id INT,
                 unit VARCHAR(255) NOT NULL,
                 FOREIGN KEY (meal_id) REFERENCES meals(id) ON DELETE CASCADE
                 );
             """;
 
+    // migration of food_items tables created before food_id and measure_id were stored. The
+    // backfills only touch rows still missing an id, so they run on every start. Descriptions
+    // are not unique, so each takes the smallest matching id, as the lookups of new meals do
+    public static final String FOOD_ITEM_ADD_FOOD_ID = 
+            """
+            ALTER TABLE food_items ADD COLUMN food_id INT AFTER meal_id;
+            """;
+
+    public static final String FOOD_ITEM_ADD_MEASURE_ID = 
+            """
+            ALTER TABLE food_items ADD COLUMN measure_id INT AFTER quantity;
+            """;
+
+    public static final String FOOD_ITEM_BACKFILL_FOOD_ID = 
+            """
+            UPDATE food_items
+            INNER JOIN (
+                SELECT food_description, MIN(food_id) AS food_id
+                FROM food_names
+                GROUP BY food_description
+            ) AS foods ON foods.food_description = food_items.food_name
+            SET food_items.food_id = foods.food_id
+            WHERE food_items.food_id IS NULL;
+            """;
+
+    public static final String FOOD_ITEM_BACKFILL_MEASURE_ID = 
+            """
+            UPDATE food_items
+            INNER JOIN (
+                SELECT conversion_factors.food_id, measure_names.measure_description,
+                    MIN(conversion_factors.measure_id) AS measure_id
+                FROM conversion_factors
+                INNER JOIN measure_names ON measure_names.measure_id = conversion_factors.measure_id
+                GROUP BY conversion_factors.food_id, measure_names.measure_description
+            ) AS measures ON measures.food_id = food_items.food_id
+                AND measures.measure_description = food_items.unit
+            SET food_items.measure_id = measures.measure_id
+            WHERE food_items.measure_id IS NULL;
+            """;
+
     // Nutrition database
     public static final String FOOD_SOURCE_TABLE = 
             """
@@ -0,0 +1,38 @@
+package healthyBites.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link NutrientKernels} on the Vector API, using the widest SIMD registers of the
+ * machine and fused multiply-adds. Only loaded when the {@code jdk.incubator.vector} module is
+ * present.
+ * @author HealthyBites Team
+ */
+final class VectorNutrientKernel implements NutrientKernels.Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void addScaled(double[] totals, double[] amounts, int offset, double scale) {
+        DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(totals.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, amounts, offset + i)
+                .fma(factor, DoubleVector.fromArray(SPECIES, totals, i))
+                .intoArray(totals, i);
+        }
+        for (; i < totals.length; i++)
+            totals[i] += scale * amounts[offset + i];
+    }
+
+    @Override
+    public void scale(double[] amounts, double scale) {
+        DoubleVector factor = DoubleVector.broadcast(SPECIES, scale);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(amounts.length); i < bound; i += SPECIES.length())
+            DoubleVector.fromArray(SPECIES, amounts, i).mul(factor).intoArray(amounts, i);
+        for (; i < amounts.length; i++)
+            amounts[i] *= scale;
+    }
+}
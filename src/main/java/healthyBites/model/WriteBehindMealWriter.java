@@ -0,0 +1,226 @@
+package healthyBites.model;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Writes logged meals to the database in the background.
+ * <p>
+ * {@link #submit} appends the meal to the {@link MealJournal} and returns as soon as it is on disk.
+ * A single writer thread takes the queued meals in batches, inserts each batch in one transaction,
+ * marks it flushed in the journal and then hands every saved meal to a callback. When the database
+ * is unavailable the batch is retried with exponential backoff, so meals logged during an outage
+ * are written once it is back. Meals left in the journal by a previous run are queued again on
+ * construction.
+ * </p>
+ * <p>
+ * A crash between the database commit and the journal update replays that batch on the next
+ * start. The stores keep the journal key of every meal they commit and skip a replayed meal whose
+ * key they already hold, so the batch is not stored twice.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class WriteBehindMealWriter implements AutoCloseable {
+
+    /**
+     * Inserts a batch of journaled meals in one transaction.
+     */
+    @FunctionalInterface
+    public interface MealBatchStore {
+        /**
+         * @param entries the meals to insert
+         * @return the saved meals, with their database ids, aligned with entries
+         * @throws SQLException if the batch could not be committed; nothing is saved in that case
+         */
+        List<Meal> insertMeals(List<MealJournal.Entry> entries) throws SQLException;
+    }
+
+    private static final int BATCH_SIZE = 64;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final MealJournal journal;
+    private final MealBatchStore store;
+    private final Consumer<MealJournal.Entry> onSaved; // receives each saved meal on the writer thread
+    private final long initialBackoffMillis;
+    private final BlockingQueue<MealJournal.Entry> queue = new LinkedBlockingQueue<>();
+    private final Set<MealJournal.Entry> unflushed = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock batchLock = new ReentrantLock(); // held from the commit of a batch to its last callback
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a writer and starts its thread, queuing any meals left in the journal.
+     *
+     * @param journal the journal of meals not yet written
+     * @param store inserts batches of meals into the database
+     * @param onSaved called on the writer thread with each saved meal, as an entry carrying its database id
+     * @throws IOException if the journal cannot be read
+     */
+    public WriteBehindMealWriter(MealJournal journal, MealBatchStore store, Consumer<MealJournal.Entry> onSaved) throws IOException {
+        this(journal, store, onSaved, 500);
+    }
+
+    WriteBehindMealWriter(MealJournal journal, MealBatchStore store, Consumer<MealJournal.Entry> onSaved,
+                          long initialBackoffMillis) throws IOException {
+        this.journal = journal;
+        this.store = store;
+        this.onSaved = onSaved;
+        this.initialBackoffMillis = initialBackoffMillis;
+        for (MealJournal.Entry entry : journal.replay()) {
+            unflushed.add(entry);
+            queue.add(entry);
+        }
+        writerThread = new Thread(this::run, "meal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Makes a meal durable in the journal and queues it for the database.
+     *
+     * @param email the email of the user who logged the meal
+     * @param meal the meal
+     * @throws IOException if the meal could not be journaled; it has not been queued in that case
+     */
+    public void submit(String email, Meal meal) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("meal writer is closed");
+        }
+        MealJournal.Entry entry = journal.append(email, meal);
+        unflushed.add(entry);
+        queue.add(entry);
+    }
+
+    /**
+     * Checks the meals that have been logged but not written yet.
+     *
+     * @param email the user's email
+     * @param date the day to check; the time of day is ignored
+     * @param type the meal type
+     * @return true if such a meal is waiting to be written
+     */
+    public boolean hasPendingMeal(String email, Date date, String type) {
+        int epochDay = EpochDays.of(date);
+        for (MealJournal.Entry entry : unflushed) {
+            if (entry.getEmail().equalsIgnoreCase(email) && entry.getMeal().getEpochDay() == epochDay
+                    && entry.getMeal().getType().equalsIgnoreCase(type)) { // as the stores compare them
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs an action between two batches, waiting for a batch being written to be committed and
+     * handed to the callback first. Every meal is thus either committed, with its callback done,
+     * before the action starts, or committed after it ends.
+     *
+     * @param action the action
+     */
+    public void runBetweenBatches(Runnable action) {
+        batchLock.lock();
+        try {
+            action.run();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of meals that have been logged but not written yet
+     */
+    public int getPendingCount() {
+        return unflushed.size();
+    }
+
+    /**
+     * Stops the writer, giving it a few seconds to write what is queued. Meals it could not
+     * write stay in the journal.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+            if (writerThread.isAlive()) {
+                writerThread.interrupt();
+                writerThread.join(CLOSE_TIMEOUT_MILLIS);
+            }
+            journal.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void run() {
+        List<MealJournal.Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                MealJournal.Entry first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                if (!flush(batch)) {
+                    return;
+                }
+                batch.clear();
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    // writes one batch, retrying until it succeeds; false if the writer was closed first
+    private boolean flush(List<MealJournal.Entry> batch) throws InterruptedException {
+        long backoff = initialBackoffMillis;
+        while (true) {
+            batchLock.lock();
+            try {
+                saveAndNotify(batch, store.insertMeals(batch));
+                return true;
+            } catch (SQLException | RuntimeException ex) {
+                ex.printStackTrace();
+            } finally {
+                batchLock.unlock();
+            }
+            if (closed) {
+                return false;
+            }
+            Thread.sleep(backoff); // without the lock, so runBetweenBatches does not wait out an outage
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    // marks a committed batch flushed and hands its saved meals to the callback
+    private void saveAndNotify(List<MealJournal.Entry> batch, List<Meal> saved) {
+        try {
+            journal.markFlushed(batch);
+        } catch (IOException ex) {
+            ex.printStackTrace(); // the batch is already committed; on restart its journal keys keep it from being stored again
+        }
+        unflushed.removeAll(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            MealJournal.Entry entry = batch.get(i);
+            try {
+                onSaved.accept(entry.withMeal(saved.get(i)));
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
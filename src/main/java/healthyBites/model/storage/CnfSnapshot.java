@@ -0,0 +1,514 @@
+package healthyBites.model.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import healthyBites.model.ReferenceNameIndex;
+
+/**
+ * A read-only snapshot of the CNF reference data in a compact, columnar binary file,
+ * opened with {@link FileChannel#map} so that it is ready as soon as it is mapped.
+ * <p>
+ * The file holds, after a small header, one column per attribute: the sorted food ids with
+ * their food groups and names, the sorted nutrient ids with their names and units, and the
+ * sorted measure ids with their names. Nutrient amounts and conversion factors are stored per
+ * food in compressed sparse rows: a start offset per food into parallel columns of nutrient
+ * (or measure) positions and values. Names are offsets into a pool of UTF-8 strings at the end
+ * of the file. Nothing is read until it is asked for: an id lookup is a binary search of a mapped
+ * column, and a name is decoded the first time it is used.
+ * </p>
+ * <p>
+ * Snapshots are written with a {@link Builder}, usually through {@code CSVLoader.writeSnapshot}.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class CnfSnapshot implements ReferenceStore, AutoCloseable {
+
+    private static final int MAGIC = 0x434E4653; // "CNFS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 7 * 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final int foodCount, nutrientCount, measureCount, amountCount, conversionCount;
+    // column offsets
+    private final int foodIds, foodGroups, foodNames, foodNamesF;
+    private final int nutrientIds, nutrientNames, nutrientNamesF, nutrientUnits;
+    private final int measureIds, measureNames, measureNamesF;
+    private final int amountStart, amountNutrient, amountValue;
+    private final int conversionStart, conversionMeasure, conversionValue;
+    private final int stringPool;
+    // names decoded so far, by string offset
+    private final Map<Integer, String> decoded = new ConcurrentHashMap<>();
+
+    private CnfSnapshot(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("not a CNF snapshot");
+        }
+        foodCount = data.getInt(8);
+        nutrientCount = data.getInt(12);
+        measureCount = data.getInt(16);
+        amountCount = data.getInt(20);
+        conversionCount = data.getInt(24);
+
+        int offset = HEADER_SIZE;
+        foodIds = offset;           offset += 4 * foodCount;
+        foodGroups = offset;        offset += 4 * foodCount;
+        foodNames = offset;         offset += 4 * foodCount;
+        foodNamesF = offset;        offset += 4 * foodCount;
+        nutrientIds = offset;       offset += 4 * nutrientCount;
+        nutrientNames = offset;     offset += 4 * nutrientCount;
+        nutrientNamesF = offset;    offset += 4 * nutrientCount;
+        nutrientUnits = offset;     offset += 4 * nutrientCount;
+        measureIds = offset;        offset += 4 * measureCount;
+        measureNames = offset;      offset += 4 * measureCount;
+        measureNamesF = offset;     offset += 4 * measureCount;
+        amountStart = offset;       offset += 4 * (foodCount + 1);
+        amountNutrient = offset;    offset += 4 * amountCount;
+        amountValue = offset;       offset += 8 * amountCount;
+        conversionStart = offset;   offset += 4 * (foodCount + 1);
+        conversionMeasure = offset; offset += 4 * conversionCount;
+        conversionValue = offset;   offset += 8 * conversionCount;
+        stringPool = offset;
+        if (stringPool > data.limit()) {
+            throw new IOException("truncated CNF snapshot");
+        }
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be mapped or is not a snapshot
+     */
+    public static CnfSnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new CnfSnapshot(channel);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** @return the number of foods in the snapshot */
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    @Override
+    public ReferenceNameIndex loadReferenceNames() {
+        return new ReferenceNameIndex(
+            nameTable(foodIds, foodNames, foodNamesF, foodCount),
+            nameTable(nutrientIds, nutrientNames, nutrientNamesF, nutrientCount),
+            nameTable(measureIds, measureNames, measureNamesF, measureCount));
+    }
+
+    private ReferenceNameIndex.NameTable nameTable(int idColumn, int nameColumn, int nameFColumn, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        List<String> names = new ArrayList<>(count);
+        List<String> namesF = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(data.getInt(idColumn + 4 * i));
+            names.add(string(nameColumn, i));
+            namesF.add(string(nameFColumn, i));
+        }
+        return new ReferenceNameIndex.NameTable(ids, names, namesF);
+    }
+
+    @Override
+    public List<String> findLoggableFoodNames() {
+        Set<String> result = new LinkedHashSet<>();
+        for (int food = 0; food < foodCount; food++) {
+            if (!availableUnits(food).isEmpty()) {
+                result.add(string(foodNames, food));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    @Override
+    public List<String> findAvailableUnits(int foodId) {
+        int food = find(foodIds, foodCount, foodId);
+        return food < 0 ? new ArrayList<>() : availableUnits(food);
+    }
+
+    private List<String> availableUnits(int food) {
+        // measure positions follow the sorted measure ids, so sorting them gives measure_id order
+        int start = data.getInt(conversionStart + 4 * food);
+        int[] positions = new int[data.getInt(conversionStart + 4 * (food + 1)) - start];
+        for (int c = 0; c < positions.length; c++) {
+            positions[c] = data.getInt(conversionMeasure + 4 * (start + c));
+        }
+        Arrays.sort(positions);
+        List<String> result = new ArrayList<>();
+        int group = data.getInt(foodGroups + 4 * food);
+        for (int position : positions) {
+            String measure = string(measureNames, position);
+            if (InMemoryStorage.isLoggable(group, measure)) {
+                result.add(measure);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> findNutrientAmounts(int foodId) {
+        Map<String, Double> result = new HashMap<>();
+        int food = find(foodIds, foodCount, foodId);
+        if (food < 0) {
+            return result;
+        }
+        for (int a = data.getInt(amountStart + 4 * food), end = data.getInt(amountStart + 4 * (food + 1)); a < end; a++) {
+            result.put(string(nutrientNames, data.getInt(amountNutrient + 4 * a)), data.getDouble(amountValue + 8 * a));
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachNutrientAmount(NutrientAmountConsumer consumer) {
+        for (int food = 0; food < foodCount; food++) {
+            int foodId = data.getInt(foodIds + 4 * food);
+            for (int a = data.getInt(amountStart + 4 * food), end = data.getInt(amountStart + 4 * (food + 1)); a < end; a++) {
+                consumer.accept(foodId, data.getInt(nutrientIds + 4 * data.getInt(amountNutrient + 4 * a)), data.getDouble(amountValue + 8 * a));
+            }
+        }
+    }
+
+    @Override
+    public void forEachConversionFactor(ConversionFactorConsumer consumer) {
+        for (int food = 0; food < foodCount; food++) {
+            int foodId = data.getInt(foodIds + 4 * food);
+            for (int c = data.getInt(conversionStart + 4 * food), end = data.getInt(conversionStart + 4 * (food + 1)); c < end; c++) {
+                consumer.accept(foodId, data.getInt(measureIds + 4 * data.getInt(conversionMeasure + 4 * c)), data.getDouble(conversionValue + 8 * c));
+            }
+        }
+    }
+
+    @Override
+    public double findConversionFactor(int foodId, int measureId) {
+        int food = find(foodIds, foodCount, foodId);
+        if (food < 0) {
+            return -1;
+        }
+        for (int c = data.getInt(conversionStart + 4 * food), end = data.getInt(conversionStart + 4 * (food + 1)); c < end; c++) {
+            if (data.getInt(measureIds + 4 * data.getInt(conversionMeasure + 4 * c)) == measureId) {
+                return data.getDouble(conversionValue + 8 * c);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int findMeasureId(int foodId, String measureDescription) {
+        int food = find(foodIds, foodCount, foodId);
+        if (food < 0 || measureDescription == null) {
+            return -1;
+        }
+        int first = -1; // the smallest matching position, which has the smallest measure_id
+        for (int c = data.getInt(conversionStart + 4 * food), end = data.getInt(conversionStart + 4 * (food + 1)); c < end; c++) {
+            int measure = data.getInt(conversionMeasure + 4 * c);
+            if ((first < 0 || measure < first) && string(measureNames, measure).equalsIgnoreCase(measureDescription)) {
+                first = measure;
+            }
+        }
+        return first < 0 ? -1 : data.getInt(measureIds + 4 * first);
+    }
+
+    @Override
+    public int findFoodGroupId(int foodId) {
+        int food = find(foodIds, foodCount, foodId);
+        return food < 0 ? -1 : data.getInt(foodGroups + 4 * food);
+    }
+
+    @Override
+    public List<String> findFoodNamesInGroupOf(int foodId) {
+        List<String> result = new ArrayList<>();
+        int group = findFoodGroupId(foodId);
+        if (group < 0) {
+            return result;
+        }
+        for (int food = 0; food < foodCount; food++) {
+            if (data.getInt(foodGroups + 4 * food) == group) {
+                result.add(string(foodNames, food));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String findNutrientUnit(String nutrientName) {
+        if (nutrientName == null) {
+            return null;
+        }
+        for (int nutrient = 0; nutrient < nutrientCount; nutrient++) {
+            if (string(nutrientNames, nutrient).equalsIgnoreCase(nutrientName)) {
+                return string(nutrientUnits, nutrient);
+            }
+        }
+        return null;
+    }
+
+    // the position of an id in a sorted id column, or -1
+    private int find(int column, int count, int id) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = data.getInt(column + 4 * mid);
+            if (value < id) low = mid + 1;
+            else if (value > id) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // the string referenced by row i of a name column, decoded on first use
+    private String string(int column, int i) {
+        int reference = data.getInt(column + 4 * i);
+        if (reference < 0) {
+            return null;
+        }
+        return decoded.computeIfAbsent(reference, ref -> {
+            int position = stringPool + ref;
+            int length = data.getInt(position);
+            byte[] bytes = new byte[length];
+            data.get(position + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * Collects CNF reference data and writes it as a snapshot. As with the INSERT IGNORE of
+     * the CSV loader, the first row with a given key wins, and amounts and conversion factors
+     * of unknown foods, nutrients or measures are left out.
+     */
+    public static final class Builder {
+        private record Food(int groupId, String name, String nameF) {}
+        private record Nutrient(String name, String nameF, String unit) {}
+        private record Measure(String name, String nameF) {}
+
+        private final TreeMap<Integer, Food> foods = new TreeMap<>();
+        private final TreeMap<Integer, Nutrient> nutrients = new TreeMap<>();
+        private final TreeMap<Integer, Measure> measures = new TreeMap<>();
+        private final Map<Integer, Map<Integer, Double>> amounts = new HashMap<>();
+        private final Map<Integer, Map<Integer, Double>> conversions = new HashMap<>();
+
+        /**
+         * @param foodId the CNF food_id
+         * @param foodGroupId the CNF food_group_id
+         * @param name the English description
+         * @param nameF the French description
+         * @return this builder
+         */
+        public Builder addFood(int foodId, int foodGroupId, String name, String nameF) {
+            foods.putIfAbsent(foodId, new Food(foodGroupId, name, nameF));
+            return this;
+        }
+
+        /**
+         * @param nutrientId the CNF nutrient_id
+         * @param name the English name
+         * @param nameF the French name
+         * @param unit the unit of the nutrient
+         * @return this builder
+         */
+        public Builder addNutrient(int nutrientId, String name, String nameF, String unit) {
+            nutrients.putIfAbsent(nutrientId, new Nutrient(name, nameF, unit));
+            return this;
+        }
+
+        /**
+         * @param foodId the CNF food_id
+         * @param nutrientId the CNF nutrient_id
+         * @param value the amount per reference quantity
+         * @return this builder
+         */
+        public Builder addNutrientAmount(int foodId, int nutrientId, double value) {
+            amounts.computeIfAbsent(foodId, k -> new LinkedHashMap<>()).putIfAbsent(nutrientId, value);
+            return this;
+        }
+
+        /**
+         * @param measureId the CNF measure_id
+         * @param name the English description
+         * @param nameF the French description
+         * @return this builder
+         */
+        public Builder addMeasure(int measureId, String name, String nameF) {
+            measures.putIfAbsent(measureId, new Measure(name, nameF));
+            return this;
+        }
+
+        /**
+         * @param foodId the CNF food_id
+         * @param measureId the CNF measure_id
+         * @param value the conversion factor
+         * @return this builder
+         */
+        public Builder addConversionFactor(int foodId, int measureId, double value) {
+            conversions.computeIfAbsent(foodId, k -> new LinkedHashMap<>()).putIfAbsent(measureId, value);
+            return this;
+        }
+
+        /**
+         * Writes the snapshot, replacing the file only once it is complete.
+         *
+         * @param file the snapshot file
+         * @throws IOException if the file cannot be written
+         */
+        public void write(Path file) throws IOException {
+            Map<Integer, Integer> nutrientPosition = positions(nutrients);
+            Map<Integer, Integer> measurePosition = positions(measures);
+            ByteArrayOutputStream pool = new ByteArrayOutputStream();
+            DataOutputStream poolOut = new DataOutputStream(pool);
+            Map<String, Integer> pooled = new HashMap<>();
+
+            IntColumn foodIdColumn = new IntColumn(), groupColumn = new IntColumn(), foodNameColumn = new IntColumn(), foodNameFColumn = new IntColumn();
+            IntColumn amountStartColumn = new IntColumn(), amountNutrientColumn = new IntColumn();
+            IntColumn conversionStartColumn = new IntColumn(), conversionMeasureColumn = new IntColumn();
+            List<Double> amountValues = new ArrayList<>(), conversionValues = new ArrayList<>();
+            for (Map.Entry<Integer, Food> food : foods.entrySet()) {
+                foodIdColumn.add(food.getKey());
+                groupColumn.add(food.getValue().groupId());
+                foodNameColumn.add(pool(food.getValue().name(), poolOut, pooled));
+                foodNameFColumn.add(pool(food.getValue().nameF(), poolOut, pooled));
+
+                amountStartColumn.add(amountValues.size());
+                amounts.getOrDefault(food.getKey(), Map.of()).forEach((nutrientId, value) -> {
+                    Integer position = nutrientPosition.get(nutrientId);
+                    if (position != null) {
+                        amountNutrientColumn.add(position);
+                        amountValues.add(value);
+                    }
+                });
+                conversionStartColumn.add(conversionValues.size());
+                conversions.getOrDefault(food.getKey(), Map.of()).forEach((measureId, value) -> {
+                    Integer position = measurePosition.get(measureId);
+                    if (position != null) {
+                        conversionMeasureColumn.add(position);
+                        conversionValues.add(value);
+                    }
+                });
+            }
+            amountStartColumn.add(amountValues.size());
+            conversionStartColumn.add(conversionValues.size());
+
+            IntColumn nutrientIdColumn = new IntColumn(), nutrientNameColumn = new IntColumn(), nutrientNameFColumn = new IntColumn(), unitColumn = new IntColumn();
+            for (Map.Entry<Integer, Nutrient> nutrient : nutrients.entrySet()) {
+                nutrientIdColumn.add(nutrient.getKey());
+                nutrientNameColumn.add(pool(nutrient.getValue().name(), poolOut, pooled));
+                nutrientNameFColumn.add(pool(nutrient.getValue().nameF(), poolOut, pooled));
+                unitColumn.add(pool(nutrient.getValue().unit(), poolOut, pooled));
+            }
+            IntColumn measureIdColumn = new IntColumn(), measureNameColumn = new IntColumn(), measureNameFColumn = new IntColumn();
+            for (Map.Entry<Integer, Measure> measure : measures.entrySet()) {
+                measureIdColumn.add(measure.getKey());
+                measureNameColumn.add(pool(measure.getValue().name(), poolOut, pooled));
+                measureNameFColumn.add(pool(measure.getValue().nameF(), poolOut, pooled));
+            }
+
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(foods.size());
+                out.writeInt(nutrients.size());
+                out.writeInt(measures.size());
+                out.writeInt(amountValues.size());
+                out.writeInt(conversionValues.size());
+                for (IntColumn column : new IntColumn[] { foodIdColumn, groupColumn, foodNameColumn, foodNameFColumn,
+                        nutrientIdColumn, nutrientNameColumn, nutrientNameFColumn, unitColumn,
+                        measureIdColumn, measureNameColumn, measureNameFColumn, amountStartColumn, amountNutrientColumn }) {
+                    column.writeTo(out);
+                }
+                for (double value : amountValues) {
+                    out.writeDouble(value);
+                }
+                conversionStartColumn.writeTo(out);
+                conversionMeasureColumn.writeTo(out);
+                for (double value : conversionValues) {
+                    out.writeDouble(value);
+                }
+                pool.writeTo(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private static Map<Integer, Integer> positions(TreeMap<Integer, ?> rows) {
+            Map<Integer, Integer> positions = new HashMap<>();
+            for (int id : rows.keySet()) {
+                positions.put(id, positions.size());
+            }
+            return positions;
+        }
+
+        // the offset of a string in the pool, adding it if it is new; -1 for null
+        private static int pool(String text, DataOutputStream pool, Map<String, Integer> pooled) throws IOException {
+            if (text == null) {
+                return -1;
+            }
+            Integer offset = pooled.get(text);
+            if (offset == null) {
+                offset = pool.size();
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                pool.writeInt(bytes.length);
+                pool.write(bytes);
+                pooled.put(text, offset);
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * A growable column of ints.
+     */
+    private static final class IntColumn {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(size * 4);
+            bytes.asIntBuffer().put(values, 0, size);
+            out.write(bytes.array());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package healthyBites.model.storage;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+import healthyBites.model.ReferenceNameIndex;
+import healthyBites.model.UserProfile;
+
+/**
+ * A storage backend that passes every call on to another backend. Backends that take over
+ * part of the storage, such as meals or reference data, extend it and override that part.
+ * @author HealthyBites Team
+ */
+public abstract class ForwardingStorage implements StorageBackend {
+
+    protected final StorageBackend base;
+
+    /**
+     * @param base the backend calls are passed on to
+     */
+    protected ForwardingStorage(StorageBackend base) {
+        this.base = base;
+    }
+
+    @Override
+    public void insertProfile(UserProfile profile) {
+        base.insertProfile(profile);
+    }
+
+    @Override
+    public UserProfile findProfile(String email) {
+        return base.findProfile(email);
+    }
+
+    @Override
+    public void updateProfile(UserProfile profile) {
+        base.updateProfile(profile);
+    }
+
+    @Override
+    public void deleteProfile(String email) {
+        base.deleteProfile(email);
+    }
+
+    @Override
+    public Meal insertMeal(String email, Meal meal) {
+        return base.insertMeal(email, meal);
+    }
+
+    @Override
+    public List<Meal> insertMeals(List<MealJournal.Entry> entries) {
+        return base.insertMeals(entries);
+    }
+
+    @Override
+    public List<Meal> findMeals(String email, Date begin, Date end) {
+        return base.findMeals(email, begin, end);
+    }
+
+    @Override
+    public List<Meal> findMealsPage(String email, Meal after, int pageSize) {
+        return base.findMealsPage(email, after, pageSize);
+    }
+
+    @Override
+    public boolean mealExists(String email, Date date, String type) {
+        return base.mealExists(email, date, type);
+    }
+
+    @Override
+    public ReferenceNameIndex loadReferenceNames() {
+        return base.loadReferenceNames();
+    }
+
+    @Override
+    public List<String> findLoggableFoodNames() {
+        return base.findLoggableFoodNames();
+    }
+
+    @Override
+    public List<String> findAvailableUnits(int foodId) {
+        return base.findAvailableUnits(foodId);
+    }
+
+    @Override
+    public Map<String, Double> findNutrientAmounts(int foodId) {
+        return base.findNutrientAmounts(foodId);
+    }
+
+    @Override
+    public void forEachNutrientAmount(NutrientAmountConsumer consumer) {
+        base.forEachNutrientAmount(consumer);
+    }
+
+    @Override
+    public void forEachConversionFactor(ConversionFactorConsumer consumer) {
+        base.forEachConversionFactor(consumer);
+    }
+
+    @Override
+    public double findConversionFactor(int foodId, int measureId) {
+        return base.findConversionFactor(foodId, measureId);
+    }
+
+    @Override
+    public int findMeasureId(int foodId, String measureDescription) {
+        return base.findMeasureId(foodId, measureDescription);
+    }
+
+    @Override
+    public int findFoodGroupId(int foodId) {
+        return base.findFoodGroupId(foodId);
+    }
+
+    @Override
+    public List<String> findFoodNamesInGroupOf(int foodId) {
+        return base.findFoodNamesInGroupOf(foodId);
+    }
+
+    @Override
+    public String findNutrientUnit(String nutrientName) {
+        return base.findNutrientUnit(nutrientName);
+    }
+
+    @Override
+    public void loadReferenceData(String path) {
+        base.loadReferenceData(path);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+}
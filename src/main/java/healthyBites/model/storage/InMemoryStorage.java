@@ -0,0 +1,564 @@
+package healthyBites.model.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+import healthyBites.model.ReferenceNameIndex;
+import healthyBites.model.UserProfile;
+
+/**
+ * An embedded storage backend that runs in process, with no database server.
+ * <p>
+ * All data is held in memory. Each user's meals are kept in a sorted map keyed on (day, id),
+ * so range, page and existence queries are sub-map views rather than scans. When constructed
+ * with a file, every change to the user data is appended to it as a CSV record and the file is
+ * replayed on the next start; the reference data is loaded from the CNF CSV files with
+ * {@link #loadReferenceData(String)}, or added directly.
+ * </p>
+ * <p>
+ * The results match those of {@link JdbcStorage}: emails, meal types, nutrient names and
+ * measure descriptions compare case-insensitively as they do in MySQL, meals need a stored
+ * profile, deleting a profile deletes its meals, and meals without food items are not returned.
+ * </p>
+ * @author HealthyBites Team
+ */
+public class InMemoryStorage implements StorageBackend {
+
+    // the food groups logged by volume and by weight, as in the queries of JdbcStorage
+    private static final Set<Integer> VOLUME_GROUPS = Set.of(1, 9, 11, 12, 16, 20, 5, 7, 10, 13, 15, 17, 4);
+    private static final Set<Integer> WEIGHT_GROUPS = Set.of(18, 8, 5, 7, 10, 13, 15, 17, 4);
+    private static final Pattern GRAMS = Pattern.compile("\\d+\\s?g", Pattern.CASE_INSENSITIVE);
+
+    private static final String PROFILE_RECORD = "P";
+    private static final String DELETE_RECORD = "D";
+    private static final String MEAL_RECORD = "M";
+    private static final int ITEM_FIELDS = 5;
+
+    private record Food(int groupId, String description, String descriptionF) {}
+    private record Nutrient(String name, String nameF, String unit) {}
+    private record Measure(String description, String descriptionF) {}
+
+    // user data, keyed by lower-cased email
+    private final Map<String, UserProfile> profiles = new LinkedHashMap<>();
+    private final Map<String, NavigableMap<Long, Meal>> mealsByUser = new HashMap<>(); // key: (epochDay << 32) | id
+    private final Map<String, Map<Long, Meal>> journaledMealsByUser = new HashMap<>(); // by journal key
+    private int lastMealId;
+
+    // reference data
+    private final TreeMap<Integer, Food> foods = new TreeMap<>();
+    private final TreeMap<Integer, Nutrient> nutrients = new TreeMap<>();
+    private final Map<String, Nutrient> nutrientsByName = new HashMap<>(); // lower-cased name
+    private final Map<Integer, Map<Integer, Double>> nutrientAmounts = new HashMap<>(); // food -> nutrient -> value
+    private final TreeMap<Integer, Measure> measures = new TreeMap<>();
+    private final Map<Integer, Map<Integer, Double>> conversionFactors = new HashMap<>(); // food -> measure -> factor
+
+    private final BufferedWriter log; // null when the user data is kept in memory only
+
+    /**
+     * Creates an empty storage kept in memory only.
+     */
+    public InMemoryStorage() {
+        this.log = null;
+    }
+
+    /**
+     * Creates a storage whose user data is kept in a file, reading back what the file already holds.
+     *
+     * @param file the file of user data; created if it does not exist
+     * @throws IOException if the file cannot be read or opened for writing
+     */
+    public InMemoryStorage(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(file)) {
+            replay(Files.readString(file, StandardCharsets.UTF_8));
+        }
+        this.log = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- profiles
+
+    @Override
+    public synchronized void insertProfile(UserProfile profile) {
+        String key = key(profile.getEmail());
+        if (profiles.containsKey(key)) {
+            new IllegalArgumentException("Duplicate profile: " + profile.getEmail()).printStackTrace();
+            return;
+        }
+        profiles.put(key, copyOf(profile));
+        append(profileRecord(profile));
+    }
+
+    @Override
+    public synchronized UserProfile findProfile(String email) {
+        UserProfile profile = profiles.get(key(email));
+        return profile == null ? null : copyOf(profile);
+    }
+
+    @Override
+    public synchronized void updateProfile(UserProfile profile) {
+        UserProfile stored = profiles.get(key(profile.getEmail()));
+        if (stored == null) {
+            return;
+        }
+        UserProfile updated = copyOf(profile);
+        updated.setEmail(stored.getEmail()); // the key does not change
+        profiles.put(key(profile.getEmail()), updated);
+        append(profileRecord(updated));
+    }
+
+    @Override
+    public synchronized void deleteProfile(String email) {
+        if (profiles.remove(key(email)) != null) {
+            mealsByUser.remove(key(email)); // meals cascade, as with the foreign key in MySQL
+            journaledMealsByUser.remove(key(email));
+            append(new String[] { DELETE_RECORD, email });
+        }
+    }
+
+    // a copy with the date of birth truncated to the day, as a DATE column stores it
+    private static UserProfile copyOf(UserProfile profile) {
+        return new UserProfile(profile.getName(), profile.getSex(), profile.getEmail(), profile.getUnitOfMeasurement(),
+                               EpochDays.toDate(EpochDays.of(profile.getDob())), profile.getHeight(), profile.getWeight());
+    }
+
+    private static String[] profileRecord(UserProfile profile) {
+        return new String[] { PROFILE_RECORD, profile.getEmail(), profile.getName(), profile.getSex(),
+                              profile.getUnitOfMeasurement(), Double.toString(profile.getHeight()),
+                              Double.toString(profile.getWeight()), Integer.toString(EpochDays.of(profile.getDob())) };
+    }
+
+    // ---------------------------------------------------------------- meals
+
+    @Override
+    public synchronized Meal insertMeal(String email, Meal meal) {
+        if (!profiles.containsKey(key(email))) {
+            System.err.println("No profile for " + email + ", meal not stored");
+            return new Meal(0, meal.getDate(), meal.getFoodItems(), meal.getType()); // id 0: not stored
+        }
+        return store(email, ++lastMealId, meal, 0);
+    }
+
+    @Override
+    public synchronized List<Meal> insertMeals(List<MealJournal.Entry> entries) {
+        for (MealJournal.Entry entry : entries) {
+            if (!profiles.containsKey(key(entry.getEmail()))) {
+                throw new StorageException("cannot store " + entries.size() + " meals",
+                                           new IllegalArgumentException("No profile for " + entry.getEmail()));
+            }
+        }
+        List<Meal> savedMeals = new ArrayList<>(entries.size());
+        for (MealJournal.Entry entry : entries) {
+            Map<Long, Meal> journaled = journaledMealsByUser.get(key(entry.getEmail()));
+            Meal stored = journaled == null ? null : journaled.get(entry.getKey());
+            savedMeals.add(stored != null ? stored : store(entry.getEmail(), ++lastMealId, entry.getMeal(), entry.getKey()));
+        }
+        return savedMeals;
+    }
+
+    // keeps a meal under the given id, with its journal key or 0, and appends it to the file
+    private Meal store(String email, int id, Meal meal, long journalKey) {
+        Meal saved = keep(email, id, EpochDays.toDate(meal.getEpochDay()), meal.getFoodItems(), meal.getType(), journalKey);
+
+        List<String> record = new ArrayList<>();
+        record.add(MEAL_RECORD);
+        record.add(Integer.toString(id));
+        record.add(email);
+        record.add(Integer.toString(saved.getEpochDay()));
+        record.add(saved.getType());
+        record.add(Integer.toString(saved.getFoodItems().size()));
+        for (FoodItem item : saved.getFoodItems()) {
+            record.add(Integer.toString(item.getFoodId()));
+            record.add(item.getName());
+            record.add(Double.toString(item.getQuantity()));
+            record.add(Integer.toString(item.getMeasureId()));
+            record.add(MealJournal.encodeNullable(item.getUnit()));
+        }
+        if (journalKey != 0) {
+            record.add(Long.toString(journalKey));
+        }
+        append(record.toArray(new String[0]));
+        return saved;
+    }
+
+    // indexes a meal by (day, id) and by its journal key, if it has one
+    private Meal keep(String email, int id, Date date, List<FoodItem> items, String type, long journalKey) {
+        Meal meal = new Meal(id, date, items, type);
+        mealsByUser.computeIfAbsent(key(email), k -> new TreeMap<>()).put(mealKey(meal.getEpochDay(), id), meal);
+        if (journalKey != 0) {
+            journaledMealsByUser.computeIfAbsent(key(email), k -> new HashMap<>()).put(journalKey, meal);
+        }
+        return meal;
+    }
+
+    @Override
+    public synchronized List<Meal> findMeals(String email, Date begin, Date end) {
+        List<Meal> result = new ArrayList<>();
+        NavigableMap<Long, Meal> meals = mealsByUser.get(key(email));
+        int first = EpochDays.of(begin);
+        int last = EpochDays.of(end);
+        if (meals == null || first > last) {
+            return result;
+        }
+        for (Meal meal : meals.subMap(mealKey(first, 0), true, mealKey(last, -1), true).values()) {
+            if (!meal.getFoodItems().isEmpty()) {
+                result.add(meal);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Meal> findMealsPage(String email, Meal after, int pageSize) {
+        List<Meal> result = new ArrayList<>();
+        NavigableMap<Long, Meal> meals = mealsByUser.get(key(email));
+        if (meals == null) {
+            return result;
+        }
+        NavigableMap<Long, Meal> older = after == null ? meals : meals.headMap(mealKey(after.getEpochDay(), after.getId()), false);
+        int taken = 0;
+        for (Meal meal : older.descendingMap().values()) {
+            if (taken++ == pageSize) {
+                break;
+            }
+            if (!meal.getFoodItems().isEmpty()) { // the page is counted before the inner join, as in JdbcStorage
+                result.add(meal);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean mealExists(String email, Date date, String type) {
+        NavigableMap<Long, Meal> meals = mealsByUser.get(key(email));
+        if (meals == null) {
+            return false;
+        }
+        int day = EpochDays.of(date);
+        for (Meal meal : meals.subMap(mealKey(day, 0), true, mealKey(day, -1), true).values()) {
+            if (meal.getType().equalsIgnoreCase(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // orders meals by day, then id; an id of -1 gives the last key of a day
+    private static long mealKey(int epochDay, int id) {
+        return ((long) epochDay << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static String key(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    // ---------------------------------------------------------------- file
+
+    // appends one record of user data to the file, if there is one
+    private void append(String[] record) {
+        if (log == null) {
+            return;
+        }
+        try {
+            CSVWriter writer = new CSVWriter(log);
+            writer.writeNext(record, false);
+            writer.flush();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // restores the user data from the records of the file
+    private void replay(String content) throws IOException {
+        try (CSVReader reader = MealJournal.newReader(content)) {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                try {
+                    switch (record[0]) {
+                        case PROFILE_RECORD -> profiles.put(key(record[1]), new UserProfile(record[2], record[3], record[1], record[4],
+                                EpochDays.toDate(Integer.parseInt(record[7])), Double.parseDouble(record[5]), Double.parseDouble(record[6])));
+                        case DELETE_RECORD -> {
+                            profiles.remove(key(record[1]));
+                            mealsByUser.remove(key(record[1]));
+                            journaledMealsByUser.remove(key(record[1]));
+                        }
+                        case MEAL_RECORD -> replayMeal(record);
+                        default -> { }
+                    }
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace(); // skip a damaged record
+                }
+            }
+        } catch (CsvValidationException ex) {
+            ex.printStackTrace(); // a record cut short at the end of the file
+        }
+    }
+
+    private void replayMeal(String[] record) {
+        int id = Integer.parseInt(record[1]);
+        int itemCount = Integer.parseInt(record[5]);
+        List<FoodItem> items = new ArrayList<>(itemCount);
+        int end = 6 + itemCount * ITEM_FIELDS;
+        for (int i = 6; i < end; i += ITEM_FIELDS) {
+            items.add(new FoodItem(Integer.parseInt(record[i]), record[i + 1], Double.parseDouble(record[i + 2]),
+                                   Integer.parseInt(record[i + 3]), MealJournal.decodeNullable(record[i + 4])));
+        }
+        long journalKey = record.length > end ? Long.parseLong(record[end]) : 0; // meals logged directly have none
+        keep(record[2], id, EpochDays.toDate(Integer.parseInt(record[3])), items, record[4], journalKey);
+        lastMealId = Math.max(lastMealId, id);
+    }
+
+    // ---------------------------------------------------------------- reference data
+
+    /**
+     * Adds a food, unless a food with that id exists.
+     *
+     * @param foodId the CNF food_id
+     * @param foodGroupId the CNF food_group_id
+     * @param description the English description
+     * @param descriptionF the French description
+     */
+    public synchronized void addFood(int foodId, int foodGroupId, String description, String descriptionF) {
+        foods.putIfAbsent(foodId, new Food(foodGroupId, description, descriptionF));
+    }
+
+    /**
+     * Adds a nutrient, unless a nutrient with that id exists.
+     *
+     * @param nutrientId the CNF nutrient_id
+     * @param name the English name
+     * @param nameF the French name
+     * @param unit the unit of the nutrient
+     */
+    public synchronized void addNutrient(int nutrientId, String name, String nameF, String unit) {
+        Nutrient nutrient = new Nutrient(name, nameF, unit);
+        if (nutrients.putIfAbsent(nutrientId, nutrient) == null) {
+            nutrientsByName.putIfAbsent(key(name), nutrient);
+        }
+    }
+
+    /**
+     * Adds the amount of a nutrient in a food, unless it exists.
+     *
+     * @param foodId the CNF food_id
+     * @param nutrientId the CNF nutrient_id
+     * @param value the amount per reference quantity
+     */
+    public synchronized void addNutrientAmount(int foodId, int nutrientId, double value) {
+        nutrientAmounts.computeIfAbsent(foodId, k -> new LinkedHashMap<>()).putIfAbsent(nutrientId, value);
+    }
+
+    /**
+     * Adds a measure, unless a measure with that id exists.
+     *
+     * @param measureId the CNF measure_id
+     * @param description the English description
+     * @param descriptionF the French description
+     */
+    public synchronized void addMeasure(int measureId, String description, String descriptionF) {
+        measures.putIfAbsent(measureId, new Measure(description, descriptionF));
+    }
+
+    /**
+     * Adds the conversion factor of a food to one of its measures, unless it exists.
+     *
+     * @param foodId the CNF food_id
+     * @param measureId the CNF measure_id
+     * @param value the conversion factor
+     */
+    public synchronized void addConversionFactor(int foodId, int measureId, double value) {
+        conversionFactors.computeIfAbsent(foodId, k -> new TreeMap<>()).putIfAbsent(measureId, value); // units in measure_id order
+    }
+
+    @Override
+    public void loadReferenceData(String path) {
+        // same files and columns as CSVLoader; food sources and groups are not needed in memory
+        readCSV(path, "FOOD NAME.csv", row -> addFood(Integer.parseInt(row[0]), Integer.parseInt(row[2]), row[4], row[5]));
+        readCSV(path, "NUTRIENT NAME.csv", row -> addNutrient(Integer.parseInt(row[0]), row[4], row[5], row[3]));
+        readCSV(path, "NUTRIENT AMOUNT.csv", row -> addNutrientAmount(Integer.parseInt(row[0]), Integer.parseInt(row[1]), Double.parseDouble(row[2])));
+        readCSV(path, "MEASURE NAME.csv", row -> addMeasure(Integer.parseInt(row[0]), row[1], row[2]));
+        readCSV(path, "CONVERSION FACTOR.csv", row -> addConversionFactor(Integer.parseInt(row[0]), Integer.parseInt(row[1]), Double.parseDouble(row[2])));
+    }
+
+    // streams the data rows of a CNF file, read as CSVAdapter reads them
+    private static void readCSV(String path, String fileName, java.util.function.Consumer<String[]> rowHandler) {
+        try (CSVReader reader = new CSVReader(new InputStreamReader(
+                Files.newInputStream(Path.of(path, fileName)), StandardCharsets.ISO_8859_1))) {
+            reader.skip(1); // header row
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rowHandler.accept(row);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized ReferenceNameIndex loadReferenceNames() {
+        List<Integer> foodIds = new ArrayList<>(), nutrientIds = new ArrayList<>(), measureIds = new ArrayList<>();
+        List<String> foodNames = new ArrayList<>(), nutrientNames = new ArrayList<>(), measureNames = new ArrayList<>();
+        List<String> foodNamesF = new ArrayList<>(), nutrientNamesF = new ArrayList<>(), measureNamesF = new ArrayList<>();
+        foods.forEach((id, food) -> { foodIds.add(id); foodNames.add(food.description()); foodNamesF.add(food.descriptionF()); });
+        nutrients.forEach((id, n) -> { nutrientIds.add(id); nutrientNames.add(n.name()); nutrientNamesF.add(n.nameF()); });
+        measures.forEach((id, m) -> { measureIds.add(id); measureNames.add(m.description()); measureNamesF.add(m.descriptionF()); });
+        return new ReferenceNameIndex(
+            new ReferenceNameIndex.NameTable(foodIds, foodNames, foodNamesF),
+            new ReferenceNameIndex.NameTable(nutrientIds, nutrientNames, nutrientNamesF),
+            new ReferenceNameIndex.NameTable(measureIds, measureNames, measureNamesF));
+    }
+
+    @Override
+    public synchronized List<String> findLoggableFoodNames() {
+        Set<String> result = new LinkedHashSet<>();
+        for (Map.Entry<Integer, Food> food : foods.entrySet()) {
+            if (!findAvailableUnits(food.getKey()).isEmpty()) {
+                result.add(food.getValue().description());
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    @Override
+    public synchronized List<String> findAvailableUnits(int foodId) {
+        List<String> result = new ArrayList<>();
+        Food food = foods.get(foodId);
+        Map<Integer, Double> factors = conversionFactors.get(foodId);
+        if (food == null || factors == null) {
+            return result;
+        }
+        for (int measureId : factors.keySet()) {
+            Measure measure = measures.get(measureId);
+            if (measure != null && isLoggable(food.groupId(), measure.description())) {
+                result.add(measure.description());
+            }
+        }
+        return result;
+    }
+
+    // food groups measured by volume are logged in ml, food groups measured by weight in g
+    static boolean isLoggable(int foodGroupId, String measureDescription) {
+        return (VOLUME_GROUPS.contains(foodGroupId) && key(measureDescription).contains("ml"))
+            || (WEIGHT_GROUPS.contains(foodGroupId) && GRAMS.matcher(measureDescription).find());
+    }
+
+    @Override
+    public synchronized Map<String, Double> findNutrientAmounts(int foodId) {
+        Map<String, Double> result = new HashMap<>();
+        Map<Integer, Double> amounts = nutrientAmounts.get(foodId);
+        if (amounts != null) {
+            amounts.forEach((nutrientId, value) -> {
+                Nutrient nutrient = nutrients.get(nutrientId);
+                if (nutrient != null) {
+                    result.put(nutrient.name(), value);
+                }
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void forEachNutrientAmount(NutrientAmountConsumer consumer) {
+        nutrientAmounts.forEach((foodId, amounts) -> amounts.forEach((nutrientId, value) -> {
+            if (foods.containsKey(foodId) && nutrients.containsKey(nutrientId)) {
+                consumer.accept(foodId, nutrientId, value);
+            }
+        }));
+    }
+
+    @Override
+    public synchronized void forEachConversionFactor(ConversionFactorConsumer consumer) {
+        conversionFactors.forEach((foodId, factors) -> factors.forEach((measureId, factor) -> {
+            if (foods.containsKey(foodId) && measures.containsKey(measureId)) {
+                consumer.accept(foodId, measureId, factor);
+            }
+        }));
+    }
+
+    @Override
+    public synchronized double findConversionFactor(int foodId, int measureId) {
+        Map<Integer, Double> factors = conversionFactors.get(foodId);
+        Double factor = factors == null ? null : factors.get(measureId);
+        return factor == null ? -1 : factor;
+    }
+
+    @Override
+    public synchronized int findMeasureId(int foodId, String measureDescription) {
+        Map<Integer, Double> factors = conversionFactors.get(foodId);
+        if (factors == null || measureDescription == null) {
+            return -1;
+        }
+        for (int measureId : factors.keySet()) {
+            Measure measure = measures.get(measureId);
+            if (measure != null && measure.description().equalsIgnoreCase(measureDescription)) {
+                return measureId;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized int findFoodGroupId(int foodId) {
+        Food food = foods.get(foodId);
+        return food == null ? -1 : food.groupId();
+    }
+
+    @Override
+    public synchronized List<String> findFoodNamesInGroupOf(int foodId) {
+        List<String> result = new ArrayList<>();
+        Food food = foods.get(foodId);
+        if (food == null) {
+            return result;
+        }
+        for (Food other : foods.values()) {
+            if (other.groupId() == food.groupId()) {
+                result.add(other.description());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized String findNutrientUnit(String nutrientName) {
+        Nutrient nutrient = nutrientName == null ? null : nutrientsByName.get(key(nutrientName));
+        return nutrient == null ? null : nutrient.unit();
+    }
+}
@@ -0,0 +1,823 @@
+package healthyBites.model.storage;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import healthyBites.model.CSVLoader;
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+import healthyBites.model.NameRegistry;
+import healthyBites.model.ReferenceNameIndex;
+import healthyBites.model.TableDefinitions;
+import healthyBites.model.UserProfile;
+
+/**
+ * The MySQL storage backend. It creates and migrates the tables on construction and keeps
+ * a second connection for batched meal writes, so a write-behind transaction never shares
+ * a connection with the queries of the user interface.
+ * @author HealthyBites Team
+ */
+public class JdbcStorage implements StorageBackend {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private Connection conn;
+    private Connection writerConn; // used only for batched meal writes
+    private final NameRegistry names = new NameRegistry(); // one shared instance per food, unit, nutrient and meal type name
+
+    /**
+     * Connects to the database and creates any missing tables.
+     *
+     * @param url the JDBC url of the database
+     * @param user the database user
+     * @param password the database password
+     */
+    public JdbcStorage(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        try {
+            conn = DriverManager.getConnection(url, user, password);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        initializeTables(); // adds the necessary tables to the database
+    }
+
+    private void initializeTables() {
+        try (Statement stmt = conn.createStatement()) {
+            // our tables
+            stmt.execute(TableDefinitions.USER_PROFILE_TABLE);
+            stmt.execute(TableDefinitions.MEAL_TABLE);
+            stmt.execute(TableDefinitions.FOOD_ITEM_TABLE);
+            // csv tables
+            stmt.execute(TableDefinitions.FOOD_SOURCE_TABLE);
+            stmt.execute(TableDefinitions.FOOD_GROUP_TABLE);
+            stmt.execute(TableDefinitions.FOOD_NAME_TABLE);
+            stmt.execute(TableDefinitions.NUTRIENT_NAME_TABLE);
+            stmt.execute(TableDefinitions.NUTRIENT_AMOUNT_TABLE);
+            stmt.execute(TableDefinitions.MEASURE_NAME_TABLE);
+            stmt.execute(TableDefinitions.CONVERSION_FACTOR_TABLE);
+        } catch (SQLException ex) {
+            System.out.println("SQLException: " + ex.getMessage());
+            System.out.println("SQLState: " + ex.getSQLState());
+            System.out.println("VendorError: " + ex.getErrorCode());
+        }
+        createIndex(TableDefinitions.MEAL_DATE_INDEX);
+        addColumn(TableDefinitions.MEAL_ADD_JOURNAL_KEY);
+        createIndex(TableDefinitions.MEAL_JOURNAL_KEY_INDEX);
+        migrateFoodItemIds();
+    }
+
+    // adds the food_id and measure_id columns to food_items tables created before they existed
+    // and fills them in for the rows saved without them. The backfill runs on every start, so rows
+    // left behind by an interrupted migration, or saved before the reference data was loaded, get
+    // their ids too; rows that already have them are not touched
+    private void migrateFoodItemIds() {
+        addColumn(TableDefinitions.FOOD_ITEM_ADD_FOOD_ID);
+        addColumn(TableDefinitions.FOOD_ITEM_ADD_MEASURE_ID);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(TableDefinitions.FOOD_ITEM_BACKFILL_FOOD_ID);
+            stmt.executeUpdate(TableDefinitions.FOOD_ITEM_BACKFILL_MEASURE_ID);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // MySQL has no ADD COLUMN IF NOT EXISTS, so an existing column is detected by its error code
+    private void addColumn(String ddl) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ddl);
+        } catch (SQLException ex) {
+            if (ex.getErrorCode() != 1060) { // ER_DUP_FIELDNAME: column already exists
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so an existing index is detected by its error code
+    private void createIndex(String ddl) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ddl);
+        } catch (SQLException ex) {
+            if (ex.getErrorCode() != 1061) { // ER_DUP_KEYNAME: index already exists
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void loadReferenceData(String path) {
+        CSVLoader.loadDataFromCSV(conn, path);
+    }
+
+    @Override
+    public void close() {
+        for (Connection c : new Connection[] { writerConn, conn }) {
+            try {
+                if (c != null)
+                    c.close();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void insertProfile(UserProfile profile) {
+        String sql = "INSERT INTO user_profiles (email, name, sex, unit, height, weight, dob) VALUES (?, ?, ?, ?, ?, ?, ?);";
+        SqlStatementEvent event = SqlStatementEvent.begin("INSERT", "insertProfile");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, profile.getEmail());
+            stmt.setString(2, profile.getName());
+            stmt.setString(3, profile.getSex());
+            stmt.setString(4, profile.getUnitOfMeasurement());
+            stmt.setDouble(5, profile.getHeight());
+            stmt.setDouble(6, profile.getWeight());
+            stmt.setDate(7, new java.sql.Date(profile.getDob().getTime())); // getTime()'s returns type is long
+            event.finish(stmt.executeUpdate()); // return the number of rows affected (int type)
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public UserProfile findProfile(String email) {
+        String query = "SELECT * FROM user_profiles WHERE email = ?;";
+
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findProfile");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, email);
+            ResultSet rs = stmt.executeQuery();
+            boolean found = rs.next();
+            event.finish(found ? 1 : 0);
+            if(found) { // if there is any new rows in result
+                return new UserProfile(
+                    rs.getString("name"),
+                    rs.getString("sex"),
+                    rs.getString("email"),
+                    rs.getString("unit"),
+                    rs.getDate("dob"),
+                    rs.getDouble("height"),
+                    rs.getDouble("weight"));
+            }
+        }
+        catch (SQLException ex){
+            event.fail();
+            ex.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public void updateProfile(UserProfile profile) {
+        String sql = "UPDATE user_profiles SET name = ?, sex = ?, unit = ?, height = ?, weight = ?, dob = ? WHERE email = ?;";
+        // we set every attribute even tho some main remain the same
+        // email is primary key
+        SqlStatementEvent event = SqlStatementEvent.begin("UPDATE", "updateProfile");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, profile.getName());
+            stmt.setString(2, profile.getSex());
+            stmt.setString(3, profile.getUnitOfMeasurement());
+            stmt.setDouble(4, profile.getHeight());
+            stmt.setDouble(5, profile.getWeight());
+            stmt.setDate(6, new java.sql.Date(profile.getDob().getTime()));
+            stmt.setString(7, profile.getEmail());
+            event.finish(stmt.executeUpdate());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public void deleteProfile(String email) {
+        String sql = "DELETE FROM user_profiles WHERE email = ?;"; // meals and food items cascade
+        SqlStatementEvent event = SqlStatementEvent.begin("DELETE", "deleteProfile");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, email);
+            event.finish(stmt.executeUpdate());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public Meal insertMeal(String email, Meal meal) {
+        int generatedMealId = 0; // to save auto gen id
+        // add a meal into the table and save the auto gen id
+        String sql = "INSERT INTO meals (date, type, email) VALUES (?, ?, ?)";
+        SqlStatementEvent event = SqlStatementEvent.begin("INSERT", "insertMeal");
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setDate(1, new java.sql.Date(meal.getDate().getTime()));
+            stmt.setString(2, meal.getType());
+            stmt.setString(3, email);
+            int rows = stmt.executeUpdate();
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (rs.next())
+                generatedMealId = rs.getInt(1);
+            event.finish(rows);
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+
+        // use the auto gen id to add entries to food items table
+        String foodItemsql = "INSERT INTO food_items (meal_id, food_id, food_name, quantity, measure_id, unit) VALUES (?, ?, ?, ?, ?, ?)";
+        for (FoodItem item : meal.getFoodItems()) {
+            SqlStatementEvent itemEvent = SqlStatementEvent.begin("INSERT", "insertMeal");
+            try (PreparedStatement stmt = conn.prepareStatement(foodItemsql)) {
+                setFoodItem(stmt, generatedMealId, item);
+                itemEvent.finish(stmt.executeUpdate());
+            } catch (SQLException ex) {
+                itemEvent.fail();
+                ex.printStackTrace();
+            }
+        }
+        return new Meal(generatedMealId, meal.getDate(), meal.getFoodItems(), meal.getType());
+    }
+
+    @Override
+    public synchronized List<Meal> insertMeals(List<MealJournal.Entry> entries) {
+        try {
+            if (writerConn == null || !writerConn.isValid(2)) {
+                writerConn = DriverManager.getConnection(url, user, password);
+                writerConn.setAutoCommit(false);
+            }
+        } catch (SQLException ex) {
+            throw new StorageException("cannot connect to the database", ex);
+        }
+        List<Meal> savedMeals = new ArrayList<>(entries.size());
+        SqlStatementEvent event = null; // of the batch being executed
+        try (PreparedStatement mealStmt = writerConn.prepareStatement(
+                 "INSERT INTO meals (date, type, email, journal_key) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement itemStmt = writerConn.prepareStatement(
+                 "INSERT INTO food_items (meal_id, food_id, food_name, quantity, measure_id, unit) VALUES (?, ?, ?, ?, ?, ?)")) {
+            Map<Long, Integer> storedIds = findStoredJournalKeys(entries);
+            int newMeals = 0;
+            for (MealJournal.Entry entry : entries) {
+                if (storedIds.containsKey(entry.getKey()))
+                    continue; // committed before the application stopped
+                Meal meal = entry.getMeal();
+                mealStmt.setDate(1, java.sql.Date.valueOf(EpochDays.toLocalDate(meal.getEpochDay())));
+                mealStmt.setString(2, meal.getType());
+                mealStmt.setString(3, entry.getEmail());
+                mealStmt.setLong(4, entry.getKey());
+                mealStmt.addBatch();
+                newMeals++;
+            }
+            event = SqlStatementEvent.begin("BATCH INSERT", "insertMeals");
+            if (newMeals > 0)
+                mealStmt.executeBatch();
+            event.finish(newMeals);
+            ResultSet keys = newMeals > 0 ? mealStmt.getGeneratedKeys() : null;
+
+            for (MealJournal.Entry entry : entries) {
+                Meal meal = entry.getMeal();
+                Integer storedId = storedIds.get(entry.getKey());
+                int mealId;
+                if (storedId != null) {
+                    mealId = storedId;
+                } else {
+                    if (!keys.next())
+                        throw new SQLException("missing generated key for meal " + entry.getSequence());
+                    mealId = keys.getInt(1);
+                    for (FoodItem item : meal.getFoodItems()) {
+                        setFoodItem(itemStmt, mealId, item);
+                        itemStmt.addBatch();
+                    }
+                }
+                savedMeals.add(new Meal(mealId, meal.getDate(), meal.getFoodItems(), names.intern(meal.getType())));
+            }
+            event = SqlStatementEvent.begin("BATCH INSERT", "insertMeals");
+            int items = itemStmt.executeBatch().length;
+            writerConn.commit();
+            event.finish(items);
+        } catch (SQLException ex) {
+            if (event != null)
+                event.fail();
+            try {
+                writerConn.rollback();
+            } catch (SQLException rollbackEx) {
+                rollbackEx.printStackTrace();
+            }
+            throw new StorageException("cannot store " + entries.size() + " meals", ex);
+        }
+        return savedMeals;
+    }
+
+    // the ids of the replayed meals that are already stored, by journal key; only a replayed meal
+    // can have been committed before, so a batch of new meals makes no query
+    private Map<Long, Integer> findStoredJournalKeys(List<MealJournal.Entry> entries) throws SQLException {
+        List<Long> replayedKeys = new ArrayList<>();
+        for (MealJournal.Entry entry : entries) {
+            if (entry.isReplayed())
+                replayedKeys.add(entry.getKey());
+        }
+        Map<Long, Integer> storedIds = new HashMap<>();
+        if (replayedKeys.isEmpty())
+            return storedIds;
+        String placeholders = String.join(",", Collections.nCopies(replayedKeys.size(), "?"));
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "insertMeals");
+        try (PreparedStatement stmt = writerConn.prepareStatement(
+                 "SELECT id, journal_key FROM meals WHERE journal_key IN (" + placeholders + ")")) {
+            for (int i = 0; i < replayedKeys.size(); i++) {
+                stmt.setLong(i + 1, replayedKeys.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                storedIds.put(rs.getLong("journal_key"), rs.getInt("id"));
+            }
+            event.finish(storedIds.size());
+        } catch (SQLException ex) {
+            event.fail();
+            throw ex;
+        }
+        return storedIds;
+    }
+
+    // binds the columns of a food_items row
+    private void setFoodItem(PreparedStatement stmt, int mealId, FoodItem item) throws SQLException {
+        stmt.setInt(1, mealId);
+        setIdOrNull(stmt, 2, item.getFoodId());
+        stmt.setString(3, item.getName());
+        stmt.setDouble(4, item.getQuantity());
+        setIdOrNull(stmt, 5, item.getMeasureId());
+        stmt.setString(6, item.getUnit());
+    }
+
+    // stores an id, or NULL for an id that could not be resolved
+    private void setIdOrNull(PreparedStatement stmt, int index, int id) throws SQLException {
+        if (id > 0)
+            stmt.setInt(index, id);
+        else
+            stmt.setNull(index, java.sql.Types.INTEGER);
+    }
+
+    @Override
+    public List<Meal> findMeals(String email, Date begin, Date end) {
+        // join meals and food items tables to produce meal objects
+        String query =
+        """
+            SELECT *
+            FROM meals
+            INNER JOIN food_items
+            ON meals.id = food_items.meal_id
+            WHERE meals.email = ?
+            AND meals.date >= ? AND meals.date <= ?
+            ORDER BY meals.date, meals.id
+        """;
+        ArrayList<Meal> result = new ArrayList<>();
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findMeals");
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, email);
+            stmt.setDate(2, new java.sql.Date(begin.getTime()));
+            stmt.setDate(3, new java.sql.Date(end.getTime()));
+            ResultSet rs = stmt.executeQuery();
+            int currMealId = -1;
+            Date currDate = null;
+            String currType = null;
+            List<FoodItem> currFoodItems = new ArrayList<>();
+            while(rs.next()) {
+                rows++;
+                String type = names.intern(rs.getString("type"));
+                int meal_id = rs.getInt("meal_id");
+                int foodId = rs.getInt("food_id"); // 0 when NULL
+                String foodName = names.intern(rs.getString("food_name"));
+                double quantity = rs.getDouble("quantity");
+                int measureId = rs.getInt("measure_id"); // 0 when NULL
+                String unit = names.intern(rs.getString("unit"));
+                Date date = rs.getDate("date");
+                if (currMealId != meal_id) { // a new meal starts, so the previous one is complete
+                    if (currMealId != -1)
+                        result.add(new Meal(currMealId, currDate, currFoodItems, currType));
+                    currMealId = meal_id;
+                    currDate = date;
+                    currType = type;
+                    currFoodItems = new ArrayList<>();
+                }
+                currFoodItems.add(new FoodItem(foodId, foodName, quantity, measureId, unit));
+            }
+            if (currMealId != -1)
+                result.add(new Meal(currMealId, currDate, currFoodItems, currType));
+            event.finish(rows);
+        }
+        catch (SQLException ex){
+            event.fail();
+            ex.printStackTrace();
+        }
+        return result;
+    }
+
+    @Override
+    public List<Meal> findMealsPage(String email, Meal after, int pageSize) {
+        String query = after == null
+            ? """
+                SELECT id, date, type
+                FROM meals
+                WHERE email = ?
+                ORDER BY date DESC, id DESC
+                LIMIT ?
+              """
+            : """
+                SELECT id, date, type
+                FROM meals
+                WHERE email = ?
+                AND (date < ? OR (date = ? AND id < ?))
+                ORDER BY date DESC, id DESC
+                LIMIT ?
+              """;
+        List<Integer> ids = new ArrayList<>();
+        List<Date> dates = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findMealsPage");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, email);
+            if (after == null) {
+                stmt.setInt(2, pageSize);
+            } else {
+                java.sql.Date afterDate = java.sql.Date.valueOf(after.getLocalDate());
+                stmt.setDate(2, afterDate);
+                stmt.setDate(3, afterDate);
+                stmt.setInt(4, after.getId());
+                stmt.setInt(5, pageSize);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt("id"));
+                dates.add(rs.getDate("date"));
+                types.add(names.intern(rs.getString("type")));
+            }
+            event.finish(ids.size());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+
+        ArrayList<Meal> result = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        // fetch the food items of the whole page in one query
+        Map<Integer, List<FoodItem>> itemsByMeal = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String itemQuery = "SELECT meal_id, food_id, food_name, quantity, measure_id, unit FROM food_items WHERE meal_id IN (" + placeholders + ") ORDER BY meal_id, id";
+        SqlStatementEvent itemEvent = SqlStatementEvent.begin("SELECT", "findMealsPage");
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(itemQuery)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                rows++;
+                itemsByMeal.computeIfAbsent(rs.getInt("meal_id"), k -> new ArrayList<>())
+                    .add(new FoodItem(rs.getInt("food_id"), names.intern(rs.getString("food_name")), rs.getDouble("quantity"),
+                                      rs.getInt("measure_id"), names.intern(rs.getString("unit"))));
+            }
+            itemEvent.finish(rows);
+        } catch (SQLException ex) {
+            itemEvent.fail();
+            ex.printStackTrace();
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            List<FoodItem> items = itemsByMeal.get(ids.get(i));
+            if (items != null) { // matches the inner join used by findMeals
+                result.add(new Meal(ids.get(i), dates.get(i), items, types.get(i)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean mealExists(String email, Date date, String type) {
+        String query =
+        """
+            SELECT 1
+            FROM meals
+            WHERE email = ? AND date = ? AND type = ?
+            LIMIT 1
+        """;
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "mealExists");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, email);
+            stmt.setDate(2, java.sql.Date.valueOf(EpochDays.toLocalDate(EpochDays.of(date))));
+            stmt.setString(3, type);
+            ResultSet rs = stmt.executeQuery();
+            boolean exists = rs.next();
+            event.finish(exists ? 1 : 0);
+            return exists;
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public ReferenceNameIndex loadReferenceNames() {
+        return new ReferenceNameIndex(
+            loadNameTable("SELECT food_id, food_description, food_description_f FROM food_names ORDER BY food_id"),
+            loadNameTable("SELECT nutrient_id, nutrient_name, nutrient_name_f FROM nutrient_names ORDER BY nutrient_id"),
+            loadNameTable("SELECT measure_id, measure_description, measure_description_f FROM measure_names ORDER BY measure_id"));
+    }
+
+    /**
+     * Loads one reference name table.
+     *
+     * @param query a query returning the id, the English name and the French name
+     * @return the name table
+     */
+    private ReferenceNameIndex.NameTable loadNameTable(String query) {
+        List<Integer> ids = new ArrayList<>();
+        List<String> englishNames = new ArrayList<>();
+        List<String> frenchNames = new ArrayList<>();
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "loadReferenceNames");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+                englishNames.add(names.intern(rs.getString(2)));
+                frenchNames.add(names.intern(rs.getString(3)));
+            }
+            event.finish(ids.size());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+        return new ReferenceNameIndex.NameTable(ids, englishNames, frenchNames);
+    }
+
+    @Override
+    public List<String> findLoggableFoodNames() {
+    	String query =
+        """
+        SELECT DISTINCT food_description
+        FROM food_names
+        INNER JOIN conversion_factors ON food_names.food_id = conversion_factors.food_id
+        INNER JOIN measure_names ON measure_names.measure_id = conversion_factors.measure_id
+        WHERE (
+            (food_group_id IN (1, 9, 11, 12, 16, 20, 5, 7, 10, 13, 15, 17, 4) AND measure_description LIKE '%ml%')
+            OR
+            (food_group_id IN (18, 8, 5, 7, 10, 13, 15, 17, 4) AND measure_description REGEXP ? )
+        );
+        """;
+
+        List<String> foodNames = new ArrayList<>();
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findLoggableFoodNames");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, "\\d+\\s?g");
+            ResultSet rs = stmt.executeQuery();
+            while(rs.next()) {
+                foodNames.add(names.intern(rs.getString(1)));
+            }
+            event.finish(foodNames.size());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+        return foodNames;
+    }
+
+    @Override
+    public List<String> findAvailableUnits(int foodId) {
+        //get all the measurement units of the food name
+        List<String> result = new ArrayList<>();
+        String query =
+        """
+            SELECT measure_description
+            FROM measure_names m
+            JOIN conversion_factors c ON m.measure_id = c.measure_id
+            JOIN food_names f ON f.food_id = c.food_id
+            WHERE f.food_id = ?
+            AND ((food_group_id IN (1, 9, 11, 12, 16, 20, 5, 7, 10, 13, 15, 17, 4) AND measure_description LIKE "%ml%")
+            OR (food_group_id IN (18, 8, 5, 7, 10, 13, 15, 17, 4) AND measure_description REGEXP ?))
+            ORDER BY m.measure_id;
+        """;
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findAvailableUnits");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, foodId);
+            stmt.setString(2, "\\d+\\s?g");
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                result.add(names.intern(rs.getString(1)));
+            }
+            event.finish(result.size());
+        } catch (SQLException e) {
+            event.fail();
+            e.printStackTrace();
+        }
+
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> findNutrientAmounts(int foodId) {
+        Map<String, Double> nutrients = new HashMap<>();
+        String query =
+        """
+        SELECT nutrient_names.nutrient_name, nutrient_amounts.nutrient_value
+        FROM nutrient_amounts
+        INNER JOIN nutrient_names ON nutrient_amounts.nutrient_id = nutrient_names.nutrient_id
+        WHERE nutrient_amounts.food_id = ?;
+        """;
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findNutrientAmounts");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, foodId);
+            ResultSet rs = stmt.executeQuery();
+            while(rs.next()) {
+                nutrients.put(names.intern(rs.getString(1)), rs.getDouble(2));
+            }
+            event.finish(nutrients.size());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+        return nutrients;
+    }
+
+    @Override
+    public void forEachNutrientAmount(NutrientAmountConsumer consumer) {
+        // one pass over the whole table instead of one query per food
+        String query = "SELECT food_id, nutrient_id, nutrient_value FROM nutrient_amounts";
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "forEachNutrientAmount");
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE); // stream the rows rather than buffering ~500k of them
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getInt(1), rs.getInt(2), rs.getDouble(3));
+                rows++;
+            }
+            event.finish(rows);
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public void forEachConversionFactor(ConversionFactorConsumer consumer) {
+        String query = "SELECT food_id, measure_id, conversion_factor_value FROM conversion_factors";
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "forEachConversionFactor");
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getInt(1), rs.getInt(2), rs.getDouble(3));
+                rows++;
+            }
+            event.finish(rows);
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public double findConversionFactor(int foodId, int measureId) {
+        String query =
+        """
+        SELECT conversion_factor_value
+        FROM conversion_factors
+        WHERE food_id = ? AND measure_id = ?;
+        """;
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findConversionFactor");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, foodId);
+            stmt.setInt(2, measureId);
+            ResultSet rs = stmt.executeQuery();
+            boolean found = rs.next();
+            event.finish(found ? 1 : 0);
+            if(found) {
+                return rs.getDouble(1);
+            }
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public int findMeasureId(int foodId, String measureDescription) {
+        String query =
+        """
+        SELECT conversion_factors.measure_id
+        FROM conversion_factors
+        INNER JOIN measure_names ON measure_names.measure_id = conversion_factors.measure_id
+        WHERE conversion_factors.food_id = ? AND measure_names.measure_description = ?
+        ORDER BY conversion_factors.measure_id
+        LIMIT 1;
+        """;
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findMeasureId");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, foodId);
+            stmt.setString(2, measureDescription);
+            ResultSet rs = stmt.executeQuery();
+            boolean found = rs.next();
+            event.finish(found ? 1 : 0);
+            if (found)
+                return rs.getInt(1);
+        } catch (SQLException e) {
+            event.fail();
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public int findFoodGroupId(int foodId) {
+        String query =
+        """
+        SELECT food_group_id
+        FROM food_names
+        WHERE food_id = ?;
+        """;
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findFoodGroupId");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, foodId);
+            ResultSet rs = stmt.executeQuery();
+            boolean found = rs.next();
+            event.finish(found ? 1 : 0);
+            if(found) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            event.fail();
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public List<String> findFoodNamesInGroupOf(int foodId) {
+        List<String> foodNames = new ArrayList<>();
+        String query =
+        """
+        SELECT food_description
+        FROM food_names
+        WHERE food_group_id =
+            (SELECT food_group_id
+            FROM food_names
+            WHERE food_id = ?);
+        """;
+
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findFoodNamesInGroupOf");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, foodId);
+            ResultSet rs = stmt.executeQuery();
+            while(rs.next()) {
+                foodNames.add(names.intern(rs.getString(1)));
+            }
+            event.finish(foodNames.size());
+        } catch (SQLException ex) {
+            event.fail();
+            ex.printStackTrace();
+        }
+        return foodNames;
+    }
+
+    @Override
+    public String findNutrientUnit(String nutrientName) {
+        String query =
+        """
+        SELECT nutrient_unit
+        FROM nutrient_names
+        WHERE nutrient_name = ?;
+        """;
+
+        SqlStatementEvent event = SqlStatementEvent.begin("SELECT", "findNutrientUnit");
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, nutrientName);
+            ResultSet rs = stmt.executeQuery();
+            boolean found = rs.next();
+            event.finish(found ? 1 : 0);
+            if(found) {
+                return rs.getString(1);
+            }
+        } catch (SQLException e) {
+            event.fail();
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package healthyBites.model.storage;
+
+import java.util.Date;
+import java.util.List;
+
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+
+/**
+ * Storage of the meals users have logged. Meals belong to a stored profile and are returned
+ * in date order, with ties broken by id, which is assigned in insertion order.
+ * Meals without food items are never returned.
+ * @author HealthyBites Team
+ */
+public interface MealStore {
+
+    /**
+     * Stores a meal and its food items.
+     *
+     * @param email the email of the user who ate the meal
+     * @param meal the meal, with the CNF ids of its food items resolved where possible
+     * @return the meal with its new id, or with id 0 if it could not be stored
+     */
+    Meal insertMeal(String email, Meal meal);
+
+    /**
+     * Stores a batch of journaled meals atomically, keeping the journal key of each meal with it.
+     * A meal whose key is already stored was committed before the journal could mark it flushed,
+     * so it is not stored again; the meal stored under that key is returned in its place.
+     *
+     * @param entries the meals, with the CNF ids of their food items resolved where possible
+     * @return the stored meals with their ids, aligned with entries
+     * @throws StorageException if the batch could not be stored; none of it is stored in that case
+     */
+    List<Meal> insertMeals(List<MealJournal.Entry> entries);
+
+    /**
+     * Finds a user's meals eaten within a range of days, oldest first.
+     *
+     * @param email the user's email
+     * @param begin the first day, inclusive
+     * @param end the last day, inclusive
+     * @return the meals
+     */
+    List<Meal> findMeals(String email, Date begin, Date end);
+
+    /**
+     * Finds one page of a user's meals, newest first.
+     *
+     * @param email the user's email
+     * @param after the last meal of the previous page, or null for the first page
+     * @param pageSize the maximum number of meals to return
+     * @return up to pageSize meals that come after {@code after} in (date, id) descending order
+     */
+    List<Meal> findMealsPage(String email, Meal after, int pageSize);
+
+    /**
+     * Checks whether a user has a meal of a type on a day.
+     *
+     * @param email the user's email
+     * @param date the day; the time of day is ignored
+     * @param type the meal type
+     * @return true if such a meal is stored
+     */
+    boolean mealExists(String email, Date date, String type);
+}
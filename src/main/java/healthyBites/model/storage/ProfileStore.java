@@ -0,0 +1,39 @@
+package healthyBites.model.storage;
+
+import healthyBites.model.UserProfile;
+
+/**
+ * Storage of user profiles, keyed by email.
+ * @author HealthyBites Team
+ */
+public interface ProfileStore {
+
+    /**
+     * Stores a new profile.
+     *
+     * @param profile the profile to store
+     */
+    void insertProfile(UserProfile profile);
+
+    /**
+     * Finds a profile by email.
+     *
+     * @param email the user's email
+     * @return a copy of the stored profile, or null if there is none
+     */
+    UserProfile findProfile(String email);
+
+    /**
+     * Replaces the stored profile with the same email.
+     *
+     * @param profile the updated profile
+     */
+    void updateProfile(UserProfile profile);
+
+    /**
+     * Deletes a profile together with all of the user's meals.
+     *
+     * @param email the user's email
+     */
+    void deleteProfile(String email);
+}
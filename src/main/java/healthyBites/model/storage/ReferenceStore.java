@@ -0,0 +1,132 @@
+package healthyBites.model.storage;
+
+import java.util.List;
+import java.util.Map;
+
+import healthyBites.model.ReferenceNameIndex;
+
+/**
+ * Read access to the Canadian Nutrient File reference data, keyed by CNF ids.
+ * @author HealthyBites Team
+ */
+public interface ReferenceStore {
+
+    /**
+     * Loads the English and French names of all foods, nutrients and measures.
+     *
+     * @return the reference name index
+     */
+    ReferenceNameIndex loadReferenceNames();
+
+    /**
+     * Finds the foods that can be logged: those in a food group measured by volume that have a
+     * measure in ml, and those in a food group measured by weight that have a measure in g.
+     *
+     * @return the distinct English food descriptions
+     */
+    List<String> findLoggableFoodNames();
+
+    /**
+     * Finds the measures a food can be logged in, using the same rule as {@link #findLoggableFoodNames()}.
+     *
+     * @param foodId the CNF food_id
+     * @return the measure descriptions in measure_id order, so every backend offers the same
+     *         first unit; possibly empty
+     */
+    List<String> findAvailableUnits(int foodId);
+
+    /**
+     * Finds the nutrient amounts of a food.
+     *
+     * @param foodId the CNF food_id
+     * @return the amount per reference quantity by nutrient name, empty for an unknown food
+     */
+    Map<String, Double> findNutrientAmounts(int foodId);
+
+    /**
+     * Passes every nutrient amount of every food to a consumer, in no particular order. The default
+     * reads the amounts food by food; backends that can read them all at once override it.
+     *
+     * @param consumer receives the CNF food_id, nutrient_id and amount per reference quantity
+     */
+    default void forEachNutrientAmount(NutrientAmountConsumer consumer) {
+        ReferenceNameIndex names = loadReferenceNames();
+        for (int foodId : names.getFoods().getIds()) {
+            findNutrientAmounts(foodId).forEach((nutrient, value) ->
+                consumer.accept(foodId, names.getNutrients().getId(nutrient), value));
+        }
+    }
+
+    /**
+     * Finds the factor that converts a food's reference quantity into one of its measures.
+     *
+     * @param foodId the CNF food_id
+     * @param measureId the CNF measure_id
+     * @return the conversion factor, or -1 if the food has no such measure
+     */
+    double findConversionFactor(int foodId, int measureId);
+
+    /**
+     * Passes every conversion factor of every food to a consumer, in no particular order.
+     *
+     * @param consumer receives the CNF food_id, measure_id and conversion factor
+     */
+    void forEachConversionFactor(ConversionFactorConsumer consumer);
+
+    /**
+     * Finds one of a food's measures by description. Measure descriptions are not unique,
+     * so the lookup is restricted to the measures of the food.
+     *
+     * @param foodId the CNF food_id
+     * @param measureDescription the English measure description
+     * @return the smallest CNF measure_id of the food with that description, or -1 if the food
+     *         has no such measure
+     */
+    int findMeasureId(int foodId, String measureDescription);
+
+    /**
+     * @param foodId the CNF food_id
+     * @return the food's food_group_id, or -1 for an unknown food
+     */
+    int findFoodGroupId(int foodId);
+
+    /**
+     * Finds every food in the same food group as a food, including the food itself.
+     *
+     * @param foodId the CNF food_id
+     * @return the English food descriptions, empty for an unknown food
+     */
+    List<String> findFoodNamesInGroupOf(int foodId);
+
+    /**
+     * @param nutrientName the English nutrient name
+     * @return the nutrient's unit, or null for an unknown nutrient
+     */
+    String findNutrientUnit(String nutrientName);
+
+    /**
+     * Receives the nutrient amounts read by {@link ReferenceStore#forEachNutrientAmount}.
+     */
+    @FunctionalInterface
+    interface NutrientAmountConsumer {
+        /**
+         * @param foodId the CNF food_id
+         * @param nutrientId the CNF nutrient_id
+         * @param value the amount per reference quantity
+         */
+        void accept(int foodId, int nutrientId, double value);
+    }
+
+    /**
+     * Receives the conversion factors read by {@link ReferenceStore#forEachConversionFactor}.
+     */
+    @FunctionalInterface
+    interface ConversionFactorConsumer {
+        /**
+         * @param foodId the CNF food_id
+         * @param measureId the CNF measure_id
+         * @param factor the factor from the food's reference quantity to the measure
+         */
+        void accept(int foodId, int measureId, double factor);
+    }
+}
@@ -0,0 +1,598 @@
+package healthyBites.model.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+
+/**
+ * A meal store made of append-only, per-user segment files of fixed-width binary records,
+ * read through memory-mapped buffers.
+ * <p>
+ * Each food item of a meal is one {@value #RECORD_SIZE}-byte record:
+ * {@code epochDay, mealId, foodId, measureId} as ints, {@code quantity} as a double, the
+ * meal type, food name and unit as int codes into a shared dictionary of names, so the record
+ * stays fixed-width while the meal reads back exactly as it was logged, and the journal key of
+ * a write-behind meal as a long, or 0. The records of one meal
+ * are written together, in a single forced write.
+ * </p>
+ * <p>
+ * Meals are mostly logged in date order, so every block of {@value #BLOCK_RECORDS} records
+ * keeps the smallest and largest day it contains. A range query visits only the blocks whose
+ * days overlap the range and reads their records straight from the mapped file, with no join
+ * and no per-row objects for the records it skips.
+ * </p>
+ * <p>
+ * At most {@value #MAX_OPEN_SEGMENTS} segments are kept open; the least recently used are closed
+ * after each operation and reopened, with their index rebuilt, when their user comes back.
+ * </p>
+ * @author HealthyBites Team
+ */
+public class SegmentMealStore implements MealStore, AutoCloseable {
+
+    /** The size of one record in bytes. */
+    static final int RECORD_SIZE = 44;
+    /** The number of records covered by one entry of the sparse date index. */
+    static final int BLOCK_RECORDS = 128;
+    /** The number of segments kept open between operations. */
+    static final int MAX_OPEN_SEGMENTS = 64;
+
+    private static final int DAY = 0, MEAL_ID = 4, FOOD_ID = 8, MEASURE_ID = 12, QUANTITY = 16, TYPE = 24, NAME = 28, UNIT = 32, JOURNAL_KEY = 36;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final FileChannel dictionaryChannel;
+    private final List<String> dictionary = new ArrayList<>(); // code -> name
+    private final Map<String, Integer> codes = new HashMap<>(); // name -> code
+    private final FileChannel sequenceChannel;
+    private int lastMealId;
+    private final Map<String, Segment> segments = new LinkedHashMap<>(16, 0.75f, true); // by lower-cased email, least recently used first
+
+    /**
+     * Opens the store, creating the directory and its files if they do not exist.
+     *
+     * @param directory the directory holding the segment files
+     * @throws IOException if the store cannot be opened
+     */
+    public SegmentMealStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        Path dictionaryFile = directory.resolve("names.dict");
+        if (Files.exists(dictionaryFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(dictionaryFile))) {
+                while (true) {
+                    register(in.readUTF());
+                }
+            } catch (EOFException ex) {
+                // end of the dictionary, possibly cut short by a crash; the names it lost were never used
+            }
+        }
+        dictionaryChannel = FileChannel.open(dictionaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        dictionaryChannel.truncate(encodedSize());
+        dictionaryChannel.position(dictionaryChannel.size());
+
+        sequenceChannel = FileChannel.open(directory.resolve("meal.seq"), StandardOpenOption.CREATE,
+                                           StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer sequence = ByteBuffer.allocate(4);
+        if (sequenceChannel.read(sequence, 0) == 4) {
+            lastMealId = sequence.getInt(0);
+        }
+    }
+
+    @Override
+    public synchronized Meal insertMeal(String email, Meal meal) {
+        try {
+            List<Meal> saved = new ArrayList<>(1);
+            ByteBuffer records = encode(List.of(meal), new long[1], lastMealId, saved);
+            write(List.of(email), List.of(records), lastMealId + 1);
+            return saved.get(0);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return meal;
+        } finally {
+            closeColdSegments();
+        }
+    }
+
+    @Override
+    public synchronized List<Meal> insertMeals(List<MealJournal.Entry> entries) {
+        Meal[] saved = new Meal[entries.size()];
+        try {
+            // a meal whose journal key is stored was committed before the journal marked it flushed
+            Map<String, List<Integer>> positionsByUser = new LinkedHashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                MealJournal.Entry entry = entries.get(i);
+                Segment segment = segment(entry.getEmail(), false);
+                Integer storedId = segment == null ? null : segment.journaledMealIds.get(entry.getKey());
+                if (storedId != null) {
+                    Meal meal = entry.getMeal();
+                    saved[i] = new Meal(storedId, EpochDays.toDate(meal.getEpochDay()), meal.getFoodItems(), meal.getType());
+                } else {
+                    positionsByUser.computeIfAbsent(key(entry.getEmail()), k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            // encode every user's records before writing any of them
+            List<String> emails = new ArrayList<>();
+            List<ByteBuffer> batches = new ArrayList<>();
+            int mealId = lastMealId;
+            for (List<Integer> positions : positionsByUser.values()) {
+                List<Meal> meals = new ArrayList<>();
+                long[] journalKeys = new long[positions.size()];
+                for (int i = 0; i < positions.size(); i++) {
+                    meals.add(entries.get(positions.get(i)).getMeal());
+                    journalKeys[i] = entries.get(positions.get(i)).getKey();
+                }
+                List<Meal> savedMeals = new ArrayList<>();
+                batches.add(encode(meals, journalKeys, mealId, savedMeals));
+                mealId += meals.size();
+                for (int i = 0; i < savedMeals.size(); i++) {
+                    saved[positions.get(i)] = savedMeals.get(i);
+                }
+                emails.add(entries.get(positions.get(0)).getEmail());
+            }
+            write(emails, batches, mealId);
+        } catch (IOException | UncheckedIOException ex) {
+            throw new StorageException("cannot store " + entries.size() + " meals", ex);
+        } finally {
+            closeColdSegments();
+        }
+        return Arrays.asList(saved);
+    }
+
+    @Override
+    public synchronized List<Meal> findMeals(String email, Date begin, Date end) {
+        try {
+            List<Meal> result = readMeals(email, EpochDays.of(begin), EpochDays.of(end), null);
+            result.sort(Comparator.comparingInt(Meal::getEpochDay).thenComparingInt(Meal::getId));
+            return result;
+        } finally {
+            closeColdSegments();
+        }
+    }
+
+    @Override
+    public synchronized List<Meal> findMealsPage(String email, Meal after, int pageSize) {
+        try {
+            return readPage(email, after, pageSize);
+        } finally {
+            closeColdSegments();
+        }
+    }
+
+    // the meals of one page, newest first
+    private List<Meal> readPage(String email, Meal after, int pageSize) {
+        Segment segment = segment(email, false);
+        if (segment == null || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        int lastDay = after == null ? Integer.MAX_VALUE : after.getEpochDay();
+        long afterKey = after == null ? Long.MAX_VALUE : key(after.getEpochDay(), after.getId());
+
+        // visit blocks from the latest day down, keeping the newest pageSize (day, id) keys older than the
+        // cursor, and stop once no block left can hold a newer key than the oldest one kept
+        ByteBuffer records = segment.records();
+        Integer[] blocks = new Integer[segment.blockCount()];
+        for (int block = 0; block < blocks.length; block++) {
+            blocks[block] = block;
+        }
+        Arrays.sort(blocks, Comparator.comparingInt((Integer block) -> segment.blockMax[block]).reversed());
+        TreeSet<Long> keys = new TreeSet<>();
+        for (int block : blocks) {
+            if (keys.size() == pageSize && segment.blockMax[block] < (int) (keys.first() >> 32)) {
+                break;
+            }
+            if (segment.blockMin[block] > lastDay) {
+                continue;
+            }
+            int previousId = 0;
+            for (int r = block * BLOCK_RECORDS, end = Math.min(r + BLOCK_RECORDS, segment.recordCount); r < end; r++) {
+                int offset = r * RECORD_SIZE;
+                int mealId = records.getInt(offset + MEAL_ID);
+                if (mealId == previousId) {
+                    continue; // another item of the same meal
+                }
+                previousId = mealId;
+                long key = key(records.getInt(offset + DAY), mealId);
+                if (key < afterKey && keys.add(key) && keys.size() > pageSize) {
+                    keys.pollFirst();
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Integer> pageIds = new HashSet<>();
+        for (long key : keys) {
+            pageIds.add((int) key);
+        }
+        int firstDay = (int) (keys.first() >> 32);
+        List<Meal> result = readMeals(email, firstDay, lastDay, pageIds);
+        result.sort(Comparator.comparingInt(Meal::getEpochDay).thenComparingInt(Meal::getId).reversed());
+        return result;
+    }
+
+    @Override
+    public synchronized boolean mealExists(String email, Date date, String type) {
+        int day = EpochDays.of(date);
+        try {
+            for (Meal meal : readMeals(email, day, day, null)) {
+                if (meal.getType().equalsIgnoreCase(type)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            closeColdSegments();
+        }
+    }
+
+    /**
+     * Deletes all of a user's meals. The user's segment is closed and unmapped first, as a file
+     * that is still mapped cannot be deleted on Windows.
+     *
+     * @param email the user's email
+     */
+    public synchronized void deleteMeals(String email) {
+        try {
+            Segment segment = segments.remove(key(email));
+            if (segment != null) {
+                segment.close();
+            }
+            Files.deleteIfExists(segmentFile(email));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            dictionaryChannel.close();
+            sequenceChannel.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // the records of some meals and their journal keys, with ids following firstId; the meals with their
+    // ids are added to saved
+    private ByteBuffer encode(List<Meal> meals, long[] journalKeys, int firstId, List<Meal> saved) throws IOException {
+        int itemCount = 0;
+        for (Meal meal : meals) {
+            itemCount += meal.getFoodItems().size();
+        }
+        ByteBuffer records = ByteBuffer.allocate(itemCount * RECORD_SIZE);
+        int mealId = firstId;
+        for (int m = 0; m < meals.size(); m++) {
+            Meal meal = meals.get(m);
+            mealId++;
+            int type = code(meal.getType());
+            for (FoodItem item : meal.getFoodItems()) {
+                records.putInt(meal.getEpochDay())
+                       .putInt(mealId)
+                       .putInt(item.getFoodId())
+                       .putInt(item.getMeasureId())
+                       .putDouble(item.getQuantity())
+                       .putInt(type)
+                       .putInt(code(item.getName()))
+                       .putInt(code(item.getUnit()))
+                       .putLong(journalKeys[m]);
+            }
+            saved.add(new Meal(mealId, EpochDays.toDate(meal.getEpochDay()), meal.getFoodItems(), meal.getType()));
+        }
+        records.flip();
+        return records;
+    }
+
+    // appends encoded records to the segments of some users; if any write fails, every segment is cut back
+    private void write(List<String> emails, List<ByteBuffer> batches, int lastId) throws IOException {
+        dictionaryChannel.force(false); // the names must be durable before the records that use them
+        writeSequence(lastId);
+        List<Segment> written = new ArrayList<>(emails.size());
+        try {
+            for (int i = 0; i < emails.size(); i++) {
+                Segment segment = segment(emails.get(i), true);
+                segment.write(batches.get(i));
+                written.add(segment);
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            for (Segment segment : written) {
+                try {
+                    segment.truncate();
+                } catch (IOException truncateEx) {
+                    ex.addSuppressed(truncateEx);
+                }
+            }
+            throw ex;
+        }
+        for (int i = 0; i < written.size(); i++) {
+            written.get(i).index(batches.get(i));
+        }
+        lastMealId = lastId;
+    }
+
+    private void writeSequence(int mealId) throws IOException {
+        ByteBuffer sequence = ByteBuffer.allocate(4).putInt(0, mealId);
+        sequenceChannel.write(sequence, 0);
+        sequenceChannel.force(false);
+    }
+
+    // reads the meals with at least one record in [firstDay, lastDay], optionally only the given ids
+    private List<Meal> readMeals(String email, int firstDay, int lastDay, Set<Integer> onlyIds) {
+        List<Meal> result = new ArrayList<>();
+        Segment segment = segment(email, false);
+        if (segment == null || firstDay > lastDay) {
+            return result;
+        }
+        ByteBuffer records = segment.records();
+        int currentId = 0, currentDay = 0;
+        String currentType = null;
+        List<FoodItem> items = null;
+        for (int block = 0; block < segment.blockCount(); block++) {
+            if (segment.blockMax[block] < firstDay || segment.blockMin[block] > lastDay) {
+                continue;
+            }
+            for (int r = block * BLOCK_RECORDS, end = Math.min(r + BLOCK_RECORDS, segment.recordCount); r < end; r++) {
+                int offset = r * RECORD_SIZE;
+                int day = records.getInt(offset + DAY);
+                int mealId = records.getInt(offset + MEAL_ID);
+                if (day < firstDay || day > lastDay || (onlyIds != null && !onlyIds.contains(mealId))) {
+                    continue;
+                }
+                if (mealId != currentId) {
+                    if (items != null) {
+                        result.add(new Meal(currentId, EpochDays.toDate(currentDay), items, currentType));
+                    }
+                    currentId = mealId;
+                    currentDay = day;
+                    currentType = name(records.getInt(offset + TYPE));
+                    items = new ArrayList<>();
+                }
+                items.add(new FoodItem(records.getInt(offset + FOOD_ID), name(records.getInt(offset + NAME)),
+                                       records.getDouble(offset + QUANTITY), records.getInt(offset + MEASURE_ID),
+                                       name(records.getInt(offset + UNIT))));
+            }
+        }
+        if (items != null) {
+            result.add(new Meal(currentId, EpochDays.toDate(currentDay), items, currentType));
+        }
+        return result;
+    }
+
+    // closes the least recently used segments beyond the open limit
+    private void closeColdSegments() {
+        Iterator<Segment> open = segments.values().iterator();
+        while (segments.size() > MAX_OPEN_SEGMENTS && open.hasNext()) {
+            Segment segment = open.next();
+            open.remove();
+            try {
+                segment.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // the number of segments currently open
+    int openSegmentCount() {
+        return segments.size();
+    }
+
+    private Segment segment(String email, boolean create) {
+        Segment segment = segments.get(key(email));
+        if (segment == null) {
+            Path file = segmentFile(email);
+            if (!create && !Files.exists(file)) {
+                return null;
+            }
+            try {
+                segment = new Segment(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            segments.put(key(email), segment);
+        }
+        return segment;
+    }
+
+    // one file per user, named after the email in a form that is safe in any file system
+    private Path segmentFile(String email) {
+        String name = Base64.getUrlEncoder().withoutPadding().encodeToString(key(email).getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(name + SEGMENT_SUFFIX);
+    }
+
+    // the dictionary code of a name, appending the name to the dictionary file if it is new
+    private int code(String name) throws IOException {
+        if (name == null) {
+            return -1;
+        }
+        Integer code = codes.get(name);
+        if (code != null) {
+            return code;
+        }
+        DataOutputStream out = new DataOutputStream(Channels.newOutputStream(dictionaryChannel));
+        out.writeUTF(name);
+        out.flush();
+        return register(name);
+    }
+
+    private int register(String name) {
+        dictionary.add(name);
+        codes.put(name, dictionary.size() - 1);
+        return dictionary.size() - 1;
+    }
+
+    private String name(int code) {
+        return code < 0 ? null : dictionary.get(code);
+    }
+
+    // the size of the dictionary file holding exactly the registered names
+    private long encodedSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (String name : dictionary) {
+            out.writeUTF(name);
+        }
+        return bytes.size();
+    }
+
+    private static long key(int epochDay, int mealId) {
+        return ((long) epochDay << 32) | (mealId & 0xFFFFFFFFL);
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One user's segment file, its mapping and its sparse date index.
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private MappedByteBuffer mapped; // covers the first mappedRecords records
+        private int mappedRecords;
+        private int recordCount;
+        private int[] blockMin = new int[4];
+        private int[] blockMax = new int[4];
+        private final Map<Long, Integer> journaledMealIds = new HashMap<>(); // meal id by journal key
+
+        Segment(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size % RECORD_SIZE != 0) {
+                channel.truncate(size - size % RECORD_SIZE); // drop a record cut short by a crash
+            }
+            int count = (int) (channel.size() / RECORD_SIZE);
+            recordCount = count;
+            ByteBuffer records = records();
+            recordCount = 0;
+            for (int r = 0; r < count; r++) {
+                index(records, r * RECORD_SIZE);
+            }
+        }
+
+        int blockCount() {
+            return (recordCount + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        }
+
+        // a read-only view of all records, remapped only when the file has grown
+        ByteBuffer records() {
+            if (mapped == null || mappedRecords != recordCount) {
+                try {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) recordCount * RECORD_SIZE);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                mappedRecords = recordCount;
+            }
+            return mapped;
+        }
+
+        // writes records after the indexed ones and forces them to disk, without indexing them yet
+        void write(ByteBuffer records) throws IOException {
+            long position = (long) recordCount * RECORD_SIZE;
+            try {
+                while (records.hasRemaining()) {
+                    position += channel.write(records, position);
+                }
+                channel.force(false);
+            } catch (IOException ex) {
+                truncate(); // leave no part of the batch behind
+                throw ex;
+            }
+        }
+
+        // drops the records written but not indexed
+        void truncate() throws IOException {
+            channel.truncate((long) recordCount * RECORD_SIZE);
+        }
+
+        // adds written records to the sparse date index
+        void index(ByteBuffer records) {
+            for (int r = 0, count = records.limit() / RECORD_SIZE; r < count; r++) {
+                index(records, r * RECORD_SIZE);
+            }
+        }
+
+        // adds the next record to the sparse date index and its meal's journal key, if any, to the key index
+        private void index(ByteBuffer records, int offset) {
+            long journalKey = records.getLong(offset + JOURNAL_KEY);
+            if (journalKey != 0) {
+                journaledMealIds.put(journalKey, records.getInt(offset + MEAL_ID));
+            }
+            int day = records.getInt(offset + DAY);
+            int block = recordCount / BLOCK_RECORDS;
+            if (recordCount % BLOCK_RECORDS == 0) {
+                if (block == blockMin.length) {
+                    blockMin = Arrays.copyOf(blockMin, block * 2);
+                    blockMax = Arrays.copyOf(blockMax, block * 2);
+                }
+                blockMin[block] = day;
+                blockMax[block] = day;
+            } else {
+                blockMin[block] = Math.min(blockMin[block], day);
+                blockMax[block] = Math.max(blockMax[block], day);
+            }
+            recordCount++;
+        }
+
+        // the mapping is released now rather than when the buffer is garbage collected; the buffer
+        // never leaves the store's synchronized methods, so no reader can still hold it
+        void close() throws IOException {
+            if (mapped != null) {
+                unmap(mapped);
+                mapped = null;
+            }
+            channel.close();
+        }
+    }
+
+    // releases a mapping through the JDK's cleaner; if that is not available the mapping is
+    // released when the buffer is garbage collected
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            ex.printStackTrace();
+        }
+    }
+}
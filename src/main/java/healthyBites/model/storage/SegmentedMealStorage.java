@@ -0,0 +1,75 @@
+package healthyBites.model.storage;
+
+import java.util.Date;
+import java.util.List;
+
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+
+/**
+ * A storage backend that keeps meals in a {@link SegmentMealStore} and everything else,
+ * profiles and reference data, in another backend.
+ * As with the foreign key in MySQL, meals are only stored for existing profiles, and deleting
+ * a profile deletes its meals.
+ * @author HealthyBites Team
+ */
+public class SegmentedMealStorage extends ForwardingStorage {
+
+    private final SegmentMealStore meals;
+
+    /**
+     * @param base the backend for profiles and reference data
+     * @param meals the store for meals
+     */
+    public SegmentedMealStorage(StorageBackend base, SegmentMealStore meals) {
+        super(base);
+        this.meals = meals;
+    }
+
+    @Override
+    public void deleteProfile(String email) {
+        base.deleteProfile(email);
+        meals.deleteMeals(email);
+    }
+
+    @Override
+    public Meal insertMeal(String email, Meal meal) {
+        if (base.findProfile(email) == null) {
+            System.err.println("No profile for " + email + ", meal not stored");
+            return new Meal(0, meal.getDate(), meal.getFoodItems(), meal.getType()); // id 0: not stored
+        }
+        return meals.insertMeal(email, meal);
+    }
+
+    @Override
+    public List<Meal> insertMeals(List<MealJournal.Entry> entries) {
+        for (MealJournal.Entry entry : entries) {
+            if (base.findProfile(entry.getEmail()) == null) {
+                throw new StorageException("cannot store " + entries.size() + " meals",
+                                           new IllegalArgumentException("No profile for " + entry.getEmail()));
+            }
+        }
+        return meals.insertMeals(entries);
+    }
+
+    @Override
+    public List<Meal> findMeals(String email, Date begin, Date end) {
+        return meals.findMeals(email, begin, end);
+    }
+
+    @Override
+    public List<Meal> findMealsPage(String email, Meal after, int pageSize) {
+        return meals.findMealsPage(email, after, pageSize);
+    }
+
+    @Override
+    public boolean mealExists(String email, Date date, String type) {
+        return meals.mealExists(email, date, type);
+    }
+
+    @Override
+    public void close() {
+        meals.close();
+        base.close();
+    }
+}
@@ -0,0 +1,87 @@
+package healthyBites.model.storage;
+
+import java.util.List;
+import java.util.Map;
+
+import healthyBites.model.ReferenceNameIndex;
+
+/**
+ * A storage backend that reads the CNF reference data from a {@link CnfSnapshot} and keeps
+ * profiles and meals in another backend, so the reference data is neither queried from MySQL
+ * nor parsed from the CSV files at start-up.
+ * @author HealthyBites Team
+ */
+public class SnapshotReferenceStorage extends ForwardingStorage {
+
+    private final CnfSnapshot snapshot;
+
+    /**
+     * @param base the backend for profiles and meals
+     * @param snapshot the reference data
+     */
+    public SnapshotReferenceStorage(StorageBackend base, CnfSnapshot snapshot) {
+        super(base);
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public ReferenceNameIndex loadReferenceNames() {
+        return snapshot.loadReferenceNames();
+    }
+
+    @Override
+    public List<String> findLoggableFoodNames() {
+        return snapshot.findLoggableFoodNames();
+    }
+
+    @Override
+    public List<String> findAvailableUnits(int foodId) {
+        return snapshot.findAvailableUnits(foodId);
+    }
+
+    @Override
+    public Map<String, Double> findNutrientAmounts(int foodId) {
+        return snapshot.findNutrientAmounts(foodId);
+    }
+
+    @Override
+    public void forEachNutrientAmount(NutrientAmountConsumer consumer) {
+        snapshot.forEachNutrientAmount(consumer);
+    }
+
+    @Override
+    public void forEachConversionFactor(ConversionFactorConsumer consumer) {
+        snapshot.forEachConversionFactor(consumer);
+    }
+
+    @Override
+    public double findConversionFactor(int foodId, int measureId) {
+        return snapshot.findConversionFactor(foodId, measureId);
+    }
+
+    @Override
+    public int findMeasureId(int foodId, String measureDescription) {
+        return snapshot.findMeasureId(foodId, measureDescription);
+    }
+
+    @Override
+    public int findFoodGroupId(int foodId) {
+        return snapshot.findFoodGroupId(foodId);
+    }
+
+    @Override
+    public List<String> findFoodNamesInGroupOf(int foodId) {
+        return snapshot.findFoodNamesInGroupOf(foodId);
+    }
+
+    @Override
+    public String findNutrientUnit(String nutrientName) {
+        return snapshot.findNutrientUnit(nutrientName);
+    }
+
+    @Override
+    public void close() {
+        snapshot.close();
+        base.close();
+    }
+}
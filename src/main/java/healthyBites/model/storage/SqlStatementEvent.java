@@ -0,0 +1,79 @@
+package healthyBites.model.storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event for a SQL statement run by the {@link JdbcStorage}, from its
+ * execution until its result has been read. By default only statements of 1 ms or more are
+ * recorded; {@code healthyBites.SqlStatement#threshold=0 ms} records every statement.
+ * @author HealthyBites Team
+ */
+@Name("healthyBites.SqlStatement")
+@Label("SQL Statement")
+@Category({ "HealthyBites", "Storage" })
+@Description("A SQL statement and the reading of its result")
+@Threshold("1 ms")
+@StackTrace(false)
+final class SqlStatementEvent extends Event {
+
+    @Label("Kind")
+    @Description("SELECT, INSERT, UPDATE, DELETE or BATCH INSERT")
+    String kind;
+
+    @Label("Statement")
+    @Description("The storage method that ran the statement")
+    String statement;
+
+    @Label("Rows")
+    @Description("The rows read, or the rows changed by an update")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+
+    private transient boolean finished; // not recorded; guards against committing twice
+
+    /**
+     * Creates and begins an event.
+     *
+     * @param kind the kind of statement
+     * @param statement the storage method that runs it
+     * @return the event
+     */
+    static SqlStatementEvent begin(String kind, String statement) {
+        SqlStatementEvent event = new SqlStatementEvent();
+        event.kind = kind;
+        event.statement = statement;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records the statement as completed.
+     *
+     * @param rows the rows read or changed
+     */
+    void finish(int rows) {
+        if (finished)
+            return;
+        finished = true;
+        this.rows = rows;
+        commit();
+    }
+
+    /**
+     * Records the statement as failed, unless it was already recorded as completed.
+     */
+    void fail() {
+        if (finished)
+            return;
+        failed = true;
+        finish(rows);
+    }
+}
@@ -0,0 +1,26 @@
+package healthyBites.model.storage;
+
+/**
+ * The storage beneath the model: user profiles, their meals and the CNF reference data.
+ * <p>
+ * {@link JdbcStorage} keeps everything in MySQL. {@link InMemoryStorage} runs in process with no
+ * server, keeping its data in memory and, optionally, the user data in a local file; it suits
+ * tests, benchmarks and single-user installs. Both return the same results for the same data.
+ * </p>
+ * @author HealthyBites Team
+ */
+public interface StorageBackend extends ProfileStore, MealStore, ReferenceStore, AutoCloseable {
+
+    /**
+     * Loads the CNF reference data from its CSV files, skipping rows that are already loaded.
+     *
+     * @param path the directory containing the CNF CSV files
+     */
+    void loadReferenceData(String path);
+
+    /**
+     * Releases the backend's connections and files.
+     */
+    @Override
+    void close();
+}
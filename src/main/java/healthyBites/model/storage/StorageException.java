@@ -0,0 +1,18 @@
+package healthyBites.model.storage;
+
+/**
+ * Thrown when a storage backend cannot complete a write that must happen completely or not at all.
+ * @author HealthyBites Team
+ */
+public class StorageException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message what could not be stored
+     * @param cause the underlying failure, or null
+     */
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
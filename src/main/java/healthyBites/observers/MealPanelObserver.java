@@ -2,21 +2,43 @@ package healthyBites.observers;
 
 import healthyBites.model.*;
 import healthyBites.view.ViewFacade;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An observer specifically responsible for keeping the meal history displays updated.
  * It implements {MealObserver} interface to receive live updates for newly added meals and
- * {InitialLoadObserver} interface to handle the one-time population of the complete meal history
- * when a user logs in.
+ * {InitialLoadObserver} interface to handle the population of the meal history when a user logs in.
+ * <p>
+ * The history is loaded a page at a time, newest first: only the first page is fetched at login,
+ * older pages are fetched when a history display is scrolled near its end, and each meal's
+ * nutrition is computed only when its card is first drawn.
+ * </p>
  * @author HealthyBites Team
  */
 public class MealPanelObserver implements MealObserver, InitialLoadObserver {
+    /** Number of meals fetched per page. */
+    public static final int PAGE_SIZE = 50;
+
     /** A reference to the ViewFacade to interact with the UI. */
     private final ViewFacade view;
     /** A reference to the Model to fetch data. */
     private final Model model;
 
+    /** Email of the user whose history is shown, or null before login. */
+    private String email;
+    /** The oldest meal loaded so far; the keyset cursor for the next page. */
+    private Meal lastLoadedMeal;
+    /** Whether every page of the history has been loaded. */
+    private boolean exhausted = true;
+    /** Ids of meals already in the history, so a meal is never shown twice. */
+    private final Set<Integer> shownMealIds = new HashSet<>();
+    /** Nutrition computed so far by meal id, shared by the three history displays. */
+    private final Map<Integer, Nutrition> nutritionByMealId = new HashMap<>();
+
     /**
      * Constructs a MealPanelObserver.
      *
@@ -26,6 +48,8 @@ public class MealPanelObserver implements MealObserver, InitialLoadObserver {
     public MealPanelObserver(ViewFacade view, Model model) {
         this.view = view;
         this.model = model;
+        view.setMealHistoryLoadMoreListener(this::loadNextPage);
+        view.setMealHistoryNutritionResolver(this::nutritionOf);
     }
 
     /**
@@ -37,24 +61,59 @@ public class MealPanelObserver implements MealObserver, InitialLoadObserver {
      */
     @Override
     public void update(Meal m, Nutrition n) {
+        if (m.getId() != 0) {
+            nutritionByMealId.put(m.getId(), n);
+            shownMealIds.add(m.getId());
+        }
         view.addMealToHistory(m, n);
     }
 
     /**
-     * Handles the one-time fetch and population of the user's entire meal history.
-     * This method is triggered by the controller upon successful user login. It clears any
-     * existing history from the UI and then loads all meals for the user from the model.
+     * Resets the history displays and loads the newest page of the user's meals.
+     * This method is triggered by the controller upon successful user login.
      *
      * @param user The UserProfile of the logged-in user.
      */
     @Override
     public void loadInitialHistory(UserProfile user) {
         view.clearMealHistory();
-        List<Meal> meals = model.getMeals(user.getEmail());
-        for (Meal meal : meals) {
-            Nutrition nutrition = model.getMealNutrtionalValue(meal);
-            // Reuses the update logic to add meal cards to the UI.
-            this.update(meal, nutrition); 
+        email = user.getEmail();
+        lastLoadedMeal = null;
+        exhausted = false;
+        shownMealIds.clear();
+        nutritionByMealId.clear();
+        loadNextPage();
+    }
+
+    /**
+     * Loads the next page of older meals into the history displays. Does nothing once
+     * the whole history has been loaded.
+     */
+    private void loadNextPage() {
+        if (exhausted || email == null) {
+            return;
         }
+        List<Meal> page = model.getMealsPage(email, lastLoadedMeal, PAGE_SIZE);
+        if (page.isEmpty()) {
+            exhausted = true;
+            return;
+        }
+        lastLoadedMeal = page.get(page.size() - 1);
+        for (Meal meal : page) {
+            // a meal logged for an older date during this session may already be shown
+            if (shownMealIds.add(meal.getId())) {
+                view.addMealToHistory(meal, null);
+            }
+        }
+    }
+
+    /**
+     * Returns a meal's nutrition, computing it on first request.
+     *
+     * @param meal The meal whose card is being shown.
+     * @return The meal's nutritional value.
+     */
+    private Nutrition nutritionOf(Meal meal) {
+        return nutritionByMealId.computeIfAbsent(meal.getId(), id -> model.getMealNutrtionalValue(meal));
     }
-}
\ No newline at end of file
+}
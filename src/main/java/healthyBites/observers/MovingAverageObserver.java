@@ -0,0 +1,150 @@
+package healthyBites.observers;
+
+import healthyBites.model.*;
+import healthyBites.view.ViewFacade;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An observer that keeps live 7-day and 30-day moving averages of the key nutrients and
+ * Canada Food Guide servings on the home screen.
+ * <p>
+ * The user's last 30 days are fetched once at login. After that, every newly logged meal is
+ * folded into two {@link RollingDailyWindow} ring buffers, so the home screen refresh costs a
+ * constant amount of work instead of re-querying and re-summing the whole window.
+ * </p>
+ * @author HealthyBites Team
+ */
+public class MovingAverageObserver implements MealObserver, InitialLoadObserver {
+    /** Length of the short moving average window, in days. */
+    public static final int SHORT_WINDOW_DAYS = 7;
+    /** Length of the long moving average window, in days. */
+    public static final int LONG_WINDOW_DAYS = 30;
+
+    /** Display labels for the tracked nutrients, aligned with {@link ConcreteModel#importantNutrients}. */
+    private static final String[] NUTRIENT_LABELS = { "Calories (kcal)", "Protein (g)", "Carbs (g)", "Fat (g)", "Fibre (g)" };
+    /** Display labels for the five CFG food groups. */
+    private static final String[] CFG_LABELS = { "Veg & Fruit", "Grains", "Milk & Alt.", "Meat & Alt.", "Oils & Fats" };
+    /** Length of each daily vector: tracked nutrients followed by CFG servings. */
+    private static final int DIMENSION = NUTRIENT_LABELS.length + CFG_LABELS.length;
+
+    /** A reference to the ViewFacade to interact with the UI. */
+    private final ViewFacade view;
+    /** A reference to the Model to fetch data. */
+    private final Model model;
+    /** Ring buffer for the 7-day average. */
+    private final RollingDailyWindow shortWindow = new RollingDailyWindow(SHORT_WINDOW_DAYS, DIMENSION);
+    /** Ring buffer for the 30-day average. */
+    private final RollingDailyWindow longWindow = new RollingDailyWindow(LONG_WINDOW_DAYS, DIMENSION);
+
+    /**
+     * Constructs a MovingAverageObserver.
+     *
+     * @param view The application's ViewFacade.
+     * @param model The application's data Model.
+     */
+    public MovingAverageObserver(ViewFacade view, Model model) {
+        this.view = view;
+        this.model = model;
+    }
+
+    /**
+     * Folds a newly added meal into both windows and refreshes the home screen.
+     *
+     * @param m The new Meal object that was added.
+     * @param n The corresponding Nutrition object for the new meal.
+     */
+    @Override
+    public void update(Meal m, Nutrition n) {
+        addToWindows(m, n);
+        refreshView();
+    }
+
+    /**
+     * Rebuilds both windows from the last {@value #LONG_WINDOW_DAYS} days of the user's meals.
+     * This is the only query the observer makes; later meals arrive through {@link #update}.
+     *
+     * @param user The UserProfile of the logged-in user.
+     */
+    @Override
+    public void loadInitialHistory(UserProfile user) {
+        shortWindow.clear();
+        longWindow.clear();
+
+        int today = (int) LocalDate.now().toEpochDay();
+        Date begin = EpochDays.toDate(today - (LONG_WINDOW_DAYS - 1));
+        Date end = EpochDays.toDate(today);
+
+        List<Meal> meals = model.getMealsByTimeFrame(user.getEmail(), begin, end);
+        for (Meal meal : meals) {
+            addToWindows(meal, model.getMealNutrtionalValue(meal));
+        }
+        refreshView();
+    }
+
+    /**
+     * Converts a meal into its daily vector and adds it to both windows.
+     * A meal logged for a later day is left out, since the windows end today.
+     *
+     * @param meal The meal to add.
+     * @param nutrition The meal's nutritional value.
+     */
+    private void addToWindows(Meal meal, Nutrition nutrition) {
+        long day = meal.getEpochDay();
+        if (day > LocalDate.now().toEpochDay()) {
+            return; // it would move the windows past today and leave recent days out
+        }
+
+        double[] values = new double[DIMENSION];
+        if (nutrition != null) {
+            for (int i = 0; i < ConcreteModel.importantNutrients.length; i++) {
+                values[i] = nutrition.getNutrientValue(ConcreteModel.importantNutrients[i]);
+            }
+        }
+        try {
+            CFGFoodGroup servings = model.getUserMealCFGServings(meal);
+            int offset = NUTRIENT_LABELS.length;
+            values[offset] = servings.getVegtablesAndFruits();
+            values[offset + 1] = servings.getGrainProducts();
+            values[offset + 2] = servings.getMilkAndAlternatives();
+            values[offset + 3] = servings.getMeatAndAlternatives();
+            values[offset + 4] = servings.getOilsAndFat();
+        } catch (IllegalArgumentException e) {
+            // food outside the CFG-mapped groups: the meal still counts towards the nutrient averages
+        }
+
+        shortWindow.add(day, values);
+        longWindow.add(day, values);
+    }
+
+    /**
+     * Moves both windows to today and pushes their averages to the home screen.
+     */
+    private void refreshView() {
+        long today = LocalDate.now().toEpochDay();
+        shortWindow.advanceTo(today);
+        longWindow.advanceTo(today);
+        view.displayMovingAverages(toLabelledMap(shortWindow.getAveragePerLoggedDay()),
+                                   toLabelledMap(longWindow.getAveragePerLoggedDay()));
+    }
+
+    /**
+     * Pairs a window vector with its display labels.
+     *
+     * @param vector The averaged daily vector.
+     * @return An insertion-ordered map of label to value.
+     */
+    private Map<String, Double> toLabelledMap(double[] vector) {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < NUTRIENT_LABELS.length; i++) {
+            map.put(NUTRIENT_LABELS[i], vector[i]);
+        }
+        for (int i = 0; i < CFG_LABELS.length; i++) {
+            map.put(CFG_LABELS[i], vector[NUTRIENT_LABELS.length + i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,153 @@
+package healthyBites.observers;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-length moving window of per-day value vectors, backed by a ring buffer.
+ * <p>
+ * Each slot holds the summed vector of one calendar day, addressed by its epoch day
+ * modulo the window length, and is stamped with the day it currently holds. A running
+ * sum of all live slots is kept, so adding a meal and reading the window's average are
+ * both O(vector length). Slots are evicted lazily: when the window moves forward to a
+ * later day, only the days that fall out of the window are subtracted from the sum.
+ * </p>
+ * @author HealthyBites Team
+ */
+public class RollingDailyWindow {
+    /** Marker for a slot that does not hold any day. */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /** Number of calendar days covered by the window. */
+    private final int days;
+    /** Length of each daily vector. */
+    private final int dimension;
+    /** Epoch day held by each slot, or {@link #EMPTY}. */
+    private final long[] slotDay;
+    /** Per-slot daily vectors, stored contiguously (slot * dimension + i). */
+    private final double[] slotValues;
+    /** Sum of the vectors of all live slots. */
+    private final double[] sum;
+    /** Number of live slots, i.e. days with at least one entry inside the window. */
+    private int activeDays;
+    /** The last day of the window, or {@link #EMPTY} before the first entry. */
+    private long latestDay = EMPTY;
+
+    /**
+     * Creates an empty window.
+     * @param days The number of calendar days the window spans.
+     * @param dimension The length of each daily vector.
+     */
+    public RollingDailyWindow(int days, int dimension) {
+        if (days <= 0 || dimension <= 0) {
+            throw new IllegalArgumentException("Window length and dimension must be positive");
+        }
+        this.days = days;
+        this.dimension = dimension;
+        this.slotDay = new long[days];
+        this.slotValues = new double[days * dimension];
+        this.sum = new double[dimension];
+        Arrays.fill(slotDay, EMPTY);
+    }
+
+    /**
+     * Adds a vector to the given day. Days older than the window are ignored;
+     * a later day moves the window forward first.
+     * @param epochDay The day the values belong to.
+     * @param values The values to add; must have the window's dimension.
+     */
+    public void add(long epochDay, double[] values) {
+        if (values.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " values but got " + values.length);
+        }
+        advanceTo(epochDay);
+        if (epochDay <= latestDay - days) {
+            return; // already outside the window
+        }
+
+        int slot = (int) Math.floorMod(epochDay, (long) days);
+        if (slotDay[slot] != epochDay) {
+            slotDay[slot] = epochDay;
+            activeDays++;
+        }
+        int base = slot * dimension;
+        for (int i = 0; i < dimension; i++) {
+            slotValues[base + i] += values[i];
+            sum[i] += values[i];
+        }
+    }
+
+    /**
+     * Moves the end of the window to {@code epochDay} if it is later than the current end,
+     * evicting any days that no longer fall inside it.
+     * @param epochDay The new last day of the window.
+     */
+    public void advanceTo(long epochDay) {
+        if (latestDay == EMPTY) {
+            latestDay = epochDay;
+            return;
+        }
+        if (epochDay <= latestDay) {
+            return;
+        }
+        // at most 'days' slots can expire, however far the window jumps
+        long firstExpired = latestDay - days + 1;
+        long lastExpired = Math.min(epochDay - days, latestDay);
+        for (long day = firstExpired; day <= lastExpired; day++) {
+            int slot = (int) Math.floorMod(day, (long) days);
+            if (slotDay[slot] == day) {
+                evict(slot);
+            }
+        }
+        latestDay = epochDay;
+    }
+
+    /**
+     * Removes a slot's vector from the running sum and marks it empty.
+     * @param slot The slot to clear.
+     */
+    private void evict(int slot) {
+        int base = slot * dimension;
+        for (int i = 0; i < dimension; i++) {
+            sum[i] -= slotValues[base + i];
+            slotValues[base + i] = 0;
+        }
+        slotDay[slot] = EMPTY;
+        if (--activeDays == 0) {
+            Arrays.fill(sum, 0); // drop accumulated rounding error
+        }
+    }
+
+    /**
+     * Returns the average per logged day, matching how the analysis panels average intake.
+     * @return The window's summed vector divided by the number of days with entries (all zeros if none).
+     */
+    public double[] getAveragePerLoggedDay() {
+        double[] average = new double[dimension];
+        if (activeDays == 0) {
+            return average;
+        }
+        for (int i = 0; i < dimension; i++) {
+            average[i] = sum[i] / activeDays;
+        }
+        return average;
+    }
+
+    /** @return The number of days inside the window that have at least one entry. */
+    public int getActiveDays() {
+        return activeDays;
+    }
+
+    /** @return The number of calendar days spanned by the window. */
+    public int getDays() {
+        return days;
+    }
+
+    /** Empties the window. */
+    public void clear() {
+        Arrays.fill(slotDay, EMPTY);
+        Arrays.fill(slotValues, 0);
+        Arrays.fill(sum, 0);
+        activeDays = 0;
+        latestDay = EMPTY;
+    }
+}
@@ -116,6 +116,17 @@ public class CFGAnalysisPanel extends JPanel {
      * @param numberOfDays The number of days included in the analysis.
      */
     public void displayCFGAnalysis(CFGFoodGroup userAverage, CFGFoodGroup recommended, int numberOfDays) {
+        displayCFGAnalysis(userAverage, recommended, numberOfDays, null);
+    }
+
+    /**
+     * Displays the results of the CFG analysis together with the previous period's average servings.
+     * @param userAverage The user's average daily food group intake.
+     * @param recommended The recommended daily food group intake.
+     * @param numberOfDays The number of days included in the analysis.
+     * @param previousAverage The average daily intake for the previous period of equal length, or null if there is none.
+     */
+    public void displayCFGAnalysis(CFGFoodGroup userAverage, CFGFoodGroup recommended, int numberOfDays, CFGFoodGroup previousAverage) {
         comparisonChartPanel.removeAll();
         summaryPanel.removeAll();
 
@@ -132,7 +143,7 @@ public class CFGAnalysisPanel extends JPanel {
         comparisonChartPanel.add(userChartContainer);
         comparisonChartPanel.add(recommendedChartContainer);
         
-        addDetailedAnalysis(userAverage, recommended);
+        addDetailedAnalysis(userAverage, recommended, previousAverage);
         
         comparisonChartPanel.revalidate();
         comparisonChartPanel.repaint();
@@ -175,13 +186,19 @@ public class CFGAnalysisPanel extends JPanel {
      * Populates the summary panel with detailed analysis for each food group.
      * @param userAverage The user's average intake.
      * @param recommended The recommended intake.
+     * @param previous The previous period's average intake, or null if there is none.
      */
-    private void addDetailedAnalysis(CFGFoodGroup userAverage, CFGFoodGroup recommended) {
-        addSummaryItem("Vegetables & Fruits", userAverage.getVegtablesAndFruits(), recommended.getVegtablesAndFruits());
-        addSummaryItem("Grain Products", userAverage.getGrainProducts(), recommended.getGrainProducts());
-        addSummaryItem("Milk & Alternatives", userAverage.getMilkAndAlternatives(), recommended.getMilkAndAlternatives());
-        addSummaryItem("Meat & Alternatives", userAverage.getMeatAndAlternatives(), recommended.getMeatAndAlternatives());
-        addSummaryItem("Oil & Fats", userAverage.getOilsAndFat(), recommended.getOilsAndFat());
+    private void addDetailedAnalysis(CFGFoodGroup userAverage, CFGFoodGroup recommended, CFGFoodGroup previous) {
+        addSummaryItem("Vegetables & Fruits", userAverage.getVegtablesAndFruits(), recommended.getVegtablesAndFruits(),
+                       previous == null ? null : previous.getVegtablesAndFruits());
+        addSummaryItem("Grain Products", userAverage.getGrainProducts(), recommended.getGrainProducts(),
+                       previous == null ? null : previous.getGrainProducts());
+        addSummaryItem("Milk & Alternatives", userAverage.getMilkAndAlternatives(), recommended.getMilkAndAlternatives(),
+                       previous == null ? null : previous.getMilkAndAlternatives());
+        addSummaryItem("Meat & Alternatives", userAverage.getMeatAndAlternatives(), recommended.getMeatAndAlternatives(),
+                       previous == null ? null : previous.getMeatAndAlternatives());
+        addSummaryItem("Oil & Fats", userAverage.getOilsAndFat(), recommended.getOilsAndFat(),
+                       previous == null ? null : previous.getOilsAndFat());
     }
 
     /**
@@ -189,8 +206,9 @@ public class CFGAnalysisPanel extends JPanel {
      * @param name The name of the food group.
      * @param actual The user's average number of servings.
      * @param recommended The recommended number of servings.
+     * @param previous The previous period's average number of servings, or null if there is none.
      */
-    private void addSummaryItem(String name, double actual, double recommended) {
+    private void addSummaryItem(String name, double actual, double recommended, Double previous) {
         JPanel itemPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         itemPanel.setOpaque(true);
         itemPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 80));
@@ -203,7 +221,8 @@ public class CFGAnalysisPanel extends JPanel {
             "<html><b>" + name + ":</b><br>" +
             "Your Average: " + df.format(actual) + " servings<br>" +
             "Recommended: " + df.format(recommended) + " servings<br>" +
-            "(" + df.format(percentage) + "% of recommendation)</html>"
+            "(" + df.format(percentage) + "% of recommendation)" +
+            (previous != null ? "<br>Previous period: " + df.format(previous) + " servings" : "") + "</html>"
         );
         itemPanel.add(label);
 
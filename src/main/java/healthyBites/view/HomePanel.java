@@ -3,6 +3,8 @@ package healthyBites.view;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.text.DecimalFormat;
+import java.util.Map;
 
 /**
  * The main dashboard or home screen panel for a logged-in user.
@@ -20,6 +22,9 @@ public class HomePanel extends JPanel {
     /** MealHistoryPanel object in the Home page  */
     private MealHistoryPanel forMealSelection;
     
+    /** Label showing the 7-day and 30-day moving averages of key nutrients and CFG servings. */
+    private JLabel movingAverageLabel;
+    
     /**
      * Constructs the HomePanel.
      * @param mealHistoryPanel A pre-configured MealHistoryPanel instance to be displayed
@@ -62,8 +67,34 @@ public class HomePanel extends JPanel {
         logoutButton = new JButton("Logout");
         restPanel.add(logoutButton);
         
+        // Bottom area with the live moving averages
+        JPanel averagesPanel = new JPanel(new BorderLayout());
+        averagesPanel.setBorder(BorderFactory.createTitledBorder("Moving Averages (per logged day)"));
+        movingAverageLabel = new JLabel("No meals logged in the last 30 days.");
+        averagesPanel.add(movingAverageLabel, BorderLayout.CENTER);
+        
         add(topPanel, BorderLayout.NORTH);
         add(restPanel, BorderLayout.CENTER); // Changed to CENTER
+        add(averagesPanel, BorderLayout.SOUTH);
+    }
+    
+    /**
+     * Displays the 7-day and 30-day moving averages as a small table.
+     * Both maps are expected to share the same keys in the same order.
+     * @param shortAverages The 7-day averages, keyed by display label.
+     * @param longAverages The 30-day averages, keyed by display label.
+     */
+    public void displayMovingAverages(Map<String, Double> shortAverages, Map<String, Double> longAverages) {
+        DecimalFormat df = new DecimalFormat("#.#");
+        StringBuilder header = new StringBuilder("<tr><th></th>");
+        StringBuilder shortRow = new StringBuilder("<tr><td><b>7 days</b></td>");
+        StringBuilder longRow = new StringBuilder("<tr><td><b>30 days</b></td>");
+        for (Map.Entry<String, Double> entry : shortAverages.entrySet()) {
+            header.append("<th>").append(entry.getKey()).append("</th>");
+            shortRow.append("<td>").append(df.format(entry.getValue())).append("</td>");
+            longRow.append("<td>").append(df.format(longAverages.getOrDefault(entry.getKey(), 0.0))).append("</td>");
+        }
+        movingAverageLabel.setText("<html><table>" + header + "</tr>" + shortRow + "</tr>" + longRow + "</tr></table></html>");
     }
     
     /**
@@ -4,30 +4,45 @@ import javax.swing.*;
 import java.awt.*;
 import healthyBites.model.Meal;
 import healthyBites.model.Nutrition;
-import java.text.SimpleDateFormat;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.AbstractMap;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.function.Consumer;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
+import java.util.function.Function;
 
 /**
  * A JPanel that displays a scrollable history of meals. Each meal is presented as a "card"
  * showing basic information. Users can select a meal, which highlights it and displays its
  * detailed nutritional information in a separate panel at the bottom.
  * This panel can be configured to lay out meal cards either vertically or horizontally.
+ * <p>
+ * The cards are drawn by a {@link JList} over a sorted list model: a single renderer
+ * component paints only the cards that are visible, and new meals are inserted at their
+ * date position with a binary search instead of re-sorting and rebuilding every card.
+ * </p>
+ * <p>
+ * The history can be filled a page at a time: meals may be added without their nutrition,
+ * which is then computed by the nutrition resolver only when the card is first drawn or selected,
+ * and the load-more listener is notified when the user scrolls close to the oldest card.
+ * </p>
  * @author HealthyBites Team
  */
 @SuppressWarnings("serial")
 public class MealHistoryPanel extends JPanel {
 
-    /** The container that holds the individual meal card JPanels. */
-    private final JPanel mealCardsContainer;
-    /** A list to store meal entries, where each entry is a pair of a Meal object and its corresponding Nutrition object. */
-    private final List<Map.Entry<Meal, Nutrition>> mealEntries = new ArrayList<>();
+    /** Width of a meal card in pixels. */
+    private static final int CARD_WIDTH = 150;
+    /** Height of a meal card in pixels. */
+    private static final int CARD_HEIGHT = 80;
+    /** How many cards from the end of the list scrolling triggers loading the next page. */
+    private static final int LOAD_MORE_THRESHOLD_CARDS = 5;
+
+    /** The list model holding the meal entries, sorted by date in descending order. */
+    private final MealHistoryListModel mealEntries = new MealHistoryListModel();
+    /** The list that displays the meal cards. */
+    private final JList<Map.Entry<Meal, Nutrition>> mealCardList;
     /** The layout orientation for the meal cards (BoxLayout.Y_AXIS or BoxLayout.X_AXIS). */
     private final int layoutAxis;
     
@@ -36,8 +51,12 @@ public class MealHistoryPanel extends JPanel {
 
     /** A callback function to execute when a meal is selected by the user. */
     private Consumer<Meal> mealSelectionCallback;
-    /** A reference to the currently selected meal card panel, used for highlighting. */
-    private JPanel selectedMeal = null;
+
+    /** A callback to request older meals when the user scrolls near the end of the history. */
+    private Runnable loadMoreCallback;
+
+    /** Computes the nutrition of meals that were added without it. */
+    private Function<Meal, Nutrition> nutritionResolver;
 
     /**
      * Constructs a MealHistoryPanel with a specified layout orientation.
@@ -48,23 +67,57 @@ public class MealHistoryPanel extends JPanel {
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
 
-        mealCardsContainer = new JPanel();
         this.layoutAxis = layoutAxis;
-        mealCardsContainer.setLayout(new BoxLayout(mealCardsContainer, this.layoutAxis));
-        mealCardsContainer.setBackground(Color.WHITE);
+        mealCardList = new JList<>(mealEntries);
+        mealCardList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        mealCardList.setCellRenderer(new MealCardRenderer(layoutAxis, this::resolveNutrition));
+        mealCardList.setFixedCellWidth(CARD_WIDTH);
+        mealCardList.setFixedCellHeight(CARD_HEIGHT);
+        mealCardList.setBackground(Color.WHITE);
+        mealCardList.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        mealCardList.addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) return;
+            Map.Entry<Meal, Nutrition> entry = mealCardList.getSelectedValue();
+            if (entry == null) return;
+            
+            updateNutritionInfoPanel(entry.getKey(), resolveNutrition(entry));
+            
+            if(mealSelectionCallback != null) {
+                mealSelectionCallback.accept(entry.getKey());
+            }
+        });
 
-        JScrollPane mealHistoryScrollPane = new JScrollPane(mealCardsContainer);
+        JScrollPane mealHistoryScrollPane = new JScrollPane(mealCardList);
         if(this.layoutAxis == BoxLayout.Y_AXIS) {
+            mealCardList.setLayoutOrientation(JList.VERTICAL);
             mealHistoryScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
             mealHistoryScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         }
         else if(this.layoutAxis == BoxLayout.X_AXIS) {
+            // a single row of cards that scrolls sideways
+            mealCardList.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+            mealCardList.setVisibleRowCount(1);
             mealHistoryScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_NEVER);
             mealHistoryScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+            // keep the preferred width small so enclosing panels do not size to the whole history
+            mealHistoryScrollPane.setPreferredSize(new Dimension(CARD_WIDTH,
+                CARD_HEIGHT + mealHistoryScrollPane.getHorizontalScrollBar().getPreferredSize().height + 4));
         }
         
         mealHistoryScrollPane.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
 
+        JScrollBar scrollBar = this.layoutAxis == BoxLayout.X_AXIS
+            ? mealHistoryScrollPane.getHorizontalScrollBar()
+            : mealHistoryScrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(e -> {
+            if (loadMoreCallback == null || mealEntries.getSize() == 0) return;
+            BoundedRangeModel range = scrollBar.getModel();
+            int cardSize = this.layoutAxis == BoxLayout.X_AXIS ? CARD_WIDTH : CARD_HEIGHT;
+            if (range.getValue() + range.getExtent() >= range.getMaximum() - LOAD_MORE_THRESHOLD_CARDS * cardSize) {
+                loadMoreCallback.run();
+            }
+        });
+
         add(mealHistoryScrollPane, BorderLayout.CENTER);
         
         // Create and add the nutrition info panel
@@ -85,67 +138,36 @@ public class MealHistoryPanel extends JPanel {
     }
     
     /**
-     * Adds a new meal and its nutrition data to the history, then rebuilds the UI to reflect the change.
-     * The meal list is sorted by date in descending order.
+     * Adds a new meal and its nutrition data to the history at its position by date
+     * (descending). Meals on the same day keep the order in which they were added.
      *
      * @param m The Meal object to add.
-     * @param n The corresponding Nutrition object.
+     * @param n The corresponding Nutrition object, or null to compute it with the
+     *          nutrition resolver when the card is first shown.
      */
     public void addMealToHistory(Meal m, Nutrition n) {
-        mealEntries.add(new AbstractMap.SimpleEntry<>(m, n));
-        mealEntries.sort((entry1, entry2) -> entry2.getKey().getDate().compareTo(entry1.getKey().getDate()));
-        rebuildMealCards();
+        mealEntries.insert(new AbstractMap.SimpleEntry<>(m, n));
     }
     
     /**
      * Clears all meal entries from the history and resets the view.
      */
     public void clearHistory() {
+        mealCardList.clearSelection();
         mealEntries.clear();
-        selectedMeal = null;
         nutritionInfoPanel.setVisible(false);
-        rebuildMealCards();
     }
 
     /**
      * Clears the current meal selection, resetting the highlighted border and hiding the nutrition info panel.
      */
     public void clearSelection() {
-        if (selectedMeal != null) {
-            selectedMeal.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(Color.GRAY, 1),
-                BorderFactory.createEmptyBorder(10, 10, 10, 10)
-            ));
-        }
-        selectedMeal = null;
+        mealCardList.clearSelection();
         nutritionInfoPanel.setVisible(false);
         
         revalidate();
         repaint();
     }
-
-    /**
-     * Rebuilds the meal card display from the current list of meal entries. This is called
-     * whenever the meal data changes.
-     */
-    private void rebuildMealCards() {
-        mealCardsContainer.removeAll();
-        Iterator<Map.Entry<Meal, Nutrition>> iterator = mealEntries.iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Meal, Nutrition> entry = iterator.next();
-            JPanel mealCard = createMealCard(entry.getKey(), entry.getValue());
-            mealCardsContainer.add(mealCard);
-            if (iterator.hasNext()) {
-                if(this.layoutAxis == BoxLayout.Y_AXIS) {
-                    mealCardsContainer.add(Box.createVerticalStrut(10));
-                } else if(this.layoutAxis == BoxLayout.X_AXIS) {
-                    mealCardsContainer.add(Box.createHorizontalStrut(10));
-                }
-            }
-        }
-        mealCardsContainer.revalidate();
-        mealCardsContainer.repaint();
-    }
     
     /**
      * Sets a callback function to be executed when a meal is selected.
@@ -157,59 +179,35 @@ public class MealHistoryPanel extends JPanel {
     }
     
     /**
-     * Creates a JPanel that serves as a "card" to display summary information for a single meal.
-     * It includes mouse listeners to handle selection events.
+     * Sets a callback to be executed when the user scrolls close to the oldest meal in the
+     * history, so that the next page of meals can be loaded.
      *
-     * @param meal The meal to display.
-     * @param nutrition The nutrition data for the meal.
-     * @return A JPanel representing the meal card.
+     * @param callback The callback that loads older meals.
      */
-    private JPanel createMealCard(Meal meal, Nutrition nutrition) {
-        JPanel card = new JPanel();
-        card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
-        card.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY, 1),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
-        card.setBackground(new Color(255, 255, 255));
-        card.setMaximumSize(new Dimension(Integer.MAX_VALUE, 80));
-
-        card.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+    public void setOnLoadMoreListener(Runnable callback) {
+        this.loadMoreCallback = callback;
+    }
 
-        card.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                if(selectedMeal != null) {
-                    selectedMeal.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(Color.GRAY, 1),
-                        BorderFactory.createEmptyBorder(10, 10, 10, 10)
-                    ));
-                }
-                
-                selectedMeal = card;
-                selectedMeal.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(Color.RED, 2),
-                    BorderFactory.createEmptyBorder(1,1,1,1)
-                ));
-                
-                updateNutritionInfoPanel(meal, nutrition);
+    /**
+     * Sets the function used to compute the nutrition of meals added without it.
+     *
+     * @param resolver A function from a meal to its nutritional value.
+     */
+    public void setNutritionResolver(Function<Meal, Nutrition> resolver) {
+        this.nutritionResolver = resolver;
+    }
 
-                if(mealSelectionCallback != null) {
-                    mealSelectionCallback.accept(meal);
-                }
-            }
-        });
-                        
-        int calories = 0;
-        if (nutrition != null && nutrition.getNutrients() != null) {
-            calories = nutrition.getNutrients().getOrDefault("ENERGY (KILOCALORIES)", 0.0).intValue();
+    /**
+     * Returns an entry's nutrition, computing and storing it on first use if it was not supplied.
+     *
+     * @param entry The meal entry.
+     * @return The meal's nutrition, or null if it is unknown and no resolver is set.
+     */
+    private Nutrition resolveNutrition(Map.Entry<Meal, Nutrition> entry) {
+        if (entry.getValue() == null && nutritionResolver != null) {
+            entry.setValue(nutritionResolver.apply(entry.getKey()));
         }
-
-        card.add(new JLabel("Date: " + new SimpleDateFormat("yyyy-MM-dd").format(meal.getDate())));
-        card.add(new JLabel("Type: " + meal.getType()));
-        card.add(new JLabel("Calories: " + calories));
-
-        return card;
+        return entry.getValue();
     }
     
     /**
@@ -229,7 +227,7 @@ public class MealHistoryPanel extends JPanel {
         double fiber = nutrients != null ? nutrients.getOrDefault("FIBRE, TOTAL DIETARY", 0.0) : 0.0;
         double iron = nutrients != null ? nutrients.getOrDefault("IRON", 0.0) : 0.0;
         
-        String date = new SimpleDateFormat("yyyy-MM-dd").format(meal.getDate());
+        String date = meal.getLocalDate().toString();
         nutritionInfoPanel.add(new JLabel(String.format("<html><b>%s - %s</b></html>", date, meal.getType())));
         nutritionInfoPanel.add(new JLabel("|"));
         nutritionInfoPanel.add(new JLabel(String.format("Protein: %.1fg", protein)));
@@ -249,10 +247,119 @@ public class MealHistoryPanel extends JPanel {
     /**
      * Returns the list of all meal entries currently in the history.
      * This is used to provide cached meal data for other analysis features.
+     * Only the pages loaded so far are included, and the nutrition of a meal
+     * that has not been shown yet may be null.
      *
      * @return A list of Map.Entry objects, each containing a Meal and its Nutrition.
      */
     public List<Map.Entry<Meal, Nutrition>> getMealHistoryEntries() {
-        return mealEntries;
+        return mealEntries.asList();
+    }
+
+    /**
+     * A list model that keeps meal entries sorted by date in descending order.
+     */
+    private static class MealHistoryListModel extends AbstractListModel<Map.Entry<Meal, Nutrition>> {
+        /** The meal entries, newest day first. */
+        private final List<Map.Entry<Meal, Nutrition>> entries = new ArrayList<>();
+
+        /**
+         * Inserts an entry after all entries on the same or a later day, found by binary search.
+         * @param entry The entry to insert.
+         */
+        void insert(Map.Entry<Meal, Nutrition> entry) {
+            int day = entry.getKey().getEpochDay();
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries.get(mid).getKey().getEpochDay() >= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            entries.add(low, entry);
+            fireIntervalAdded(this, low, low);
+        }
+
+        /** Removes every entry. */
+        void clear() {
+            int size = entries.size();
+            if (size == 0) return;
+            entries.clear();
+            fireIntervalRemoved(this, 0, size - 1);
+        }
+
+        /** @return A read-only view of the entries. */
+        List<Map.Entry<Meal, Nutrition>> asList() {
+            return Collections.unmodifiableList(entries);
+        }
+
+        @Override
+        public int getSize() {
+            return entries.size();
+        }
+
+        @Override
+        public Map.Entry<Meal, Nutrition> getElementAt(int index) {
+            return entries.get(index);
+        }
+    }
+
+    /**
+     * Paints a meal card. One instance is reused for every visible cell.
+     */
+    private static class MealCardRenderer extends JPanel implements ListCellRenderer<Map.Entry<Meal, Nutrition>> {
+        /** Border of an unselected card. */
+        private final javax.swing.border.Border normalBorder;
+        /** Border of the selected card. */
+        private final javax.swing.border.Border selectedBorder;
+
+        /** Label showing the meal date. */
+        private final JLabel dateLabel = new JLabel();
+        /** Label showing the meal type. */
+        private final JLabel typeLabel = new JLabel();
+        /** Label showing the meal calories. */
+        private final JLabel caloriesLabel = new JLabel();
+        /** Supplies an entry's nutrition, computing it if needed. */
+        private final Function<Map.Entry<Meal, Nutrition>, Nutrition> nutritionSource;
+
+        /**
+         * @param layoutAxis The history's layout axis; the gap between cards is placed along it.
+         * @param nutritionSource Supplies an entry's nutrition, computing it if needed.
+         */
+        MealCardRenderer(int layoutAxis, Function<Map.Entry<Meal, Nutrition>, Nutrition> nutritionSource) {
+            this.nutritionSource = nutritionSource;
+            // the outer empty border leaves a 10px gap to the next card
+            javax.swing.border.Border gap = layoutAxis == BoxLayout.Y_AXIS
+                ? BorderFactory.createEmptyBorder(0, 0, 10, 0)
+                : BorderFactory.createEmptyBorder(0, 0, 0, 10);
+            normalBorder = BorderFactory.createCompoundBorder(
+                BorderFactory.createCompoundBorder(gap, BorderFactory.createLineBorder(Color.GRAY, 1)),
+                BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            selectedBorder = BorderFactory.createCompoundBorder(
+                BorderFactory.createCompoundBorder(gap, BorderFactory.createLineBorder(Color.RED, 2)),
+                BorderFactory.createEmptyBorder(9, 9, 9, 9));
+            setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+            setBackground(Color.WHITE);
+            add(dateLabel);
+            add(typeLabel);
+            add(caloriesLabel);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Map.Entry<Meal, Nutrition>> list,
+                Map.Entry<Meal, Nutrition> entry, int index, boolean isSelected, boolean cellHasFocus) {
+            Meal meal = entry.getKey();
+            Nutrition nutrition = nutritionSource.apply(entry);
+            int calories = nutrition != null ? (int) nutrition.getNutrientValue("ENERGY (KILOCALORIES)") : 0;
+
+            dateLabel.setText("Date: " + meal.getLocalDate());
+            typeLabel.setText("Type: " + meal.getType());
+            caloriesLabel.setText("Calories: " + calories);
+            setBorder(isSelected ? selectedBorder : normalBorder);
+            return this;
+        }
     }
 }
\ No newline at end of file
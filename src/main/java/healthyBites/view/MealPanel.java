@@ -1,17 +1,27 @@
 package healthyBites.view;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
 import java.util.Date;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import healthyBites.model.FoodNameIndex;
 
 /**
  * A JPanel that provides a form for users to log a new meal.
  * It includes fields for the meal date and type, and a dynamic list of ingredients where users
  * can add or remove ingredient rows. It also displays a meal history panel at the top.
+ * <p>
+ * Ingredients are entered in type-ahead fields. All rows share one {@link FoodNameIndex} and one
+ * suggestion list, which is shown under whichever field is being typed in, so adding a row
+ * does not copy the food names.
+ * </p>
  * @author HealthyBites Team
  */
 @SuppressWarnings("serial")
@@ -22,8 +32,10 @@ public class MealPanel extends JPanel {
     /** ComboBox for selecting the meal type (e.g., Breakfast, Lunch). */
     private JComboBox<String> mealTypeCombo;
 
-    /** A list of JComboBoxes, one for each ingredient row. */
-    private List<JComboBox<String>> ingredientCombos;
+    /** A list of type-ahead JTextFields, one for each ingredient row. */
+    private List<JTextField> ingredientFields;
+    /** The food name chosen in each ingredient row, or null if the row's text is not a known food. */
+    private List<String> selectedIngredients;
     /** A list of JTextFields for ingredient quantities. */
     private List<JTextField> quantityFields;
     /** A list of JComboBoxes for ingredient units. */
@@ -36,8 +48,18 @@ public class MealPanel extends JPanel {
     /** Buttons for submitting the meal, going back, and managing ingredient rows. */
     private JButton addToMeal, backButton, addIngredientButton, removeIngredientButton;
 
-    /** The list of available ingredients to populate the ingredient combo boxes. */
-    private String[] availableIngredients = {"<pick one>"};
+    /** The search index over the available ingredients, shared by all ingredient rows. */
+    private FoodNameIndex ingredientIndex = FoodNameIndex.EMPTY;
+    /** The list model of the suggestions for the ingredient field being typed in. */
+    private final SuggestionListModel suggestionModel = new SuggestionListModel();
+    /** The list showing the ingredient suggestions. */
+    private JList<String> suggestionList;
+    /** The popup holding the suggestion list. */
+    private JPopupMenu suggestionPopup;
+    /** The ingredient field the suggestion popup belongs to. */
+    private JTextField activeIngredientField;
+    /** Set while an ingredient field's text is changed by the panel rather than by the user. */
+    private boolean updatingIngredientText = false;
     /** The list of available units to populate the unit combo boxes. */
     private String[] availableUnits = {"<pick one>"};
     
@@ -45,8 +67,10 @@ public class MealPanel extends JPanel {
     private final int MAX_INGREDIENTS = 4;
     /** The minimum number of ingredients required per meal. */
     private final int MIN_INGREDIENTS = 1;
-    /** The maximum number of characters to display in the ingredient combo box before truncating with "...". */
-    private final int MAX_INGREDIENT_DISPLAY_LENGTH = 20;
+    /** The maximum number of characters to display in the suggestion list before truncating with "...". */
+    private final int MAX_INGREDIENT_DISPLAY_LENGTH = 45;
+    /** The maximum number of suggestions shown for an ingredient field. */
+    private final int MAX_SUGGESTIONS = 50;
 
     /** MealHistoryPanel object in Log Meal page. */
     private MealHistoryPanel forMealSelection;
@@ -54,11 +78,17 @@ public class MealPanel extends JPanel {
     /** A callback function to execute when an ingredient is selected from a combo box. */
     private BiConsumer<Integer, String> ingredientSelectionAction;
 
+    /** A typo-tolerant search used when the index has no match for the typed text. */
+    private BiFunction<String, Integer, List<String>> fuzzyIngredientSearch;
+
+    /** Translates an ingredient name typed in another language into the indexed name. */
+    private Function<String, String> ingredientNameResolver;
+
     /**
-     * A custom renderer for the ingredient JComboBox. It truncates long ingredient names for display
+     * A custom renderer for the ingredient suggestion list. It truncates long ingredient names for display
      * and shows the full name in a tooltip.
      */
-    private class IngredientComboBoxRenderer extends DefaultListCellRenderer {
+    private class IngredientListRenderer extends DefaultListCellRenderer {
         /**
          * Configures the renderer for each item in the list.
          * @param list The JList we're painting.
@@ -99,12 +129,47 @@ public class MealPanel extends JPanel {
         }
     }
 
+    /**
+     * The list model behind the suggestion list; its contents are replaced on every keystroke.
+     */
+    private static class SuggestionListModel extends AbstractListModel<String> {
+        /** The current suggestions, best first. */
+        private List<String> matches = Collections.emptyList();
+
+        /**
+         * Replaces the suggestions.
+         * @param newMatches The new suggestions.
+         */
+        void setMatches(List<String> newMatches) {
+            int oldSize = matches.size();
+            matches = Collections.emptyList();
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            matches = newMatches;
+            if (!newMatches.isEmpty()) {
+                fireIntervalAdded(this, 0, newMatches.size() - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return matches.size();
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return matches.get(index);
+        }
+    }
+
     /**
      * Constructs the MealPanel.
      * @param mealHistoryPanel A MealHistoryPanel instance to be displayed at the top of this panel.
      */
     public MealPanel(MealHistoryPanel mealHistoryPanel) {
-        ingredientCombos = new ArrayList<>();
+        ingredientFields = new ArrayList<>();
+        selectedIngredients = new ArrayList<>();
         quantityFields = new ArrayList<>();
         unitCombos = new ArrayList<>();
         ingredientRowPanels = new ArrayList<>();
@@ -143,9 +208,34 @@ public class MealPanel extends JPanel {
         add(bottomPanel, BorderLayout.SOUTH);
         
         setupIngredientButtons();
+        createSuggestionPopup();
         addIngredientRow();
     }
 
+    /**
+     * Creates the popup that lists ingredient suggestions under the field being typed in.
+     * Neither the popup nor the list takes the focus, so typing continues in the field.
+     */
+    private void createSuggestionPopup() {
+        suggestionList = new JList<>(suggestionModel);
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setCellRenderer(new IngredientListRenderer());
+        suggestionList.setFocusable(false);
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                acceptSuggestion();
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(suggestionList);
+        scrollPane.setPreferredSize(new Dimension(300, 160));
+        suggestionPopup = new JPopupMenu();
+        suggestionPopup.setFocusable(false);
+        suggestionPopup.setLayout(new BorderLayout());
+        suggestionPopup.add(scrollPane, BorderLayout.CENTER);
+    }
+
     /**
      * Creates the panel for meal date and type selection.
      * @return A JPanel containing the meal info controls.
@@ -212,24 +302,25 @@ public class MealPanel extends JPanel {
         JPanel rowPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
         rowPanel.setMaximumSize(new Dimension(600, 40));
         
-        JComboBox<String> ingredientCombo = new JComboBox<>(availableIngredients);
-        ingredientCombo.setPreferredSize(new Dimension(150, 25));
-        ingredientCombo.setRenderer(new IngredientComboBoxRenderer());
+        JTextField ingredientField = new JTextField();
+        ingredientField.setPreferredSize(new Dimension(150, 25));
+        ingredientField.setToolTipText("Type to search ingredients");
         
         JTextField quantityField = new JTextField(8);
         
         JComboBox<String> unitCombo = new JComboBox<>(availableUnits);
         unitCombo.setPreferredSize(new Dimension(100, 25));
 
-        rowPanel.add(ingredientCombo);
+        rowPanel.add(ingredientField);
         rowPanel.add(quantityField);
         rowPanel.add(unitCombo);
 
-        ingredientCombos.add(ingredientCombo);
+        ingredientFields.add(ingredientField);
+        selectedIngredients.add(null);
         quantityFields.add(quantityField);
         unitCombos.add(unitCombo);
         
-        applyListenerToRow(ingredientCombos.size() - 1);
+        installIngredientListeners(ingredientFields.size() - 1);
 
         return rowPanel;
     }
@@ -238,7 +329,7 @@ public class MealPanel extends JPanel {
      * Adds a new ingredient row to the form, up to the maximum limit.
      */
     private void addIngredientRow() {
-        if (ingredientCombos.size() < MAX_INGREDIENTS) {
+        if (ingredientFields.size() < MAX_INGREDIENTS) {
             JPanel newRow = createNewIngredientRow();
             ingredientRowPanels.add(newRow);
             ingredientContainerPanel.add(newRow);
@@ -255,11 +346,15 @@ public class MealPanel extends JPanel {
      * Removes the last ingredient row from the form, down to the minimum limit.
      */
     private void removeIngredientRow() {
-        if (ingredientCombos.size() > MIN_INGREDIENTS) {
-            int lastIndex = ingredientCombos.size() - 1;
+        if (ingredientFields.size() > MIN_INGREDIENTS) {
+            int lastIndex = ingredientFields.size() - 1;
             
+            if (ingredientFields.get(lastIndex) == activeIngredientField) {
+                hideSuggestions();
+            }
             ingredientContainerPanel.remove(ingredientRowPanels.remove(lastIndex));
-            ingredientCombos.remove(lastIndex);
+            ingredientFields.remove(lastIndex);
+            selectedIngredients.remove(lastIndex);
             quantityFields.remove(lastIndex);
             unitCombos.remove(lastIndex);
 
@@ -275,8 +370,8 @@ public class MealPanel extends JPanel {
      * Enables or disables the add/remove ingredient buttons based on the current number of rows.
      */
     private void updateButtonStates() {
-        addIngredientButton.setEnabled(ingredientCombos.size() < MAX_INGREDIENTS);
-        removeIngredientButton.setEnabled(ingredientCombos.size() > MIN_INGREDIENTS);
+        addIngredientButton.setEnabled(ingredientFields.size() < MAX_INGREDIENTS);
+        removeIngredientButton.setEnabled(ingredientFields.size() > MIN_INGREDIENTS);
     }
 
     /**
@@ -302,31 +397,157 @@ public class MealPanel extends JPanel {
      */
     public void onIngredientSelected(BiConsumer<Integer, String> action) {
         this.ingredientSelectionAction = action;
-        for (int i = 0; i < ingredientCombos.size(); i++) {
-            applyListenerToRow(i);
-        }
     }
 
     /**
-     * Applies an ActionListener to the ingredient combo box of a specific row.
-     * @param rowIndex The index of the row to apply the listener to.
+     * Sets the typo-tolerant search to fall back on when the typed text matches no ingredient
+     * by prefix, for example because it is misspelled or in French.
+     * @param search A function taking the typed text and a result limit and returning ingredient names.
+     */
+    public void setFuzzyIngredientSearch(BiFunction<String, Integer, List<String>> search) {
+        this.fuzzyIngredientSearch = search;
+    }
+
+    /**
+     * Sets the function used to recognize ingredient names that are not in the index as typed,
+     * for example a complete French description.
+     * @param resolver A function taking the typed text and returning the indexed name, or null.
+     */
+    public void setIngredientNameResolver(Function<String, String> resolver) {
+        this.ingredientNameResolver = resolver;
+    }
+
+    /**
+     * Adds the type-ahead listeners to the ingredient field of a specific row.
+     * @param rowIndex The index of the row to apply the listeners to.
+     */
+    private void installIngredientListeners(int rowIndex) {
+        JTextField ingredientField = ingredientFields.get(rowIndex);
+
+        ingredientField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { ingredientTextChanged(rowIndex); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { ingredientTextChanged(rowIndex); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        });
+
+        ingredientField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!suggestionPopup.isVisible() || activeIngredientField != ingredientField) return;
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> moveSuggestionSelection(1);
+                    case KeyEvent.VK_UP -> moveSuggestionSelection(-1);
+                    case KeyEvent.VK_ENTER -> acceptSuggestion();
+                    case KeyEvent.VK_ESCAPE -> hideSuggestions();
+                    default -> { return; }
+                }
+                e.consume();
+            }
+        });
+
+        ingredientField.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                if (activeIngredientField == ingredientField) {
+                    hideSuggestions();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reacts to a change of an ingredient field's text: updates the row's selected ingredient and,
+     * if the user is typing, refreshes the suggestions.
+     * @param rowIndex The index of the row whose text changed.
      */
-    private void applyListenerToRow(int rowIndex) {
-        JComboBox<String> ingredientCombo = ingredientCombos.get(rowIndex);
+    private void ingredientTextChanged(int rowIndex) {
+        updateSelectedIngredient(rowIndex);
+        JTextField ingredientField = ingredientFields.get(rowIndex);
+        if (!updatingIngredientText && ingredientField.isFocusOwner()) {
+            showSuggestions(ingredientField);
+        }
+    }
 
-        for (ActionListener al : ingredientCombo.getActionListeners()) {
-            ingredientCombo.removeActionListener(al);
+    /**
+     * Sets a row's selected ingredient to the food named by its text, if any, and notifies the
+     * selection callback when it changes. Clears the row's units when the text no longer names a food.
+     * @param rowIndex The index of the row to update.
+     */
+    private void updateSelectedIngredient(int rowIndex) {
+        String text = ingredientFields.get(rowIndex).getText();
+        String ingredient = ingredientIndex.find(text);
+        if (ingredient == null && ingredientNameResolver != null && !text.isBlank()) {
+            ingredient = ingredientIndex.find(ingredientNameResolver.apply(text));
         }
+        if (Objects.equals(ingredient, selectedIngredients.get(rowIndex))) return;
+        selectedIngredients.set(rowIndex, ingredient);
 
         if (this.ingredientSelectionAction != null) {
-            ingredientCombo.addActionListener(e -> {
-                String selectedIngredient = (String) ingredientCombo.getSelectedItem();
-                if (selectedIngredient != null && !selectedIngredient.equals("<pick one>")) {
-                    ingredientSelectionAction.accept(rowIndex, selectedIngredient);
-                } else {
-                    setUnitsForRow(rowIndex, new String[]{});
-                }
-            });
+            if (ingredient != null) {
+                ingredientSelectionAction.accept(rowIndex, ingredient);
+            } else {
+                setUnitsForRow(rowIndex, new String[]{});
+            }
+        }
+    }
+
+    /**
+     * Shows the best matches for a field's text in the suggestion popup under that field.
+     * @param ingredientField The field being typed in.
+     */
+    private void showSuggestions(JTextField ingredientField) {
+        List<String> matches = ingredientIndex.search(ingredientField.getText(), MAX_SUGGESTIONS);
+        if (matches.isEmpty() && fuzzyIngredientSearch != null) {
+            matches = fuzzyIngredientSearch.apply(ingredientField.getText(), MAX_SUGGESTIONS);
+        }
+        if (matches.isEmpty()) {
+            hideSuggestions();
+            return;
+        }
+        suggestionModel.setMatches(matches);
+        suggestionList.setSelectedIndex(0);
+        suggestionList.ensureIndexIsVisible(0);
+        if (!suggestionPopup.isVisible() || activeIngredientField != ingredientField) {
+            activeIngredientField = ingredientField;
+            suggestionPopup.show(ingredientField, 0, ingredientField.getHeight());
+        }
+    }
+
+    /**
+     * Hides the suggestion popup.
+     */
+    private void hideSuggestions() {
+        suggestionPopup.setVisible(false);
+        activeIngredientField = null;
+    }
+
+    /**
+     * Moves the highlighted suggestion up or down, staying within the list.
+     * @param delta The number of rows to move; negative moves up.
+     */
+    private void moveSuggestionSelection(int delta) {
+        int index = Math.max(0, Math.min(suggestionModel.getSize() - 1, suggestionList.getSelectedIndex() + delta));
+        suggestionList.setSelectedIndex(index);
+        suggestionList.ensureIndexIsVisible(index);
+    }
+
+    /**
+     * Puts the highlighted suggestion into the active ingredient field and hides the popup.
+     */
+    private void acceptSuggestion() {
+        String suggestion = suggestionList.getSelectedValue();
+        JTextField ingredientField = activeIngredientField;
+        hideSuggestions();
+        if (suggestion == null || ingredientField == null) return;
+
+        updatingIngredientText = true;
+        try {
+            ingredientField.setText(suggestion);
+        } finally {
+            updatingIngredientText = false;
         }
     }
 
@@ -353,31 +574,16 @@ public class MealPanel extends JPanel {
     }
     
     /**
-     * Sets the list of available ingredients for all ingredient combo boxes.
-     * The ingredients will be sorted alphabetically (case-insensitive) while keeping 
-     * "<pick one>" as the first option.
-     * @param ingredients An array of ingredient names to be sorted and displayed.
+     * Sets the available ingredients for all ingredient fields.
+     * The index is shared by every row, so this does not depend on the number of rows.
+     * @param ingredients The search index over the ingredient names.
      */
-    public void setAvailableIngredients(String[] ingredients) {
-        // Sort the ingredients alphabetically (case-insensitive)
-        Arrays.sort(ingredients, String.CASE_INSENSITIVE_ORDER);
-        
-        // Create full list with "<pick one>" as first element
-        String[] fullIngredientList = new String[ingredients.length + 1];
-        fullIngredientList[0] = "<pick one>";
-        System.arraycopy(ingredients, 0, fullIngredientList, 1, ingredients.length);
+    public void setAvailableIngredients(FoodNameIndex ingredients) {
+        this.ingredientIndex = ingredients;
 
-        this.availableIngredients = fullIngredientList;
-
-        // Update all existing combo boxes with the sorted list
-        for (JComboBox<String> combo : ingredientCombos) {
-            String currentSelection = (String) combo.getSelectedItem();
-            combo.removeAllItems();
-            for (String ingredient : this.availableIngredients) {
-                combo.addItem(ingredient);
-            }
-            combo.setSelectedItem(currentSelection);
-            combo.setRenderer(new IngredientComboBoxRenderer());
+        // text typed before the index arrived may now name a food
+        for (int i = 0; i < ingredientFields.size(); i++) {
+            updateSelectedIngredient(i);
         }
     }
 
@@ -417,18 +623,18 @@ public class MealPanel extends JPanel {
 
     /**
      * Gets a list of all validly entered ingredients.
-     * An ingredient is considered valid if it has been selected (not "<pick one>"),
+     * An ingredient is considered valid if its text names a known food,
      * has a non-empty quantity, and has a selected unit.
      * @return A List of ingredient name strings.
      */
     public List<String> getIngredients() {
         List<String> ingredients = new ArrayList<>();
-        for (int i = 0; i < ingredientCombos.size(); i++) {
-            String ingredient = (String) ingredientCombos.get(i).getSelectedItem();
+        for (int i = 0; i < ingredientFields.size(); i++) {
+            String ingredient = selectedIngredients.get(i);
             String quantity = quantityFields.get(i).getText().trim();
             String unit = (String) unitCombos.get(i).getSelectedItem();
             
-            if (ingredient != null && !ingredient.equals("<pick one>") &&
+            if (ingredient != null &&
                 !quantity.isEmpty() &&
                 unit != null && !unit.equals("<pick one>")) {
                 ingredients.add(ingredient);
@@ -445,11 +651,11 @@ public class MealPanel extends JPanel {
     public List<String> getQuantities() {
         List<String> quantities = new ArrayList<>();
         for (int i = 0; i < quantityFields.size(); i++) {
-            String ingredient = (String) ingredientCombos.get(i).getSelectedItem();
+            String ingredient = selectedIngredients.get(i);
             String quantity = quantityFields.get(i).getText().trim();
             String unit = (String) unitCombos.get(i).getSelectedItem();
 
-            if (ingredient != null && !ingredient.equals("<pick one>") &&
+            if (ingredient != null &&
                 !quantity.isEmpty() &&
                 unit != null && !unit.equals("<pick one>")) {
                 quantities.add(quantity);
@@ -466,11 +672,11 @@ public class MealPanel extends JPanel {
     public List<String> getUnits() {
         List<String> units = new ArrayList<>();
         for (int i = 0; i < unitCombos.size(); i++) {
-            String ingredient = (String) ingredientCombos.get(i).getSelectedItem();
+            String ingredient = selectedIngredients.get(i);
             String quantity = quantityFields.get(i).getText().trim();
             String unit = (String) unitCombos.get(i).getSelectedItem();
             
-            if (ingredient != null && !ingredient.equals("<pick one>") &&
+            if (ingredient != null &&
                 !quantity.isEmpty() &&
                 unit != null && !unit.equals("<pick one>")) {
                 units.add(unit);
@@ -505,13 +711,13 @@ public class MealPanel extends JPanel {
         mealTypeCombo.setSelectedIndex(0);
 
         // Remove all ingredient rows except the minimum
-        while (ingredientCombos.size() > MIN_INGREDIENTS) {
+        while (ingredientFields.size() > MIN_INGREDIENTS) {
             removeIngredientRow();
         }
 
         // Clear the remaining row
-        if (!ingredientCombos.isEmpty()) {
-            ingredientCombos.get(0).setSelectedIndex(0);
+        if (!ingredientFields.isEmpty()) {
+            ingredientFields.get(0).setText("");
             quantityFields.get(0).setText("");
             unitCombos.get(0).removeAllItems();
             unitCombos.get(0).addItem("<pick one>");
@@ -531,6 +737,6 @@ public class MealPanel extends JPanel {
      * @return The number of ingredient rows currently displayed in the form.
      */
     public int getNumberOfIngredientRows() {
-        return ingredientCombos.size();
+        return ingredientFields.size();
     }
 }
@@ -182,8 +182,21 @@ public class NutrientAnalysisPanel extends JPanel {
      * @param numberOfDays The number of days included in the analysis.
      * @param nutrientUnits A map of nutrient names to their units of measurement.
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
 	public void displayNutrientAnalysis(Map<String, Double> averageDailyNutrients, int numberOfDays, Map<String, String> nutrientUnits) {
+        displayNutrientAnalysis(averageDailyNutrients, numberOfDays, nutrientUnits, null);
+    }
+
+    /**
+     * Displays the nutrient analysis results together with the averages of the preceding period.
+     * Each summary item then also shows the previous period's value and the change from it.
+     * @param averageDailyNutrients A map of nutrient names to their average daily intake values.
+     * @param numberOfDays The number of days included in the analysis.
+     * @param nutrientUnits A map of nutrient names to their units of measurement.
+     * @param previousDailyNutrients Average daily intake for the previous period of equal length, or null if there is none.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+	public void displayNutrientAnalysis(Map<String, Double> averageDailyNutrients, int numberOfDays, Map<String, String> nutrientUnits,
+                                        Map<String, Double> previousDailyNutrients) {
         chartPanel.removeAll();
         summaryPanel.removeAll();
         
@@ -230,7 +243,8 @@ public class NutrientAnalysisPanel extends JPanel {
         for (String nutrientName : mainNutrients) {
              if (averageDailyNutrients.containsKey(nutrientName)) {
                 Double recommended = RECOMMENDED_DAILY.get(nutrientName);
-                addSummaryItem(getDisplayName(nutrientName), averageDailyNutrients.get(nutrientName), recommended);
+                Double previous = previousDailyNutrients == null ? null : previousDailyNutrients.get(nutrientName);
+                addSummaryItem(getDisplayName(nutrientName), averageDailyNutrients.get(nutrientName), recommended, previous);
              }
         }
 
@@ -267,8 +281,9 @@ public class NutrientAnalysisPanel extends JPanel {
      * @param nutrient The display name of the nutrient.
      * @param actual The user's average daily intake of the nutrient.
      * @param recommended The recommended daily value for the nutrient.
+     * @param previous The average daily intake in the previous period, or null if there is none.
      */
-    private void addSummaryItem(String nutrient, double actual, Double recommended) {
+    private void addSummaryItem(String nutrient, double actual, Double recommended, Double previous) {
         JPanel itemPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         itemPanel.setMinimumSize(new Dimension(180, 80));
         itemPanel.setPreferredSize(new Dimension(180, 80));
@@ -281,14 +296,15 @@ public class NutrientAnalysisPanel extends JPanel {
         
         if (recommended != null) {
             double percentage = (actual / recommended) * 100;
-            String text;
-            if (Set.of("Iron", "Sodium", "Calcium", "Potassium", "Cholesterol").contains(nutrient)) {
-                text = String.format("<html><b>%s (mg):</b><br>Actual: %smg<br>Recommended: %smg<br>(%s%% of RDV)</html>",
-                                     nutrient, df.format(actual), df.format(recommended), df.format(percentage));
-            } else {
-                text = String.format("<html><b>%s (g):</b><br>Actual: %sg<br>Recommended: %sg<br>(%s%% of RDV)</html>",
-                                     nutrient, df.format(actual), df.format(recommended), df.format(percentage));
+            String unit = Set.of("Iron", "Sodium", "Calcium", "Potassium", "Cholesterol").contains(nutrient) ? "mg" : "g";
+            String previousText = "";
+            if (previous != null) {
+                String change = previous > 0 ? String.format(" (%+.0f%%)", (actual - previous) / previous * 100) : "";
+                previousText = String.format("<br>Previous period: %s%s%s", df.format(previous), unit, change);
             }
+            String text = String.format("<html><b>%s (%s):</b><br>Actual: %s%s<br>Recommended: %s%s<br>(%s%% of RDV)%s</html>",
+                                        nutrient, unit, df.format(actual), unit, df.format(recommended), unit,
+                                        df.format(percentage), previousText);
             label.setText(text);
 
             if (percentage < 80) itemPanel.setBackground(Color.ORANGE);
@@ -8,7 +8,6 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -225,7 +224,6 @@ public class PerMealAnalysisPanel extends JPanel {
      * Formats the meal's date and type for a clean and readable presentation.
      */
     private static class MealListCellRenderer extends DefaultListCellRenderer {
-        private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         /**
          * Configures the renderer for each item in the list.
          * @param list The JList we're painting.
@@ -239,7 +237,7 @@ public class PerMealAnalysisPanel extends JPanel {
         public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
             Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
             if (value instanceof Meal meal) {
-                setText(sdf.format(meal.getDate()) + " - " + meal.getType());
+                setText(meal.getLocalDate() + " - " + meal.getType());
             }
             return c;
         }
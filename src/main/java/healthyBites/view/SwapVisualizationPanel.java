@@ -60,6 +60,8 @@ public class SwapVisualizationPanel extends JPanel {
     private Map<String, String> nutrientUnits;
     /** The title for the analysis visualization. */
     private String analysisTitle;
+    /** Per-meal time series data, set only in the time series context. */
+    private TimeSeriesData timeSeriesData;
     
     /** The recommended servings according to Canada's Food Guide, used for the CFG visualization. */
     private CFGFoodGroup recommendedServings; 
@@ -280,6 +282,28 @@ public class SwapVisualizationPanel extends JPanel {
         this.nutrientUnits = nutrientUnits;
         this.analysisTitle = title;
         this.recommendedServings = recommendedServings;
+        this.timeSeriesData = null;
+        
+        if (nutrientCheckBoxes == null || nutrientCheckBoxes.isEmpty()) {
+            populateNutrientSelection();
+        }
+        
+        updateVisualization();
+    }
+
+    /**
+     * Sets per-meal time series data for the time series context and triggers the initial chart rendering.
+     * @param timeSeriesData The per-nutrient series of original and modified values.
+     * @param nutrientUnits The map of nutrient names to their measurement units.
+     * @param title The title for the visualization.
+     */
+    public void setTimeSeriesData(TimeSeriesData timeSeriesData, Map<String, String> nutrientUnits, String title) {
+        this.timeSeriesData = timeSeriesData;
+        this.originalData = Collections.emptyMap();
+        this.modifiedData = Collections.emptyMap();
+        this.nutrientUnits = nutrientUnits;
+        this.analysisTitle = title;
+        this.recommendedServings = null;
         
         if (nutrientCheckBoxes == null || nutrientCheckBoxes.isEmpty()) {
             populateNutrientSelection();
@@ -299,14 +323,8 @@ public class SwapVisualizationPanel extends JPanel {
         Set<String> nutrients = new HashSet<>();
         
         // Extract nutrient names based on context
-        if (currentContext == VisualizationContext.TIME_SERIES_ANALYSIS) {
-            // For time series, parse compound keys "DATE|MEALTYPE|NUTRIENT"
-            for (String key : originalData.keySet()) {
-                String[] parts = key.split("\\|");
-                if (parts.length >= 3) {
-                    nutrients.add(parts[2]);
-                }
-            }
+        if (currentContext == VisualizationContext.TIME_SERIES_ANALYSIS && timeSeriesData != null) {
+            nutrients.addAll(timeSeriesData.getNutrientNames());
         } else {
             // For aggregate analysis, keys are nutrient names directly
             nutrients.addAll(originalData.keySet());
@@ -376,7 +394,8 @@ public class SwapVisualizationPanel extends JPanel {
                 showPercentageCheckBox.isSelected(),
                 showAbsoluteCheckBox.isSelected(),
                 nutrientUnits,
-                this.recommendedServings
+                this.recommendedServings,
+                this.timeSeriesData
             );
         
         JComponent visualization = currentStrategy.createVisualization(originalData, modifiedData, config);
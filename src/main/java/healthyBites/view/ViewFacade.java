@@ -7,11 +7,15 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import healthyBites.model.Meal;
 import healthyBites.model.Nutrition;
 import healthyBites.model.CFGFoodGroup;
 import healthyBites.model.FoodItem;
+import healthyBites.model.FoodNameIndex;
+import healthyBites.view.visualization.TimeSeriesData;
 
 /**
  * The ViewFacade class acts as a single point of entry for the Controller to interact
@@ -94,6 +98,27 @@ public class ViewFacade {
         mealHistoryPanelForGoal.clearHistory();
         mealHistoryPanelForHome.clearHistory();
     }
+
+    /**
+     * Sets the callback that loads the next page of older meals when any meal history
+     * display is scrolled close to its end.
+     * @param callback The callback that loads older meals.
+     */
+    public void setMealHistoryLoadMoreListener(Runnable callback) {
+        mealHistoryPanel.setOnLoadMoreListener(callback);
+        mealHistoryPanelForGoal.setOnLoadMoreListener(callback);
+        mealHistoryPanelForHome.setOnLoadMoreListener(callback);
+    }
+
+    /**
+     * Sets the function that computes the nutrition of meals added to the history without it.
+     * @param resolver A function from a meal to its nutritional value.
+     */
+    public void setMealHistoryNutritionResolver(Function<Meal, Nutrition> resolver) {
+        mealHistoryPanel.setNutritionResolver(resolver);
+        mealHistoryPanelForGoal.setNutritionResolver(resolver);
+        mealHistoryPanelForHome.setNutritionResolver(resolver);
+    }
     
     /**
      * Initializes the main JFrame and the CardLayout manager.
@@ -259,10 +284,10 @@ public class ViewFacade {
     public void limitMealDateToToday() { mealPanel.limitMealDateToToday(); }
     
     /**
-     * Sets the available ingredients for the dropdowns in MealPanel.
-     * @param ingredients The array of ingredient names.
+     * Sets the available ingredients for the type-ahead ingredient fields in MealPanel.
+     * @param ingredients The search index over the ingredient names.
      */
-    public void setMealIngredients(String[] ingredients) { mealPanel.setAvailableIngredients(ingredients); }
+    public void setMealIngredients(FoodNameIndex ingredients) { mealPanel.setAvailableIngredients(ingredients); }
     
     /**
      * Sets the available units for a specific ingredient row in MealPanel.
@@ -271,6 +296,12 @@ public class ViewFacade {
      */
     public void setUnitsForRow(int rowIndex, String[] units) { mealPanel.setUnitsForRow(rowIndex, units); }
     
+    /** @param search The typo-tolerant ingredient search MealPanel falls back on when nothing matches by prefix. */
+    public void setFuzzyIngredientSearch(BiFunction<String, Integer, List<String>> search) { mealPanel.setFuzzyIngredientSearch(search); }
+    
+    /** @param resolver Translates an ingredient name typed in another language into the name MealPanel lists. */
+    public void setIngredientNameResolver(Function<String, String> resolver) { mealPanel.setIngredientNameResolver(resolver); }
+    
     /** @param action The action to perform when an ingredient is selected in MealPanel. */
     public void setIngredientSelectionListener(BiConsumer<Integer, String> action) { mealPanel.onIngredientSelected(action); }
     
@@ -413,6 +444,14 @@ public class ViewFacade {
     public void setLogoutButtonListener(ActionListener listener) { homePanel.logoutButtonListener(listener); }
     /** @return The MealHistoryPanel instance from the HomePanel. */
     public MealHistoryPanel getHomePanelMealHistorySelection() { return homePanel.getMealHistorySelection(); }
+    /**
+     * Displays the live moving averages on the home panel.
+     * @param shortAverages The 7-day averages, keyed by display label.
+     * @param longAverages The 30-day averages, keyed by display label.
+     */
+    public void displayMovingAverages(Map<String, Double> shortAverages, Map<String, Double> longAverages) {
+        homePanel.displayMovingAverages(shortAverages, longAverages);
+    }
     
     // ===========================================
     // EDIT PANEL METHODS
@@ -483,6 +522,17 @@ public class ViewFacade {
     public void displayNutrientAnalysis(Map<String, Double> averageDailyNutrients, int numberOfDays, Map<String, String> nutrientUnits) {
         nutrientAnalysisPanel.displayNutrientAnalysis(averageDailyNutrients, numberOfDays, nutrientUnits);
     }
+    /**
+     * Displays the nutrient analysis alongside the averages of the previous period.
+     * @param averageDailyNutrients Average daily intake per nutrient for the selected period.
+     * @param numberOfDays The number of days with logged meals in the selected period.
+     * @param nutrientUnits The unit of each nutrient.
+     * @param previousDailyNutrients Average daily intake for the previous period, or null if there is none.
+     */
+    public void displayNutrientAnalysis(Map<String, Double> averageDailyNutrients, int numberOfDays, Map<String, String> nutrientUnits,
+                                        Map<String, Double> previousDailyNutrients) {
+        nutrientAnalysisPanel.displayNutrientAnalysis(averageDailyNutrients, numberOfDays, nutrientUnits, previousDailyNutrients);
+    }
     /** Clears the chart and summary data from the nutrient analysis panel. */
     public void clearNutrientAnalysis() { nutrientAnalysisPanel.clearChart(); }
     /** @return The cached list of meal history entries. */
@@ -511,6 +561,16 @@ public class ViewFacade {
     public void displayCFGAnalysis(CFGFoodGroup userAverage, CFGFoodGroup recommended, int numberOfDays) {
         cfgAnalysisPanel.displayCFGAnalysis(userAverage, recommended, numberOfDays);
     }
+    /**
+     * Displays the CFG analysis alongside the previous period's average servings.
+     * @param userAverage The user's average daily servings for the selected period.
+     * @param recommended The recommended daily servings.
+     * @param numberOfDays The number of days with logged meals in the selected period.
+     * @param previousAverage The average daily servings for the previous period, or null if there is none.
+     */
+    public void displayCFGAnalysis(CFGFoodGroup userAverage, CFGFoodGroup recommended, int numberOfDays, CFGFoodGroup previousAverage) {
+        cfgAnalysisPanel.displayCFGAnalysis(userAverage, recommended, numberOfDays, previousAverage);
+    }
     /** Clears the data from the CFG analysis panel. */
     public void clearCFGAnalysis() { cfgAnalysisPanel.clearAnalysis(); }
     /** @param listener The listener to navigate from the Nutrient panel to the CFG panel. */
@@ -646,6 +706,18 @@ public class ViewFacade {
         showPanel(SWAP_VISUALIZATION_PANEL);
     }
     
+    /**
+    * Prepares and displays the swap visualization panel in the time series context.
+    * @param timeSeriesData The per-meal series of original and modified nutrient values.
+    * @param nutrientUnits A map of nutrient names to their units.
+    * @param title The title for the visualization.
+    */
+    public void displayTimeSeriesVisualization(TimeSeriesData timeSeriesData, Map<String, String> nutrientUnits, String title) {
+        swapVisualizationPanel.setVisualizationContext(SwapVisualizationPanel.VisualizationContext.TIME_SERIES_ANALYSIS);
+        swapVisualizationPanel.setTimeSeriesData(timeSeriesData, nutrientUnits, title);
+        showPanel(SWAP_VISUALIZATION_PANEL);
+    }
+    
     /**
     * Sets the data for the swap visualization panel without switching to it. This is used for updates
     * when the panel is already visible.
@@ -50,6 +50,8 @@ public interface SwapVisualizationStrategy {
         private final Map<String, String> nutrientUnits;
         /** Recommended daily servings from Canada's Food Guide, for use in CFG-specific visualizations. */
         private final CFGFoodGroup recommendedServings;
+        /** Per-meal time series, for use in time series visualizations; null for aggregate visualizations. */
+        private final TimeSeriesData timeSeriesData;
 
         /**
          * Constructs a VisualizationConfig object.
@@ -68,6 +70,29 @@ public interface SwapVisualizationStrategy {
             boolean showAbsoluteValues,
             Map<String, String> nutrientUnits,
             CFGFoodGroup recommendedServings
+        ) {
+            this(selectedNutrients, title, showPercentageChange, showAbsoluteValues, nutrientUnits, recommendedServings, null);
+        }
+
+        /**
+         * Constructs a VisualizationConfig object that also carries per-meal time series data.
+         *
+         * @param selectedNutrients The list of nutrients to display.
+         * @param title The title for the visualization.
+         * @param showPercentageChange True to show percentage change, false otherwise.
+         * @param showAbsoluteValues True to show absolute values.
+         * @param nutrientUnits A map of nutrient names to their units.
+         * @param recommendedServings Recommended servings for CFG analysis.
+         * @param timeSeriesData Per-meal time series for time series visualizations, or null.
+         */
+        public VisualizationConfig(
+            List<String> selectedNutrients,
+            String title,
+            boolean showPercentageChange,
+            boolean showAbsoluteValues,
+            Map<String, String> nutrientUnits,
+            CFGFoodGroup recommendedServings,
+            TimeSeriesData timeSeriesData
         ) {
             this.selectedNutrients = selectedNutrients;
             this.title = title;
@@ -75,6 +100,7 @@ public interface SwapVisualizationStrategy {
             this.showAbsoluteValues = showAbsoluteValues;
             this.nutrientUnits = nutrientUnits;
             this.recommendedServings = recommendedServings;
+            this.timeSeriesData = timeSeriesData;
         }
 
         /** @return The list of selected nutrients. */
@@ -89,5 +115,7 @@ public interface SwapVisualizationStrategy {
         public Map<String, String> getNutrientUnits() { return nutrientUnits; }
         /** @return The recommended CFG servings data. */
         public CFGFoodGroup getRecommendedServings() { return recommendedServings; }
+        /** @return The per-meal time series data, or null for aggregate visualizations. */
+        public TimeSeriesData getTimeSeriesData() { return timeSeriesData; }
     }
 }
\ No newline at end of file
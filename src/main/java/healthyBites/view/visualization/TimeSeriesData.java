@@ -0,0 +1,167 @@
+package healthyBites.view.visualization;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A structured, per-nutrient time series of original and modified values, used by
+ * {@link TimeSeriesVisualizationStrategy} to chart how a food swap changes nutrient intake over time.
+ * <p>
+ * Each nutrient keeps parallel primitive arrays of timestamps (epoch milliseconds) and
+ * original/modified values. Every meal gets its own timestamp (see {@link #mealTimestamp}),
+ * so several meals eaten on the same day appear as separate points rather than overwriting each other.
+ * </p>
+ * @author HealthyBites Team
+ */
+public class TimeSeriesData {
+
+    /** Milliseconds in one hour. */
+    private static final long HOUR = 60L * 60 * 1000;
+    /** Milliseconds in one minute; used to separate several meals of the same type on one day. */
+    private static final long MINUTE = 60L * 1000;
+
+    /** Series by nutrient name, kept sorted so nutrient listings are stable. */
+    private final TreeMap<String, Series> seriesByNutrient = new TreeMap<>();
+
+    /**
+     * Adds one point to a nutrient's series.
+     * @param nutrient The nutrient name.
+     * @param timestamp The point's time in epoch milliseconds.
+     * @param original The value before the swap.
+     * @param modified The value after the swap.
+     */
+    public void add(String nutrient, long timestamp, double original, double modified) {
+        seriesByNutrient.computeIfAbsent(nutrient, k -> new Series()).add(timestamp, original, modified);
+    }
+
+    /**
+     * @param nutrient The nutrient name.
+     * @return The nutrient's series sorted by time, or null if the nutrient has no points.
+     */
+    public Series getSeries(String nutrient) {
+        Series series = seriesByNutrient.get(nutrient);
+        if (series != null) {
+            series.sortByTime();
+        }
+        return series;
+    }
+
+    /** @return The names of all nutrients with at least one point, in alphabetical order. */
+    public Set<String> getNutrientNames() {
+        return Collections.unmodifiableSet(seriesByNutrient.keySet());
+    }
+
+    /** @return true if no points have been added. */
+    public boolean isEmpty() {
+        return seriesByNutrient.isEmpty();
+    }
+
+    /**
+     * Computes a representative timestamp for a meal, so that meals on the same day are ordered
+     * breakfast, lunch, snack, dinner. Additional meals of the same type on the same day should pass
+     * an increasing {@code sequence} to receive distinct timestamps one minute apart.
+     * @param epochDay The day the meal was eaten.
+     * @param mealType The meal type (e.g., "Breakfast").
+     * @param sequence 0 for the first meal of this type on the day, 1 for the second, and so on.
+     * @return The meal's timestamp in epoch milliseconds.
+     */
+    public static long mealTimestamp(int epochDay, String mealType, int sequence) {
+        long hour = switch (mealType) {
+            case "Breakfast" -> 8;
+            case "Lunch" -> 12;
+            case "Dinner" -> 18;
+            default -> 15; // snacks between lunch and dinner
+        };
+        long dayStart = LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return dayStart + hour * HOUR + sequence * MINUTE;
+    }
+
+    /**
+     * The points of one nutrient, stored as parallel primitive arrays.
+     */
+    public static class Series {
+        /** Point times in epoch milliseconds. */
+        private long[] timestamps = new long[16];
+        /** Values before the swap. */
+        private double[] original = new double[16];
+        /** Values after the swap. */
+        private double[] modified = new double[16];
+        /** Number of points stored. */
+        private int size;
+        /** Whether the points are known to be in ascending time order. */
+        private boolean sorted = true;
+
+        /**
+         * Appends a point, growing the arrays as needed.
+         * @param timestamp The point's time in epoch milliseconds.
+         * @param originalValue The value before the swap.
+         * @param modifiedValue The value after the swap.
+         */
+        void add(long timestamp, double originalValue, double modifiedValue) {
+            if (size == timestamps.length) {
+                int capacity = size * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                original = Arrays.copyOf(original, capacity);
+                modified = Arrays.copyOf(modified, capacity);
+            }
+            if (size > 0 && timestamp < timestamps[size - 1]) {
+                sorted = false;
+            }
+            timestamps[size] = timestamp;
+            original[size] = originalValue;
+            modified[size] = modifiedValue;
+            size++;
+        }
+
+        /**
+         * Sorts the points by timestamp if they were not added in order.
+         */
+        void sortByTime() {
+            if (sorted) {
+                return;
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(timestamps[a], timestamps[b]));
+            long[] t = new long[timestamps.length];
+            double[] o = new double[original.length];
+            double[] m = new double[modified.length];
+            for (int i = 0; i < size; i++) {
+                t[i] = timestamps[order[i]];
+                o[i] = original[order[i]];
+                m[i] = modified[order[i]];
+            }
+            timestamps = t;
+            original = o;
+            modified = m;
+            sorted = true;
+        }
+
+        /** @return The number of points. */
+        public int size() { return size; }
+
+        /**
+         * @param index The point index.
+         * @return The point's timestamp in epoch milliseconds.
+         */
+        public long getTimestamp(int index) { return timestamps[index]; }
+
+        /**
+         * @param index The point index.
+         * @return The value before the swap.
+         */
+        public double getOriginal(int index) { return original[index]; }
+
+        /**
+         * @param index The point index.
+         * @return The value after the swap.
+         */
+        public double getModified(int index) { return modified[index]; }
+    }
+}
@@ -0,0 +1,124 @@
+package healthyBites.view.visualization;
+
+import java.util.Arrays;
+
+/**
+ * Reduces long time series to a bounded number of points before they are handed to JFreeChart,
+ * using the Largest-Triangle-Three-Buckets (LTTB) algorithm. LTTB keeps the first and last points
+ * and, for every bucket in between, the point forming the largest triangle with the previously
+ * kept point and the average of the next bucket, which preserves peaks and troughs far better than
+ * plain striding or averaging.
+ * <p>
+ * All methods work on parallel arrays of ascending timestamps and values so that only the
+ * visible slice of a series needs to be examined when the chart is zoomed.
+ * </p>
+ * @author HealthyBites Team
+ */
+public final class TimeSeriesDownsampler {
+
+    private TimeSeriesDownsampler() {
+    }
+
+    /**
+     * Selects at most {@code threshold} representative points from {@code [from, to)}.
+     *
+     * @param timestamps Ascending timestamps.
+     * @param values Values aligned with the timestamps.
+     * @param from First index to consider (inclusive).
+     * @param to Last index to consider (exclusive).
+     * @param threshold Maximum number of points to keep; values below 3 keep every point.
+     * @return The indices of the kept points, in ascending order.
+     */
+    public static int[] downsample(long[] timestamps, double[] values, int from, int to, int threshold) {
+        int n = to - from;
+        if (n <= 0) {
+            return new int[0];
+        }
+        if (threshold < 3 || n <= threshold) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        int count = 0;
+        long origin = timestamps[from]; // keep the triangle arithmetic in small numbers
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+
+        int a = from;
+        kept[count++] = a;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // average of the next bucket is the third vertex of the triangle
+            int nextStart = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min(from + (int) Math.floor((bucket + 2) * bucketSize) + 1, to);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += timestamps[i] - origin;
+                avgY += values[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            int rangeStart = from + (int) Math.floor(bucket * bucketSize) + 1;
+            int rangeEnd = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double ax = timestamps[a] - origin;
+            double ay = values[a];
+
+            double maxArea = -1;
+            int maxIndex = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((ax - avgX) * (values[i] - ay) - (ax - (timestamps[i] - origin)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            kept[count++] = maxIndex;
+            a = maxIndex;
+        }
+        kept[count++] = to - 1;
+        return count == kept.length ? kept : Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Finds the slice of a series needed to draw the visible time range. One extra point is
+     * included on each side so that lines continue to the edges of the plot.
+     *
+     * @param timestamps Ascending timestamps.
+     * @param size Number of valid entries in {@code timestamps}.
+     * @param lower Start of the visible range in epoch milliseconds.
+     * @param upper End of the visible range in epoch milliseconds.
+     * @return A two-element array {from, to} with {@code to} exclusive.
+     */
+    public static int[] visibleSlice(long[] timestamps, int size, long lower, long upper) {
+        int from = firstIndexAtOrAfter(timestamps, size, lower);
+        int to = firstIndexAtOrAfter(timestamps, size, upper + 1);
+        return new int[] { Math.max(0, from - 1), Math.min(size, to + 1) };
+    }
+
+    /**
+     * Binary search for the first timestamp that is not before {@code key}.
+     *
+     * @param timestamps Ascending timestamps.
+     * @param size Number of valid entries.
+     * @param key The timestamp to search for.
+     * @return The index of the first timestamp {@code >= key}, or {@code size} if there is none.
+     */
+    private static int firstIndexAtOrAfter(long[] timestamps, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
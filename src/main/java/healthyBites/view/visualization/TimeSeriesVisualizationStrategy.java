@@ -3,7 +3,10 @@ package healthyBites.view.visualization;
 import javax.swing.JComponent;
 import org.jfree.chart.*;
 import org.jfree.chart.axis.*;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
 import org.jfree.chart.plot.*;
+import org.jfree.data.Range;
 import org.jfree.data.time.*;
 import java.awt.*;
 import java.text.SimpleDateFormat;
@@ -12,19 +15,25 @@ import java.util.*;
 /**
  * A strategy implementation of {@link SwapVisualizationStrategy} that creates a time series chart.
  * This visualization shows how nutrient values change over time across multiple meals,
- * displaying both original and modified values after a food swap.
+ * displaying both original and modified values after a food swap. Each meal is plotted as
+ * its own point, so meals eaten on the same day are not merged.
  * @author HealthyBites Team
  */
 public class TimeSeriesVisualizationStrategy implements SwapVisualizationStrategy {
     
+    /** Maximum number of points drawn per series for the visible time range. */
+    private static final int MAX_POINTS_PER_SERIES = 500;
+
     /**
      * Creates a time series chart visualization as a JComponent.
-     * For time series data, the originalData and modifiedData maps are expected to have
-     * keys in the format "DATE|MEALTYPE|NUTRIENT" and values as the nutrient amounts.
+     * The per-meal points are read from {@link VisualizationConfig#getTimeSeriesData()};
+     * the aggregate originalData and modifiedData maps are not used by this strategy.
+     * Each series is downsampled to at most {@value #MAX_POINTS_PER_SERIES} points for the
+     * visible date range, and downsampled again whenever the chart is zoomed or panned.
      *
-     * @param originalData A map of compound keys to original nutrient values.
-     * @param modifiedData A map of compound keys to modified nutrient values.
-     * @param config Configuration settings for the visualization.
+     * @param originalData Unused by this strategy.
+     * @param modifiedData Unused by this strategy.
+     * @param config Configuration settings for the visualization, including the time series data.
      * @return A ChartPanel containing the generated time series chart.
      */
     @Override
@@ -34,51 +43,41 @@ public class TimeSeriesVisualizationStrategy implements SwapVisualizationStrateg
         VisualizationConfig config
     ) {
         TimeSeriesCollection dataset = new TimeSeriesCollection();
-        
-        Map<String, Map<Date, Double>> originalSeriesData = parseTimeSeriesData(originalData);
-        Map<String, Map<Date, Double>> modifiedSeriesData = parseTimeSeriesData(modifiedData);
+        TimeSeriesData data = config.getTimeSeriesData();
+        java.util.List<DownsampledSeries> sources = new ArrayList<>();
         
         for (String nutrient : config.getSelectedNutrients()) {
-            if (!originalSeriesData.containsKey(nutrient)) continue;
+            TimeSeriesData.Series points = data == null ? null : data.getSeries(nutrient);
+            if (points == null) continue;
 
             String unit = config.getNutrientUnits().getOrDefault(nutrient, "");
             String nutrientLabel = unit.isEmpty() ? nutrient : String.format("%s (%s)", nutrient, unit);
 
             if (config.isShowPercentageChange()) {
-                TimeSeries percentChangeSeries = new TimeSeries(nutrientLabel + " (% Change)");
-                Map<Date, Double> originalValues = originalSeriesData.get(nutrient);
-                Map<Date, Double> modifiedValues = modifiedSeriesData.get(nutrient);
-
-                if (modifiedValues == null) continue;
-
-                for (Map.Entry<Date, Double> entry : originalValues.entrySet()) {
-                    Day day = new Day(entry.getKey());
-                    double originalValue = entry.getValue();
-                    double modifiedValue = modifiedValues.getOrDefault(entry.getKey(), originalValue);
-                    
+                DownsampledSeries percentChange = new DownsampledSeries(nutrientLabel + " (% Change)", points.size());
+                for (int i = 0; i < points.size(); i++) {
+                    double originalValue = points.getOriginal(i);
                     if (originalValue != 0) {
-                        double percentChange = ((modifiedValue - originalValue) / originalValue) * 100;
-                        percentChangeSeries.addOrUpdate(day, percentChange);
+                        percentChange.append(points.getTimestamp(i), ((points.getModified(i) - originalValue) / originalValue) * 100);
                     }
                 }
-                dataset.addSeries(percentChangeSeries);
+                sources.add(percentChange);
             } else {
-                // Original logic for absolute values
-                TimeSeries originalSeries = new TimeSeries(nutrientLabel + " (Original)");
-                for (Map.Entry<Date, Double> entry : originalSeriesData.get(nutrient).entrySet()) {
-                    originalSeries.addOrUpdate(new Day(entry.getKey()), entry.getValue());
-                }
-                dataset.addSeries(originalSeries);
-
-                TimeSeries modifiedSeries = new TimeSeries(nutrientLabel + " (Modified)");
-                if (modifiedSeriesData.containsKey(nutrient)) {
-                    for (Map.Entry<Date, Double> entry : modifiedSeriesData.get(nutrient).entrySet()) {
-                        modifiedSeries.addOrUpdate(new Day(entry.getKey()), entry.getValue());
-                    }
-                    dataset.addSeries(modifiedSeries);
+                DownsampledSeries original = new DownsampledSeries(nutrientLabel + " (Original)", points.size());
+                DownsampledSeries modified = new DownsampledSeries(nutrientLabel + " (Modified)", points.size());
+                for (int i = 0; i < points.size(); i++) {
+                    original.append(points.getTimestamp(i), points.getOriginal(i));
+                    modified.append(points.getTimestamp(i), points.getModified(i));
                 }
+                sources.add(original);
+                sources.add(modified);
             }
         }
+
+        for (DownsampledSeries source : sources) {
+            source.populate(Long.MIN_VALUE, Long.MAX_VALUE - 1);
+            dataset.addSeries(source.target);
+        }
         
         // Create the chart
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
@@ -100,6 +99,27 @@ public class TimeSeriesVisualizationStrategy implements SwapVisualizationStrateg
         dateAxis.setDateFormatOverride(new SimpleDateFormat("MMM dd"));
         dateAxis.setVerticalTickLabels(true);
         
+        // Re-downsample for the new visible range whenever the chart is zoomed or panned
+        dateAxis.addChangeListener(new AxisChangeListener() {
+            private boolean rebuilding;
+            private Range lastRange = dateAxis.getRange();
+
+            @Override
+            public void axisChanged(AxisChangeEvent event) {
+                Range range = dateAxis.getRange();
+                if (rebuilding || range.equals(lastRange)) return;
+                lastRange = range;
+                rebuilding = true;
+                try {
+                    for (DownsampledSeries source : sources) {
+                        source.populate((long) Math.floor(range.getLowerBound()), (long) Math.ceil(range.getUpperBound()));
+                    }
+                } finally {
+                    rebuilding = false;
+                }
+            }
+        });
+        
         // Add zero line if showing percentage change
         if (config.isShowPercentageChange()) {
             plot.addRangeMarker(new ValueMarker(0.0, Color.BLACK, new BasicStroke(1.0f)));
@@ -111,30 +131,64 @@ public class TimeSeriesVisualizationStrategy implements SwapVisualizationStrateg
     }
     
     /**
-     * Parses the compound key format "DATE|MEALTYPE|NUTRIENT" into a structured map.
-     * @param data The map with compound keys.
-     * @return A map of nutrient names to their date-value pairs.
+     * The full-resolution points of one chart series together with the JFreeChart series that
+     * displays a downsampled view of them.
      */
-    private Map<String, Map<Date, Double>> parseTimeSeriesData(Map<String, Double> data) {
-        Map<String, Map<Date, Double>> result = new HashMap<>();
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        
-        for (Map.Entry<String, Double> entry : data.entrySet()) {
-            String[] parts = entry.getKey().split("\\|");
-            if (parts.length >= 3) {
-                try {
-                    Date date = sdf.parse(parts[0]);
-                    String nutrient = parts[2];
-                    
-                    result.computeIfAbsent(nutrient, k -> new TreeMap<>())
-                          .put(date, entry.getValue());
-                } catch (Exception e) {
-                    // Skip malformed entries
+    private static class DownsampledSeries {
+        /** The series shown in the chart; its contents are replaced on every {@link #populate}. */
+        private final TimeSeries target;
+        /** All timestamps of the series, ascending. */
+        private final long[] timestamps;
+        /** All values of the series, aligned with {@link #timestamps}. */
+        private final double[] values;
+        /** Number of points stored. */
+        private int size;
+
+        /**
+         * @param name The series name shown in the legend.
+         * @param capacity The maximum number of points that will be appended.
+         */
+        DownsampledSeries(String name, int capacity) {
+            this.target = new TimeSeries(name);
+            this.timestamps = new long[capacity];
+            this.values = new double[capacity];
+        }
+
+        /**
+         * Appends a point; points must be appended in ascending time order.
+         * @param timestamp The point's time in epoch milliseconds.
+         * @param value The point's value.
+         */
+        void append(long timestamp, double value) {
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * Replaces the chart series with a downsampled view of the given time range. The first and
+         * last points of the full series are always kept so that the dataset's domain bounds, and
+         * therefore the chart's auto-range, still cover the whole history while zoomed in.
+         * @param lower Start of the visible range in epoch milliseconds.
+         * @param upper End of the visible range in epoch milliseconds.
+         */
+        void populate(long lower, long upper) {
+            target.setNotify(false);
+            target.clear();
+            if (size > 0) {
+                int[] slice = TimeSeriesDownsampler.visibleSlice(timestamps, size, lower, upper);
+                if (slice[0] > 0) {
+                    target.add(new FixedMillisecond(timestamps[0]), values[0], false);
+                }
+                for (int index : TimeSeriesDownsampler.downsample(timestamps, values, slice[0], slice[1], MAX_POINTS_PER_SERIES)) {
+                    target.add(new FixedMillisecond(timestamps[index]), values[index], false);
+                }
+                if (slice[1] < size) {
+                    target.add(new FixedMillisecond(timestamps[size - 1]), values[size - 1], false);
                 }
             }
+            target.setNotify(true);
         }
-        
-        return result;
     }
     
     /**
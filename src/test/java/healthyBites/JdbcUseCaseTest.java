@@ -0,0 +1,33 @@
+package healthyBites;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import healthyBites.model.storage.JdbcStorage;
+import healthyBites.model.storage.StorageBackend;
+
+/**
+ * Runs the use cases of {@link UseCaseTest} against the MySQL database named by DB_URL,
+ * so the in-memory storage and the database are checked to behave the same.
+ * These tests are skipped when DB_URL is not set.
+ */
+class JdbcUseCaseTest extends UseCaseTest {
+
+	/**
+	 * Opens a connection to the database named by DB_URL, DB_USER and DB_PASSWORD.
+	 * @return the storage
+	 */
+	@Override
+	StorageBackend openStorage() {
+		String url = CONFIG.get("DB_URL");
+		assumeTrue(url != null && !url.isBlank(), "DB_URL is not set");
+		return new JdbcStorage(url, CONFIG.get("DB_USER"), CONFIG.get("DB_PASSWORD"));
+	}
+
+	/**
+	 * Closes the connection of the test.
+	 * @param storage the storage
+	 */
+	@Override
+	void closeStorage(StorageBackend storage) {
+		storage.close();
+	}
+}
@@ -1,5 +1,6 @@
 package healthyBites;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -23,15 +24,21 @@ import healthyBites.model.FoodItem;
 import healthyBites.model.Goal;
 import healthyBites.model.Meal;
 import healthyBites.model.Nutrition;
+import healthyBites.model.NutritionAccumulator;
 import healthyBites.model.UserProfile;
+import healthyBites.model.storage.InMemoryStorage;
+import healthyBites.model.storage.StorageBackend;
 import healthyBites.observers.InitialLoadObserver;
 import healthyBites.observers.MealPanelObserver;
 import healthyBites.view.ViewFacade;
+import io.github.cdimascio.dotenv.Dotenv;
 
 /**
  * A set of integration tests for the Healthy Bites application.
  * This class tests fundamental use cases such as profile creation and editing,
  * meal logging, goal-based food swaps, and Canada's Food Guide (CFG) calculations.
+ * They run on an in-memory storage holding the CNF data named by CNF_PATH;
+ * {@link JdbcUseCaseTest} runs the same cases against the MySQL database.
  */
 @TestMethodOrder(OrderAnnotation.class)
 class UseCaseTest {
@@ -42,6 +49,13 @@ class UseCaseTest {
 	Controller controller;
 	/** The Model component that manages data. */
 	ConcreteModel model;
+	/** The storage the model runs on. */
+	StorageBackend storage;
+
+	/** The settings of the .env file, falling back to the environment. */
+	static final Dotenv CONFIG = Dotenv.configure().ignoreIfMissing().load();
+	/** The in-memory storage, loaded with the CNF data once for the whole suite. */
+	private static InMemoryStorage inMemoryStorage;
 	
 	/** The email for the primary male test user. */
 	String emailMale = "for@test.com";
@@ -56,8 +70,9 @@ class UseCaseTest {
 	 */
 	@BeforeEach
 	void setUp() throws Exception {
+		storage = openStorage();
 		view = new ViewFacade();	
-		model = ConcreteModel.getInstance();
+		model = ConcreteModel.withStorage(storage);
 		
 		MealPanelObserver mealPanelObserver = new MealPanelObserver(view, model);
 		List<InitialLoadObserver> initialLoadObservers = new ArrayList<>();
@@ -86,9 +101,36 @@ class UseCaseTest {
 	 */
 	@AfterEach
 	void tearDown() throws Exception {
+		if (model == null) {
+			return; // skipped before the model was made
+		}
 		model.deleteProfile(emailMale);
 		model.deleteProfile(emailFemale);
 		model.deleteProfile("iop@iop");
+		closeStorage(storage);
+	}
+
+	/**
+	 * Opens the storage the use cases run on: an in-memory storage with the CNF data
+	 * named by CNF_PATH. The tests are skipped when CNF_PATH is not set.
+	 * @return the storage
+	 */
+	StorageBackend openStorage() {
+		if (inMemoryStorage == null) {
+			String cnfPath = CONFIG.get("CNF_PATH");
+			assumeTrue(cnfPath != null && !cnfPath.isBlank(), "CNF_PATH is not set");
+			inMemoryStorage = new InMemoryStorage();
+			inMemoryStorage.loadReferenceData(cnfPath);
+		}
+		return inMemoryStorage;
+	}
+
+	/**
+	 * Releases the storage after a test. The in-memory storage is kept, with its CNF data,
+	 * for the next test; the profiles of the test are already deleted.
+	 * @param storage the storage
+	 */
+	void closeStorage(StorageBackend storage) {
 	}
 
 	/**
@@ -364,17 +406,17 @@ class UseCaseTest {
 		Date endDate = cal.getTime();
 		
 		List<Meal> mealsInRange = model.getMealsByTimeFrame(emailMale, startDate, endDate);
-		Nutrition originalCumulativeNutrition = new Nutrition();
-		Nutrition modifiedCumulativeNutrition = new Nutrition();
+		NutritionAccumulator originalCumulativeNutrition = model.newNutritionAccumulator();
+		NutritionAccumulator modifiedCumulativeNutrition = model.newNutritionAccumulator();
 		
 		for (Meal meal : mealsInRange) {
-			originalCumulativeNutrition = originalCumulativeNutrition.add(model.getMealNutrtionalValue(meal));
+			model.addMealNutrition(meal, originalCumulativeNutrition);
 			
 			// Manually create the swapped meal for this test
 			List<FoodItem> swappedFoodList = new ArrayList<>();
 			swappedFoodList.add(replaceItem);
 			Meal afterSwapMeal = new Meal(meal.getDate(), swappedFoodList, meal.getType());
-			modifiedCumulativeNutrition = modifiedCumulativeNutrition.add(model.getMealNutrtionalValue(afterSwapMeal));	
+			model.addMealNutrition(afterSwapMeal, modifiedCumulativeNutrition);
 		}
 		
 		assertEquals(2, mealsInRange.size(), "Should retrieve two meals within the date range.");
@@ -413,10 +455,11 @@ class UseCaseTest {
         int numberOfDays = 2;
  
         List<Meal> mealsInRange = model.getMealsByTimeFrame(emailMale, startDate, endDate);
-        Nutrition totalNutrition = new Nutrition();
+        NutritionAccumulator totals = model.newNutritionAccumulator();
         for (Meal meal : mealsInRange) {
-            totalNutrition = totalNutrition.add(model.getMealNutrtionalValue(meal));
+            model.addMealNutrition(meal, totals);
         }
+        Nutrition totalNutrition = totals.toNutrition();
         
         Map<String, Double> averageDailyNutrients = new HashMap<>();
         for (Map.Entry<String, Double> entry : totalNutrition.getNutrients().entrySet()) {
@@ -0,0 +1,44 @@
+package healthyBites.controller;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PeriodComparisonEngine}.
+ * These tests check that windows that overlap or touch are fetched as one span, and that the
+ * days between two distant windows are left out.
+ */
+class PeriodComparisonEngineTest {
+
+	private static final LocalDate DAY = LocalDate.of(2025, 3, 19);
+
+	private static String rangesOf(List<PeriodComparisonEngine.Window> spans) {
+		StringBuilder ranges = new StringBuilder();
+		for (PeriodComparisonEngine.Window span : spans) {
+			ranges.append(span.getStart()).append("..").append(span.getEnd()).append(' ');
+		}
+		return ranges.toString().trim();
+	}
+
+	@Test
+	void adjacentAndOverlappingWindowsAreOneSpan() {
+		PeriodComparisonEngine.Window selected = PeriodComparisonEngine.Window.rollingDays(7, DAY);
+		assertEquals("2025-03-06..2025-03-19",
+			rangesOf(PeriodComparisonEngine.spansOf(List.of(selected, selected.previousPeriod()))));
+		assertEquals("2024-12-20..2025-03-19",
+			rangesOf(PeriodComparisonEngine.spansOf(PeriodComparisonEngine.rollingWindows(DAY))));
+	}
+
+	@Test
+	void distantWindowsAreFetchedSeparately() {
+		List<PeriodComparisonEngine.Window> windows = List.of(
+			PeriodComparisonEngine.Window.calendarMonth(DAY, 0),
+			PeriodComparisonEngine.Window.calendarWeek(DAY, 10),
+			PeriodComparisonEngine.Window.calendarMonth(DAY, 12));
+		assertEquals("2024-03-01..2024-03-31 2025-01-06..2025-01-12 2025-03-01..2025-03-31",
+			rangesOf(PeriodComparisonEngine.spansOf(windows)));
+	}
+}
@@ -0,0 +1,68 @@
+package healthyBites.controller;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import healthyBites.model.ConcreteModel;
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.ReferenceDataFixture;
+import healthyBites.model.UserProfile;
+import healthyBites.model.storage.InMemoryStorage;
+
+/**
+ * Unit tests for {@link SwapImpactAnalysis}.
+ * These tests run a swap over meals on the embedded backend and check the totals, daily
+ * averages, CFG servings and per-meal nutrition the analysis views are built from.
+ */
+class SwapImpactAnalysisTest {
+
+	private static final String EMAIL = "for@test.com";
+	private static final String MILK = ReferenceDataFixture.MILK, BREAD = ReferenceDataFixture.BREAD, BAGEL = ReferenceDataFixture.BAGEL;
+
+	private static ConcreteModel model() {
+		InMemoryStorage storage = ReferenceDataFixture.storage();
+		storage.insertProfile(new UserProfile("Tester", "Male", EMAIL, "metric", EpochDays.toDate(7000), 180, 80));
+		storage.insertMeal(EMAIL, new Meal(EpochDays.toDate(20000), List.of(new FoodItem(BREAD, 2, "30g"), new FoodItem(MILK, 1, "250ml")), "Breakfast"));
+		storage.insertMeal(EMAIL, new Meal(EpochDays.toDate(20000), List.of(new FoodItem(MILK, 1, "250ml")), "Snack"));
+		storage.insertMeal(EMAIL, new Meal(EpochDays.toDate(20001), List.of(new FoodItem(BREAD, 1, "30g")), "Lunch"));
+		return ConcreteModel.withStorage(storage);
+	}
+
+	@Test
+	void swapChangesOnlyTheMealsWithTheItem() {
+		ConcreteModel model = model();
+		SwapImpactAnalysis.Result result = new SwapImpactAnalysis(model).analyze(EMAIL, null, null,
+			new FoodItem(BREAD, 1, "30g"), new FoodItem(BAGEL, 2, "30g"), 2);
+
+		assertEquals(3, result.getMealCount());
+		assertEquals(2, result.getNumberOfDays());
+		assertEquals(2, result.getChangedMeals().size());
+
+		double milk = 50 * 2.58, bread = 266 * 0.3, bagel = 250 * 0.3;
+		assertEquals(3 * bread + 2 * milk, result.getOriginalTotals().get("ENERGY (KILOCALORIES)"), 1e-9);
+		assertEquals(6 * bagel + 2 * milk, result.getModifiedTotals().get("ENERGY (KILOCALORIES)"), 1e-9);
+		assertEquals((6 * bagel + 2 * milk) / 2, result.getModifiedAverages().get("ENERGY (KILOCALORIES)"), 1e-9);
+		assertEquals(6 * 10 * 0.3 + 2 * 3.4 * 2.58, result.getModifiedTotals().get("PROTEIN"), 1e-9);
+
+		Meal lunch = result.getChangedMeals().get(1);
+		assertEquals(bread, result.getOriginalMealNutritions().get(lunch).getNutrientValue("ENERGY (KILOCALORIES)"), 1e-9);
+		assertEquals(2 * bagel, result.getModifiedMealNutritions().get(lunch).getNutrientValue("ENERGY (KILOCALORIES)"), 1e-9);
+
+		// 30g of grain products is 30/35 of a serving
+		assertEquals(3 * 30.0 / 35, result.getOriginalCFGServings().get("Grain Products"), 1e-9);
+		assertEquals(6 * 30.0 / 35, result.getModifiedCFGServings().get("Grain Products"), 1e-9);
+		assertEquals(2 * 250.0 / 250 / 2, result.getModifiedCFGServingsAverage().get("Milk & Alternatives"), 1e-9);
+	}
+
+	@Test
+	void emptyPeriodHasNoMeals() {
+		SwapImpactAnalysis.Result result = new SwapImpactAnalysis(model()).analyze(EMAIL, EpochDays.toDate(19000), EpochDays.toDate(19001),
+			new FoodItem(BREAD, 1, "30g"), new FoodItem(BAGEL, 1, "30g"), 1);
+		assertEquals(0, result.getMealCount());
+		assertTrue(result.getChangedMeals().isEmpty());
+	}
+}
@@ -0,0 +1,101 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FuzzyFoodMatcher}.
+ * These tests check that misspelled, reordered and French queries resolve to the
+ * English description, and that unrelated text does not match.
+ */
+class FuzzyFoodMatcherTest {
+
+	private static final List<String> NAMES = Arrays.asList(
+		"Beef, cured, corned beef, canned",
+		"Cheese, cheddar",
+		"Milk, partly skimmed, 2% M.F.",
+		"Apple, raw, with skin",
+		"Beef, ground, lean, raw");
+
+	private static final List<String> FRENCH_NAMES = Arrays.asList(
+		"Bœuf, salé, en conserve",
+		"Fromage, cheddar",
+		"Lait, partiellement écrémé, 2 % M.G.",
+		"Pomme, crue, avec pelure",
+		"Bœuf, haché, maigre, cru");
+
+	private final FuzzyFoodMatcher matcher = new FuzzyFoodMatcher(NAMES, FRENCH_NAMES);
+
+	@Test
+	void exactAndMisspelledQueriesFindTheFood() {
+		assertEquals("Beef, cured, corned beef, canned", matcher.search("Beef, cured, corned beef, canned", 5).get(0));
+		assertEquals("Beef, cured, corned beef, canned", matcher.search("beef cured corend beef caned", 5).get(0));
+		assertEquals("Cheese, cheddar", matcher.search("chedar chese", 5).get(0));
+	}
+
+	@Test
+	void wordOrderDoesNotMatter() {
+		assertEquals("Beef, cured, corned beef, canned", matcher.search("canned corned beef", 5).get(0));
+	}
+
+	@Test
+	void frenchQueriesResolveToEnglishWithoutAccents() {
+		assertEquals("Beef, ground, lean, raw", matcher.search("boeuf hache", 5).get(0));
+		assertEquals("Milk, partly skimmed, 2% M.F.", matcher.search("lait ecreme", 5).get(0));
+	}
+
+	@Test
+	void resultsAreDistinctAndLimited() {
+		List<String> result = matcher.search("beef", 10);
+		assertEquals(2, result.size());
+		assertEquals(result.size(), result.stream().distinct().count());
+		assertEquals(1, matcher.search("beef", 1).size());
+	}
+
+	@Test
+	void unrelatedQueriesDoNotMatch() {
+		assertTrue(matcher.search("chocolate", 5).isEmpty());
+		assertTrue(matcher.search("   ", 5).isEmpty());
+	}
+
+	@Test
+	void substringDistanceIgnoresSurroundingText() {
+		assertEquals(0, FuzzyFoodMatcher.substringDistance("corned", "beef cured corned beef canned"));
+		assertEquals(1, FuzzyFoodMatcher.substringDistance("corend", "beef cured corned beef canned"));
+		assertEquals(1, FuzzyFoodMatcher.substringDistance("chese", "cheese cheddar"));
+	}
+
+	@Test
+	void searchOfAFullSizedNameSetKeepsTheBestMatches() {
+		Random random = new Random(7);
+		String[] words = { "beef", "chicken", "cheese", "cheddar", "milk", "bread", "wheat", "apple", "juice",
+			"raw", "cooked", "roasted", "canned", "frozen", "boiled", "salted", "lean", "ground", "whole", "skim" };
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 6000; i++) {
+			StringBuilder name = new StringBuilder();
+			int wordCount = 3 + random.nextInt(4);
+			for (int w = 0; w < wordCount; w++) {
+				name.append(words[random.nextInt(words.length)]).append(", ");
+			}
+			names.add(name.append(i).toString());
+		}
+		names.add("Chicken, roasted");
+		FuzzyFoodMatcher large = new FuzzyFoodMatcher(names, null);
+
+		// the shortest exact match ranks first, and every result holds both misspelled words,
+		// even though thousands of names share trigrams with the query
+		List<String> result = large.search("chiken rosted", 20);
+		assertEquals(20, result.size());
+		assertEquals("Chicken, roasted", result.get(0));
+		for (String name : result) {
+			assertTrue(name.contains("chicken") || name.startsWith("Chicken"), name);
+			assertTrue(name.contains("roasted"), name);
+		}
+		// the latency of this search is measured by FoodSearchBenchmark in the benchmarks module
+	}
+}
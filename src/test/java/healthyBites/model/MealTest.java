@@ -0,0 +1,63 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the value semantics of {@link Meal} and {@link FoodItem}.
+ * These tests check that equal values hash alike, that meals can key hash maps,
+ * and that a meal's food items cannot be changed after construction.
+ */
+class MealTest {
+
+	private static final java.util.Date DAY = EpochDays.toDate(20000);
+
+	@Test
+	void equalFoodItemsHaveEqualHashCodes() {
+		FoodItem a = new FoodItem("Cheese, cheddar", 2, "100g");
+		FoodItem b = new FoodItem(17, "Cheese, cheddar", 2, 1455, "100g");
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertNotEquals(a, new FoodItem("Cheese, cheddar", 3, "100g"));
+	}
+
+	@Test
+	void mealsWithTheSameContentAreEqualKeys() {
+		Meal first = new Meal(5, DAY, List.of(new FoodItem("Milk, 2%", 1, "250ml")), "Breakfast");
+		Meal second = new Meal(5, EpochDays.toDate(20000), List.of(new FoodItem("Milk, 2%", 1, "250ml")), "Breakfast");
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+
+		Map<Meal, String> cache = new HashMap<>();
+		cache.put(first, "cached");
+		assertEquals("cached", cache.get(second));
+	}
+
+	@Test
+	void mealsDifferingInIdDayTypeOrItemsAreNotEqual() {
+		List<FoodItem> items = List.of(new FoodItem("Milk, 2%", 1, "250ml"));
+		Meal meal = new Meal(5, DAY, items, "Breakfast");
+		assertNotEquals(meal, new Meal(6, DAY, items, "Breakfast"));
+		assertNotEquals(meal, new Meal(5, EpochDays.toDate(20001), items, "Breakfast"));
+		assertNotEquals(meal, new Meal(5, DAY, items, "Lunch"));
+		assertNotEquals(meal, new Meal(5, DAY, List.of(new FoodItem("Milk, 2%", 2, "250ml")), "Breakfast"));
+	}
+
+	@Test
+	void foodItemsAreCopiedAndUnmodifiable() {
+		List<FoodItem> items = new ArrayList<>();
+		items.add(new FoodItem("Milk, 2%", 1, "250ml"));
+		Meal meal = new Meal(DAY, items, "Snack");
+		int hash = meal.hashCode();
+
+		items.add(new FoodItem("Cheese, cheddar", 1, "100g"));
+		assertEquals(1, meal.getFoodItems().size());
+		assertEquals(hash, meal.hashCode());
+		assertThrows(UnsupportedOperationException.class, () -> meal.getFoodItems().add(items.get(1)));
+	}
+}
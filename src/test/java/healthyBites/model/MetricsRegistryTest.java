@@ -0,0 +1,88 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MetricsRegistry}.
+ * These tests check that latency percentiles fall within the histogram's precision, that
+ * calls, errors and cache lookups are counted without loss across threads, and that
+ * periodic reporting delivers snapshots.
+ */
+class MetricsRegistryTest {
+
+	@Test
+	void percentilesAreWithinTheBucketPrecision() {
+		MetricsRegistry metrics = new MetricsRegistry();
+		MetricsRegistry.Timer timer = metrics.timer("getMeals");
+		for (long micros = 1; micros <= 1000; micros++)
+			timer.record(micros * 1000);
+
+		MetricsRegistry.TimerSnapshot snapshot = metrics.snapshot().getTimers().get("getMeals");
+		assertEquals(1000, snapshot.getCount());
+		assertEquals(500_000, snapshot.getP50(), 500_000 * 0.125);
+		assertEquals(900_000, snapshot.getP90(), 900_000 * 0.125);
+		assertEquals(990_000, snapshot.getP99(), 990_000 * 0.125);
+		assertTrue(snapshot.getP50() >= 500_000, "a percentile is reported as the upper bound of its bucket");
+		assertEquals(1_000_000, snapshot.getMax());
+	}
+
+	@Test
+	void bucketsCoverEveryLatency() {
+		for (long nanos : new long[] { 0, 1, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE }) {
+			int bucket = MetricsRegistry.bucketOf(nanos);
+			assertTrue(MetricsRegistry.upperBoundOf(bucket) >= nanos);
+			assertTrue(bucket == 0 || MetricsRegistry.upperBoundOf(bucket - 1) < nanos);
+		}
+	}
+
+	@Test
+	void concurrentRecordingLosesNothing() throws InterruptedException {
+		MetricsRegistry metrics = new MetricsRegistry();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					if (i % 10 == 0) {
+						metrics.timer("addMeal").recordError(i);
+						metrics.cache("measureIds").miss();
+					} else {
+						metrics.timer("addMeal").record(i);
+						metrics.cache("measureIds").hit();
+					}
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads)
+			thread.join();
+
+		MetricsRegistry.Snapshot snapshot = metrics.snapshot();
+		assertEquals(40_000, snapshot.getTimers().get("addMeal").getCount());
+		assertEquals(4_000, snapshot.getTimers().get("addMeal").getErrors());
+		assertEquals(9_999, snapshot.getTimers().get("addMeal").getMax());
+		assertEquals(0.9, snapshot.getCaches().get("measureIds").getHitRatio(), 1e-9);
+		assertTrue(snapshot.toString().contains("addMeal"));
+	}
+
+	@Test
+	void periodicReportingDeliversSnapshots() throws InterruptedException {
+		MetricsRegistry metrics = new MetricsRegistry();
+		metrics.timer("getProfile").record(1000);
+		CountDownLatch reports = new CountDownLatch(2);
+		metrics.startReporting(10, TimeUnit.MILLISECONDS, snapshot -> {
+			if (snapshot.getTimers().get("getProfile").getCount() == 1)
+				reports.countDown();
+		});
+		try {
+			assertTrue(reports.await(5, TimeUnit.SECONDS));
+		} finally {
+			metrics.stopReporting();
+		}
+	}
+}
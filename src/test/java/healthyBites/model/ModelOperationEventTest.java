@@ -0,0 +1,106 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for {@link ModelOperationEvent}.
+ * These tests record the model on the embedded backend and check that each call is recorded once,
+ * even when it throws, with a hashed email, its counts, and the food group of a swap search.
+ */
+class ModelOperationEventTest {
+
+	private static final String EMAIL = "For@Test.com";
+
+	@TempDir
+	Path dir;
+
+	private List<RecordedEvent> record(Runnable operations) throws Exception {
+		Path file = dir.resolve("model.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("healthyBites.ModelOperation").withThreshold(Duration.ZERO);
+			recording.start();
+			operations.run();
+			recording.stop();
+			recording.dump(file);
+		}
+		return RecordingFile.readAllEvents(file);
+	}
+
+	private static RecordedEvent eventOf(List<RecordedEvent> events, String operation) {
+		return events.stream()
+			.filter(e -> operation.equals(e.getString("operation")))
+			.findFirst()
+			.orElseThrow(() -> new AssertionError("no event for " + operation));
+	}
+
+	@Test
+	void operationsAreRecordedWithAHashedEmailAndCounts() throws Exception {
+		ConcreteModel model = ReferenceDataFixture.model();
+		FoodItem milk = new FoodItem(ReferenceDataFixture.MILK, 1, "250ml");
+		Meal meal = new Meal(EpochDays.toDate(20000), List.of(milk), "Breakfast");
+
+		List<RecordedEvent> events = record(() -> {
+			model.setProfile(new UserProfile("Tester", "Male", EMAIL, "metric", EpochDays.toDate(7000), 180, 80));
+			model.addMeal(meal, EMAIL);
+			model.getMeals(EMAIL);
+		});
+
+		RecordedEvent addMeal = eventOf(events, "addMeal");
+		assertEquals(ModelOperationEvent.hashOf("for@test.com"), addMeal.getString("emailHash"));
+		assertEquals(16, addMeal.getString("emailHash").length());
+		assertEquals(1, addMeal.getInt("itemCount"));
+		assertEquals(1, eventOf(events, "getMeals").getInt("resultCount"));
+		assertFalse(events.stream().anyMatch(e -> EMAIL.equals(e.getString("emailHash"))));
+	}
+
+	@Test
+	void eachModelCallRecordsOneEvent() throws Exception {
+		ConcreteModel model = ReferenceDataFixture.model();
+		FoodItem milk = new FoodItem(ReferenceDataFixture.MILK, 1, "250ml");
+		Meal meal = new Meal(EpochDays.toDate(20000), List.of(milk, milk), "Breakfast");
+
+		List<RecordedEvent> events = record(() -> {
+			model.getMeals(EMAIL);
+			model.getMealNutrtionalValue(meal);
+			model.getAlternativeFoodOptions(meal, milk, List.of());
+		});
+
+		assertEquals(List.of("getMeals", "getMealNutrtionalValue", "getAlternativeFoodOptions"),
+			events.stream().map(e -> e.getString("operation")).toList());
+	}
+
+	@Test
+	void callThatThrowsIsStillRecorded() throws Exception {
+		ConcreteModel model = ReferenceDataFixture.model();
+		FoodItem unknown = new FoodItem("Not a food", 1, "250ml");
+
+		List<RecordedEvent> events = record(() ->
+			assertThrows(IllegalArgumentException.class, () -> model.getFoodItemCFGServings(unknown)));
+
+		assertEquals(1, eventOf(events, "getFoodItemCFGServings").getInt("itemCount"));
+	}
+
+	@Test
+	void swapSearchRecordsItsFoodGroupAndCandidates() throws Exception {
+		ConcreteModel model = ReferenceDataFixture.model();
+		FoodItem milk = new FoodItem(ReferenceDataFixture.MILK, 1, "250ml");
+		Meal meal = new Meal(EpochDays.toDate(20000), List.of(milk), "Breakfast");
+
+		List<RecordedEvent> events = record(() -> model.getAlternativeFoodOptions(meal, milk, List.of()));
+
+		RecordedEvent search = eventOf(events, "getAlternativeFoodOptions");
+		assertEquals(1, search.getInt("foodGroup"));
+		assertTrue(search.getInt("candidateCount") > 0);
+		assertEquals(1, search.getInt("itemCount"));
+	}
+}
@@ -0,0 +1,59 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link NutrientKernels}.
+ * These tests check that the Vector API kernels and the plain loops add and scale nutrient
+ * vectors to the same results, including the lengths that leave a tail after the last full
+ * SIMD register.
+ */
+class NutrientKernelsTest {
+
+	private static double[] randomVector(Random random, int length) {
+		double[] vector = new double[length];
+		for (int i = 0; i < length; i++) {
+			vector[i] = random.nextDouble() * 500;
+		}
+		return vector;
+	}
+
+	@Test
+	void vectorKernelsAreUsedWhenTheModuleIsPresent() {
+		// the module is added by the vector profile of the build
+		assertEquals(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), NutrientKernels.isVectorized());
+	}
+
+	@Test
+	void vectorAndScalarKernelsAgree() {
+		Random random = new Random(11);
+		for (int length : new int[] { 0, 1, 3, 8, 150, 151 }) {
+			double[] amounts = randomVector(random, 3 * length + 5);
+			double[] vectorTotals = randomVector(random, length);
+			double[] scalarTotals = vectorTotals.clone();
+			for (int offset : new int[] { 0, length, 2 * length + 5 }) {
+				double scale = random.nextDouble() * 4;
+				NutrientKernels.kernel().addScaled(vectorTotals, amounts, offset, scale);
+				NutrientKernels.scalar().addScaled(scalarTotals, amounts, offset, scale);
+			}
+			NutrientKernels.kernel().scale(vectorTotals, 0.25);
+			NutrientKernels.scalar().scale(scalarTotals, 0.25);
+			assertArrayEquals(scalarTotals, vectorTotals, 1e-9);
+		}
+	}
+
+	@Test
+	void addScaledMultipliesQuantityAndConversionFactor() {
+		double[] totals = { 1, 2, 3 };
+		NutrientKernels.addScaled(totals, new double[] { 10, 20, 30 }, 2, 0.5);
+		assertArrayEquals(new double[] { 11, 22, 33 }, totals, 1e-12);
+		NutrientKernels.addScaledAt(totals, new double[] { 0, 10, 20, 30 }, 1, -1);
+		assertArrayEquals(new double[] { 1, 2, 3 }, totals, 1e-12);
+		NutrientKernels.add(totals, new double[] { 1, 1, 1 });
+		assertArrayEquals(new double[] { 2, 3, 4 }, totals, 1e-12);
+		assertThrows(IllegalArgumentException.class, () -> NutrientKernels.addScaledAt(totals, new double[4], 2, 1));
+	}
+}
@@ -0,0 +1,50 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import healthyBites.model.storage.InMemoryStorage;
+
+/**
+ * Unit tests for {@link NutrientMatrix}.
+ * These tests check that the matrix holds the same amounts and conversion factors as the
+ * reference data, and that amounts the CNF does not list stay out of a food's nutrition.
+ */
+class NutrientMatrixTest {
+
+	private static InMemoryStorage referenceData() {
+		InMemoryStorage storage = ReferenceDataFixture.storage();
+		storage.addNutrientAmount(5, 203, 1); // unknown food
+		return storage;
+	}
+
+	@Test
+	void matrixHoldsTheAmountsOfTheReferenceData() {
+		InMemoryStorage storage = referenceData();
+		NutrientMatrix matrix = NutrientMatrix.load(storage);
+		assertEquals(4, matrix.getFoodCount());
+		assertEquals(3, matrix.getNutrientCount());
+		for (int foodId = 0; foodId <= 4; foodId++) {
+			assertEquals(storage.findNutrientAmounts(foodId), matrix.nutritionOf(foodId, 1).getNutrients());
+		}
+		assertEquals(Map.of("ENERGY (KILOCALORIES)", 100.0, "PROTEIN", 6.8), matrix.nutritionOf(1, 2).getNutrients());
+		assertTrue(matrix.nutritionOf(5, 1).getNutrients().isEmpty());
+		assertEquals(storage.findConversionFactor(1, 10), matrix.conversionFactorOf(1, 10));
+		assertEquals(storage.findConversionFactor(3, 20), matrix.conversionFactorOf(3, 20));
+		assertEquals(-1, matrix.conversionFactorOf(1, 20));
+	}
+
+	@Test
+	void unlistedAmountsReadAsZero() {
+		NutrientMatrix matrix = NutrientMatrix.load(referenceData());
+		int protein = matrix.columnOf("PROTEIN");
+		assertEquals(6.8, matrix.get(matrix.rowOf(1), protein, 2), 1e-12);
+		assertEquals(0, matrix.get(matrix.rowOf(2), protein, 2));
+		assertEquals(0, matrix.get(matrix.rowOf(5), protein, 2));
+		assertEquals(0, matrix.get(matrix.rowOf(1), matrix.columnOf("FAT (TOTAL LIPIDS)"), 2));
+		assertFalse(matrix.nutritionOf(2, 1).containsNutrient("PROTEIN"));
+		assertTrue(matrix.nutritionOf(3, 1).containsNutrient("PROTEIN"));
+	}
+}
@@ -0,0 +1,83 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Unit tests for {@link NutritionAccumulator}.
+ * These tests check that meals summed in place add up to what {@link Nutrition#add} gives,
+ * that a reused accumulator starts over after a reset, and that summing does not allocate
+ * per food item.
+ */
+class NutritionAccumulatorTest {
+
+	private static Meal meal(double milk, double bread) {
+		return new Meal(EpochDays.toDate(20000), List.of(
+			new FoodItem(ReferenceDataFixture.MILK, milk, "250ml"),
+			new FoodItem(ReferenceDataFixture.BREAD, bread, "30g")), "Lunch");
+	}
+
+	@Test
+	void sumsMealsAsNutritionAddDoes() {
+		ConcreteModel model = ReferenceDataFixture.model();
+		NutritionAccumulator totals = model.newNutritionAccumulator();
+		Nutrition expected = new Nutrition();
+		for (int i = 1; i <= 3; i++) {
+			model.addMealNutrition(meal(i, 2 * i), totals);
+			for (FoodItem item : meal(i, 2 * i).getFoodItems()) {
+				expected = expected.add(model.getFoodItemNutrtionalValue(item));
+			}
+		}
+		assertEquals(expected.getNutrients().keySet(), totals.toNutrition().getNutrients().keySet());
+		for (String nutrient : expected.getNutrients().keySet()) {
+			assertEquals(expected.getNutrientValue(nutrient), totals.getNutrientValue(nutrient), 1e-9);
+		}
+		assertFalse(totals.toNutrition().containsNutrient("FAT (TOTAL LIPIDS)"));
+		assertEquals(model.getMealNutrtionalValue(meal(1, 2)).getNutrients().keySet(),
+			model.getFoodItemNutrtionalValue(meal(1, 2).getFoodItems().get(0)).getNutrients().keySet());
+	}
+
+	@Test
+	void resetStartsOverAndTotalsCombine() {
+		ConcreteModel model = ReferenceDataFixture.model();
+		NutritionAccumulator day = model.newNutritionAccumulator();
+		NutritionAccumulator meal = model.newNutritionAccumulator();
+		for (int i = 0; i < 2; i++) {
+			meal.reset();
+			model.addMealNutrition(meal(1, 0), meal);
+			day.addScaled(meal, 1);
+		}
+		assertEquals(2 * 50 * 2.58, day.getNutrientValue("ENERGY (KILOCALORIES)"), 1e-9);
+
+		day.reset();
+		assertTrue(day.isEmpty());
+		assertEquals(0, day.getNutrientValue("ENERGY (KILOCALORIES)"));
+		assertTrue(day.toNutrition().getNutrients().isEmpty());
+	}
+
+	@Test
+	void summingDoesNotAllocatePerItem() {
+		NutrientMatrix matrix = new NutrientMatrix(new int[] { 1, 2 }, new int[] { 203, 208 }, new String[] { "PROTEIN", "ENERGY (KILOCALORIES)" });
+		matrix.set(1, 203, 3.4);
+		matrix.set(2, 208, 50);
+		NutritionAccumulator totals = new NutritionAccumulator(matrix);
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		int items = 1_000_000;
+		for (int i = 0; i < items; i++) { // warm up, so the kernels run compiled
+			totals.addScaled(i & 1, 1.5);
+		}
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < items; i++) {
+			totals.addScaled(i & 1, 1.5);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+		assertTrue(allocated < items / 8, allocated + " bytes allocated for " + items + " items");
+		assertEquals(2 * items / 2 * 1.5 * 50, totals.getNutrientValue("ENERGY (KILOCALORIES)"), 1e-3);
+	}
+}
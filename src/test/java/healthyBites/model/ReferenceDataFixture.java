@@ -0,0 +1,60 @@
+package healthyBites.model;
+
+import healthyBites.model.storage.InMemoryStorage;
+
+/**
+ * A small set of CNF reference data on the embedded backend, shared by the unit tests that
+ * need a model: two milks of the dairy group and two grain products, their energy and protein,
+ * and the 250ml and 30g measures they are logged in. Fat is a nutrient none of them lists, and
+ * the bread lists no protein as 0.
+ * @author HealthyBites Team
+ */
+public final class ReferenceDataFixture {
+
+	public static final String MILK = "Milk, partly skimmed, 2% M.F.";
+	public static final String SKIM_MILK = "Milk, skim";
+	public static final String BREAD = "Bread, white";
+	public static final String BAGEL = "Bagel, plain";
+
+	private ReferenceDataFixture() {
+	}
+
+	/**
+	 * Creates an embedded backend holding the reference data and no users.
+	 *
+	 * @return the storage
+	 */
+	public static InMemoryStorage storage() {
+		InMemoryStorage storage = new InMemoryStorage();
+		storage.addFood(1, 1, MILK, "Lait, partiellement écrémé, 2 % M.G.");
+		storage.addFood(2, 1, SKIM_MILK, "Lait, écrémé");
+		storage.addFood(3, 18, BREAD, "Pain, blanc");
+		storage.addFood(4, 18, BAGEL, "Bagel, nature");
+		storage.addNutrient(208, "ENERGY (KILOCALORIES)", "ÉNERGIE (KILOCALORIES)", "kCal");
+		storage.addNutrient(203, "PROTEIN", "PROTÉINES", "g");
+		storage.addNutrient(204, "FAT (TOTAL LIPIDS)", "LIPIDES TOTAUX", "g");
+		storage.addNutrientAmount(1, 208, 50);
+		storage.addNutrientAmount(1, 203, 3.4);
+		storage.addNutrientAmount(2, 208, 34);
+		storage.addNutrientAmount(3, 208, 266);
+		storage.addNutrientAmount(3, 203, 0);
+		storage.addNutrientAmount(4, 208, 250);
+		storage.addNutrientAmount(4, 203, 10);
+		storage.addMeasure(10, "250ml", "250ml");
+		storage.addMeasure(20, "30g", "30g");
+		storage.addConversionFactor(1, 10, 2.58);
+		storage.addConversionFactor(2, 10, 2.58);
+		storage.addConversionFactor(3, 20, 0.3);
+		storage.addConversionFactor(4, 20, 0.3);
+		return storage;
+	}
+
+	/**
+	 * Creates a model over a new embedded backend holding the reference data.
+	 *
+	 * @return the model
+	 */
+	public static ConcreteModel model() {
+		return ConcreteModel.withStorage(storage());
+	}
+}
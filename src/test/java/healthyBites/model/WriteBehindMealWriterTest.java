@@ -0,0 +1,234 @@
+package healthyBites.model;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import healthyBites.model.storage.InMemoryStorage;
+
+/**
+ * Unit tests for {@link MealJournal} and {@link WriteBehindMealWriter}.
+ * These tests check that unflushed meals are replayed after a restart with their fields intact,
+ * that a record cut short by a crash is ignored, that a damaged record does not hide the ones
+ * after it, that the writer retries until the database accepts a batch, that a batch committed
+ * just before a crash is not stored again, and that an action run between batches sees a batch
+ * being written either fully handed over or not at all.
+ */
+class WriteBehindMealWriterTest {
+
+	@TempDir
+	Path dir;
+
+	private static Meal meal(int epochDay, String type) {
+		return new Meal(EpochDays.toDate(epochDay), List.of(new FoodItem(17, "Cheese, cheddar", 2, 1455, "100g")), type);
+	}
+
+	@Test
+	void unflushedMealsAreReplayedAfterRestart() throws IOException {
+		Path file = dir.resolve("meals.journal");
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			MealJournal.Entry breakfast = journal.append("a@b.c", meal(20000, "Breakfast"));
+			journal.append("a@b.c", meal(20000, "Lunch"));
+			journal.markFlushed(List.of(breakfast));
+		}
+
+		try (MealJournal journal = new MealJournal(file)) {
+			List<MealJournal.Entry> pending = journal.replay();
+			assertEquals(1, pending.size());
+			assertEquals("a@b.c", pending.get(0).getEmail());
+			assertEquals(meal(20000, "Lunch"), pending.get(0).getMeal());
+			assertTrue(pending.get(0).isReplayed());
+			assertEquals(3, journal.append("a@b.c", meal(20001, "Dinner")).getSequence());
+		}
+	}
+
+	@Test
+	void missingAndEmptyUnitsReplayAsTheyWereLogged() throws IOException {
+		Path file = dir.resolve("meals.journal");
+		String[] units = { null, "", "\\N", "1\\2 cup", "\"big\", sliced" };
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			for (String unit : units) {
+				journal.append("a@b.c", new Meal(EpochDays.toDate(20000), List.of(new FoodItem(0, "Toast", 1, 0, unit)), "Snack"));
+			}
+		}
+
+		try (MealJournal journal = new MealJournal(file)) {
+			List<MealJournal.Entry> pending = journal.replay();
+			assertEquals(units.length, pending.size());
+			for (int i = 0; i < units.length; i++) {
+				assertEquals(units[i], pending.get(i).getMeal().getFoodItems().get(0).getUnit());
+			}
+		}
+	}
+
+	@Test
+	void journalIsEmptiedOnceEverythingIsFlushed() throws IOException {
+		Path file = dir.resolve("meals.journal");
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			MealJournal.Entry entry = journal.append("a@b.c", meal(20000, "Snack"));
+			journal.markFlushed(List.of(entry));
+			assertEquals(0, journal.getUnflushedCount());
+		}
+		assertEquals(0, Files.size(file));
+	}
+
+	@Test
+	void recordCutShortByACrashIsIgnored() throws IOException {
+		Path file = dir.resolve("meals.journal");
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			journal.append("a@b.c", meal(20000, "Breakfast"));
+		}
+		Files.writeString(file, "M,2,a@b.c,20000,Lun", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (MealJournal journal = new MealJournal(file)) {
+			assertEquals(1, journal.replay().size());
+			journal.append("a@b.c", meal(20000, "Dinner"));
+		}
+		try (MealJournal journal = new MealJournal(file)) {
+			List<MealJournal.Entry> pending = journal.replay();
+			assertEquals(2, pending.size());
+			assertEquals("Dinner", pending.get(1).getMeal().getType());
+		}
+	}
+
+	@Test
+	void damagedRecordIsSkipped() throws IOException {
+		Path file = dir.resolve("meals.journal");
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			journal.append("a@b.c", meal(20000, "Breakfast"));
+		}
+		Files.writeString(file, "M,2,7,a@b.c,20000,Lunch,x\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			journal.append("a@b.c", meal(20000, "Dinner"));
+		}
+
+		try (MealJournal journal = new MealJournal(file)) {
+			List<MealJournal.Entry> pending = journal.replay();
+			assertEquals(2, pending.size());
+			assertEquals("Breakfast", pending.get(0).getMeal().getType());
+			assertEquals("Dinner", pending.get(1).getMeal().getType());
+		}
+	}
+
+	@Test
+	void writerRetriesUntilTheBatchIsSaved() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		List<MealJournal.Entry> saved = new CopyOnWriteArrayList<>();
+		WriteBehindMealWriter.MealBatchStore store = entries -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new SQLException("database unavailable");
+			}
+			List<Meal> meals = new ArrayList<>();
+			for (MealJournal.Entry entry : entries) {
+				Meal meal = entry.getMeal();
+				meals.add(new Meal((int) entry.getSequence(), meal.getDate(), meal.getFoodItems(), meal.getType()));
+			}
+			return meals;
+		};
+
+		MealJournal journal = new MealJournal(dir.resolve("meals.journal"));
+		WriteBehindMealWriter writer = new WriteBehindMealWriter(journal, store, saved::add, 1);
+		writer.submit("a@b.c", meal(20000, "Breakfast"));
+		assertTrue(writer.hasPendingMeal("a@b.c", EpochDays.toDate(20000), "Breakfast"));
+		assertTrue(writer.hasPendingMeal("A@b.c", EpochDays.toDate(20000), "breakfast"));
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (saved.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		writer.close();
+
+		assertEquals(1, saved.size());
+		assertEquals(1, saved.get(0).getMeal().getId());
+		assertTrue(attempts.get() >= 3);
+		assertEquals(0, writer.getPendingCount());
+		assertFalse(writer.hasPendingMeal("a@b.c", EpochDays.toDate(20000), "Breakfast"));
+	}
+
+	@Test
+	void batchCommittedBeforeMarkFlushedIsNotStoredAgain() throws Exception {
+		Path data = dir.resolve("user.data");
+		Path file = dir.resolve("meals.journal");
+		InMemoryStorage storage = new InMemoryStorage(data);
+		storage.insertProfile(new UserProfile("Tester", "Male", "a@b.c", "metric", EpochDays.toDate(7000), 180, 80));
+		List<Meal> committed;
+		try (MealJournal journal = new MealJournal(file)) {
+			journal.replay();
+			List<MealJournal.Entry> batch = List.of(journal.append("a@b.c", meal(20000, "Breakfast")),
+			                                        journal.append("a@b.c", meal(20000, "Snack")));
+			committed = storage.insertMeals(batch); // the application stops before journal.markFlushed(batch)
+		}
+		storage.close();
+
+		InMemoryStorage restarted = new InMemoryStorage(data);
+		List<MealJournal.Entry> saved = new CopyOnWriteArrayList<>();
+		WriteBehindMealWriter writer = new WriteBehindMealWriter(new MealJournal(file), restarted::insertMeals, saved::add, 1);
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (saved.size() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		writer.close();
+
+		assertEquals(2, saved.size());
+		assertEquals(committed.get(0).getId(), saved.get(0).getMeal().getId());
+		assertEquals(committed.get(1).getId(), saved.get(1).getMeal().getId());
+		assertEquals(committed, restarted.findMeals("a@b.c", EpochDays.toDate(20000), EpochDays.toDate(20000)));
+		assertEquals(0, Files.size(file));
+		restarted.close();
+	}
+
+	@Test
+	void actionBetweenBatchesWaitsForTheBatchBeingWritten() throws Exception {
+		CountDownLatch storing = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		List<MealJournal.Entry> saved = new CopyOnWriteArrayList<>();
+		WriteBehindMealWriter.MealBatchStore store = entries -> {
+			storing.countDown();
+			try {
+				commit.await();
+			} catch (InterruptedException ex) {
+				throw new SQLException(ex);
+			}
+			List<Meal> meals = new ArrayList<>();
+			for (MealJournal.Entry entry : entries) {
+				meals.add(entry.getMeal());
+			}
+			return meals;
+		};
+
+		WriteBehindMealWriter writer = new WriteBehindMealWriter(new MealJournal(dir.resolve("meals.journal")), store, saved::add, 1);
+		writer.submit("a@b.c", meal(20000, "Breakfast"));
+		assertTrue(storing.await(5, TimeUnit.SECONDS));
+
+		AtomicInteger seen = new AtomicInteger(-1);
+		Thread action = new Thread(() -> writer.runBetweenBatches(() -> seen.set(saved.size())));
+		action.start();
+		Thread.sleep(50);
+		assertEquals(-1, seen.get());
+		commit.countDown();
+		action.join(5_000);
+		writer.close();
+
+		assertEquals(1, seen.get());
+		assertEquals(1, saved.size());
+	}
+}
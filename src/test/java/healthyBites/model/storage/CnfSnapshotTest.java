@@ -0,0 +1,123 @@
+package healthyBites.model.storage;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import healthyBites.model.ConcreteModel;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Nutrition;
+import healthyBites.model.ReferenceNameIndex;
+
+/**
+ * Unit tests for {@link CnfSnapshot}.
+ * These tests check that a snapshot answers reference queries as {@link InMemoryStorage} does
+ * for the same data, with units in measure_id order, and that the model computes nutrition from it.
+ */
+class CnfSnapshotTest {
+
+	@TempDir
+	Path dir;
+
+	private static void addReferenceData(InMemoryStorage storage, CnfSnapshot.Builder builder) {
+		for (Object[] food : new Object[][] {
+				{ 3, 18, "Bread, white", "Pain, blanc" },
+				{ 1, 1, "Milk, partly skimmed, 2% M.F.", "Lait, partiellement écrémé, 2 % M.G." },
+				{ 2, 1, "Cheese, cheddar", "Fromage, cheddar" },
+				{ 1, 1, "Duplicate", "Doublon" } }) {
+			storage.addFood((int) food[0], (int) food[1], (String) food[2], (String) food[3]);
+			builder.addFood((int) food[0], (int) food[1], (String) food[2], (String) food[3]);
+		}
+		storage.addNutrient(208, "ENERGY (KILOCALORIES)", "ÉNERGIE (KILOCALORIES)", "kCal");
+		builder.addNutrient(208, "ENERGY (KILOCALORIES)", "ÉNERGIE (KILOCALORIES)", "kCal");
+		storage.addNutrient(203, "PROTEIN", "PROTÉINES", "g");
+		builder.addNutrient(203, "PROTEIN", "PROTÉINES", "g");
+		for (double[] amount : new double[][] { { 1, 208, 50 }, { 1, 203, 3.4 }, { 3, 208, 266 }, { 3, 999, 1 } }) {
+			storage.addNutrientAmount((int) amount[0], (int) amount[1], amount[2]);
+			builder.addNutrientAmount((int) amount[0], (int) amount[1], amount[2]);
+		}
+		for (Object[] measure : new Object[][] { { 10, "250ml", "250ml" }, { 20, "30g", "30g" }, { 30, "1 slice", "1 tranche" }, { 15, "100g", "100g" }, { 25, "30g", "30g" } }) {
+			storage.addMeasure((int) measure[0], (String) measure[1], (String) measure[2]);
+			builder.addMeasure((int) measure[0], (String) measure[1], (String) measure[2]);
+		}
+		for (double[] factor : new double[][] { { 1, 10, 2.58 }, { 3, 30, 0.35 }, { 3, 25, 0.3 }, { 3, 20, 0.3 }, { 2, 20, 0.3 }, { 3, 15, 1 } }) {
+			storage.addConversionFactor((int) factor[0], (int) factor[1], factor[2]);
+			builder.addConversionFactor((int) factor[0], (int) factor[1], factor[2]);
+		}
+	}
+
+	private CnfSnapshot writeAndOpen(CnfSnapshot.Builder builder) throws IOException {
+		Path file = dir.resolve("cnf.snapshot");
+		builder.write(file);
+		return CnfSnapshot.open(file);
+	}
+
+	@Test
+	void snapshotAnswersAsTheInMemoryBackend() throws IOException {
+		InMemoryStorage reference = new InMemoryStorage();
+		CnfSnapshot.Builder builder = new CnfSnapshot.Builder();
+		addReferenceData(reference, builder);
+
+		try (CnfSnapshot snapshot = writeAndOpen(builder)) {
+			assertEquals(3, snapshot.getFoodCount());
+			assertEquals(reference.findLoggableFoodNames(), snapshot.findLoggableFoodNames());
+			for (int foodId = 0; foodId <= 4; foodId++) {
+				assertEquals(reference.findAvailableUnits(foodId), snapshot.findAvailableUnits(foodId));
+				assertEquals(reference.findNutrientAmounts(foodId), snapshot.findNutrientAmounts(foodId));
+				assertEquals(reference.findFoodGroupId(foodId), snapshot.findFoodGroupId(foodId));
+				assertEquals(reference.findFoodNamesInGroupOf(foodId), snapshot.findFoodNamesInGroupOf(foodId));
+				for (int measureId : new int[] { 10, 20, 30, 40 }) {
+					assertEquals(reference.findConversionFactor(foodId, measureId), snapshot.findConversionFactor(foodId, measureId));
+				}
+				for (String measure : new String[] { "250ML", "30g", "1 slice", "cup" }) {
+					assertEquals(reference.findMeasureId(foodId, measure), snapshot.findMeasureId(foodId, measure));
+				}
+			}
+			for (String nutrient : new String[] { "protein", "ENERGY (KILOCALORIES)", "FAT" }) {
+				assertEquals(reference.findNutrientUnit(nutrient), snapshot.findNutrientUnit(nutrient));
+			}
+			ReferenceNameIndex expected = reference.loadReferenceNames(), names = snapshot.loadReferenceNames();
+			assertArrayEquals(expected.getFoods().getIds(), names.getFoods().getIds());
+			assertEquals(expected.getFoods().getNames(ReferenceNameIndex.Language.FRENCH), names.getFoods().getNames(ReferenceNameIndex.Language.FRENCH));
+			assertEquals(expected.getMeasures().getNames(ReferenceNameIndex.Language.ENGLISH), names.getMeasures().getNames(ReferenceNameIndex.Language.ENGLISH));
+		}
+	}
+
+	@Test
+	void unitsAreInMeasureIdOrderWhateverTheLoadOrder() throws IOException {
+		InMemoryStorage reference = new InMemoryStorage();
+		CnfSnapshot.Builder builder = new CnfSnapshot.Builder();
+		addReferenceData(reference, builder);
+
+		try (CnfSnapshot snapshot = writeAndOpen(builder)) {
+			assertEquals(List.of("100g", "30g", "30g"), reference.findAvailableUnits(3));
+			assertEquals(reference.findAvailableUnits(3), snapshot.findAvailableUnits(3));
+			assertEquals(20, reference.findMeasureId(3, "30g"));
+			assertEquals(20, snapshot.findMeasureId(3, "30g"));
+		}
+	}
+
+	@Test
+	void modelComputesNutritionFromTheSnapshot() throws IOException {
+		CnfSnapshot.Builder builder = new CnfSnapshot.Builder();
+		addReferenceData(new InMemoryStorage(), builder);
+		try (CnfSnapshot snapshot = writeAndOpen(builder)) {
+			ConcreteModel model = ConcreteModel.withStorage(new SnapshotReferenceStorage(new InMemoryStorage(), snapshot));
+			Nutrition nutrition = model.getFoodItemNutrtionalValue(new FoodItem("Milk, partly skimmed, 2% M.F.", 2, "250ml"));
+			assertEquals(50 * 2 * 2.58, nutrition.getNutrientValue("ENERGY (KILOCALORIES)"), 1e-9);
+			assertEquals(List.of("Milk, partly skimmed, 2% M.F.", "Bread, white"), model.getFoodNames());
+		}
+	}
+
+	@Test
+	void rejectsAFileThatIsNotASnapshot() throws IOException {
+		Path file = dir.resolve("not.snapshot");
+		Files.writeString(file, "FoodID,FoodCode\n");
+		assertThrows(IOException.class, () -> CnfSnapshot.open(file));
+	}
+}
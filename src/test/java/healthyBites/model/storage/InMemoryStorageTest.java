@@ -0,0 +1,115 @@
+package healthyBites.model.storage;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import healthyBites.model.ConcreteModel;
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.Nutrition;
+import healthyBites.model.UserProfile;
+
+/**
+ * Unit tests for {@link InMemoryStorage}.
+ * These tests run the model on the embedded backend and check that profiles, meals and
+ * nutrition behave as they do on MySQL, and that a file-backed storage survives a restart.
+ */
+class InMemoryStorageTest {
+
+	private static final String EMAIL = "for@test.com";
+
+	@TempDir
+	Path dir;
+
+	private static InMemoryStorage withReferenceData(InMemoryStorage storage) {
+		storage.addFood(1, 1, "Milk, partly skimmed, 2% M.F.", "Lait, partiellement écrémé, 2 % M.G.");
+		storage.addFood(2, 1, "Cheese, cheddar", "Fromage, cheddar");
+		storage.addFood(3, 18, "Bread, white", "Pain, blanc");
+		storage.addNutrient(208, "ENERGY (KILOCALORIES)", "ÉNERGIE (KILOCALORIES)", "kCal");
+		storage.addNutrient(203, "PROTEIN", "PROTÉINES", "g");
+		storage.addNutrientAmount(1, 208, 50);
+		storage.addNutrientAmount(1, 203, 3.4);
+		storage.addNutrientAmount(3, 208, 266);
+		storage.addMeasure(10, "250ml", "250ml");
+		storage.addMeasure(20, "30g", "30g");
+		storage.addMeasure(30, "1 slice", "1 tranche");
+		storage.addConversionFactor(1, 10, 2.58);
+		storage.addConversionFactor(3, 20, 0.3);
+		storage.addConversionFactor(3, 30, 0.35);
+		return storage;
+	}
+
+	private static UserProfile profile() {
+		return new UserProfile("Tester", "Male", EMAIL, "metric", EpochDays.toDate(7000), 180, 80);
+	}
+
+	private static Meal meal(int epochDay, String type) {
+		return new Meal(EpochDays.toDate(epochDay), List.of(new FoodItem("Milk, partly skimmed, 2% M.F.", 1, "250ml")), type);
+	}
+
+	@Test
+	void modelComputesNutritionFromTheEmbeddedReferenceData() {
+		ConcreteModel model = ConcreteModel.withStorage(withReferenceData(new InMemoryStorage()));
+		assertEquals(List.of("Milk, partly skimmed, 2% M.F.", "Bread, white"), model.getFoodNames());
+		assertEquals(List.of("30g"), model.getAvailableUnits("Bread, white"));
+		assertEquals("kCal", model.getNutrientUnit("energy (kilocalories)"));
+		assertEquals("Milk, partly skimmed, 2% M.F.", model.resolveFoodName("lait partiellement ecreme 2 % m.g."));
+
+		Nutrition nutrition = model.getFoodItemNutrtionalValue(new FoodItem("Milk, partly skimmed, 2% M.F.", 2, "250ml"));
+		assertEquals(50 * 2 * 2.58, nutrition.getNutrientValue("ENERGY (KILOCALORIES)"), 1e-9);
+		assertThrows(IllegalArgumentException.class,
+			() -> model.getFoodItemNutrtionalValue(new FoodItem("Bread, white", 1, "250ml")));
+	}
+
+	@Test
+	void mealsAreStoredWithIdsAndQueriedByDayAndPage() {
+		InMemoryStorage storage = withReferenceData(new InMemoryStorage());
+		ConcreteModel model = ConcreteModel.withStorage(storage);
+		model.setProfile(profile());
+		model.addMeal(meal(20001, "Lunch"), EMAIL);
+		model.addMeal(meal(20000, "Breakfast"), EMAIL);
+		model.addMeal(meal(20001, "Snack"), EMAIL);
+
+		List<Meal> all = model.getMealsByTimeFrame(EMAIL, EpochDays.toDate(20000), EpochDays.toDate(20001));
+		assertEquals(List.of("Breakfast", "Lunch", "Snack"), all.stream().map(Meal::getType).toList());
+		assertEquals(1, all.get(1).getFoodItems().get(0).getFoodId());
+		assertEquals(10, all.get(1).getFoodItems().get(0).getMeasureId());
+
+		List<Meal> first = model.getMealsPage(EMAIL, null, 2);
+		assertEquals(List.of("Snack", "Lunch"), first.stream().map(Meal::getType).toList());
+		assertEquals(List.of("Breakfast"), model.getMealsPage(EMAIL, first.get(1), 2).stream().map(Meal::getType).toList());
+
+		assertTrue(model.mealExists(EMAIL.toUpperCase(), EpochDays.toDate(20000), "breakfast"));
+		assertFalse(model.mealExists(EMAIL, EpochDays.toDate(20000), "Dinner"));
+
+		model.deleteProfile(EMAIL);
+		assertTrue(model.getMealsPage(EMAIL, null, 10).isEmpty());
+		assertEquals(0, storage.insertMeal(EMAIL, meal(20002, "Dinner")).getId());
+	}
+
+	@Test
+	void fileBackedStorageSurvivesARestart() throws Exception {
+		Path file = dir.resolve("healthyBites.csv");
+		try (InMemoryStorage storage = new InMemoryStorage(file)) {
+			storage.insertProfile(profile());
+			storage.insertMeal(EMAIL, meal(20000, "Breakfast"));
+			storage.insertMeal(EMAIL, new Meal(EpochDays.toDate(20000), List.of(new FoodItem("Bread, white", 1, null)), "Snack"));
+			UserProfile heavier = profile();
+			heavier.setWeight(82);
+			storage.updateProfile(heavier);
+		}
+
+		try (InMemoryStorage storage = new InMemoryStorage(file)) {
+			assertEquals(82, storage.findProfile(EMAIL).getWeight());
+			List<Meal> meals = storage.findMeals(EMAIL, EpochDays.toDate(0), EpochDays.toDate(30000));
+			assertEquals(meal(20000, "Breakfast").getFoodItems(), meals.get(0).getFoodItems());
+			assertNull(meals.get(1).getFoodItems().get(0).getUnit());
+			assertEquals(3, storage.insertMeal(EMAIL, meal(20001, "Lunch")).getId());
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package healthyBites.model.storage;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import healthyBites.model.EpochDays;
+import healthyBites.model.FoodItem;
+import healthyBites.model.Meal;
+import healthyBites.model.MealJournal;
+import healthyBites.model.UserProfile;
+
+/**
+ * Unit tests for {@link SegmentMealStore}.
+ * These tests check that range, page and existence queries return what {@link InMemoryStorage}
+ * returns for the same meals, that the segment files survive a restart and a torn write, and
+ * that a batch that cannot be stored for one user leaves no meal of any user behind, that a
+ * user's segment file is deleted with their meals, that a
+ * replayed meal already stored under its journal key is not stored again, and that only a
+ * bounded number of segments stay open however many users log meals.
+ */
+class SegmentMealStoreTest {
+
+	private static final String EMAIL = "for@test.com";
+	private static final String[] TYPES = { "Breakfast", "Lunch", "Dinner", "Snack" };
+
+	@TempDir
+	Path dir;
+
+	private static List<Meal> randomMeals(int count, long seed) {
+		Random random = new Random(seed);
+		List<Meal> meals = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			List<FoodItem> items = new ArrayList<>();
+			for (int j = 1 + random.nextInt(4); j > 0; j--) {
+				int foodId = 1 + random.nextInt(50);
+				items.add(new FoodItem(foodId, "Food " + foodId, 0.5 + random.nextInt(4), 100 + foodId, foodId % 2 == 0 ? "100g" : "250ml"));
+			}
+			// mostly in date order, sometimes logged for an earlier day
+			int day = 19000 + i / 3 - (random.nextInt(10) == 0 ? random.nextInt(30) : 0);
+			meals.add(new Meal(EpochDays.toDate(day), items, TYPES[random.nextInt(TYPES.length)]));
+		}
+		return meals;
+	}
+
+	@Test
+	void queriesMatchTheInMemoryBackend() throws IOException {
+		InMemoryStorage reference = new InMemoryStorage();
+		reference.insertProfile(new UserProfile("Tester", "Male", EMAIL, "metric", EpochDays.toDate(7000), 180, 80));
+		try (SegmentMealStore store = new SegmentMealStore(dir)) {
+			for (Meal meal : randomMeals(2000, 3)) {
+				assertEquals(reference.insertMeal(EMAIL, meal), store.insertMeal(EMAIL, meal));
+			}
+
+			for (int[] range : new int[][] { { 19000, 19666 }, { 19100, 19130 }, { 19400, 19400 }, { 18000, 18500 } }) {
+				assertEquals(reference.findMeals(EMAIL, EpochDays.toDate(range[0]), EpochDays.toDate(range[1])),
+					store.findMeals(EMAIL, EpochDays.toDate(range[0]), EpochDays.toDate(range[1])));
+			}
+
+			Meal cursor = null;
+			do {
+				List<Meal> expected = reference.findMealsPage(EMAIL, cursor, 50);
+				assertEquals(expected, store.findMealsPage(EMAIL, cursor, 50));
+				cursor = expected.isEmpty() ? null : expected.get(expected.size() - 1);
+			} while (cursor != null);
+
+			for (int day = 19300; day < 19310; day++) {
+				for (String type : TYPES) {
+					assertEquals(reference.mealExists(EMAIL, EpochDays.toDate(day), type),
+						store.mealExists(EMAIL, EpochDays.toDate(day), type));
+				}
+			}
+			assertTrue(store.findMeals("other@test.com", EpochDays.toDate(0), EpochDays.toDate(30000)).isEmpty());
+		}
+	}
+
+	@Test
+	void segmentsSurviveARestartAndATornWrite() throws IOException {
+		List<Meal> meals = randomMeals(10, 5);
+		try (SegmentMealStore store = new SegmentMealStore(dir)) {
+			for (Meal meal : meals) {
+				store.insertMeal(EMAIL, meal);
+			}
+		}
+		try (var files = Files.list(dir)) {
+			Path segment = files.filter(p -> p.toString().endsWith(".seg")).findFirst().orElseThrow();
+			Files.write(segment, new byte[SegmentMealStore.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+		}
+
+		try (SegmentMealStore store = new SegmentMealStore(dir)) {
+			List<Meal> stored = store.findMeals(EMAIL, EpochDays.toDate(0), EpochDays.toDate(30000));
+			assertEquals(meals.size(), stored.size());
+			assertEquals(11, store.insertMeal(EMAIL, meals.get(0)).getId());
+			Meal again = store.findMeals(EMAIL, meals.get(0).getDate(), meals.get(0).getDate()).stream()
+				.filter(m -> m.getId() == 11).findFirst().orElseThrow();
+			assertEquals(meals.get(0).getFoodItems(), again.getFoodItems());
+
+			store.deleteMeals(EMAIL);
+			assertTrue(store.findMealsPage(EMAIL, null, 10).isEmpty());
+			try (var files = Files.list(dir)) {
+				assertFalse(files.anyMatch(p -> p.toString().endsWith(".seg")));
+			}
+			assertEquals(12, store.insertMeal(EMAIL, meals.get(1)).getId());
+			assertEquals(1, store.findMealsPage(EMAIL, null, 10).size());
+		}
+	}
+
+	@Test
+	void aFailedBatchStoresNoMealOfAnyUser() throws IOException {
+		List<Meal> meals = randomMeals(4, 7);
+		List<MealJournal.Entry> entries = new ArrayList<>();
+		try (MealJournal journal = new MealJournal(dir.resolve("meals.journal"))) {
+			entries.add(journal.append(EMAIL, meals.get(0)));
+			entries.add(journal.append(EMAIL, meals.get(1)));
+			entries.add(journal.append("other@test.com", meals.get(2)));
+		}
+		// the other user's segment cannot be opened, so their part of the batch fails after ours was written
+		String other = Base64.getUrlEncoder().withoutPadding().encodeToString("other@test.com".getBytes(StandardCharsets.UTF_8));
+		Files.createDirectory(dir.resolve(other + ".seg"));
+
+		try (SegmentMealStore store = new SegmentMealStore(dir)) {
+			store.insertMeal(EMAIL, meals.get(3));
+			assertThrows(StorageException.class, () -> store.insertMeals(entries));
+			assertEquals(1, store.findMeals(EMAIL, EpochDays.toDate(0), EpochDays.toDate(30000)).size());
+			assertEquals(1, store.findMealsPage(EMAIL, null, 10).size());
+		}
+		try (SegmentMealStore store = new SegmentMealStore(dir)) {
+			assertEquals(1, store.findMeals(EMAIL, EpochDays.toDate(0), EpochDays.toDate(30000)).size());
+		}
+	}
+
+	@Test
+	void aReplayedMealIsStoredOnce() throws IOException {
+		List<Meal> meals = randomMeals(2, 11);
+		Path file = dir.resolve("meals.journal");
+		List<Meal> committed;
+		try (MealJournal journal = new MealJournal(file);
+		     SegmentMealStore store = new SegmentMealStore(dir.resolve("segments"))) {
+			journal.replay();
+			committed = store.insertMeals(List.of(journal.append(EMAIL, meals.get(0)), journal.append(EMAIL, meals.get(1))));
+		}
+
+		try (MealJournal journal = new MealJournal(file);
+		     SegmentMealStore store = new SegmentMealStore(dir.resolve("segments"))) {
+			List<MealJournal.Entry> replayed = journal.replay();
+			assertEquals(committed, store.insertMeals(replayed));
+			assertEquals(2, store.findMealsPage(EMAIL, null, 10).size());
+			assertEquals(3, store.insertMeal(EMAIL, meals.get(0)).getId());
+		}
+	}
+
+	@Test
+	void onlyRecentlyUsedSegmentsStayOpen() throws IOException {
+		List<Meal> meals = randomMeals(3, 9);
+		int users = SegmentMealStore.MAX_OPEN_SEGMENTS * 2;
+		try (SegmentMealStore store = new SegmentMealStore(dir)) {
+			for (int user = 0; user < users; user++) {
+				for (Meal meal : meals) {
+					store.insertMeal("user" + user + "@test.com", meal);
+				}
+			}
+			assertEquals(SegmentMealStore.MAX_OPEN_SEGMENTS, store.openSegmentCount());
+
+			for (int user = 0; user < users; user++) {
+				assertEquals(meals.size(), store.findMealsPage("user" + user + "@test.com", null, 10).size());
+			}
+			store.insertMeal("user0@test.com", meals.get(0)); // reopened, and appended after its records
+			assertEquals(meals.size() + 1, store.findMeals("user0@test.com", EpochDays.toDate(0), EpochDays.toDate(30000)).size());
+			assertEquals(SegmentMealStore.MAX_OPEN_SEGMENTS, store.openSegmentCount());
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package healthyBites.observers;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RollingDailyWindow}.
+ * These tests check that days fall out of the window as it rolls forward, that a gap longer
+ * than the window empties it, that meals added for past days count only while those days are
+ * still inside the window, and that an empty window averages to zero.
+ */
+class RollingDailyWindowTest {
+
+	private static final long DAY = 20000;
+
+	@Test
+	void daysFallOutAsTheWindowRollsOver() {
+		RollingDailyWindow window = new RollingDailyWindow(3, 2);
+		window.add(DAY, new double[] { 10, 1 });
+		window.add(DAY, new double[] { 20, 1 });
+		window.add(DAY + 1, new double[] { 60, 4 });
+		assertEquals(2, window.getActiveDays());
+		assertArrayEquals(new double[] { 45, 3 }, window.getAveragePerLoggedDay(), 1e-9);
+
+		window.add(DAY + 3, new double[] { 30, 2 });
+		assertEquals(2, window.getActiveDays());
+		assertArrayEquals(new double[] { 45, 3 }, window.getAveragePerLoggedDay(), 1e-9);
+
+		window.advanceTo(DAY + 4);
+		assertEquals(1, window.getActiveDays());
+		assertArrayEquals(new double[] { 30, 2 }, window.getAveragePerLoggedDay(), 1e-9);
+	}
+
+	@Test
+	void aGapLongerThanTheWindowEmptiesIt() {
+		RollingDailyWindow window = new RollingDailyWindow(7, 1);
+		for (long day = DAY; day < DAY + 7; day++) {
+			window.add(day, new double[] { 5 });
+		}
+		assertEquals(7, window.getActiveDays());
+
+		window.advanceTo(DAY + 100);
+		assertEquals(0, window.getActiveDays());
+		assertArrayEquals(new double[] { 0 }, window.getAveragePerLoggedDay());
+
+		// a slot reused after the jump holds only the new day
+		window.add(DAY + 100, new double[] { 8 });
+		assertEquals(1, window.getActiveDays());
+		assertArrayEquals(new double[] { 8 }, window.getAveragePerLoggedDay(), 1e-9);
+	}
+
+	@Test
+	void pastDaysCountOnlyInsideTheWindow() {
+		RollingDailyWindow window = new RollingDailyWindow(7, 1);
+		window.add(DAY + 10, new double[] { 10 });
+		window.add(DAY + 4, new double[] { 20 });
+		assertEquals(2, window.getActiveDays());
+		assertArrayEquals(new double[] { 15 }, window.getAveragePerLoggedDay(), 1e-9);
+
+		window.add(DAY + 3, new double[] { 1000 });
+		window.add(DAY - 50, new double[] { 1000 });
+		assertEquals(2, window.getActiveDays());
+		assertArrayEquals(new double[] { 15 }, window.getAveragePerLoggedDay(), 1e-9);
+
+		window.advanceTo(DAY + 11);
+		assertEquals(1, window.getActiveDays());
+		assertArrayEquals(new double[] { 10 }, window.getAveragePerLoggedDay(), 1e-9);
+	}
+
+	@Test
+	void anEmptyWindowAveragesToZero() {
+		RollingDailyWindow window = new RollingDailyWindow(30, 3);
+		assertEquals(0, window.getActiveDays());
+		assertArrayEquals(new double[3], window.getAveragePerLoggedDay());
+
+		window.advanceTo(DAY);
+		assertArrayEquals(new double[3], window.getAveragePerLoggedDay());
+
+		window.add(DAY, new double[] { 1, 2, 3 });
+		window.clear();
+		assertEquals(0, window.getActiveDays());
+		assertArrayEquals(new double[3], window.getAveragePerLoggedDay());
+		assertThrows(IllegalArgumentException.class, () -> window.add(DAY, new double[2]));
+	}
+}
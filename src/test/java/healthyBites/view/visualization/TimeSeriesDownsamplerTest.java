@@ -0,0 +1,87 @@
+package healthyBites.view.visualization;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TimeSeriesDownsampler}.
+ * These tests check that downsampling keeps the number of points bounded while
+ * preserving endpoints and extremes, and that visible slices are located correctly.
+ */
+class TimeSeriesDownsamplerTest {
+
+	/** One day in milliseconds. */
+	private static final long DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * Builds a series of one point per day with a sine wave and a single spike.
+	 * @param n The number of points.
+	 * @param spikeAt The index of the spike.
+	 * @param timestamps Output array for the timestamps.
+	 * @return The values.
+	 */
+	private double[] sineWithSpike(int n, int spikeAt, long[] timestamps) {
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			timestamps[i] = 1_700_000_000_000L + i * DAY;
+			values[i] = Math.sin(i / 10.0) * 10;
+		}
+		values[spikeAt] = 1000;
+		return values;
+	}
+
+	/**
+	 * Tests that a long series is reduced to exactly the threshold, keeping the
+	 * first and last points and the spike.
+	 */
+	@Test
+	void testDownsampleBoundsPointsAndKeepsExtremes() {
+		int n = 5000;
+		long[] timestamps = new long[n];
+		double[] values = sineWithSpike(n, 1234, timestamps);
+
+		int[] kept = TimeSeriesDownsampler.downsample(timestamps, values, 0, n, 200);
+
+		assertEquals(200, kept.length, "Downsampled series should have exactly the threshold number of points");
+		assertEquals(0, kept[0], "First point should always be kept");
+		assertEquals(n - 1, kept[kept.length - 1], "Last point should always be kept");
+		for (int i = 1; i < kept.length; i++) {
+			assertTrue(kept[i] > kept[i - 1], "Kept indices should be strictly ascending");
+		}
+		boolean spikeKept = false;
+		for (int index : kept) {
+			spikeKept |= index == 1234;
+		}
+		assertTrue(spikeKept, "The spike should survive downsampling");
+	}
+
+	/**
+	 * Tests that series shorter than the threshold are returned unchanged.
+	 */
+	@Test
+	void testShortSeriesIsNotReduced() {
+		long[] timestamps = new long[50];
+		double[] values = sineWithSpike(50, 10, timestamps);
+
+		int[] kept = TimeSeriesDownsampler.downsample(timestamps, values, 5, 45, 200);
+
+		assertEquals(40, kept.length);
+		assertEquals(5, kept[0]);
+		assertEquals(44, kept[39]);
+	}
+
+	/**
+	 * Tests that the visible slice covers the requested range plus one point on each side.
+	 */
+	@Test
+	void testVisibleSliceIncludesNeighbours() {
+		long[] timestamps = new long[100];
+		sineWithSpike(100, 0, timestamps);
+
+		int[] slice = TimeSeriesDownsampler.visibleSlice(timestamps, 100, timestamps[20] + 1, timestamps[30]);
+		assertArrayEquals(new int[] { 20, 32 }, slice, "Slice should start one before the range and end one after it");
+
+		int[] all = TimeSeriesDownsampler.visibleSlice(timestamps, 100, Long.MIN_VALUE, Long.MAX_VALUE - 1);
+		assertArrayEquals(new int[] { 0, 100 }, all);
+	}
+}